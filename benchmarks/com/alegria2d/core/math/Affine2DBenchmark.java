@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link Affine2D} with {@link Matrix3D} in a typical scene workload: each object builds its local transform
+ * from position, angle and scale, composes it with its parent transform and transforms the four corners of its quad.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class Affine2DBenchmark {
+   @Param({ "1000", "10000" })
+   public int objects;
+
+   private float[] trs;
+   private float[] corners = { -16, -16, 16, -16, 16, 16, -16, 16 };
+   private float[] out = new float[8];
+
+   private Affine2D parent;
+   private Affine2D local = new Affine2D();
+   private Affine2D world = new Affine2D();
+
+   private Matrix3D parentMatrix;
+   private Matrix3D localMatrix = new Matrix3D();
+   private Matrix3D worldMatrix = new Matrix3D();
+   private Vector2D point = new Vector2D();
+
+   @Setup(Level.Trial)
+   public void setup() {
+      trs = new float[objects * 4];
+      for (int i = 0; i < trs.length; i++)
+         trs[i] = (i * 7919) % 360;
+
+      parent = Affine2D.newTRS(400, 300, 0.5, 2, 2);
+      parentMatrix = parent.toMatrix3D();
+   }
+
+   @Benchmark
+   public float matrix3D() {
+      float sum = 0;
+      for (int i = 0; i < objects; i++) {
+         int p = i * 4;
+         double angle = trs[p + 2];
+         float s = (float) Math.sin(angle);
+         float c = (float) Math.cos(angle);
+         float scale = trs[p + 3] / 360;
+
+         localMatrix.set(0, 0, c * scale).set(0, 1, -s * scale).set(0, 2, trs[p])
+                    .set(1, 0, s * scale).set(1, 1, c * scale).set(1, 2, trs[p + 1])
+                    .set(2, 0, 0).set(2, 1, 0).set(2, 2, 1);
+         parentMatrix.multiply(localMatrix, worldMatrix);
+
+         for (int k = 0; k < 8; k += 2) {
+            worldMatrix.multiply(point.set(corners[k], corners[k + 1]), point);
+            sum += point.getX() + point.getY();
+         }
+      }
+      return sum;
+   }
+
+   @Benchmark
+   public float affine2D() {
+      float sum = 0;
+      for (int i = 0; i < objects; i++) {
+         int p = i * 4;
+         float scale = trs[p + 3] / 360;
+         local.setTRS(trs[p], trs[p + 1], trs[p + 2], scale, scale);
+         parent.multiply(local, world).transform(corners, 0, out, 0, 4);
+
+         for (int k = 0; k < 8; k++)
+            sum += out[k];
+      }
+      return sum;
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder().include(Affine2DBenchmark.class.getSimpleName()).build()).run();
+   }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the {@link FastTrig} approximations, and the fast {@link Vector2D} rotation methods, with the {@link Math}
+ * functions. Each operation runs over an array of angles or vectors.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FastTrigBenchmark {
+   private static final int SIZE = 4096;
+
+   private float[] angles;
+   private float[] x;
+   private float[] y;
+   private float[] dest;
+   private Vector2D[] vectors;
+
+   @Setup(Level.Trial)
+   public void setup() {
+      Random random = new Random(42);
+      angles = new float[SIZE];
+      x = new float[SIZE];
+      y = new float[SIZE];
+      dest = new float[SIZE];
+      vectors = new Vector2D[SIZE];
+      for (int i = 0; i < SIZE; i++) {
+         angles[i] = random.nextFloat() * 20 - 10;
+         x[i] = random.nextFloat() * 2 - 1;
+         y[i] = random.nextFloat() * 2 - 1;
+         vectors[i] = new Vector2D(x[i], y[i]);
+      }
+   }
+
+   @Benchmark
+   public float[] mathSin() {
+      for (int i = 0; i < SIZE; i++)
+         dest[i] = (float) Math.sin(angles[i]);
+      return dest;
+   }
+
+   @Benchmark
+   public float[] fastSin() {
+      for (int i = 0; i < SIZE; i++)
+         dest[i] = FastTrig.sin(angles[i]);
+      return dest;
+   }
+
+   @Benchmark
+   public float[] mathAtan2() {
+      for (int i = 0; i < SIZE; i++)
+         dest[i] = (float) Math.atan2(y[i], x[i]);
+      return dest;
+   }
+
+   @Benchmark
+   public float[] fastAtan2() {
+      for (int i = 0; i < SIZE; i++)
+         dest[i] = FastTrig.atan2(y[i], x[i]);
+      return dest;
+   }
+
+   @Benchmark
+   public float[] pseudoAngle() {
+      for (int i = 0; i < SIZE; i++)
+         dest[i] = FastTrig.pseudoAngle(x[i], y[i]);
+      return dest;
+   }
+
+   @Benchmark
+   public float[] mathAcos() {
+      for (int i = 0; i < SIZE; i++)
+         dest[i] = (float) Math.acos(x[i]);
+      return dest;
+   }
+
+   @Benchmark
+   public float[] fastAcos() {
+      for (int i = 0; i < SIZE; i++)
+         dest[i] = FastTrig.acos(x[i]);
+      return dest;
+   }
+
+   @Benchmark
+   public Vector2D[] rotateMe() {
+      // Rotating back and forth keeps the vectors bounded across invocations
+      for (int i = 0; i < SIZE; i++)
+         vectors[i].rotateMe(angles[i]).rotateMe(-angles[i]);
+      return vectors;
+   }
+
+   @Benchmark
+   public Vector2D[] rotateMeFast() {
+      for (int i = 0; i < SIZE; i++)
+         vectors[i].rotateMeFast(angles[i]).rotateMeFast(-angles[i]);
+      return vectors;
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder().include(FastTrigBenchmark.class.getSimpleName()).build()).run();
+   }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the deterministic {@link FixedVector2D} and {@link FixedMatrix3D} with the float {@link Vector2D} and
+ * {@link Matrix3D}, in the operations of a simulation step. Every benchmark uses the allocation free "Me" or
+ * destination variants.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FixedPointBenchmark {
+   private Vector2D position;
+   private Vector2D velocity;
+   private Vector2D scratch;
+   private Matrix3D transform;
+   private Matrix3D other;
+   private Matrix3D matrixScratch;
+   private float elapsed;
+
+   private FixedVector2D fixedPosition;
+   private FixedVector2D fixedVelocity;
+   private FixedVector2D fixedScratch;
+   private FixedMatrix3D fixedTransform;
+   private FixedMatrix3D fixedOther;
+   private FixedMatrix3D fixedMatrixScratch;
+   private int fixedElapsed;
+   private int fixedAngle;
+
+   @Setup(Level.Trial)
+   public void setup() {
+      position = new Vector2D(120, 80);
+      velocity = new Vector2D(3, -4);
+      scratch = new Vector2D();
+      transform = new Matrix3D(0.8f, -0.6f, 10, 0.6f, 0.8f, 20, 0, 0, 1);
+      other = new Matrix3D(2, 0, -5, 0, 2, 7, 0, 0, 1);
+      matrixScratch = new Matrix3D();
+      elapsed = 0.016f;
+
+      fixedPosition = new FixedVector2D(position);
+      fixedVelocity = new FixedVector2D(velocity);
+      fixedScratch = new FixedVector2D();
+      fixedTransform = new FixedMatrix3D(transform);
+      fixedOther = new FixedMatrix3D(other);
+      fixedMatrixScratch = new FixedMatrix3D();
+      fixedElapsed = Fixed.fromFloat(elapsed);
+      fixedAngle = Fixed.fromFloat(0.3f);
+   }
+
+   /**
+    * A movement update: position + velocity * elapsed.
+    */
+   @Benchmark
+   public Vector2D floatMove() {
+      return scratch.set(velocity).multiplyMe(elapsed).plusMe(position);
+   }
+
+   @Benchmark
+   public FixedVector2D fixedMove() {
+      return fixedScratch.set(fixedVelocity).multiplyMe(fixedElapsed).plusMe(fixedPosition);
+   }
+
+   @Benchmark
+   public Vector2D floatRotate() {
+      return scratch.set(velocity).rotateMe(0.3);
+   }
+
+   @Benchmark
+   public FixedVector2D fixedRotate() {
+      return fixedScratch.set(fixedVelocity).rotateMe(fixedAngle);
+   }
+
+   @Benchmark
+   public Vector2D floatNormalize() {
+      return scratch.set(velocity).normalizeMe();
+   }
+
+   @Benchmark
+   public FixedVector2D fixedNormalize() {
+      return fixedScratch.set(fixedVelocity).normalizeMe();
+   }
+
+   @Benchmark
+   public float floatAngle() {
+      return velocity.getAngleX();
+   }
+
+   @Benchmark
+   public int fixedAngle() {
+      return fixedVelocity.getAngleX();
+   }
+
+   @Benchmark
+   public Vector2D floatTransformPoint() {
+      return transform.multiply(position, scratch);
+   }
+
+   @Benchmark
+   public FixedVector2D fixedTransformPoint() {
+      return fixedTransform.multiply(fixedPosition, fixedScratch);
+   }
+
+   @Benchmark
+   public Matrix3D floatMultiply() {
+      return transform.multiply(other, matrixScratch);
+   }
+
+   @Benchmark
+   public FixedMatrix3D fixedMultiply() {
+      return fixedTransform.multiply(fixedOther, fixedMatrixScratch);
+   }
+
+   @Benchmark
+   public Matrix3D floatInverse() {
+      return transform.inverse(matrixScratch);
+   }
+
+   @Benchmark
+   public FixedMatrix3D fixedInverse() {
+      return fixedTransform.inverse(fixedMatrixScratch);
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder().include(FixedPointBenchmark.class.getSimpleName()).build()).run();
+   }
+}
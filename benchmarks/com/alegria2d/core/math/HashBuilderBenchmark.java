@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures {@link HashBuilder}, both directly and through the hash codes of the math classes that use it.
+ * <p>
+ * The lookup benchmarks search every cell of a 256 x 256 grid, in random order, in a {@link HashMap}, with keys hashed
+ * by the simple and by the strong builders, to show the cost of clustered hashes.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HashBuilderBenchmark {
+   private static final int GRID_SIZE = 256;
+
+   /**
+    * A grid cell key.
+    */
+   public static class Cell {
+      private final int x;
+      private final int y;
+      private final boolean strong;
+
+      public Cell(int x, int y, boolean strong) {
+         this.x = x;
+         this.y = y;
+         this.strong = strong;
+      }
+
+      @Override
+      public boolean equals(Object obj) {
+         if (obj == null || obj.getClass() != getClass())
+            return false;
+
+         Cell other = (Cell) obj;
+         return x == other.x && y == other.y;
+      }
+
+      @Override
+      public int hashCode() {
+         return strong ? HashBuilder.newStrong().add(x).add(y).hashCode() : new HashBuilder(x).add(y).hashCode();
+      }
+   }
+
+   private Vector2D vector;
+   private Matrix3D matrix;
+   private HashBuilder builder;
+   private HashBuilder strongBuilder;
+   private int cellX;
+   private int cellY;
+   private float[] values;
+   private byte[] bytes;
+   private Map<Cell, Cell> simpleCells;
+   private Map<Cell, Cell> strongCells;
+   private Cell[] simpleKeys;
+   private Cell[] strongKeys;
+
+   @Setup(Level.Trial)
+   public void setup() {
+      vector = new Vector2D(120.5f, -80.25f);
+      matrix = new Matrix3D(0.8f, -0.6f, 10, 0.6f, 0.8f, 20, 0, 0, 1);
+      builder = new HashBuilder();
+      strongBuilder = HashBuilder.newStrong();
+      cellX = 12;
+      cellY = 34;
+      values = new float[64];
+      for (int i = 0; i < values.length; i++)
+         values[i] = i * 0.5f;
+      bytes = new byte[256];
+      for (int i = 0; i < bytes.length; i++)
+         bytes[i] = (byte) i;
+
+      simpleCells = new HashMap<Cell, Cell>();
+      strongCells = new HashMap<Cell, Cell>();
+      simpleKeys = new Cell[GRID_SIZE * GRID_SIZE];
+      strongKeys = new Cell[GRID_SIZE * GRID_SIZE];
+      for (int i = 0; i < simpleKeys.length; i++) {
+         simpleKeys[i] = new Cell(i / GRID_SIZE, i % GRID_SIZE, false);
+         strongKeys[i] = new Cell(i / GRID_SIZE, i % GRID_SIZE, true);
+         simpleCells.put(simpleKeys[i], simpleKeys[i]);
+         strongCells.put(strongKeys[i], strongKeys[i]);
+      }
+
+      // Looks up the cells in a random order, as a spatial query would
+      Random random = new Random(42);
+      for (int i = simpleKeys.length - 1; i > 0; i--) {
+         int j = random.nextInt(i + 1);
+         Cell swap = simpleKeys[i];
+         simpleKeys[i] = simpleKeys[j];
+         simpleKeys[j] = swap;
+         swap = strongKeys[i];
+         strongKeys[i] = strongKeys[j];
+         strongKeys[j] = swap;
+      }
+   }
+
+   @Benchmark
+   public int vectorHashCode() {
+      return vector.hashCode();
+   }
+
+   @Benchmark
+   public int matrixHashCode() {
+      return matrix.hashCode();
+   }
+
+   /**
+    * A grid cell key, built with a new builder, as hashCode() methods do.
+    */
+   @Benchmark
+   public int gridCell() {
+      return new HashBuilder(cellX).add(cellY).hashCode();
+   }
+
+   /**
+    * The same key, reusing a builder.
+    */
+   @Benchmark
+   public int gridCellReset() {
+      builder.reset();
+      return builder.add(cellX).add(cellY).hashCode();
+   }
+
+   @Benchmark
+   public int gridCellStrong() {
+      return HashBuilder.newStrong().add(cellX).add(cellY).hashCode();
+   }
+
+   @Benchmark
+   public int gridCellStrongReset() {
+      strongBuilder.reset();
+      return strongBuilder.add(cellX).add(cellY).hashCode();
+   }
+
+   /**
+    * Both coordinates packed in a single int, spread by the murmur3 finalizer.
+    */
+   @Benchmark
+   public int gridCellMix() {
+      return HashBuilder.mix(cellX << 16 | cellY);
+   }
+
+   @Benchmark
+   @OutputTimeUnit(TimeUnit.MICROSECONDS)
+   public int gridLookupSimple() {
+      int found = 0;
+      for (Cell key : simpleKeys)
+         if (simpleCells.get(key) != null)
+            found++;
+      return found;
+   }
+
+   @Benchmark
+   @OutputTimeUnit(TimeUnit.MICROSECONDS)
+   public int gridLookupStrong() {
+      int found = 0;
+      for (Cell key : strongKeys)
+         if (strongCells.get(key) != null)
+            found++;
+      return found;
+   }
+
+   @Benchmark
+   public int byteArray() {
+      builder.reset();
+      return builder.add(bytes).hashCode();
+   }
+
+   @Benchmark
+   public int byteArrayStrong() {
+      strongBuilder.reset();
+      return strongBuilder.add(bytes).hashCode();
+   }
+
+   @Benchmark
+   public int floatArray() {
+      builder.reset();
+      return builder.add(values).hashCode();
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder().include(HashBuilderBenchmark.class.getSimpleName()).build()).run();
+   }
+}
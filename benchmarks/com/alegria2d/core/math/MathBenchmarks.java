@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the whole <code>core.math</code> benchmark suite from the command line, with the GC profiler, and writes the
+ * results as JSON:
+ * 
+ * <pre>
+ * java -cp &lt;classpath&gt; com.alegria2d.core.math.MathBenchmarks [JMH options] [benchmark regexps]
+ * </pre>
+ * 
+ * Any JMH command line option can be given. The most useful ones are:
+ * <ul>
+ * <li><code>-rff file.json</code>: the result file. By default, {@value #DEFAULT_RESULT};</li>
+ * <li>one or more regular expressions, to run only some benchmarks, such as <code>Vector2DBenchmark</code>. By
+ * default, every benchmark in this package runs;</li>
+ * <li><code>-f</code>, <code>-wi</code> and <code>-i</code>: forks, warmup and measurement iterations, for a quicker
+ * run.</li>
+ * </ul>
+ * The JSON files of two releases can be compared with any JSON diff tool, or uploaded to a JMH results visualizer. The
+ * GC profiler adds the <code>gc.alloc.rate.norm</code> secondary result, the bytes allocated by each operation.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public final class MathBenchmarks {
+   /**
+    * The result file used when no <code>-rff</code> option is given.
+    */
+   public static final String DEFAULT_RESULT = "core-math-benchmarks.json";
+
+   private static final String PACKAGE_REGEXP = "com\\.alegria2d\\.core\\.math\\..*";
+
+   private MathBenchmarks() {
+   }
+
+   public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+      CommandLineOptions commandLine = new CommandLineOptions(args);
+      OptionsBuilder options = new OptionsBuilder();
+      options.parent(commandLine);
+      options.addProfiler(GCProfiler.class);
+      options.resultFormat(ResultFormatType.JSON);
+
+      if (commandLine.getIncludes().isEmpty())
+         options.include(PACKAGE_REGEXP);
+      if (!commandLine.getResult().hasValue())
+         options.result(DEFAULT_RESULT);
+
+      new Runner(options.build()).run();
+   }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures each {@link MathKernels} operation with the scalar and the Vector API kernels. The speedup of a kernel is
+ * the ratio between its <code>scalar</code> and <code>vector</code> scores.
+ * <p>
+ * The forked JVMs are started with the Vector API module, so this benchmark needs a JDK with
+ * <code>jdk.incubator.vector</code>, and the <code>simd</code> source folder in the classpath.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+public class MathKernelsBenchmark {
+   @Param({ "scalar", "vector" })
+   public String kernel;
+
+   @Param({ "1000", "100000" })
+   public int points;
+
+   private MathKernels kernels;
+   private float[] packed;
+   private float[] packedDest;
+   private float[] x;
+   private float[] y;
+   private float[] dest;
+
+   @Setup(Level.Trial)
+   public void setup() {
+      kernels = "vector".equals(kernel) ? MathKernels.getAccelerated() : MathKernels.getScalar();
+      if (kernels == null)
+         throw new IllegalStateException("The Vector API kernels are not available in this JVM.");
+
+      Random random = new Random(42);
+      packed = new float[points * 2];
+      packedDest = new float[points * 2];
+      x = new float[points];
+      y = new float[points];
+      dest = new float[points];
+      for (int i = 0; i < points; i++) {
+         x[i] = random.nextFloat() * 800;
+         y[i] = random.nextFloat() * 600;
+         packed[i * 2] = x[i];
+         packed[i * 2 + 1] = y[i];
+      }
+   }
+
+   @Benchmark
+   public float[] transformPacked() {
+      kernels.transform(0.8f, -0.6f, 10, 0.6f, 0.8f, 20, packed, 0, packedDest, 0, points);
+      return packedDest;
+   }
+
+   @Benchmark
+   public float[] transformSeparated() {
+      // A rotation, so the values stay bounded across invocations
+      kernels.transform(0.8f, -0.6f, 0, 0.6f, 0.8f, 0, x, y, 0, points);
+      return x;
+   }
+
+   @Benchmark
+   public float[] normalize() {
+      kernels.normalize(x, y, 0, points);
+      return x;
+   }
+
+   @Benchmark
+   public float[] dot() {
+      kernels.dot(x, y, 0, points, 0.6f, 0.8f, dest, 0);
+      return dest;
+   }
+
+   @Benchmark
+   public float[] distanceSqr() {
+      kernels.distanceSqr(x, y, 0, points, 400, 300, dest, 0);
+      return dest;
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder().include(MathKernelsBenchmark.class.getSimpleName()).build()).run();
+   }
+}
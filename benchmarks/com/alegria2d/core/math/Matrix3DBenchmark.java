@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the {@link Matrix3D} flat storage and its destination operations with the previous implementation, that
+ * stored the values in a <code>float[3][3]</code> and allocated a new array in every operation.
+ * <p>
+ * Transpose and determinant, which had no nested version worth keeping, are measured for the flat storage only.
+ * <p>
+ * Run it with <code>-prof gc</code> to see the allocation rate of each variant.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class Matrix3DBenchmark {
+   private Matrix3D left;
+   private Matrix3D right;
+   private Matrix3D dest;
+
+   private NestedMatrix nestedLeft;
+   private NestedMatrix nestedRight;
+
+   @Setup(Level.Trial)
+   public void setup() {
+      left = new Matrix3D(3, 0, 2, 9, 1, 7, 1, 0, 1);
+      right = new Matrix3D(0.5f, 0.25f, 10, -0.25f, 0.5f, 20, 0, 0, 1);
+      dest = new Matrix3D();
+
+      nestedLeft = new NestedMatrix(left.toArray());
+      nestedRight = new NestedMatrix(right.toArray());
+   }
+
+   @Benchmark
+   public NestedMatrix nestedMultiply() {
+      return nestedLeft.multiply(nestedRight);
+   }
+
+   @Benchmark
+   public Matrix3D flatMultiply() {
+      return left.multiply(right);
+   }
+
+   @Benchmark
+   public Matrix3D flatMultiplyInto() {
+      return left.multiply(right, dest);
+   }
+
+   @Benchmark
+   public NestedMatrix nestedInverse() {
+      return nestedLeft.inverse();
+   }
+
+   @Benchmark
+   public Matrix3D flatInverse() {
+      return left.inverse();
+   }
+
+   @Benchmark
+   public Matrix3D flatInverseInto() {
+      return left.inverse(dest);
+   }
+
+   @Benchmark
+   public Matrix3D flatTranspose() {
+      return left.transpose();
+   }
+
+   @Benchmark
+   public Matrix3D flatTransposeInto() {
+      return left.transpose(dest);
+   }
+
+   @Benchmark
+   public float flatDeterminant() {
+      return left.getDeterminant();
+   }
+
+   /**
+    * The previous Matrix3D storage, kept here as the baseline.
+    */
+   public static final class NestedMatrix {
+      private float A[][];
+
+      NestedMatrix(float[][] values) {
+         A = values;
+      }
+
+      NestedMatrix multiply(NestedMatrix other) {
+         float B[][] = other.A;
+         float C[][] = new float[3][3];
+         for (int i = 0; i < 3; ++i) {
+            for (int j = 0; j < 3; ++j) {
+               for (int k = 0; k < 3; ++k) {
+                  C[i][j] += A[i][k] * B[k][j];
+               }
+            }
+         }
+         return new NestedMatrix(C);
+      }
+
+      NestedMatrix inverse() {
+         float C[][] = new float[3][3];
+         C[0][0] = A[1][1] * A[2][2] - A[1][2] * A[2][1];
+         C[0][1] = A[0][2] * A[2][1] - A[0][1] * A[2][2];
+         C[0][2] = A[0][1] * A[1][2] - A[0][2] * A[1][1];
+
+         C[1][0] = A[1][2] * A[2][0] - A[1][0] * A[2][2];
+         C[1][1] = A[0][0] * A[2][2] - A[0][2] * A[2][0];
+         C[1][2] = A[0][2] * A[1][0] - A[0][0] * A[1][2];
+
+         C[2][0] = A[1][0] * A[2][1] - A[1][1] * A[2][0];
+         C[2][1] = A[0][1] * A[2][0] - A[0][0] * A[2][1];
+         C[2][2] = A[0][0] * A[1][1] - A[0][1] * A[1][0];
+
+         float inv = 1.0f / (A[0][0] * C[0][0] + A[0][1] * C[1][0] + A[0][2] * C[2][0]);
+         for (int i = 0; i < 3; i++)
+            for (int j = 0; j < 3; j++)
+               C[i][j] *= inv;
+         return new NestedMatrix(C);
+      }
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder().include(Matrix3DBenchmark.class.getSimpleName()).build()).run();
+   }
+}
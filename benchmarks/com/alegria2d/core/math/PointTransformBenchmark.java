@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares transforming points one {@link Vector2D} at a time with the bulk transforms of {@link Affine2D} and
+ * {@link Matrix3D}, over packed arrays, interleaved vertex arrays and direct float buffers.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PointTransformBenchmark {
+   @Param({ "1000", "100000" })
+   public int points;
+
+   private Matrix3D matrix;
+   private Affine2D affine;
+
+   private Vector2D[] vectors;
+   private float[] packed;
+   private float[] packedDest;
+   private float[] vertices;
+   private FloatBuffer buffer;
+   private FloatBuffer bufferDest;
+
+   @Setup(Level.Trial)
+   public void setup() {
+      affine = Affine2D.newTRS(400, 300, 0.5, 2, 3);
+      matrix = affine.toMatrix3D();
+
+      vectors = new Vector2D[points];
+      packed = new float[points * 2];
+      packedDest = new float[points * 2];
+      vertices = new float[points * 7];
+      for (int i = 0; i < points; i++) {
+         float x = (i * 7919) % 800;
+         float y = (i * 104729) % 600;
+         vectors[i] = new Vector2D(x, y);
+         packed[i * 2] = x;
+         packed[i * 2 + 1] = y;
+         vertices[i * 7] = x;
+         vertices[i * 7 + 1] = y;
+      }
+
+      buffer = ByteBuffer.allocateDirect(points * 2 * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+      buffer.put(packed).clear();
+      bufferDest = ByteBuffer.allocateDirect(points * 2 * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+   }
+
+   @Benchmark
+   public float[] vectorByVector() {
+      for (int i = 0; i < points; i++) {
+         Vector2D point = matrix.multiply(vectors[i]);
+         packedDest[i * 2] = point.getX();
+         packedDest[i * 2 + 1] = point.getY();
+      }
+      return packedDest;
+   }
+
+   @Benchmark
+   public float[] matrixPacked() {
+      return matrix.transform(packed, 0, packedDest, 0, points);
+   }
+
+   @Benchmark
+   public float[] affinePacked() {
+      return affine.transform(packed, 0, packedDest, 0, points);
+   }
+
+   @Benchmark
+   public float[] affineInterleaved() {
+      return affine.transform(vertices, 0, 7, packedDest, 0, 2, points);
+   }
+
+   @Benchmark
+   public FloatBuffer affineDirectBuffer() {
+      return affine.transform(buffer, 0, 2, bufferDest, 0, 2, points);
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder().include(PointTransformBenchmark.class.getSimpleName()).build()).run();
+   }
+}
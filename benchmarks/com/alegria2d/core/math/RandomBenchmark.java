@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures {@link FloatRange#random()} and {@link IntRange#random()} throughput with several threads.
+ * <p>
+ * The <code>shared</code> benchmarks use a single range, with the synchronized {@link java.util.Random}, for all
+ * threads. The <code>split</code> benchmarks give each thread its own range, with an Alegria {@link Random} split from
+ * a common generator.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class RandomBenchmark {
+   private static final Random SEEDS = new Random(42);
+
+   @State(Scope.Benchmark)
+   public static class Shared {
+      public FloatRange floats;
+      public IntRange ints;
+
+      @Setup(Level.Trial)
+      public void setup() {
+         java.util.Random random = new java.util.Random(42);
+         floats = new FloatRange(-100, 100, random);
+         ints = new IntRange(0, 1000, random);
+      }
+   }
+
+   @State(Scope.Thread)
+   public static class Split {
+      public FloatRange floats;
+      public IntRange ints;
+
+      @Setup(Level.Trial)
+      public void setup() {
+         Random random;
+         synchronized (SEEDS) {
+            random = SEEDS.split();
+         }
+         floats = new FloatRange(-100, 100, random);
+         ints = new IntRange(0, 1000, random);
+      }
+   }
+
+   @Benchmark
+   public float sharedFloat(Shared state) {
+      return state.floats.random();
+   }
+
+   @Benchmark
+   public float splitFloat(Split state) {
+      return state.floats.random();
+   }
+
+   @Benchmark
+   public int sharedInt(Shared state) {
+      return state.ints.random();
+   }
+
+   @Benchmark
+   public int splitInt(Split state) {
+      return state.ints.random();
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder().include(RandomBenchmark.class.getSimpleName()).build()).run();
+   }
+}
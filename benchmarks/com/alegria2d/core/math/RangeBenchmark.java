@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares sampling and mapping a particle property for many particles with the single number methods of
+ * {@link FloatRange} and {@link IntRange}, called in a loop, and with their bulk methods.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RangeBenchmark {
+   @Param({ "100000" })
+   public int particles;
+
+   private FloatRange speed;
+   private FloatRange alpha;
+   private IntRange frame;
+   private float[] floats;
+   private float[] ages;
+   private int[] ints;
+
+   @Setup(Level.Trial)
+   public void setup() {
+      Random random = new Random(42);
+      speed = new FloatRange(50, 200, random);
+      alpha = new FloatRange(1, 0);
+      frame = new IntRange(0, 15, random);
+      floats = new float[particles];
+      ints = new int[particles];
+      ages = new float[particles];
+      random.fill(ages, 0, particles);
+   }
+
+   @Benchmark
+   public float[] randomLoop() {
+      for (int i = 0; i < particles; i++)
+         floats[i] = speed.random();
+      return floats;
+   }
+
+   @Benchmark
+   public float[] randomFill() {
+      speed.fill(floats, 0, particles);
+      return floats;
+   }
+
+   @Benchmark
+   public int[] randomIntLoop() {
+      for (int i = 0; i < particles; i++)
+         ints[i] = frame.random();
+      return ints;
+   }
+
+   @Benchmark
+   public int[] randomIntFill() {
+      frame.fill(ints, 0, particles);
+      return ints;
+   }
+
+   @Benchmark
+   public float[] getValueLoop() {
+      for (int i = 0; i < particles; i++)
+         floats[i] = alpha.getValue(ages[i]);
+      return floats;
+   }
+
+   @Benchmark
+   public float[] getValues() {
+      alpha.getValues(ages, floats);
+      return floats;
+   }
+
+   @Benchmark
+   public int[] convertLoop() {
+      for (int i = 0; i < particles; i++)
+         ints[i] = (int) frame.convert(floats[i], speed);
+      return ints;
+   }
+
+   @Benchmark
+   public int[] convert() {
+      frame.convert(floats, speed, ints);
+      return ints;
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder().include(RangeBenchmark.class.getSimpleName()).build()).run();
+   }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs a sample entity update loop, once with the copying {@link Vector2D} and {@link Matrix3D} methods, and once with
+ * temporary values taken from the {@link Scratch} arena, reset at the end of each frame. Run it with
+ * <code>-prof gc</code>, or through {@link MathBenchmarks}, to compare the allocation rates.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScratchBenchmark {
+   private static final int ENTITIES = 1000;
+
+   private Vector2D[] positions;
+   private Vector2D[] velocities;
+   private Matrix3D camera;
+   private Vector2D gravity;
+   private float elapsed;
+
+   @Setup(Level.Trial)
+   public void setup() {
+      positions = new Vector2D[ENTITIES];
+      velocities = new Vector2D[ENTITIES];
+      for (int i = 0; i < ENTITIES; i++) {
+         positions[i] = new Vector2D(i, i * 0.5f);
+         velocities[i] = new Vector2D(1, -1);
+      }
+      camera = new Matrix3D(0.8f, -0.6f, 10, 0.6f, 0.8f, 20, 0, 0, 1);
+      gravity = new Vector2D(0, -9.8f);
+      elapsed = 0.016f;
+   }
+
+   /**
+    * Moves every entity, and returns the sum of their screen positions.
+    */
+   @Benchmark
+   public float frameAllocating() {
+      Matrix3D view = camera.multiply(Matrix3D.newIdentity());
+      float sum = 0;
+      for (int i = 0; i < ENTITIES; i++) {
+         Vector2D velocity = velocities[i].plus(gravity.multiply(elapsed));
+         positions[i] = positions[i].plus(velocity.multiply(elapsed));
+         Vector2D screen = view.multiply(positions[i]);
+         sum += screen.getX() + screen.getY();
+      }
+      return sum;
+   }
+
+   @Benchmark
+   public float frameScratch() {
+      Scratch scratch = Scratch.get();
+      Matrix3D view = camera.multiply(scratch.identity(), scratch.matrix());
+      float sum = 0;
+      for (int i = 0; i < ENTITIES; i++) {
+         Vector2D velocity = scratch.vector(gravity).multiplyMe(elapsed).plusMe(velocities[i]);
+         positions[i].plusMe(velocity.multiplyMe(elapsed));
+         Vector2D screen = view.multiply(positions[i], scratch.vector());
+         sum += screen.getX() + screen.getY();
+      }
+      scratch.reset();
+      return sum;
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder().include(ScratchBenchmark.class.getSimpleName()).build()).run();
+   }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the {@link Vector2D} copying operations, that return a new vector, with the mutable "Me" operations, that
+ * change a vector in place.
+ * <p>
+ * The mutable operations work on a scratch vector, first set to the operand, so both variants compute the same value.
+ * Run it with <code>-prof gc</code>, or through {@link MathBenchmarks}, to see the allocation rate of each variant.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class Vector2DBenchmark {
+   private Vector2D position;
+   private Vector2D velocity;
+   private Vector2D scratch;
+   private Matrix3D transform;
+   private float elapsed;
+   private double angle;
+
+   @Setup(Level.Trial)
+   public void setup() {
+      position = new Vector2D(120, 80);
+      velocity = new Vector2D(3, -4);
+      scratch = new Vector2D();
+      transform = new Matrix3D(0.8f, -0.6f, 10, 0.6f, 0.8f, 20, 0, 0, 1);
+      elapsed = 0.016f;
+      angle = 0.3;
+   }
+
+   @Benchmark
+   public Vector2D plus() {
+      return position.plus(velocity);
+   }
+
+   @Benchmark
+   public Vector2D plusMe() {
+      return scratch.set(position).plusMe(velocity);
+   }
+
+   @Benchmark
+   public Vector2D multiply() {
+      return velocity.multiply(elapsed);
+   }
+
+   @Benchmark
+   public Vector2D multiplyMe() {
+      return scratch.set(velocity).multiplyMe(elapsed);
+   }
+
+   @Benchmark
+   public Vector2D normalize() {
+      return velocity.normalize();
+   }
+
+   @Benchmark
+   public Vector2D normalizeMe() {
+      return scratch.set(velocity).normalizeMe();
+   }
+
+   @Benchmark
+   public Vector2D rotate() {
+      return velocity.rotate(angle);
+   }
+
+   @Benchmark
+   public Vector2D rotateMe() {
+      return scratch.set(velocity).rotateMe(angle);
+   }
+
+   @Benchmark
+   public Vector2D multiplyMatrix() {
+      return position.multiply(transform);
+   }
+
+   @Benchmark
+   public Vector2D multiplyMatrixMe() {
+      return scratch.set(position).multiplyMe(transform);
+   }
+
+   /**
+    * A typical movement update: position + velocity * elapsed.
+    */
+   @Benchmark
+   public Vector2D move() {
+      return position.plus(velocity.multiply(elapsed));
+   }
+
+   @Benchmark
+   public Vector2D moveMe() {
+      return scratch.set(velocity).multiplyMe(elapsed).plusMe(position);
+   }
+
+   @Benchmark
+   public float dot() {
+      return position.dot(velocity);
+   }
+
+   @Benchmark
+   public float getSize() {
+      return velocity.getSize();
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder().include(Vector2DBenchmark.class.getSimpleName()).build()).run();
+   }
+}
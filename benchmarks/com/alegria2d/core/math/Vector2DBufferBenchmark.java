@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares a particle update, <code>position += velocity * time</code> followed by a nearest particle query, done over
+ * {@link Vector2D} arrays and over {@link Vector2DBuffer}.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class Vector2DBufferBenchmark {
+   private static final float TIME = 0.016f;
+
+   @Param({ "1000", "100000" })
+   public int particles;
+
+   private Vector2D[] positions;
+   private Vector2D[] velocities;
+
+   private Vector2DBuffer positionBuffer;
+   private Vector2DBuffer velocityBuffer;
+
+   private Vector2D target = new Vector2D(400, 300);
+
+   @Setup(Level.Trial)
+   public void setup() {
+      positions = new Vector2D[particles];
+      velocities = new Vector2D[particles];
+      positionBuffer = new Vector2DBuffer(particles);
+      velocityBuffer = new Vector2DBuffer(particles);
+
+      for (int i = 0; i < particles; i++) {
+         positions[i] = new Vector2D((i * 7919) % 800, (i * 104729) % 600);
+         velocities[i] = new Vector2D((i % 21) - 10, (i % 13) - 6);
+         positionBuffer.add(positions[i]);
+         velocityBuffer.add(velocities[i]);
+      }
+   }
+
+   @Benchmark
+   public int objects() {
+      Vector2D step = new Vector2D();
+      int nearest = -1;
+      float best = Float.POSITIVE_INFINITY;
+      for (int i = 0; i < particles; i++) {
+         positions[i].plusMe(step.set(velocities[i]).multiplyMe(TIME));
+         float distance = MathUtil.distanceSqr(positions[i], target);
+         if (distance < best) {
+            best = distance;
+            nearest = i;
+         }
+      }
+      return nearest;
+   }
+
+   @Benchmark
+   public int buffer() {
+      return positionBuffer.plusMe(velocityBuffer, TIME).nearest(target);
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder().include(Vector2DBufferBenchmark.class.getSimpleName()).build()).run();
+   }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.scene;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Moves a percentage of the transforms of a 50k transform tree, and updates it. The tree has 1000 entities of 50
+ * transforms each, with random parents inside each entity, so moved transforms have subtrees of mixed sizes. With 100%
+ * moved, every world transform is recomputed, which is the cost of recomputing all products by hand each frame.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransformTreeBenchmark {
+   static final int ENTITIES = 1000;
+   static final int ENTITY_SIZE = 50;
+
+   @Param({"1", "5", "100"})
+   private int movedPercent;
+
+   private TransformTree tree;
+   private Transform[] nodes;
+   private Transform[] moved;
+   private float angle;
+
+   /**
+    * Creates a benchmark tree with the given number of entities.
+    */
+   static Transform[] createTree(TransformTree tree, Random random, int entities) {
+      Transform[] nodes = new Transform[entities * ENTITY_SIZE];
+      for (int entity = 0; entity < entities; entity++) {
+         int first = entity * ENTITY_SIZE;
+         nodes[first] = tree.newNode().setPosition(random.nextFloat() * 1000, random.nextFloat() * 1000);
+         for (int i = 1; i < ENTITY_SIZE; i++)
+            nodes[first + i] = tree.newNode(nodes[first + random.nextInt(i)])
+                  .setPosition(random.nextFloat() * 10, random.nextFloat() * 10)
+                  .setRotation(random.nextFloat());
+      }
+      tree.update();
+      return nodes;
+   }
+
+   @Setup(Level.Trial)
+   public void setup() {
+      Random random = new Random(42);
+      tree = new TransformTree();
+      nodes = createTree(tree, random, ENTITIES);
+
+      moved = new Transform[nodes.length * movedPercent / 100];
+      if (movedPercent == 100)
+         moved = nodes.clone();
+      else
+         for (int i = 0; i < moved.length; i++)
+            moved[i] = nodes[random.nextInt(nodes.length)];
+   }
+
+   @Benchmark
+   public int update() {
+      angle += 0.01f;
+      for (Transform node : moved)
+         node.setRotation(angle);
+      tree.update();
+      return tree.getLastUpdateCount();
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder().include(TransformTreeBenchmark.class.getSimpleName()).build()).run();
+   }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.scene;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures how the update of a 400k transform tree scales with the number of threads. The tree is built like in
+ * {@link TransformTreeBenchmark}, with 8000 entities of 50 transforms. With 1 thread, the update runs in the calling
+ * thread, as the serial path. To test machines with more cores, pass other counts with <code>-p threads=...</code>.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransformTreeParallelBenchmark {
+   private static final int ENTITIES = 8000;
+
+   @Param({"1", "2", "4", "8"})
+   private int threads;
+
+   @Param({"5", "100"})
+   private int movedPercent;
+
+   private TransformTree tree;
+   private Transform[] moved;
+   private float angle;
+
+   @Setup(Level.Trial)
+   public void setup() {
+      Random random = new Random(42);
+      tree = new TransformTree();
+      tree.setParallelism(threads);
+      Transform[] nodes = TransformTreeBenchmark.createTree(tree, random, ENTITIES);
+
+      moved = new Transform[nodes.length * movedPercent / 100];
+      if (movedPercent == 100)
+         moved = nodes.clone();
+      else
+         for (int i = 0; i < moved.length; i++)
+            moved[i] = nodes[random.nextInt(nodes.length)];
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown() {
+      tree.dispose();
+   }
+
+   @Benchmark
+   public int update() {
+      angle += 0.01f;
+      for (Transform node : moved)
+         node.setRotation(angle);
+      tree.update();
+      return tree.getLastUpdateCount();
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder().include(TransformTreeParallelBenchmark.class.getSimpleName()).build()).run();
+   }
+}
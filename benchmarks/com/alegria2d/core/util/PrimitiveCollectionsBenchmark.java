@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the primitive collections with the boxed {@link HashMap} and {@link ArrayList}, inserting, looking up and
+ * iterating over entity ids. Run it with <code>-prof gc</code> to see the garbage of the boxed collections.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PrimitiveCollectionsBenchmark {
+   @Param({"10000"})
+   private int size;
+
+   private int[] keys;
+   private Object value;
+   private IntObjectMap<Object> intObjectMap;
+   private Map<Integer, Object> hashMap;
+   private IntArrayList intList;
+   private List<Integer> boxedList;
+
+   @Setup(Level.Trial)
+   public void setup() {
+      Random random = new Random(42);
+      keys = new int[size];
+      for (int i = 0; i < size; i++)
+         keys[i] = random.nextInt();
+
+      value = new Object();
+      intObjectMap = new IntObjectMap<Object>();
+      hashMap = new HashMap<Integer, Object>();
+      intList = new IntArrayList();
+      boxedList = new ArrayList<Integer>();
+      for (int key : keys) {
+         intObjectMap.put(key, value);
+         hashMap.put(key, value);
+         intList.add(key);
+         boxedList.add(key);
+      }
+   }
+
+   @Benchmark
+   public IntObjectMap<Object> insertIntObjectMap() {
+      IntObjectMap<Object> map = new IntObjectMap<Object>();
+      for (int key : keys)
+         map.put(key, value);
+      return map;
+   }
+
+   @Benchmark
+   public Map<Integer, Object> insertHashMap() {
+      Map<Integer, Object> map = new HashMap<Integer, Object>();
+      for (int key : keys)
+         map.put(key, value);
+      return map;
+   }
+
+   @Benchmark
+   public int lookupIntObjectMap() {
+      int found = 0;
+      for (int key : keys)
+         if (intObjectMap.get(key) != null)
+            found++;
+      return found;
+   }
+
+   @Benchmark
+   public int lookupHashMap() {
+      int found = 0;
+      for (int key : keys)
+         if (hashMap.get(key) != null)
+            found++;
+      return found;
+   }
+
+   @Benchmark
+   public long iterateIntObjectMap() {
+      long sum = 0;
+      for (int slot = intObjectMap.nextSlot(-1); slot != -1; slot = intObjectMap.nextSlot(slot))
+         sum += intObjectMap.keyAt(slot);
+      return sum;
+   }
+
+   @Benchmark
+   public long iterateHashMap() {
+      long sum = 0;
+      for (Map.Entry<Integer, Object> entry : hashMap.entrySet())
+         sum += entry.getKey();
+      return sum;
+   }
+
+   @Benchmark
+   public long iterateIntArrayList() {
+      long sum = 0;
+      for (int i = 0; i < intList.size(); i++)
+         sum += intList.get(i);
+      return sum;
+   }
+
+   @Benchmark
+   public long iterateArrayList() {
+      long sum = 0;
+      for (int key : boxedList)
+         sum += key;
+      return sum;
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder().include(PrimitiveCollectionsBenchmark.class.getSimpleName()).build()).run();
+   }
+}
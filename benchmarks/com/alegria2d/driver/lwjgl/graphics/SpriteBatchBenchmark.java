@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.lwjgl.graphics;
+
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+import org.newdawn.slick.opengl.TextureImpl;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the CPU side of {@link OglSpriteBatch} for 1k to 100k sprites per frame. OpenGL is not called, so it runs
+ * without a GPU.
+ * <p>
+ * The <code>drawCalls</code> counter shows how many draw calls each frame needs. In immediate mode, every sprite is a
+ * draw call of its own, plus around 15 other state and matrix calls.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpriteBatchBenchmark {
+   @Param({ "1000", "10000", "100000" })
+   public int sprites;
+
+   /**
+    * Number of sprites drawn in a row with the same texture.
+    */
+   @Param({ "1", "100" })
+   public int run;
+
+   private OglSpriteBatch batch;
+   private OglImage[] images;
+   private float[] positions;
+
+   @Setup(Level.Trial)
+   public void setup() {
+      batch = new OglSpriteBatch() {
+         @Override
+         protected void render(OglImage texture, boolean blending, FloatBuffer vertices, int count) {
+         }
+      };
+
+      images = new OglImage[4];
+      for (int i = 0; i < images.length; i++) {
+         TextureImpl texture = new TextureImpl("bench" + i, GL_TEXTURE_2D, i + 1);
+         texture.setAlpha(i % 2 == 0);
+         images[i] = new OglImage(texture);
+      }
+
+      positions = new float[sprites * 3];
+      for (int i = 0; i < positions.length; i++)
+         positions[i] = (i * 7919) % 800;
+   }
+
+   @AuxCounters(AuxCounters.Type.EVENTS)
+   @State(Scope.Thread)
+   public static class Calls {
+      public int drawCalls;
+   }
+
+   @Benchmark
+   public int frame(Calls calls) {
+      batch.resetStats();
+      batch.begin();
+      for (int i = 0; i < sprites; i++) {
+         int p = i * 3;
+         OglImage image = images[(i / run) % images.length];
+         batch.draw(image, positions[p], positions[p + 1], 32, 32, positions[p + 2], 1, 1, 1);
+      }
+      batch.end();
+      calls.drawCalls += batch.getDrawCalls();
+      return batch.getSpritesDrawn();
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder().include(SpriteBatchBenchmark.class.getSimpleName()).build()).run();
+   }
+}
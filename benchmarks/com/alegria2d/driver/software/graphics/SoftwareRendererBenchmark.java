@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.software.graphics;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import com.alegria2d.core.driver.graphics.DisplayMode;
+import com.alegria2d.core.driver.graphics.Renderer;
+
+/**
+ * Measures how long the software renderer takes to draw a full 1080p frame of rotated, translucent sprites.
+ * <p>
+ * The <code>threads</code> parameter changes the renderer parallelism, showing how tile rasterization scales with the
+ * number of cores. Values above the number of available processors are meaningless.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SoftwareRendererBenchmark {
+   @Param({ "1000", "10000" })
+   public int sprites;
+
+   @Param({ "32", "128" })
+   public int size;
+
+   @Param({ "1", "2", "4", "8" })
+   public int threads;
+
+   private SoftwareScreen screen;
+   private Renderer renderer;
+   private SoftwareImage[] images;
+   private float[] sprite;
+
+   @Setup(Level.Trial)
+   public void setup() throws Exception {
+      DisplayMode mode = new SoftwareDisplayMode(1920, 1080);
+      screen = new SoftwareScreen();
+      screen.setSize(false, mode);
+      screen.init();
+      renderer = screen.getRenderer();
+      ((SoftwareRenderer) renderer).setParallelism(threads);
+
+      Random random = new Random(42);
+      images = new SoftwareImage[4];
+      for (int i = 0; i < images.length; i++) {
+         int[] pixels = new int[64 * 64];
+         for (int p = 0; p < pixels.length; p++)
+            pixels[p] = random.nextInt();
+         images[i] = new SoftwareImage(64, 64, pixels, i % 2 == 0);
+      }
+
+      sprite = new float[sprites * 3];
+      for (int i = 0; i < sprites; i++) {
+         sprite[i * 3] = random.nextFloat() * mode.getWidth();
+         sprite[i * 3 + 1] = random.nextFloat() * mode.getHeight();
+         sprite[i * 3 + 2] = random.nextFloat() * 360;
+      }
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown() {
+      screen.dispose();
+   }
+
+   @Benchmark
+   public int frame() {
+      renderer.clearScreen(0, 0, 0, 1);
+      renderer.begin();
+      for (int i = 0; i < sprites; i++) {
+         int p = i * 3;
+         renderer.drawImage(images[i & 3], sprite[p], sprite[p + 1], size, size, sprite[p + 2], 1, 1, 1);
+      }
+      renderer.end();
+      screen.update();
+      return screen.getFramebuffer().getPixel(0, 0);
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder().include(SoftwareRendererBenchmark.class.getSimpleName()).build()).run();
+   }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.lwjgl.graphics;
+
+import static org.lwjgl.opengl.GL11.GL_RGB;
+import static org.lwjgl.opengl.GL11.GL_RGBA;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import org.newdawn.slick.opengl.LoadableImageData;
+import org.newdawn.slick.opengl.Texture;
+import com.alegria2d.core.driver.graphics.Image;
+import com.alegria2d.driver.lwjgl.graphics.OglImageLoader.Filter;
+
+/**
+ * Loads images in two steps. Decoding is done by a pool of worker threads. The decoded pixels are then queued, and
+ * sent to OpenGL by {@link #process()}, which must be called in the rendering thread once per frame.
+ * <p>
+ * Each call to {@link #process()} spends at most {@link #getUploadBudget()} nanoseconds uploading. The cost of the next
+ * upload is estimated from the previous ones, so the budget is not exceeded by starting a big upload near its end. At
+ * least one image is uploaded per call, so loading always progresses.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class OglAsyncLoader {
+   /**
+    * Default upload time per frame, in nanoseconds.
+    */
+   public static final long DEFAULT_UPLOAD_BUDGET = 4000000L;
+
+   private ExecutorService decoder;
+   private Queue<Upload> uploads = new ConcurrentLinkedQueue<Upload>();
+   private OglRenderState state;
+   private long uploadBudget = DEFAULT_UPLOAD_BUDGET;
+   private double nanosPerByte = 0;
+
+   /**
+    * Creates a new loader, with one decoding thread less than the number of processors.
+    * 
+    * @param state The renderer state cache, which is told about texture binds. May be null.
+    */
+   public OglAsyncLoader(OglRenderState state) {
+      this(state, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+   }
+
+   /**
+    * Creates a new loader. Decoding threads are only started when the first image is loaded.
+    * 
+    * @param state The renderer state cache, which is told about texture binds. May be null.
+    * @param threads Number of decoding threads.
+    */
+   public OglAsyncLoader(OglRenderState state, int threads) {
+      if (threads < 1)
+         throw new IllegalArgumentException("The number of threads must be positive!");
+
+      this.state = state;
+      decoder = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+         @Override
+         public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "Alegria image decoder");
+            thread.setDaemon(true);
+            return thread;
+         }
+      });
+   }
+
+   /**
+    * Starts loading an image. The source stream is closed after decoding.
+    * 
+    * @param format The image format, such as "PNG" or "TGA".
+    * @param source The image data.
+    * @param filter The texture filter.
+    * @return The image future. It is done after the image is uploaded by {@link #process()}.
+    */
+   public Future<Image> load(String format, final InputStream source, Filter filter) {
+      final Decoded decoded = new Decoded(format, filter);
+      final Upload upload = new Upload(decoded);
+
+      decoder.execute(new Runnable() {
+         @Override
+         public void run() {
+            if (upload.isCancelled())
+               return;
+
+            try {
+               decoded.decode(source);
+               uploads.add(upload);
+            } catch (Throwable e) {
+               upload.fail(e);
+            } finally {
+               try {
+                  source.close();
+               } catch (IOException e) {
+                  // Nothing to do: the image is already decoded
+               }
+            }
+         }
+      });
+      return upload;
+   }
+
+   /**
+    * Uploads decoded images, within the upload budget. Must be called in the rendering thread.
+    * 
+    * @return Number of uploaded images.
+    */
+   public int process() {
+      return process(uploadBudget);
+   }
+
+   /**
+    * Uploads decoded images, within the given budget. Must be called in the rendering thread.
+    * 
+    * @param budget Maximum time spent, in nanoseconds.
+    * @return Number of uploaded images.
+    */
+   public int process(long budget) {
+      long start = System.nanoTime();
+      long elapsed = 0;
+      int count = 0;
+
+      Upload upload;
+      while ((upload = uploads.peek()) != null) {
+         if (upload.isDone()) {
+            // Cancelled by the user
+            uploads.poll();
+            continue;
+         }
+
+         // The pixels may be released by a cancel in another thread, but their size is kept
+         int bytes = upload.decoded.bytes;
+         if (count > 0 && elapsed + (long) (bytes * nanosPerByte) > budget)
+            break;
+
+         uploads.poll();
+         long before = System.nanoTime();
+         upload.run();
+         long time = System.nanoTime() - before;
+         elapsed = System.nanoTime() - start;
+         count++;
+
+         // Moving average of the upload speed
+         double speed = (double) time / Math.max(1, bytes);
+         nanosPerByte = nanosPerByte == 0 ? speed : nanosPerByte * 0.75 + speed * 0.25;
+      }
+
+      if (count > 0 && state != null)
+         state.invalidateTexture();
+      return count;
+   }
+
+   /**
+    * @return Number of decoded images waiting to be uploaded.
+    */
+   public int getPendingUploads() {
+      return uploads.size();
+   }
+
+   /**
+    * Changes the time spent uploading images in each call to {@link #process()}.
+    * 
+    * @param budget The budget, in nanoseconds.
+    */
+   public void setUploadBudget(long budget) {
+      if (budget < 0)
+         throw new IllegalArgumentException("Budget can't be negative!");
+      this.uploadBudget = budget;
+   }
+
+   /**
+    * @return The time spent uploading images in each call to {@link #process()}, in nanoseconds.
+    */
+   public long getUploadBudget() {
+      return uploadBudget;
+   }
+
+   /**
+    * Stops the decoding threads and cancels all pending images.
+    */
+   public void dispose() {
+      decoder.shutdownNow();
+      Upload upload;
+      while ((upload = uploads.poll()) != null)
+         upload.cancel(false);
+   }
+
+   /**
+    * Creates the texture of a decoded image. Called in the rendering thread.
+    * 
+    * @param ref A name for the texture.
+    * @param pixels The pixels, with <code>texWidth</code> pixels per row.
+    * @param format Pixel format of the buffer, GL_RGB or GL_RGBA.
+    * @param width Image width.
+    * @param height Image height.
+    * @param texWidth Texture width.
+    * @param texHeight Texture height.
+    * @param alpha True if the image has translucent pixels.
+    * @param filter The texture filter.
+    * @return The new texture.
+    */
+   protected Texture createTexture(String ref, ByteBuffer pixels, int format,
+         int width, int height, int texWidth, int texHeight,
+         boolean alpha, Filter filter)
+   {
+      return OglImageLoader.createTexture(ref, pixels, format, width, height, texWidth, texHeight, alpha, filter);
+   }
+
+   /**
+    * Pixels decoded in a worker thread.
+    */
+   private static class Decoded {
+      private String format;
+      private Filter filter;
+      private LoadableImageData data;
+      private ByteBuffer pixels;
+      private int bytes;
+
+      public Decoded(String format, Filter filter) {
+         this.format = format;
+         this.filter = filter;
+      }
+
+      public void decode(InputStream source) throws IOException {
+         data = OglImageLoader.getImageData(format);
+         pixels = data.loadImage(new BufferedInputStream(source), false, null);
+         bytes = pixels.capacity();
+      }
+   }
+
+   /**
+    * The image future, run in the rendering thread.
+    */
+   private final class Upload extends FutureTask<Image> {
+      private Decoded decoded;
+
+      public Upload(final Decoded decoded) {
+         super(new Callable<Image>() {
+            @Override
+            public Image call() {
+               LoadableImageData data = decoded.data;
+               boolean alpha = data.getDepth() == 32;
+               Texture texture = createTexture(decoded.format, decoded.pixels, alpha ? GL_RGBA : GL_RGB,
+                     data.getWidth(), data.getHeight(), data.getTexWidth(), data.getTexHeight(),
+                     alpha, decoded.filter);
+               return new OglImage(texture);
+            }
+         });
+         this.decoded = decoded;
+      }
+
+      public void fail(Throwable cause) {
+         setException(cause);
+      }
+
+      @Override
+      protected void done() {
+         // Let the decoded pixels be collected
+         decoded.pixels = null;
+         decoded.data = null;
+      }
+   }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.lwjgl.graphics;
+
+import static org.lwjgl.opengl.GL11.GL_RGBA;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import org.lwjgl.BufferUtils;
+import org.newdawn.slick.opengl.LoadableImageData;
+import org.newdawn.slick.opengl.Texture;
+import com.alegria2d.driver.lwjgl.graphics.OglImageLoader.Filter;
+
+/**
+ * Packs many images into a few large textures, called pages. Images are decoded and kept in memory by
+ * {@link #add(String, InputStream)}. Nothing is sent to OpenGL until {@link #build()} is called.
+ * <p>
+ * Images are packed with {@link OglAtlasPacker}, biggest first. A transparent border of {@link #getPadding()} pixels is
+ * left between images, so smooth filtering does not bleed pixels of one image into another.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class OglAtlasBuilder {
+   private static final int BYTES_PER_PIXEL = 4;
+
+   private int pageSize;
+   private Filter filter;
+   private OglRenderState state;
+   private int padding = 1;
+   private List<Entry> entries = new ArrayList<Entry>();
+
+   /**
+    * Creates a new atlas builder.
+    * 
+    * @param pageSize Width and height of each page. Must be a power of two.
+    * @param filter The texture filter of all pages.
+    * @param state The renderer state cache, which is told about texture binds. May be null.
+    */
+   public OglAtlasBuilder(int pageSize, Filter filter, OglRenderState state) {
+      if (pageSize < 1 || (pageSize & (pageSize - 1)) != 0)
+         throw new IllegalArgumentException("Page size must be a power of two!");
+
+      this.pageSize = pageSize;
+      this.filter = filter;
+      this.state = state;
+   }
+
+   /**
+    * Decodes an image and adds it to the atlas. The supported formats are the same of {@link OglImageLoader}.
+    * 
+    * @param format The image format, such as "PNG" or "TGA".
+    * @param source The image data.
+    * @return The index of the image in the built atlas.
+    * @throws IOException If the image could not be read.
+    */
+   public int add(String format, InputStream source) throws IOException {
+      LoadableImageData data = OglImageLoader.getImageData(format);
+      ByteBuffer decoded = data.loadImage(new BufferedInputStream(source), false, null);
+
+      int width = data.getWidth();
+      int height = data.getHeight();
+      int bpp = data.getDepth() / 8;
+      int stride = data.getTexWidth() * bpp;
+
+      byte[] row = new byte[width * bpp];
+      byte[] rgba = new byte[width * height * BYTES_PER_PIXEL];
+      for (int y = 0; y < height; y++) {
+         decoded.position(y * stride);
+         decoded.get(row);
+         for (int x = 0, o = y * width * BYTES_PER_PIXEL; x < width; x++, o += BYTES_PER_PIXEL) {
+            int i = x * bpp;
+            rgba[o] = row[i];
+            rgba[o + 1] = row[i + 1];
+            rgba[o + 2] = row[i + 2];
+            rgba[o + 3] = bpp == BYTES_PER_PIXEL ? row[i + 3] : (byte) 0xFF;
+         }
+      }
+      return add(width, height, rgba, bpp == BYTES_PER_PIXEL);
+   }
+
+   /**
+    * Adds an already decoded image to the atlas.
+    * 
+    * @param width Image width.
+    * @param height Image height.
+    * @param rgba The pixels, row by row from the top, with 4 bytes per pixel in RGBA order. The array is not copied.
+    * @param alpha True if the image has translucent pixels.
+    * @return The index of the image in the built atlas.
+    */
+   public int add(int width, int height, byte[] rgba, boolean alpha) {
+      if (width < 1 || height < 1)
+         throw new IllegalArgumentException("Image size must be positive!");
+      if (width + padding > pageSize || height + padding > pageSize)
+         throw new IllegalArgumentException("Image " + width + "x" + height + " does not fit in a " + pageSize
+               + " pixels page");
+      if (rgba.length < width * height * BYTES_PER_PIXEL)
+         throw new IllegalArgumentException("Not enough pixels for a " + width + "x" + height + " image");
+
+      entries.add(new Entry(width, height, rgba, alpha));
+      return entries.size() - 1;
+   }
+
+   /**
+    * @return Number of images added.
+    */
+   public int size() {
+      return entries.size();
+   }
+
+   /**
+    * Changes the number of empty pixels left between images.
+    * 
+    * @param padding The padding, in pixels.
+    */
+   public void setPadding(int padding) {
+      if (padding < 0)
+         throw new IllegalArgumentException("Padding can't be negative!");
+      this.padding = padding;
+   }
+
+   /**
+    * @return Number of empty pixels left between images.
+    */
+   public int getPadding() {
+      return padding;
+   }
+
+   /**
+    * @return Width and height of each page.
+    */
+   public int getPageSize() {
+      return pageSize;
+   }
+
+   /**
+    * Packs all images, creates the page textures and empties this builder.
+    * 
+    * @return The atlas, with the images in the same order they were added.
+    * @throws IllegalStateException If the padding was raised after adding an image, and the image no longer fits in
+    *            a page.
+    */
+   public OglTextureAtlas build() {
+      Integer[] order = new Integer[entries.size()];
+      for (int i = 0; i < order.length; i++)
+         order[i] = i;
+
+      Arrays.sort(order, new Comparator<Integer>() {
+         @Override
+         public int compare(Integer o1, Integer o2) {
+            Entry e1 = entries.get(o1);
+            Entry e2 = entries.get(o2);
+            int side1 = Math.max(e1.width, e1.height);
+            int side2 = Math.max(e2.width, e2.height);
+            if (side1 != side2)
+               return side2 - side1;
+            return e2.width * e2.height - e1.width * e1.height;
+         }
+      });
+
+      List<OglAtlasPacker> packers = new ArrayList<OglAtlasPacker>();
+      int[] position = new int[2];
+      for (Integer index : order) {
+         Entry entry = entries.get(index);
+         int w = entry.width + padding;
+         int h = entry.height + padding;
+
+         int page = 0;
+         while (page < packers.size() && !packers.get(page).insert(w, h, position))
+            page++;
+
+         if (page == packers.size()) {
+            OglAtlasPacker packer = new OglAtlasPacker(pageSize, pageSize);
+            if (!packer.insert(w, h, position))
+               throw new IllegalStateException("Image " + index + " (" + entry.width + "x" + entry.height
+                     + ") does not fit in a " + pageSize + " pixels page with padding " + padding);
+            packers.add(packer);
+         }
+
+         entry.page = page;
+         entry.x = position[0];
+         entry.y = position[1];
+      }
+
+      Texture[] textures = new Texture[packers.size()];
+      for (int page = 0; page < textures.length; page++) {
+         ByteBuffer pixels = BufferUtils.createByteBuffer(pageSize * pageSize * BYTES_PER_PIXEL);
+         boolean alpha = false;
+
+         for (Entry entry : entries) {
+            if (entry.page != page)
+               continue;
+
+            alpha |= entry.alpha;
+            int rowBytes = entry.width * BYTES_PER_PIXEL;
+            for (int y = 0; y < entry.height; y++) {
+               pixels.position(((entry.y + y) * pageSize + entry.x) * BYTES_PER_PIXEL);
+               pixels.put(entry.rgba, y * rowBytes, rowBytes);
+            }
+         }
+
+         pixels.clear();
+         textures[page] = createTexture(page, pixels, pageSize, alpha);
+      }
+
+      if (state != null)
+         state.invalidateTexture();
+
+      OglImage[] images = new OglImage[entries.size()];
+      float scale = 1.0f / pageSize;
+      for (int i = 0; i < images.length; i++) {
+         Entry e = entries.get(i);
+         images[i] = new OglImage(textures[e.page],
+               e.x * scale, e.y * scale, (e.x + e.width) * scale, (e.y + e.height) * scale,
+               e.alpha);
+      }
+
+      entries.clear();
+      return new OglTextureAtlas(textures, images);
+   }
+
+   /**
+    * Creates an OpenGL texture for an atlas page.
+    * 
+    * @param page The page number.
+    * @param pixels The page pixels, in RGBA order.
+    * @param size The page width and height.
+    * @param alpha True if any image in the page has translucent pixels.
+    * @return The page texture.
+    */
+   protected Texture createTexture(int page, ByteBuffer pixels, int size, boolean alpha) {
+      return OglImageLoader.createTexture("atlas-page-" + page, pixels, GL_RGBA, size, size, size, size, alpha, filter);
+   }
+
+   private static class Entry {
+      private int width;
+      private int height;
+      private byte[] rgba;
+      private boolean alpha;
+      private int page;
+      private int x;
+      private int y;
+
+      public Entry(int width, int height, byte[] rgba, boolean alpha) {
+         this.width = width;
+         this.height = height;
+         this.rgba = rgba;
+         this.alpha = alpha;
+      }
+   }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.lwjgl.graphics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Packs rectangles in a fixed size page using the MaxRects algorithm, with the best short side fit heuristic.
+ * <p>
+ * The packer keeps a list of maximal free rectangles, which may overlap. Each new rectangle is placed in the free
+ * rectangle that leaves the smallest leftover on its shortest side. Then, every free rectangle intersecting the placed
+ * one is split, and free rectangles contained in others are removed.
+ * <p>
+ * This class does not use OpenGL.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class OglAtlasPacker {
+   private int width;
+   private int height;
+   private List<int[]> free = new ArrayList<int[]>();
+   private List<int[]> split = new ArrayList<int[]>();
+   private long usedArea = 0;
+
+   /**
+    * Creates a new empty page.
+    * 
+    * @param width Page width, in pixels.
+    * @param height Page height, in pixels.
+    */
+   public OglAtlasPacker(int width, int height) {
+      if (width < 1 || height < 1)
+         throw new IllegalArgumentException("Page size must be positive!");
+
+      this.width = width;
+      this.height = height;
+      free.add(new int[] { 0, 0, width, height });
+   }
+
+   /**
+    * Finds a place for a rectangle and marks it as used.
+    * 
+    * @param w Rectangle width.
+    * @param h Rectangle height.
+    * @param position Receives the x and y coordinates of the rectangle, at indexes 0 and 1.
+    * @return True if the rectangle was placed, false if there's no room for it in this page.
+    */
+   public boolean insert(int w, int h, int[] position) {
+      if (w < 1 || h < 1)
+         throw new IllegalArgumentException("Rectangle size must be positive!");
+
+      int[] best = null;
+      int bestShort = Integer.MAX_VALUE;
+      int bestLong = Integer.MAX_VALUE;
+
+      for (int[] r : free) {
+         if (r[2] < w || r[3] < h)
+            continue;
+
+         int leftW = r[2] - w;
+         int leftH = r[3] - h;
+         int shortSide = Math.min(leftW, leftH);
+         int longSide = Math.max(leftW, leftH);
+         if (shortSide < bestShort || (shortSide == bestShort && longSide < bestLong)) {
+            best = r;
+            bestShort = shortSide;
+            bestLong = longSide;
+         }
+      }
+
+      if (best == null)
+         return false;
+
+      int x = best[0];
+      int y = best[1];
+      place(x, y, w, h);
+
+      position[0] = x;
+      position[1] = y;
+      usedArea += (long) w * h;
+      return true;
+   }
+
+   private void place(int x, int y, int w, int h) {
+      int x1 = x + w;
+      int y1 = y + h;
+
+      for (int i = free.size() - 1; i >= 0; i--) {
+         int[] r = free.get(i);
+         int rx1 = r[0] + r[2];
+         int ry1 = r[1] + r[3];
+
+         if (x >= rx1 || x1 <= r[0] || y >= ry1 || y1 <= r[1])
+            continue;
+
+         // Keep the parts of the free rectangle around the used one
+         if (x > r[0])
+            split.add(new int[] { r[0], r[1], x - r[0], r[3] });
+         if (x1 < rx1)
+            split.add(new int[] { x1, r[1], rx1 - x1, r[3] });
+         if (y > r[1])
+            split.add(new int[] { r[0], r[1], r[2], y - r[1] });
+         if (y1 < ry1)
+            split.add(new int[] { r[0], y1, r[2], ry1 - y1 });
+
+         free.remove(i);
+      }
+
+      free.addAll(split);
+      split.clear();
+      prune();
+   }
+
+   private void prune() {
+      for (int i = 0; i < free.size(); i++) {
+         for (int j = i + 1; j < free.size(); j++) {
+            int[] a = free.get(i);
+            int[] b = free.get(j);
+            if (contains(b, a)) {
+               free.remove(i--);
+               break;
+            }
+            if (contains(a, b))
+               free.remove(j--);
+         }
+      }
+   }
+
+   private static boolean contains(int[] outer, int[] inner) {
+      return inner[0] >= outer[0] && inner[1] >= outer[1]
+            && inner[0] + inner[2] <= outer[0] + outer[2]
+            && inner[1] + inner[3] <= outer[1] + outer[3];
+   }
+
+   /**
+    * @return Page width, in pixels.
+    */
+   public int getWidth() {
+      return width;
+   }
+
+   /**
+    * @return Page height, in pixels.
+    */
+   public int getHeight() {
+      return height;
+   }
+
+   /**
+    * @return The fraction of the page area already used, from 0 to 1.
+    */
+   public float getOccupancy() {
+      return (float) usedArea / ((long) width * height);
+   }
+}
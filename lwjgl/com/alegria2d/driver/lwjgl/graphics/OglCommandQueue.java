@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.lwjgl.graphics;
+
+import java.util.Arrays;
+
+/**
+ * Records draw commands and replays them sorted, so images sharing a texture end up next to each other.
+ * <p>
+ * Each command gets a 64 bit sort key, with the following layout (most significant bits first):
+ * 
+ * <pre>
+ * [layer: 8][depth: 16][translucent: 1][texture: 16][sequence: 23]
+ * </pre>
+ * 
+ * So commands are drawn layer by layer and, inside a layer, from the lowest to the highest depth, whether they are
+ * opaque or not. There is no depth buffer, so this order is what makes translucent images blend over the images below
+ * them. Inside a depth, opaque images are drawn first, grouped by texture. Translucent images get no texture bits, so
+ * they keep their submission order. The sequence number makes every key unique.
+ * <p>
+ * Keys are stored in a primitive <code>long[]</code> and sorted with an LSD radix sort. All arrays are kept from one
+ * flush to the next, so a steady scene does not allocate.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class OglCommandQueue {
+   /**
+    * Maximum number of commands between two flushes.
+    */
+   public static final int MAX_COMMANDS = 1 << 23;
+
+   /**
+    * Biggest layer value.
+    */
+   public static final int MAX_LAYER = 0xFF;
+
+   /**
+    * Biggest depth value.
+    */
+   public static final int MAX_DEPTH = 0xFFFF;
+
+   private static final int LAYER_SHIFT = 56;
+   private static final int DEPTH_SHIFT = 40;
+   private static final int TRANSLUCENT_SHIFT = 39;
+   private static final int TEXTURE_SHIFT = 23;
+   private static final long SEQUENCE_MASK = MAX_COMMANDS - 1;
+
+   private static final int PARAMS = 8;
+
+   private long[] keys;
+   private long[] buffer;
+   private float[] params;
+   private OglImage[] images;
+   private int count = 0;
+   private int[] histograms = new int[8 * 256];
+
+   /**
+    * Creates a new command queue.
+    */
+   public OglCommandQueue() {
+      this(1024);
+   }
+
+   /**
+    * Creates a new command queue.
+    * 
+    * @param capacity Initial number of commands. The queue grows as needed.
+    */
+   public OglCommandQueue(int capacity) {
+      keys = new long[capacity];
+      buffer = new long[capacity];
+      params = new float[capacity * PARAMS];
+      images = new OglImage[capacity];
+   }
+
+   /**
+    * Records a draw command. See {@link OglSpriteBatch#draw(OglImage, float, float, float, float, float, float, float, float)}
+    * for the drawing parameters.
+    * 
+    * @param layer The layer, from 0 to {@link #MAX_LAYER}.
+    * @param depth The depth inside the layer, from 0 to {@link #MAX_DEPTH}.
+    */
+   public void add(int layer, int depth, OglImage image,
+         float x, float y, float w, float h,
+         float angle, float r, float g, float b)
+   {
+      if (layer < 0 || layer > MAX_LAYER)
+         throw new IllegalArgumentException("Layer must be between 0 and " + MAX_LAYER);
+      if (depth < 0 || depth > MAX_DEPTH)
+         throw new IllegalArgumentException("Depth must be between 0 and " + MAX_DEPTH);
+      if (count == MAX_COMMANDS)
+         throw new IllegalStateException("Too many commands. Flush the queue.");
+
+      if (count == keys.length)
+         grow();
+
+      long key = ((long) layer << LAYER_SHIFT) | ((long) depth << DEPTH_SHIFT) | count;
+      if (image.hasAlpha())
+         key |= 1L << TRANSLUCENT_SHIFT;
+      else
+         key |= (long) (image.getTextureID() & 0xFFFF) << TEXTURE_SHIFT;
+
+      keys[count] = key;
+      images[count] = image;
+
+      int p = count * PARAMS;
+      params[p] = x;
+      params[p + 1] = y;
+      params[p + 2] = w;
+      params[p + 3] = h;
+      params[p + 4] = angle;
+      params[p + 5] = r;
+      params[p + 6] = g;
+      params[p + 7] = b;
+      count++;
+   }
+
+   private void grow() {
+      int capacity = Math.min(MAX_COMMANDS, keys.length * 2);
+
+      long[] newKeys = new long[capacity];
+      System.arraycopy(keys, 0, newKeys, 0, count);
+      keys = newKeys;
+      buffer = new long[capacity];
+
+      float[] newParams = new float[capacity * PARAMS];
+      System.arraycopy(params, 0, newParams, 0, count * PARAMS);
+      params = newParams;
+
+      OglImage[] newImages = new OglImage[capacity];
+      System.arraycopy(images, 0, newImages, 0, count);
+      images = newImages;
+   }
+
+   /**
+    * @return Number of recorded commands.
+    */
+   public int size() {
+      return count;
+   }
+
+   /**
+    * Sorts all recorded commands and sends them to the given batch, which must be started. The queue is emptied.
+    * 
+    * @param batch The batch that will draw the images.
+    */
+   public void flush(OglSpriteBatch batch) {
+      if (count == 0)
+         return;
+
+      if (radixSort(keys, buffer, count, histograms)) {
+         long[] sorted = buffer;
+         buffer = keys;
+         keys = sorted;
+      }
+
+      for (int i = 0; i < count; i++) {
+         int index = (int) (keys[i] & SEQUENCE_MASK);
+         int p = index * PARAMS;
+         batch.draw(images[index],
+               params[p], params[p + 1], params[p + 2], params[p + 3],
+               params[p + 4], params[p + 5], params[p + 6], params[p + 7]);
+      }
+
+      for (int i = 0; i < count; i++)
+         images[i] = null;
+      count = 0;
+   }
+
+   /**
+    * Sorts the first <code>count</code> keys, compared as unsigned numbers. The sort is stable.
+    * 
+    * @param keys The keys to sort.
+    * @param buffer A scratch array with at least <code>count</code> elements.
+    * @param count Number of keys to sort.
+    */
+   public static void radixSort(long[] keys, long[] buffer, int count) {
+      if (radixSort(keys, buffer, count, new int[8 * 256]))
+         System.arraycopy(buffer, 0, keys, 0, count);
+   }
+
+   /**
+    * LSD radix sort, one byte at a time. All histograms are calculated in a single pass, and bytes that are equal in
+    * every key are skipped.
+    * 
+    * @return True if the sorted keys ended up in the buffer array, false if they are in the keys array.
+    */
+   private static boolean radixSort(long[] keys, long[] buffer, int count, int[] histograms) {
+      if (count < 2)
+         return false;
+
+      Arrays.fill(histograms, 0);
+      for (int i = 0; i < count; i++) {
+         long key = keys[i];
+         for (int pass = 0; pass < 8; pass++)
+            histograms[(pass << 8) | (int) ((key >>> (pass << 3)) & 0xFF)]++;
+      }
+
+      long[] src = keys;
+      long[] dst = buffer;
+      for (int pass = 0; pass < 8; pass++) {
+         int base = pass << 8;
+         int shift = pass << 3;
+
+         // Skip the pass if all keys have the same byte
+         if (histograms[base + (int) ((keys[0] >>> shift) & 0xFF)] == count)
+            continue;
+
+         // Counts to offsets
+         int offset = 0;
+         for (int i = base; i < base + 256; i++) {
+            int c = histograms[i];
+            histograms[i] = offset;
+            offset += c;
+         }
+
+         for (int i = 0; i < count; i++) {
+            long key = src[i];
+            dst[histograms[base + (int) ((key >>> shift) & 0xFF)]++] = key;
+         }
+
+         long[] swap = src;
+         src = dst;
+         dst = swap;
+      }
+      return src == buffer;
+   }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.lwjgl.graphics;
+
+import static org.lwjgl.opengl.GL11.*;
+
+/**
+ * Forwards every call straight to LWJGL.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class OglDirectFacade implements OglFacade {
+   @Override
+   public void enable(int cap) {
+      glEnable(cap);
+   }
+
+   @Override
+   public void disable(int cap) {
+      glDisable(cap);
+   }
+
+   @Override
+   public void blendFunc(int src, int dst) {
+      glBlendFunc(src, dst);
+   }
+
+   @Override
+   public void bindTexture(int texture) {
+      glBindTexture(GL_TEXTURE_2D, texture);
+   }
+
+   @Override
+   public void color(float r, float g, float b, float a) {
+      glColor4f(r, g, b, a);
+   }
+}
@@ -24,12 +24,49 @@ package com.alegria2d.driver.lwjgl.graphics;
 
 import org.newdawn.slick.opengl.Texture;
 import com.alegria2d.core.driver.graphics.Image;
+import com.alegria2d.core.math.HashBuilder;
 
+/**
+ * An image stored in an OpenGL texture. The image may cover the whole texture, or just a rectangular region of it, as
+ * the images of an {@link OglTextureAtlas}.
+ * 
+ * @author Vinicius G. Mendonca
+ */
 public class OglImage implements Image {
    Texture texture;
+   private float u0;
+   private float v0;
+   private float u1;
+   private float v1;
+   private boolean alpha;
+   private long lastDrawn = -1;
 
+   /**
+    * Creates an image covering the whole texture.
+    * 
+    * @param texture The texture.
+    */
    public OglImage(Texture texture) {
+      this(texture, 0, 0, 1, 1, texture.hasAlpha());
+   }
+
+   /**
+    * Creates an image covering a region of the texture. Texture coordinates go from 0 to 1.
+    * 
+    * @param texture The texture.
+    * @param u0 Left texture coordinate.
+    * @param v0 Top texture coordinate.
+    * @param u1 Right texture coordinate.
+    * @param v1 Bottom texture coordinate.
+    * @param alpha True if the region has translucent pixels.
+    */
+   public OglImage(Texture texture, float u0, float v0, float u1, float v1, boolean alpha) {
       this.texture = texture;
+      this.u0 = u0;
+      this.v0 = v0;
+      this.u1 = u1;
+      this.v1 = v1;
+      this.alpha = alpha;
    }
 
    /**
@@ -38,7 +75,7 @@ public class OglImage implements Image {
     */
    @Override
    public int getWidth() {
-      return texture.getTextureWidth();
+      return Math.round(texture.getTextureWidth() * (u1 - u0));
    }
    
    /**
@@ -47,13 +84,15 @@ public class OglImage implements Image {
     */
    @Override
    public int getHeight() {
-      return texture.getTextureHeight();
+      return Math.round(texture.getTextureHeight() * (v1 - v0));
    }
 
    /**
     * Returns the width of the image before any rescaling operation.
     */
    public int getOriginalWidth() {
+      if (isRegion())
+         return getWidth();
       return texture.getImageWidth();
    }
 
@@ -61,21 +100,88 @@ public class OglImage implements Image {
     * Returns the height of the image before any rescaling operation.
     */
    public int getOriginalHeight() {
+      if (isRegion())
+         return getHeight();
       return texture.getImageHeight();
    }
 
+   /**
+    * @return True if this image covers just a region of its texture.
+    */
+   public boolean isRegion() {
+      return u0 != 0 || v0 != 0 || u1 != 1 || v1 != 1;
+   }
+
+   /**
+    * @return Left texture coordinate.
+    */
+   public float getU0() {
+      return u0;
+   }
+
+   /**
+    * @return Top texture coordinate.
+    */
+   public float getV0() {
+      return v0;
+   }
+
+   /**
+    * @return Right texture coordinate.
+    */
+   public float getU1() {
+      return u1;
+   }
+
+   /**
+    * @return Bottom texture coordinate.
+    */
+   public float getV1() {
+      return v1;
+   }
+
    @Override
    public boolean hasAlpha() {
-      return texture.hasAlpha();
+      return alpha;
+   }
+
+   /**
+    * @return Estimated video memory used by the texture of this image, in bytes.
+    */
+   public long getTextureBytes() {
+      return (long) texture.getTextureWidth() * texture.getTextureHeight() * (texture.hasAlpha() ? 4 : 3);
+   }
+
+   /**
+    * Records that this image was drawn in the given frame. Called by the renderer.
+    * 
+    * @param frame The frame number.
+    */
+   public void markDrawn(long frame) {
+      lastDrawn = frame;
+   }
+
+   /**
+    * @return The last frame this image was drawn in, or -1 if it was never drawn.
+    */
+   public long getLastDrawn() {
+      return lastDrawn;
    }
 
    public void bind() {
       texture.bind();
    }
 
+   /**
+    * @return The OpenGL id of the texture of this image. Images of the same atlas page share the same id.
+    */
+   public int getTextureID() {
+      return texture.getTextureID();
+   }
+
    @Override
    public int hashCode() {
-      return texture.getTextureID();
+      return new HashBuilder(texture.getTextureID()).add(u0).add(v0).add(u1).add(v1).hashCode();
    }
 
    @Override
@@ -87,6 +193,8 @@ public class OglImage implements Image {
       if (obj.getClass() != getClass())
          return false;
 
-      return texture.getTextureID() == ((OglImage) obj).texture.getTextureID();
+      OglImage other = (OglImage) obj;
+      return texture.getTextureID() == other.texture.getTextureID()
+            && u0 == other.u0 && v0 == other.v0 && u1 == other.u1 && v1 == other.v1;
    }
 }
@@ -22,18 +22,23 @@
  */
 package com.alegria2d.driver.lwjgl.graphics;
 
-import static org.lwjgl.opengl.GL11.GL_LINEAR;
-import static org.lwjgl.opengl.GL11.GL_NEAREST;
+import static org.lwjgl.opengl.GL11.*;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Future;
+import org.newdawn.slick.opengl.ImageDataFactory;
+import org.newdawn.slick.opengl.LoadableImageData;
+import org.newdawn.slick.opengl.Texture;
+import org.newdawn.slick.opengl.TextureImpl;
 import org.newdawn.slick.opengl.TextureLoader;
+import com.alegria2d.core.driver.graphics.AbstractImageLoader;
 import com.alegria2d.core.driver.graphics.Image;
-import com.alegria2d.core.driver.graphics.ImageLoader;
 
 /**
  * @author Vinicius G. Mendonca
  */
-public class OglImageLoader implements ImageLoader {
+public class OglImageLoader extends AbstractImageLoader {
    /**
     * Default Texture filter Types.
     * 
@@ -59,10 +64,56 @@ public class OglImageLoader implements ImageLoader {
    }
    
    private Filter filter = Filter.SMOOTH;
+   private OglRenderState state;
+   private OglAsyncLoader async;
+
+   /**
+    * Creates a new image loader. Since it is not bound to a renderer, {@link #loadAsync(String, InputStream)} loads
+    * images synchronously.
+    */
+   public OglImageLoader() {
+      this(null, null);
+   }
+
+   /**
+    * Creates a new image loader, that keeps the given state cache consistent after binding new textures.
+    * 
+    * @param state The renderer state cache. May be null.
+    * @param async The background loader used by {@link #loadAsync(String, InputStream)}. May be null.
+    */
+   public OglImageLoader(OglRenderState state, OglAsyncLoader async) {
+      this.state = state;
+      this.async = async;
+   }
 
    @Override
    public Image load(String format, InputStream source) throws IOException {
-      return new OglImage(TextureLoader.getTexture(format, source, filter.toOgl()));
+      try {
+         return new OglImage(TextureLoader.getTexture(format, source, filter.toOgl()));
+      } finally {
+         if (state != null)
+            state.invalidateTexture();
+      }
+   }
+
+   @Override
+   public Future<Image> loadAsync(String format, InputStream source) {
+      if (async != null)
+         return async.load(format, source, filter);
+      return super.loadAsync(format, source);
+   }
+
+   /**
+    * Creates a builder that packs many images into shared textures, with the current filter. Prefer an atlas for many
+    * small images: they are not padded to a power of two one by one, and the renderer can draw them without changing
+    * textures.
+    * 
+    * @param pageSize Width and height of each atlas texture. Must be a power of two.
+    * @return A new atlas builder.
+    * @see OglAtlasBuilder
+    */
+   public OglAtlasBuilder newAtlasBuilder(int pageSize) {
+      return new OglAtlasBuilder(pageSize, filter, state);
    }
 
    /**
@@ -82,4 +133,77 @@ public class OglImageLoader implements ImageLoader {
    public Filter getFilter() {
       return filter;
    }
+
+   /**
+    * Finds the Slick image decoder of a format. Slick chooses decoders by file extension, so a dot is added to the
+    * format name if needed.
+    * 
+    * @param format The image format name (e.g. TGA, PNG, .png).
+    * @return The image decoder.
+    */
+   static LoadableImageData getImageData(String format) {
+      format = format.toLowerCase();
+      if (!format.startsWith("."))
+         format = "." + format;
+      return ImageDataFactory.getImageDataFor(format);
+   }
+
+   /**
+    * Creates an OpenGL texture with the given pixels. Must be called in the rendering thread.
+    * 
+    * @param ref A name for the texture.
+    * @param pixels The pixels, with <code>texWidth</code> pixels per row.
+    * @param format Pixel format of the buffer, GL_RGB or GL_RGBA.
+    * @param width Image width.
+    * @param height Image height.
+    * @param texWidth Texture width.
+    * @param texHeight Texture height.
+    * @param alpha True if the image has translucent pixels.
+    * @param filter The texture filter.
+    * @return The new texture.
+    */
+   static Texture createTexture(String ref, ByteBuffer pixels, int format,
+         int width, int height, int texWidth, int texHeight,
+         boolean alpha, Filter filter)
+   {
+      return createTexture(ref, pixels, alpha ? GL_RGBA8 : GL_RGB8, format, GL_UNSIGNED_BYTE,
+            width, height, texWidth, texHeight, alpha, filter);
+   }
+
+   /**
+    * Creates an OpenGL texture with the given pixels, in any pixel type. Must be called in the rendering thread.
+    * 
+    * @param ref A name for the texture.
+    * @param pixels The pixels, with <code>texWidth</code> pixels per row. Rows are not aligned.
+    * @param internalFormat The format used by OpenGL to store the texture, such as GL_RGBA8.
+    * @param format Pixel format of the buffer, GL_RGB or GL_RGBA.
+    * @param type Pixel type of the buffer, such as GL_UNSIGNED_BYTE.
+    * @param width Image width.
+    * @param height Image height.
+    * @param texWidth Texture width.
+    * @param texHeight Texture height.
+    * @param alpha True if the image has translucent pixels.
+    * @param filter The texture filter.
+    * @return The new texture.
+    */
+   static Texture createTexture(String ref, ByteBuffer pixels, int internalFormat, int format, int type,
+         int width, int height, int texWidth, int texHeight,
+         boolean alpha, Filter filter)
+   {
+      int id = glGenTextures();
+      glBindTexture(GL_TEXTURE_2D, id);
+      glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, filter.toOgl());
+      glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, filter.toOgl());
+      glPixelStorei(GL_UNPACK_ALIGNMENT, 1);
+      glTexImage2D(GL_TEXTURE_2D, 0, internalFormat, texWidth, texHeight, 0, format, type, pixels);
+      glPixelStorei(GL_UNPACK_ALIGNMENT, 4);
+
+      TextureImpl texture = new TextureImpl(ref, GL_TEXTURE_2D, id);
+      texture.setWidth(width);
+      texture.setHeight(height);
+      texture.setTextureWidth(texWidth);
+      texture.setTextureHeight(texHeight);
+      texture.setAlpha(alpha);
+      return texture;
+   }
 }
@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.lwjgl.graphics;
+
+/**
+ * Shadows the OpenGL state used by the renderer, and only calls OpenGL when the state really changes.
+ * <p>
+ * The bound texture, the blending function, the current color and the enabled capabilities are tracked. Right after
+ * creation, or after {@link #invalidate()}, the state is unknown, and the next call of each kind is always issued.
+ * Call {@link #invalidate()} whenever code outside this class may have changed the OpenGL state.
+ * <p>
+ * The number of issued and skipped state changes are counted, so the savings can be measured.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class OglRenderState {
+   private static final int UNKNOWN = -1;
+   private static final int DISABLED = 0;
+   private static final int ENABLED = 1;
+
+   private OglFacade gl;
+
+   private int[] caps = new int[8];
+   private int[] capStates = new int[8];
+   private int capCount = 0;
+
+   private int texture;
+   private int blendSrc;
+   private int blendDst;
+   private boolean colorKnown;
+   private float red, green, blue, alpha;
+
+   private long issued = 0;
+   private long skipped = 0;
+
+   /**
+    * Creates a state cache that talks directly to LWJGL.
+    */
+   public OglRenderState() {
+      this(new OglDirectFacade());
+   }
+
+   /**
+    * Creates a state cache over the given facade.
+    * 
+    * @param gl The OpenGL facade.
+    */
+   public OglRenderState(OglFacade gl) {
+      this.gl = gl;
+      invalidate();
+   }
+
+   /**
+    * Forgets all shadowed state. The next change of each kind will reach OpenGL.
+    */
+   public void invalidate() {
+      for (int i = 0; i < capCount; i++)
+         capStates[i] = UNKNOWN;
+      texture = UNKNOWN;
+      blendSrc = UNKNOWN;
+      blendDst = UNKNOWN;
+      colorKnown = false;
+   }
+
+   /**
+    * Forgets only the current color. Needed after drawing with a color array, since OpenGL leaves the current color
+    * undefined.
+    */
+   public void invalidateColor() {
+      colorKnown = false;
+   }
+
+   /**
+    * Forgets only the bound texture. Needed after loading textures, since loaders bind the textures they create.
+    */
+   public void invalidateTexture() {
+      texture = UNKNOWN;
+   }
+
+   /**
+    * Enables the given capability, if it is not already enabled.
+    * 
+    * @param cap The OpenGL capability, such as GL_BLEND.
+    */
+   public void enable(int cap) {
+      int index = indexOf(cap);
+      if (capStates[index] == ENABLED) {
+         skipped++;
+         return;
+      }
+
+      gl.enable(cap);
+      capStates[index] = ENABLED;
+      issued++;
+   }
+
+   /**
+    * Disables the given capability, if it is not already disabled.
+    * 
+    * @param cap The OpenGL capability, such as GL_BLEND.
+    */
+   public void disable(int cap) {
+      int index = indexOf(cap);
+      if (capStates[index] == DISABLED) {
+         skipped++;
+         return;
+      }
+
+      gl.disable(cap);
+      capStates[index] = DISABLED;
+      issued++;
+   }
+
+   private int indexOf(int cap) {
+      for (int i = 0; i < capCount; i++)
+         if (caps[i] == cap)
+            return i;
+
+      if (capCount == caps.length) {
+         int[] grownCaps = new int[caps.length * 2];
+         int[] grownStates = new int[caps.length * 2];
+         System.arraycopy(caps, 0, grownCaps, 0, capCount);
+         System.arraycopy(capStates, 0, grownStates, 0, capCount);
+         caps = grownCaps;
+         capStates = grownStates;
+      }
+
+      caps[capCount] = cap;
+      capStates[capCount] = UNKNOWN;
+      return capCount++;
+   }
+
+   /**
+    * Changes the blending function, if it differs from the current one.
+    * 
+    * @param src The source factor.
+    * @param dst The destination factor.
+    */
+   public void blendFunc(int src, int dst) {
+      if (src == blendSrc && dst == blendDst) {
+         skipped++;
+         return;
+      }
+
+      gl.blendFunc(src, dst);
+      blendSrc = src;
+      blendDst = dst;
+      issued++;
+   }
+
+   /**
+    * Binds the given texture, if it is not already bound.
+    * 
+    * @param texture The OpenGL texture id.
+    */
+   public void bindTexture(int texture) {
+      if (texture == this.texture) {
+         skipped++;
+         return;
+      }
+
+      gl.bindTexture(texture);
+      this.texture = texture;
+      issued++;
+   }
+
+   /**
+    * Binds the texture of the given image, if it is not already bound.
+    * 
+    * @param image The image.
+    */
+   public void bindTexture(OglImage image) {
+      bindTexture(image.getTextureID());
+   }
+
+   /**
+    * Changes the current color, if it differs from the current one.
+    */
+   public void color(float r, float g, float b, float a) {
+      if (colorKnown && r == red && g == green && b == blue && a == alpha) {
+         skipped++;
+         return;
+      }
+
+      gl.color(r, g, b, a);
+      red = r;
+      green = g;
+      blue = b;
+      alpha = a;
+      colorKnown = true;
+      issued++;
+   }
+
+   /**
+    * Changes the current color to the given opaque color, if it differs from the current one.
+    */
+   public void color(float r, float g, float b) {
+      color(r, g, b, 1);
+   }
+
+   /**
+    * @return The number of state changes that were sent to OpenGL.
+    */
+   public long getIssuedChanges() {
+      return issued;
+   }
+
+   /**
+    * @return The number of state changes that were skipped, since the state was already the requested one.
+    */
+   public long getSkippedChanges() {
+      return skipped;
+   }
+
+   /**
+    * Zeroes the issued and skipped counters.
+    */
+   public void resetStats() {
+      issued = 0;
+      skipped = 0;
+   }
+}
@@ -28,8 +28,19 @@ import com.alegria2d.core.driver.graphics.ImageLoader;
 import com.alegria2d.core.driver.graphics.Renderer;
 
 public class OglRenderer implements Renderer {
+   private OglRenderState state = new OglRenderState();
+   private OglSpriteBatch batch = new OglSpriteBatch(state);
+   private OglCommandQueue queue = new OglCommandQueue();
+   private OglAsyncLoader async = new OglAsyncLoader(state);
+   private OglTextureCache cache = null;
+   private long frame = 0;
+   private boolean deferred = false;
+   private int layer = 0;
+   private int depth = 0;
+
    @Override
    public void clearScreen(float r, float g, float b, float a) {
+      flush();
       glClearColor(r, g, b, a);
       glClear(GL_COLOR_BUFFER_BIT | GL_STENCIL_BUFFER_BIT);
    }
@@ -39,44 +50,183 @@ public class OglRenderer implements Renderer {
          float x, float y, float w, float h,
          float angle, float r, float g, float b) 
    {
+      OglImage img = (OglImage)image;
+      img.markDrawn(frame);
+      if (batch.isDrawing()) {
+         if (deferred)
+            queue.add(layer, depth, img, x, y, w, h, angle, r, g, b);
+         else
+            batch.draw(img, x, y, w, h, angle, r, g, b);
+         return;
+      }
+
       float w2 = w / 2.0f;
       float h2 = h / 2.0f;
       
-      OglImage img = (OglImage)image;
-      glEnable(GL_TEXTURE_2D);
+      state.enable(GL_TEXTURE_2D);
       
             
       if (image.hasAlpha()) {
-         glEnable(GL_BLEND);
-         glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+         state.enable(GL_BLEND);
+         state.blendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
       } else {
-         glDisable(GL_BLEND);
+         state.disable(GL_BLEND);
       }
                  
       glPushMatrix();      
          glTranslatef(x, y, 0);
          glRotatef(angle, 0, 0, 1);
          
-         img.bind();         
+         state.bindTexture(img);
          glBegin(GL_QUADS);
-            glColor3f(r, g, b);
-            glTexCoord2f(1, 0);
+            state.color(r, g, b);
+            glTexCoord2f(img.getU1(), img.getV0());
             glVertex2f(w2, h2);
             
-            glTexCoord2f(1,1);
+            glTexCoord2f(img.getU1(), img.getV1());
             glVertex2f(w2, -h2 );
             
-            glTexCoord2f(0,1);
+            glTexCoord2f(img.getU0(), img.getV1());
             glVertex2f(-w2 , -h2 );
             
-            glTexCoord2f(0,0);
+            glTexCoord2f(img.getU0(), img.getV0());
             glVertex2f(-w2 , h2);
          glEnd();
       glPopMatrix();      
    }
 
+   @Override
+   public void begin() {
+      batch.begin();
+   }
+
+   @Override
+   public void flush() {
+      queue.flush(batch);
+      batch.flush();
+   }
+
+   @Override
+   public void end() {
+      queue.flush(batch);
+      batch.end();
+   }
+
+   /**
+    * Enables or disables the deferred mode. In deferred mode, images drawn between {@link #begin()} and
+    * {@link #flush()} are not drawn in call order. They are sorted by layer, depth and texture, in order to reduce
+    * texture changes. Translucent images keep their call order inside the same layer and depth.
+    * <p>
+    * Opaque images with the same layer and depth may be drawn in any order. Use different depths for opaque images that
+    * overlap.
+    * 
+    * @param deferred True to enable the deferred mode.
+    * @see OglCommandQueue
+    */
+   public void setDeferred(boolean deferred) {
+      if (!deferred)
+         queue.flush(batch);
+      this.deferred = deferred;
+   }
+
+   /**
+    * @return True if the deferred mode is enabled.
+    */
+   public boolean isDeferred() {
+      return deferred;
+   }
+
+   /**
+    * Changes the layer of the next images drawn in deferred mode. Lower layers are drawn first.
+    * 
+    * @param layer The layer, from 0 to {@link OglCommandQueue#MAX_LAYER}.
+    */
+   public void setLayer(int layer) {
+      if (layer < 0 || layer > OglCommandQueue.MAX_LAYER)
+         throw new IllegalArgumentException("Layer must be between 0 and " + OglCommandQueue.MAX_LAYER);
+      this.layer = layer;
+   }
+
+   /**
+    * @return The layer of the next images drawn in deferred mode.
+    */
+   public int getLayer() {
+      return layer;
+   }
+
+   /**
+    * Changes the depth of the next images drawn in deferred mode. Inside a layer, lower depths are drawn first.
+    * 
+    * @param depth The depth, from 0 to {@link OglCommandQueue#MAX_DEPTH}.
+    */
+   public void setDepth(int depth) {
+      if (depth < 0 || depth > OglCommandQueue.MAX_DEPTH)
+         throw new IllegalArgumentException("Depth must be between 0 and " + OglCommandQueue.MAX_DEPTH);
+      this.depth = depth;
+   }
+
+   /**
+    * @return The depth of the next images drawn in deferred mode.
+    */
+   public int getDepth() {
+      return depth;
+   }
+
+   /**
+    * @return The OpenGL state cache used by this renderer. Call {@link OglRenderState#invalidate()} after changing the
+    *         OpenGL state outside the renderer.
+    */
+   public OglRenderState getState() {
+      return state;
+   }
+
+   /**
+    * @return The loader of images requested with {@link ImageLoader#loadAsync(String, java.io.InputStream)}. The screen
+    *         calls its {@link OglAsyncLoader#process()} method once per frame.
+    */
+   public OglAsyncLoader getAsyncLoader() {
+      return async;
+   }
+
+   /**
+    * @return The texture cache of this renderer, created with the {@link OglTextureCache#DEFAULT_BUDGET default
+    *         budget} on the first call.
+    */
+   public OglTextureCache getTextureCache() {
+      if (cache == null)
+         cache = new OglTextureCache(new OglImageLoader(state, async), OglTextureCache.DEFAULT_BUDGET);
+      return cache;
+   }
+
+   /**
+    * @return Number of the current frame. Incremented by the screen after each update.
+    */
+   public long getFrame() {
+      return frame;
+   }
+
+   void nextFrame() {
+      frame++;
+   }
+
+   /**
+    * Stops the image decoding threads and deletes all cached textures.
+    */
+   public void dispose() {
+      async.dispose();
+      if (cache != null)
+         cache.dispose();
+   }
+
+   /**
+    * @return The sprite batch used between {@link #begin()} and {@link #end()} calls.
+    */
+   public OglSpriteBatch getBatch() {
+      return batch;
+   }
+
    @Override
    public ImageLoader newImageLoader() {
-      return new OglImageLoader();
+      return new OglImageLoader(state, async);
    }
 }
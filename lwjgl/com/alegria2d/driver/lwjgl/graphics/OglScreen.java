@@ -34,7 +34,6 @@ import java.io.InputStream;
 import java.nio.ByteBuffer;
 import org.lwjgl.LWJGLException;
 import org.lwjgl.opengl.Display;
-import org.newdawn.slick.opengl.ImageDataFactory;
 import org.newdawn.slick.opengl.LoadableImageData;
 import com.alegria2d.core.driver.graphics.DisplayMode;
 import com.alegria2d.core.driver.graphics.Renderer;
@@ -42,19 +41,16 @@ import com.alegria2d.core.driver.graphics.Screen;
 import com.alegria2d.core.driver.graphics.UnableToChangeDisplayModeException;
 import com.alegria2d.core.driver.graphics.UnableToOpenWindowException;
 import com.alegria2d.core.exception.PrematureCallException;
+import com.alegria2d.core.util.ByteBufferInputStream;
 
 public class OglScreen implements Screen {
-   private Renderer renderer = null;
+   private OglRenderer renderer = null;
    private Rectangle2D viewport = null;
    private Rectangle2D coordinates = null;
 
    @Override
    public void setIcon(String format, InputStream... icons) throws IOException {
-      format = format.toLowerCase();
-      if (!format.startsWith("."))
-         format = "." + format;
-
-      LoadableImageData data = ImageDataFactory.getImageDataFor(format);
+      LoadableImageData data = OglImageLoader.getImageData(format);
       ByteBuffer[] buffers = new ByteBuffer[icons.length];
       for (int i = 0; i < icons.length; i++) {
          buffers[i] = data.loadImage(icons[i], false, true, null);
@@ -66,6 +62,15 @@ public class OglScreen implements Screen {
          is.close();
    }
 
+   @Override
+   public void setIcon(String format, ByteBuffer... icons) throws IOException {
+      LoadableImageData data = OglImageLoader.getImageData(format);
+      ByteBuffer[] buffers = new ByteBuffer[icons.length];
+      for (int i = 0; i < icons.length; i++)
+         buffers[i] = data.loadImage(new ByteBufferInputStream(icons[i]), false, true, null);
+      Display.setIcon(buffers);
+   }
+
    @Override
    public void setTitle(String title) {
       Display.setTitle(title);
@@ -164,9 +169,11 @@ public class OglScreen implements Screen {
 
    @Override
    public void dispose() {
-      if (Display.isCreated())
+      if (!Display.isCreated())
          return;
 
+      if (renderer != null)
+         renderer.dispose();
       Display.destroy();
       renderer = null;
       viewport = null;
@@ -196,6 +203,11 @@ public class OglScreen implements Screen {
    public void update() {
       if (!isInit())
          throw new PrematureCallException();
+
+      if (renderer != null) {
+         renderer.getAsyncLoader().process();
+         renderer.nextFrame();
+      }
       Display.update();
    }
 
@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.lwjgl.graphics;
+
+import static org.lwjgl.opengl.GL11.*;
+import java.nio.FloatBuffer;
+import org.lwjgl.BufferUtils;
+import com.alegria2d.core.exception.PrematureCallException;
+
+/**
+ * Accumulates sprites in a vertex array and draws them with as few OpenGL calls as possible.
+ * <p>
+ * Each sprite has its rotated corners calculated on the CPU and stored in a direct {@link FloatBuffer}, with the
+ * following interleaved layout per vertex:
+ * 
+ * <pre>
+ * [x y u v r g b]
+ * </pre>
+ * 
+ * The accumulated sprites are sent in a single <code>glDrawArrays</code> call, which happens when the texture or the
+ * blending state changes, when the buffer is full, or when {@link #flush()} is explicitly called.
+ * Images are compared by texture id, so regions of the same {@link OglTextureAtlas} page share a draw call.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class OglSpriteBatch {
+   /**
+    * Default number of sprites that fit in the batch before it is automatically flushed.
+    */
+   public static final int DEFAULT_CAPACITY = 2048;
+
+   private static final int FLOATS_PER_VERTEX = 7;
+   private static final int VERTICES_PER_SPRITE = 4;
+   private static final int FLOATS_PER_SPRITE = FLOATS_PER_VERTEX * VERTICES_PER_SPRITE;
+   private static final int STRIDE = FLOATS_PER_VERTEX * 4;
+
+   private OglRenderState state;
+   private FloatBuffer vertices;
+   private int capacity;
+
+   private OglImage texture = null;
+   private boolean blending = false;
+   private int sprites = 0;
+   private boolean drawing = false;
+
+   private int drawCalls = 0;
+   private int spritesDrawn = 0;
+
+   /**
+    * Creates a new sprite batch with the {@link #DEFAULT_CAPACITY default capacity}.
+    */
+   public OglSpriteBatch() {
+      this(DEFAULT_CAPACITY);
+   }
+
+   /**
+    * Creates a new sprite batch.
+    * 
+    * @param capacity Maximum number of sprites accumulated before an automatic flush.
+    */
+   public OglSpriteBatch(int capacity) {
+      this(new OglRenderState(), capacity);
+   }
+
+   /**
+    * Creates a new sprite batch with the {@link #DEFAULT_CAPACITY default capacity}, that changes the OpenGL state
+    * through the given state cache.
+    * 
+    * @param state The state cache, usually shared with the renderer.
+    */
+   public OglSpriteBatch(OglRenderState state) {
+      this(state, DEFAULT_CAPACITY);
+   }
+
+   /**
+    * Creates a new sprite batch that changes the OpenGL state through the given state cache.
+    * 
+    * @param state The state cache, usually shared with the renderer.
+    * @param capacity Maximum number of sprites accumulated before an automatic flush.
+    */
+   public OglSpriteBatch(OglRenderState state, int capacity) {
+      if (capacity < 1)
+         throw new IllegalArgumentException("Capacity must be positive!");
+
+      this.state = state;
+      this.capacity = capacity;
+      vertices = BufferUtils.createFloatBuffer(capacity * FLOATS_PER_SPRITE);
+   }
+
+   /**
+    * Starts accumulating sprites. Calling begin() on a batch that is already started has no effect.
+    */
+   public void begin() {
+      drawing = true;
+   }
+
+   /**
+    * Flushes all pending sprites and stops accumulating.
+    */
+   public void end() {
+      flush();
+      drawing = false;
+   }
+
+   /**
+    * @return True if the batch is between a {@link #begin()} and {@link #end()} call.
+    */
+   public boolean isDrawing() {
+      return drawing;
+   }
+
+   /**
+    * Adds a sprite to this batch. The parameters are the same of
+    * {@link OglRenderer#drawImage(com.alegria2d.core.driver.graphics.Image, float, float, float, float, float, float, float, float)
+    * OglRenderer.drawImage}.
+    * 
+    * @param image The image to draw.
+    * @param x The center x position
+    * @param y The center y position
+    * @param w Image width.
+    * @param h Image height.
+    * @param angle Angle, in degrees
+    * @param r Red component
+    * @param g Green component
+    * @param b Blue component.
+    * @throws PrematureCallException If {@link #begin()} was not called.
+    */
+   public void draw(OglImage image,
+         float x, float y, float w, float h,
+         float angle, float r, float g, float b)
+   {
+      if (!drawing)
+         throw new PrematureCallException("This method must be called after begin()");
+
+      boolean alpha = image.hasAlpha();
+      if (sprites > 0 && (sprites == capacity || alpha != blending
+            || image.getTextureID() != texture.getTextureID()))
+         flush();
+
+      texture = image;
+      blending = alpha;
+
+      double radians = Math.toRadians(angle);
+      float c = (float) Math.cos(radians);
+      float s = (float) Math.sin(radians);
+
+      float w2 = w / 2.0f;
+      float h2 = h / 2.0f;
+      float cw = c * w2;
+      float sw = s * w2;
+      float ch = c * h2;
+      float sh = s * h2;
+
+      // Same corners and texture coordinates of the immediate mode quad, rotated around (x, y).
+      float u0 = image.getU0();
+      float v0 = image.getV0();
+      float u1 = image.getU1();
+      float v1 = image.getV1();
+      vertex(x + cw - sh, y + sw + ch, u1, v0, r, g, b);
+      vertex(x + cw + sh, y + sw - ch, u1, v1, r, g, b);
+      vertex(x - cw + sh, y - sw - ch, u0, v1, r, g, b);
+      vertex(x - cw - sh, y - sw + ch, u0, v0, r, g, b);
+      sprites++;
+   }
+
+   private void vertex(float x, float y, float u, float v, float r, float g, float b) {
+      vertices.put(x).put(y).put(u).put(v).put(r).put(g).put(b);
+   }
+
+   /**
+    * Draws all pending sprites.
+    */
+   public void flush() {
+      if (sprites == 0)
+         return;
+
+      vertices.flip();
+      render(texture, blending, vertices, sprites);
+      vertices.clear();
+
+      drawCalls++;
+      spritesDrawn += sprites;
+      sprites = 0;
+   }
+
+   /**
+    * Sends the given vertices to OpenGL. All sprites share the same texture and blending state.
+    * 
+    * @param texture The texture of all sprites.
+    * @param blending True if alpha blending must be enabled.
+    * @param vertices The sprite vertices, in the layout described in the class documentation.
+    * @param count Number of sprites in the buffer.
+    */
+   protected void render(OglImage texture, boolean blending, FloatBuffer vertices, int count) {
+      state.enable(GL_TEXTURE_2D);
+
+      if (blending) {
+         state.enable(GL_BLEND);
+         state.blendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+      } else {
+         state.disable(GL_BLEND);
+      }
+
+      state.bindTexture(texture);
+
+      glEnableClientState(GL_VERTEX_ARRAY);
+      glEnableClientState(GL_TEXTURE_COORD_ARRAY);
+      glEnableClientState(GL_COLOR_ARRAY);
+
+      vertices.position(0);
+      glVertexPointer(2, STRIDE, vertices);
+      vertices.position(2);
+      glTexCoordPointer(2, STRIDE, vertices);
+      vertices.position(4);
+      glColorPointer(3, STRIDE, vertices);
+      vertices.position(0);
+
+      glDrawArrays(GL_QUADS, 0, count * VERTICES_PER_SPRITE);
+
+      glDisableClientState(GL_COLOR_ARRAY);
+      glDisableClientState(GL_TEXTURE_COORD_ARRAY);
+      glDisableClientState(GL_VERTEX_ARRAY);
+
+      // The current color is undefined after drawing with a color array.
+      state.invalidateColor();
+   }
+
+   /**
+    * @return Number of sprites waiting to be drawn.
+    */
+   public int getPendingSprites() {
+      return sprites;
+   }
+
+   /**
+    * @return Number of draw calls issued since creation or the last call to {@link #resetStats()}.
+    */
+   public int getDrawCalls() {
+      return drawCalls;
+   }
+
+   /**
+    * @return Number of sprites drawn since creation or the last call to {@link #resetStats()}.
+    */
+   public int getSpritesDrawn() {
+      return spritesDrawn;
+   }
+
+   /**
+    * Zeroes the draw call and sprite counters.
+    */
+   public void resetStats() {
+      drawCalls = 0;
+      spritesDrawn = 0;
+   }
+}
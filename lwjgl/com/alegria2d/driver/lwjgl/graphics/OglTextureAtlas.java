@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.lwjgl.graphics;
+
+import org.newdawn.slick.opengl.Texture;
+
+/**
+ * A set of images packed in shared textures by {@link OglAtlasBuilder}. Each image is a region of one page, with its
+ * own texture coordinates.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class OglTextureAtlas {
+   private Texture[] pages;
+   private OglImage[] images;
+
+   OglTextureAtlas(Texture[] pages, OglImage[] images) {
+      this.pages = pages;
+      this.images = images;
+   }
+
+   /**
+    * @param index The index returned by {@link OglAtlasBuilder#add(String, java.io.InputStream)}.
+    * @return The image.
+    */
+   public OglImage getImage(int index) {
+      return images[index];
+   }
+
+   /**
+    * @return Number of images in this atlas.
+    */
+   public int getImageCount() {
+      return images.length;
+   }
+
+   /**
+    * @return Number of textures used by this atlas.
+    */
+   public int getPageCount() {
+      return pages.length;
+   }
+
+   /**
+    * Deletes all page textures. The images of this atlas can't be drawn anymore.
+    */
+   public void release() {
+      for (Texture page : pages)
+         page.release();
+   }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.lwjgl.graphics;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Owns the textures of loaded images. Each image is identified by an asset id, usually its file or resource name, and
+ * loaded only once.
+ * <p>
+ * Every call to <code>acquire</code> must be matched by a call to {@link #release(String)}. Released images are kept in
+ * the cache, so acquiring them again is free. When the estimated video memory used by all cached textures exceeds the
+ * budget, unreferenced images are deleted, starting with the ones drawn longest ago.
+ * <p>
+ * This class is not thread safe. It must be used in the rendering thread.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class OglTextureCache {
+   /**
+    * Default video memory budget, in bytes.
+    */
+   public static final long DEFAULT_BUDGET = 256L * 1024 * 1024;
+
+   private OglImageLoader loader;
+   private long budget;
+   private long used = 0;
+
+   // Access order, so equally old images are evicted in acquire order.
+   private Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+   private long hits = 0;
+   private long misses = 0;
+   private long evictions = 0;
+
+   /**
+    * Creates a new texture cache.
+    * 
+    * @param loader The loader used to load missing images.
+    * @param budget The video memory budget, in bytes.
+    */
+   public OglTextureCache(OglImageLoader loader, long budget) {
+      this.loader = loader;
+      setBudget(budget);
+   }
+
+   /**
+    * Acquires the image with the given id. If it is not in the cache, it's loaded with {@link #open(String)}, and its
+    * format is the id extension.
+    * 
+    * @param id The asset id.
+    * @return The image.
+    * @throws IOException If the image could not be loaded.
+    */
+   public OglImage acquire(String id) throws IOException {
+      Entry entry = entries.get(id);
+      if (entry != null)
+         return hit(entry);
+
+      int dot = id.lastIndexOf('.');
+      if (dot == -1)
+         throw new IOException("Unable to find the format of " + id);
+
+      return miss(id, id.substring(dot + 1).toUpperCase(), open(id));
+   }
+
+   /**
+    * Acquires the image with the given id. The source is only read if the image is not in the cache, and is always
+    * closed.
+    * 
+    * @param id The asset id.
+    * @param format The image format name (e.g. JPG, PNG).
+    * @param source Source data.
+    * @return The image.
+    * @throws IOException If the image could not be loaded.
+    */
+   public OglImage acquire(String id, String format, InputStream source) throws IOException {
+      Entry entry = entries.get(id);
+      if (entry != null) {
+         source.close();
+         return hit(entry);
+      }
+      return miss(id, format, source);
+   }
+
+   private OglImage hit(Entry entry) {
+      hits++;
+      entry.references++;
+      return entry.image;
+   }
+
+   private OglImage miss(String id, String format, InputStream source) throws IOException {
+      misses++;
+      OglImage image;
+      try {
+         image = (OglImage) loader.load(format, source);
+      } finally {
+         source.close();
+      }
+
+      Entry entry = new Entry(image);
+      entries.put(id, entry);
+      used += entry.bytes;
+      evict();
+      return image;
+   }
+
+   /**
+    * Opens the data of an asset. By default, the id is searched as a class path resource, and then as a file name.
+    * 
+    * @param id The asset id.
+    * @return The asset data.
+    * @throws IOException If the asset could not be opened.
+    */
+   protected InputStream open(String id) throws IOException {
+      InputStream stream = getClass().getClassLoader().getResourceAsStream(id);
+      return stream != null ? stream : new FileInputStream(id);
+   }
+
+   /**
+    * Releases one reference to an image. The image is kept in the cache until the budget is exceeded.
+    * 
+    * @param id The asset id.
+    * @throws IllegalArgumentException If the image is not in the cache.
+    * @throws IllegalStateException If the image has no references.
+    */
+   public void release(String id) {
+      Entry entry = entries.get(id);
+      if (entry == null)
+         throw new IllegalArgumentException("Image not in the cache: " + id);
+      if (entry.references == 0)
+         throw new IllegalStateException("Image already released: " + id);
+
+      entry.references--;
+      if (entry.references == 0)
+         evict();
+   }
+
+   private void evict() {
+      while (used > budget) {
+         Entry victim = null;
+         String victimId = null;
+         for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            if (entry.references > 0)
+               continue;
+            if (victim == null || entry.image.getLastDrawn() < victim.image.getLastDrawn()) {
+               victim = entry;
+               victimId = e.getKey();
+            }
+         }
+
+         if (victim == null)
+            return;
+
+         remove(victimId, victim);
+         evictions++;
+      }
+   }
+
+   private void remove(String id, Entry entry) {
+      entries.remove(id);
+      used -= entry.bytes;
+      delete(entry.image);
+   }
+
+   /**
+    * Deletes the texture of an image.
+    * 
+    * @param image The image to delete.
+    */
+   protected void delete(OglImage image) {
+      image.texture.release();
+   }
+
+   /**
+    * Deletes all unreferenced images, regardless of the budget. Useful when changing levels.
+    */
+   public void trim() {
+      Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+      while (it.hasNext()) {
+         Entry entry = it.next().getValue();
+         if (entry.references > 0)
+            continue;
+
+         it.remove();
+         used -= entry.bytes;
+         delete(entry.image);
+         evictions++;
+      }
+   }
+
+   /**
+    * Deletes all images, even the referenced ones. They can't be drawn anymore.
+    */
+   public void dispose() {
+      for (Entry entry : entries.values())
+         delete(entry.image);
+      entries.clear();
+      used = 0;
+   }
+
+   /**
+    * @param id The asset id.
+    * @return True if the image is in the cache.
+    */
+   public boolean contains(String id) {
+      return entries.containsKey(id);
+   }
+
+   /**
+    * @param id The asset id.
+    * @return Number of references to the image, or 0 if it is not in the cache.
+    */
+   public int getReferences(String id) {
+      Entry entry = entries.get(id);
+      return entry == null ? 0 : entry.references;
+   }
+
+   /**
+    * Changes the memory budget. Unreferenced images are evicted if the new budget is exceeded.
+    * 
+    * @param budget The video memory budget, in bytes.
+    */
+   public void setBudget(long budget) {
+      if (budget < 0)
+         throw new IllegalArgumentException("Budget can't be negative!");
+      this.budget = budget;
+      evict();
+   }
+
+   /**
+    * @return The video memory budget, in bytes.
+    */
+   public long getBudget() {
+      return budget;
+   }
+
+   /**
+    * @return Estimated video memory used by all cached images, in bytes. May be over the budget if too many images are
+    *         referenced.
+    */
+   public long getMemoryUsed() {
+      return used;
+   }
+
+   /**
+    * @return Number of cached images.
+    */
+   public int size() {
+      return entries.size();
+   }
+
+   /**
+    * @return Number of acquired images that were already in the cache.
+    */
+   public long getHits() {
+      return hits;
+   }
+
+   /**
+    * @return Number of acquired images that had to be loaded.
+    */
+   public long getMisses() {
+      return misses;
+   }
+
+   /**
+    * @return Number of images deleted to respect the budget or by {@link #trim()}.
+    */
+   public long getEvictions() {
+      return evictions;
+   }
+
+   /**
+    * Zeroes the hit, miss and eviction counters.
+    */
+   public void resetStats() {
+      hits = 0;
+      misses = 0;
+      evictions = 0;
+   }
+
+   private static class Entry {
+      private OglImage image;
+      private long bytes;
+      private int references = 1;
+
+      public Entry(OglImage image) {
+         this.image = image;
+         this.bytes = image.getTextureBytes();
+      }
+   }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.lwjgl.graphics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.newdawn.slick.opengl.LoadableImageData;
+import com.alegria2d.driver.lwjgl.graphics.OglTextureFile.PixelFormat;
+
+/**
+ * Converts images to the {@link OglTextureFile} format, so they can be loaded without decoding by
+ * {@link OglTextureFileLoader}. Images are decoded and padded to a power of two exactly as {@link OglImageLoader}
+ * does.
+ * <p>
+ * This class is meant to be run offline, as part of the asset build:
+ * 
+ * <pre>
+ * java com.alegria2d.driver.lwjgl.graphics.OglTextureConverter [-f RGBA8|RGB8|RGBA4444|RGB565] input output
+ * </pre>
+ * 
+ * Without the format option, RGBA8 is used for images with alpha and RGB8 for the others.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class OglTextureConverter {
+   /**
+    * Decodes an image and converts it.
+    * 
+    * @param format The image format name (e.g. JPG, PNG).
+    * @param source The image data. It is not closed.
+    * @param pixelFormat The pixel format of the texture file, or null to choose by the image alpha.
+    * @return The texture file.
+    * @throws IOException If the image could not be read.
+    */
+   public static OglTextureFile convert(String format, InputStream source, PixelFormat pixelFormat)
+         throws IOException
+   {
+      LoadableImageData data = OglImageLoader.getImageData(format);
+      ByteBuffer decoded = data.loadImage(new BufferedInputStream(source), false, null);
+      int bpp = data.getDepth() / 8;
+      if (pixelFormat == null)
+         pixelFormat = bpp == 4 ? PixelFormat.RGBA8 : PixelFormat.RGB8;
+
+      int pixels = data.getTexWidth() * data.getTexHeight();
+      ByteBuffer converted = ByteBuffer.allocate(pixels * pixelFormat.getBytesPerPixel());
+      converted.order(ByteOrder.LITTLE_ENDIAN);
+
+      for (int i = 0; i < pixels; i++) {
+         int p = i * bpp;
+         int r = decoded.get(p) & 0xFF;
+         int g = decoded.get(p + 1) & 0xFF;
+         int b = decoded.get(p + 2) & 0xFF;
+         int a = bpp == 4 ? decoded.get(p + 3) & 0xFF : 0xFF;
+
+         switch (pixelFormat) {
+            case RGBA8:
+               converted.put((byte) r).put((byte) g).put((byte) b).put((byte) a);
+               break;
+            case RGB8:
+               converted.put((byte) r).put((byte) g).put((byte) b);
+               break;
+            case RGBA4444:
+               converted.putShort((short) (((r >> 4) << 12) | ((g >> 4) << 8) | ((b >> 4) << 4) | (a >> 4)));
+               break;
+            case RGB565:
+               converted.putShort((short) (((r >> 3) << 11) | ((g >> 2) << 5) | (b >> 3)));
+               break;
+         }
+      }
+      converted.flip();
+
+      return new OglTextureFile(pixelFormat, data.getWidth(), data.getHeight(),
+            data.getTexWidth(), data.getTexHeight(), converted);
+   }
+
+   /**
+    * Converts an image file.
+    * 
+    * @param args Optionally <code>-f</code> and a pixel format name, followed by the input and output file names.
+    * @throws IOException If a file could not be read or written.
+    */
+   public static void main(String[] args) throws IOException {
+      PixelFormat pixelFormat = null;
+      int arg = 0;
+      if (args.length == 4 && args[0].equals("-f")) {
+         pixelFormat = PixelFormat.valueOf(args[1].toUpperCase());
+         arg = 2;
+      }
+
+      if (args.length - arg != 2) {
+         System.err.println("Usage: OglTextureConverter [-f RGBA8|RGB8|RGBA4444|RGB565] input output");
+         System.exit(1);
+      }
+
+      String input = args[arg];
+      int dot = input.lastIndexOf('.');
+      String format = dot == -1 ? "" : input.substring(dot);
+
+      InputStream in = new FileInputStream(input);
+      try {
+         OglTextureFile file = convert(format, in, pixelFormat);
+         OutputStream out = new BufferedOutputStream(new FileOutputStream(args[arg + 1]));
+         try {
+            file.write(out);
+         } finally {
+            out.close();
+         }
+      } finally {
+         in.close();
+      }
+   }
+}
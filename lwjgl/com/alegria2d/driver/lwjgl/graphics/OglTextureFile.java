@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.lwjgl.graphics;
+
+import static org.lwjgl.opengl.GL11.GL_RGB;
+import static org.lwjgl.opengl.GL11.GL_RGBA;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_BYTE;
+import static org.lwjgl.opengl.GL12.GL_UNSIGNED_SHORT_4_4_4_4;
+import static org.lwjgl.opengl.GL12.GL_UNSIGNED_SHORT_5_6_5;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A pre-decoded texture, ready to be sent to OpenGL. Files have a fixed size header, followed by the raw pixels:
+ * 
+ * <pre>
+ * offset size
+ *   0     4   magic "ATEX"
+ *   4     2   version
+ *   6     1   pixel format ordinal
+ *   7     1   reserved
+ *   8     4   image width
+ *  12     4   image height
+ *  16     4   texture width (power of two)
+ *  20     4   texture height (power of two)
+ *  24     4   pixel data size, in bytes
+ *  28     4   reserved
+ *  32         pixels, texture width per row, from the top
+ * </pre>
+ * 
+ * Header numbers and 16 bit pixels are little endian. Pixels are already padded to the texture size, as
+ * {@link OglImageLoader} does, so they can be uploaded straight from a mapped file.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class OglTextureFile {
+   /**
+    * Usual file extension.
+    */
+   public static final String EXTENSION = "atx";
+
+   /**
+    * Size of the header, in bytes.
+    */
+   public static final int HEADER_SIZE = 32;
+
+   private static final int MAGIC = 0x58455441; // "ATEX" read as a little endian int
+   private static final short VERSION = 1;
+
+   /**
+    * Pixel layouts supported by the file.
+    */
+   public enum PixelFormat {
+      /** 8 bits per channel, with alpha. */
+      RGBA8(GL_RGBA, GL_UNSIGNED_BYTE, 4, true),
+      /** 8 bits per channel, no alpha. */
+      RGB8(GL_RGB, GL_UNSIGNED_BYTE, 3, false),
+      /** 4 bits per channel packed in a short, with alpha. */
+      RGBA4444(GL_RGBA, GL_UNSIGNED_SHORT_4_4_4_4, 2, true),
+      /** 5 bits for red and blue and 6 for green, packed in a short. */
+      RGB565(GL_RGB, GL_UNSIGNED_SHORT_5_6_5, 2, false);
+
+      private int format;
+      private int type;
+      private int bytesPerPixel;
+      private boolean alpha;
+
+      private PixelFormat(int format, int type, int bytesPerPixel, boolean alpha) {
+         this.format = format;
+         this.type = type;
+         this.bytesPerPixel = bytesPerPixel;
+         this.alpha = alpha;
+      }
+
+      /**
+       * @return The OpenGL pixel format, GL_RGB or GL_RGBA.
+       */
+      public int getFormat() {
+         return format;
+      }
+
+      /**
+       * @return The OpenGL pixel type.
+       */
+      public int getType() {
+         return type;
+      }
+
+      /**
+       * @return Number of bytes of each pixel.
+       */
+      public int getBytesPerPixel() {
+         return bytesPerPixel;
+      }
+
+      /**
+       * @return True if this format has an alpha channel.
+       */
+      public boolean hasAlpha() {
+         return alpha;
+      }
+
+      /**
+       * @return True if pixels are packed in shorts, and so depend on the byte order.
+       */
+      public boolean isPacked() {
+         return bytesPerPixel == 2;
+      }
+   }
+
+   private PixelFormat format;
+   private int width;
+   private int height;
+   private int textureWidth;
+   private int textureHeight;
+   private ByteBuffer pixels;
+
+   /**
+    * Creates a texture file.
+    * 
+    * @param format The pixel format.
+    * @param width Image width.
+    * @param height Image height.
+    * @param textureWidth Texture width, a power of two not smaller than the image width.
+    * @param textureHeight Texture height, a power of two not smaller than the image height.
+    * @param pixels The pixels, from the buffer position to its limit.
+    */
+   public OglTextureFile(PixelFormat format, int width, int height, int textureWidth, int textureHeight,
+         ByteBuffer pixels)
+   {
+      if (width < 1 || height < 1 || width > textureWidth || height > textureHeight)
+         throw new IllegalArgumentException("Invalid size: " + width + "x" + height + " in a " + textureWidth + "x"
+               + textureHeight + " texture");
+      if ((textureWidth & (textureWidth - 1)) != 0 || (textureHeight & (textureHeight - 1)) != 0)
+         throw new IllegalArgumentException("Texture sides must be powers of two!");
+      if (pixels.remaining() != (long) textureWidth * textureHeight * format.getBytesPerPixel())
+         throw new IllegalArgumentException("Wrong number of pixel bytes: " + pixels.remaining());
+
+      this.format = format;
+      this.width = width;
+      this.height = height;
+      this.textureWidth = textureWidth;
+      this.textureHeight = textureHeight;
+      this.pixels = pixels;
+   }
+
+   /**
+    * Reads a texture file. The pixels are not copied: they are a slice of the given buffer, which may be a mapped
+    * file.
+    * 
+    * @param data The file data, from the buffer position. The position is not changed.
+    * @return The texture file.
+    * @throws IOException If the data is not a valid texture file.
+    */
+   public static OglTextureFile read(ByteBuffer data) throws IOException {
+      ByteBuffer header = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+      if (header.remaining() < HEADER_SIZE)
+         throw new IOException("Texture file too short");
+
+      int start = header.position();
+      if (header.getInt() != MAGIC)
+         throw new IOException("Not a texture file");
+
+      short version = header.getShort();
+      if (version != VERSION)
+         throw new IOException("Unsupported texture file version: " + version);
+
+      int ordinal = header.get();
+      if (ordinal < 0 || ordinal >= PixelFormat.values().length)
+         throw new IOException("Unknown pixel format: " + ordinal);
+
+      header.get();
+      int width = header.getInt();
+      int height = header.getInt();
+      int textureWidth = header.getInt();
+      int textureHeight = header.getInt();
+      int size = header.getInt();
+
+      if (size < 0 || header.limit() - start - HEADER_SIZE < size)
+         throw new IOException("Texture file truncated");
+
+      header.position(start + HEADER_SIZE);
+      header.limit(start + HEADER_SIZE + size);
+      ByteBuffer pixels = header.slice().order(ByteOrder.LITTLE_ENDIAN);
+
+      try {
+         return new OglTextureFile(PixelFormat.values()[ordinal], width, height, textureWidth, textureHeight, pixels);
+      } catch (IllegalArgumentException e) {
+         throw new IOException("Invalid texture file: " + e.getMessage());
+      }
+   }
+
+   /**
+    * Writes this texture file.
+    * 
+    * @param out The output stream. It is not closed.
+    * @throws IOException If the data could not be written.
+    */
+   public void write(OutputStream out) throws IOException {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      header.putInt(MAGIC).putShort(VERSION).put((byte) format.ordinal()).put((byte) 0);
+      header.putInt(width).putInt(height).putInt(textureWidth).putInt(textureHeight);
+      header.putInt(pixels.remaining()).putInt(0);
+      out.write(header.array());
+
+      ByteBuffer data = pixels.duplicate();
+      byte[] chunk = new byte[Math.min(data.remaining(), 64 * 1024)];
+      while (data.hasRemaining()) {
+         int length = Math.min(chunk.length, data.remaining());
+         data.get(chunk, 0, length);
+         out.write(chunk, 0, length);
+      }
+   }
+
+   /**
+    * @return The pixel format.
+    */
+   public PixelFormat getFormat() {
+      return format;
+   }
+
+   /**
+    * @return The image width.
+    */
+   public int getWidth() {
+      return width;
+   }
+
+   /**
+    * @return The image height.
+    */
+   public int getHeight() {
+      return height;
+   }
+
+   /**
+    * @return The texture width.
+    */
+   public int getTextureWidth() {
+      return textureWidth;
+   }
+
+   /**
+    * @return The texture height.
+    */
+   public int getTextureHeight() {
+      return textureHeight;
+   }
+
+   /**
+    * @return The pixels. The buffer is shared, so use {@link ByteBuffer#duplicate()} before changing its position.
+    */
+   public ByteBuffer getPixels() {
+      return pixels;
+   }
+}
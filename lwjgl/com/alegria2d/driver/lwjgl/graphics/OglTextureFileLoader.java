@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.lwjgl.graphics;
+
+import static org.lwjgl.opengl.GL11.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import org.lwjgl.BufferUtils;
+import org.newdawn.slick.opengl.Texture;
+import com.alegria2d.core.driver.graphics.AbstractImageLoader;
+import com.alegria2d.core.driver.graphics.Image;
+import com.alegria2d.driver.lwjgl.graphics.OglImageLoader.Filter;
+import com.alegria2d.driver.lwjgl.graphics.OglTextureFile.PixelFormat;
+
+/**
+ * Loads images stored in the {@link OglTextureFile} format, created by {@link OglTextureConverter}. There's no
+ * decoding: files and channels are memory mapped and the mapped pixels are sent to OpenGL, without intermediate
+ * copies. Direct buffers are used as they are.
+ * <p>
+ * Streams can't be mapped, so {@link #load(String, InputStream)} reads the stream into a single direct buffer, and heap
+ * buffers are copied to a direct one. Prefer {@link #load(java.nio.file.Path)} whenever the image is a file.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class OglTextureFileLoader extends AbstractImageLoader {
+   private Filter filter = Filter.SMOOTH;
+   private OglRenderState state;
+
+   /**
+    * Creates a new loader.
+    */
+   public OglTextureFileLoader() {
+      this(null);
+   }
+
+   /**
+    * Creates a new loader, that keeps the given state cache consistent after binding new textures.
+    * 
+    * @param state The renderer state cache. May be null.
+    */
+   public OglTextureFileLoader(OglRenderState state) {
+      this.state = state;
+   }
+
+   /**
+    * Loads a texture file. The format is ignored, since it's always {@link OglTextureFile#EXTENSION}.
+    */
+   @Override
+   public Image load(String format, InputStream source) throws IOException {
+      ReadableByteChannel channel = Channels.newChannel(source);
+      ByteBuffer header = ByteBuffer.allocate(OglTextureFile.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      readFully(channel, header);
+
+      int size = header.getInt(24);
+      if (size < 0)
+         throw new IOException("Invalid texture file");
+
+      ByteBuffer data = BufferUtils.createByteBuffer(OglTextureFile.HEADER_SIZE + size);
+      header.flip();
+      data.put(header);
+      readFully(channel, data);
+      data.flip();
+      return load(data);
+   }
+
+   private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+      while (buffer.hasRemaining())
+         if (channel.read(buffer) == -1)
+            throw new IOException("Texture file truncated");
+   }
+
+   /**
+    * Loads a texture file already in memory. The format is ignored.
+    */
+   @Override
+   public Image load(String format, ByteBuffer source) throws IOException {
+      if (source.isDirect())
+         return load(source);
+
+      ByteBuffer direct = BufferUtils.createByteBuffer(source.remaining());
+      direct.put(source.duplicate()).flip();
+      return load(direct);
+   }
+
+   private Image load(ByteBuffer data) throws IOException {
+      Texture texture;
+      try {
+         texture = createTexture(OglTextureFile.read(data));
+      } finally {
+         if (state != null)
+            state.invalidateTexture();
+      }
+      return new OglImage(texture);
+   }
+
+   /**
+    * Sends the texture file pixels to OpenGL. Packed pixels are always little endian, so OpenGL is told to swap bytes
+    * on big endian machines.
+    * 
+    * @param file The texture file.
+    * @return The texture.
+    */
+   protected Texture createTexture(OglTextureFile file) {
+      PixelFormat format = file.getFormat();
+      boolean swap = format.isPacked() && ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
+      if (swap)
+         glPixelStorei(GL_UNPACK_SWAP_BYTES, GL_TRUE);
+
+      int internalFormat;
+      switch (format) {
+         case RGBA4444:
+            internalFormat = GL_RGBA4;
+            break;
+         case RGB565:
+            internalFormat = GL_RGB5;
+            break;
+         default:
+            internalFormat = format.hasAlpha() ? GL_RGBA8 : GL_RGB8;
+      }
+
+      try {
+         return OglImageLoader.createTexture("texture-file", file.getPixels(), internalFormat,
+               format.getFormat(), format.getType(),
+               file.getWidth(), file.getHeight(), file.getTextureWidth(), file.getTextureHeight(),
+               format.hasAlpha(), filter);
+      } finally {
+         if (swap)
+            glPixelStorei(GL_UNPACK_SWAP_BYTES, GL_FALSE);
+      }
+   }
+
+   /**
+    * Allows the user to chooser the texture filtering policy
+    * 
+    * @param filter The default texture filtering policy
+    */
+   public void setFilter(Filter filter) {
+      this.filter = filter;
+   }
+
+   /**
+    * Returns the current texture filtering policy
+    * 
+    * @return the current texture filtering policy
+    */
+   public Filter getFilter() {
+      return filter;
+   }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math.simd;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+import com.alegria2d.core.math.MathKernels;
+import com.alegria2d.core.math.MathUtil;
+
+/**
+ * {@link MathKernels} implemented with the JDK Vector API, using the widest vectors the processor supports. The tails
+ * of the ranges that don't fill a whole vector are processed with scalar code.
+ * <p>
+ * Operations are done in the same order as the scalar kernels, without fused multiply-adds, so results are
+ * identical.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public final class VectorKernels extends MathKernels {
+   private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+   private static final int LANES = SPECIES.length();
+
+   /**
+    * Swaps each x coordinate with the following y coordinate: [x0 y0 x1 y1] becomes [y0 x0 y1 x1].
+    */
+   private static final VectorShuffle<Float> SWAP_PAIRS;
+
+   /**
+    * Selects the lanes holding y coordinates of packed points.
+    */
+   private static final VectorMask<Float> ODD_LANES;
+
+   static {
+      int[] swap = new int[LANES];
+      boolean[] odd = new boolean[LANES];
+      for (int i = 0; i < LANES; i++) {
+         swap[i] = i ^ 1;
+         odd[i] = (i & 1) == 1;
+      }
+      SWAP_PAIRS = VectorShuffle.fromArray(SPECIES, swap, 0);
+      ODD_LANES = VectorMask.fromArray(SPECIES, odd, 0);
+   }
+
+   @Override
+   public String getName() {
+      return "vector";
+   }
+
+   @Override
+   public void transform(float a, float b, float c, float d, float e, float f,
+         float[] src, int srcOffset, float[] dest, int destOffset, int count)
+   {
+      // For [x y] pairs: [x y] * [a e] + [y x] * [b d] + [c f]
+      FloatVector own = FloatVector.broadcast(SPECIES, a).blend(e, ODD_LANES);
+      FloatVector swapped = FloatVector.broadcast(SPECIES, b).blend(d, ODD_LANES);
+      FloatVector translation = FloatVector.broadcast(SPECIES, c).blend(f, ODD_LANES);
+
+      int length = count * 2;
+      int bound = SPECIES.loopBound(length);
+      int i = 0;
+      for (; i < bound; i += LANES) {
+         FloatVector v = FloatVector.fromArray(SPECIES, src, srcOffset + i);
+         v.mul(own).add(v.rearrange(SWAP_PAIRS).mul(swapped)).add(translation).intoArray(dest, destOffset + i);
+      }
+
+      for (; i < length; i += 2) {
+         float x = src[srcOffset + i];
+         float y = src[srcOffset + i + 1];
+         dest[destOffset + i] = a * x + b * y + c;
+         dest[destOffset + i + 1] = d * x + e * y + f;
+      }
+   }
+
+   @Override
+   public void transform(float a, float b, float c, float d, float e, float f,
+         float[] x, float[] y, int from, int to)
+   {
+      int i = from;
+      int bound = from + SPECIES.loopBound(to - from);
+      for (; i < bound; i += LANES) {
+         FloatVector vx = FloatVector.fromArray(SPECIES, x, i);
+         FloatVector vy = FloatVector.fromArray(SPECIES, y, i);
+         vx.mul(a).add(vy.mul(b)).add(c).intoArray(x, i);
+         vx.mul(d).add(vy.mul(e)).add(f).intoArray(y, i);
+      }
+
+      for (; i < to; i++) {
+         float vx = x[i];
+         float vy = y[i];
+         x[i] = a * vx + b * vy + c;
+         y[i] = d * vx + e * vy + f;
+      }
+   }
+
+   @Override
+   public void normalize(float[] x, float[] y, int from, int to) {
+      int i = from;
+      int bound = from + SPECIES.loopBound(to - from);
+      for (; i < bound; i += LANES) {
+         FloatVector vx = FloatVector.fromArray(SPECIES, x, i);
+         FloatVector vy = FloatVector.fromArray(SPECIES, y, i);
+         FloatVector sizeSqr = vx.mul(vx).add(vy.mul(vy));
+         VectorMask<Float> nonZero = sizeSqr.compare(VectorOperators.GT, MathUtil.FLOAT_DELTA);
+         FloatVector inv = FloatVector.broadcast(SPECIES, 1.0f).div(sizeSqr.sqrt());
+         vx.blend(vx.mul(inv), nonZero).intoArray(x, i);
+         vy.blend(vy.mul(inv), nonZero).intoArray(y, i);
+      }
+
+      for (; i < to; i++) {
+         float sizeSqr = x[i] * x[i] + y[i] * y[i];
+         if (sizeSqr <= MathUtil.FLOAT_DELTA)
+            continue;
+
+         float inv = 1.0f / (float) Math.sqrt(sizeSqr);
+         x[i] *= inv;
+         y[i] *= inv;
+      }
+   }
+
+   @Override
+   public void dot(float[] x, float[] y, int from, int to, float vx, float vy, float[] dest, int destOffset) {
+      int i = from;
+      int bound = from + SPECIES.loopBound(to - from);
+      for (; i < bound; i += LANES) {
+         FloatVector px = FloatVector.fromArray(SPECIES, x, i);
+         FloatVector py = FloatVector.fromArray(SPECIES, y, i);
+         px.mul(vx).add(py.mul(vy)).intoArray(dest, destOffset + i - from);
+      }
+
+      for (; i < to; i++)
+         dest[destOffset + i - from] = x[i] * vx + y[i] * vy;
+   }
+
+   @Override
+   public void distanceSqr(float[] x, float[] y, int from, int to, float px, float py,
+         float[] dest, int destOffset)
+   {
+      int i = from;
+      int bound = from + SPECIES.loopBound(to - from);
+      for (; i < bound; i += LANES) {
+         FloatVector dx = FloatVector.fromArray(SPECIES, x, i).sub(px);
+         FloatVector dy = FloatVector.fromArray(SPECIES, y, i).sub(py);
+         dx.mul(dx).add(dy.mul(dy)).intoArray(dest, destOffset + i - from);
+      }
+
+      for (; i < to; i++) {
+         float dx = x[i] - px;
+         float dy = y[i] - py;
+         dest[destOffset + i - from] = dx * dx + dy * dy;
+      }
+   }
+}
@@ -0,0 +1,15 @@
+/**
+ * Accelerated math kernels, based on the JDK Vector API.
+ * <p>
+ * This package is optional, and is not part of the core since it needs a JDK with the
+ * <code>jdk.incubator.vector</code> module, which must be added both when compiling and running:
+ *
+ * <pre>
+ * javac --add-modules jdk.incubator.vector ...
+ * java --add-modules jdk.incubator.vector ...
+ * </pre>
+ *
+ * It's loaded by {@link com.alegria2d.core.math.MathKernels} through reflection. When it's missing, or the module was
+ * not added, the core math classes silently use the scalar kernels.
+ */
+package com.alegria2d.core.math.simd;
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.software.graphics;
+
+import com.alegria2d.core.driver.graphics.DisplayMode;
+
+/**
+ * A display mode of the software driver. Since there is no monitor involved, any size is valid. The depth is always
+ * 32 bits, and the refresh rate is only informative.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class SoftwareDisplayMode implements DisplayMode, Comparable<SoftwareDisplayMode> {
+   public static final int DEPTH = 32;
+   public static final int REFRESH_RATE = 60;
+
+   private int width;
+   private int height;
+
+   public SoftwareDisplayMode(int width, int height) {
+      if (width < 1 || height < 1)
+         throw new IllegalArgumentException("Width and height must be positive!");
+
+      this.width = width;
+      this.height = height;
+   }
+
+   @Override
+   public int getDepth() {
+      return DEPTH;
+   }
+
+   @Override
+   public int getHeight() {
+      return height;
+   }
+
+   @Override
+   public int getWidth() {
+      return width;
+   }
+
+   @Override
+   public int getRefreshRate() {
+      return REFRESH_RATE;
+   }
+
+   @Override
+   public int compareTo(SoftwareDisplayMode o) {
+      if (getWidth() != o.getWidth())
+         return o.getWidth() - getWidth();
+      return o.getHeight() - getHeight();
+   }
+
+   @Override
+   public boolean equals(Object obj) {
+      if (obj == null)
+         return false;
+      if (obj == this)
+         return true;
+      if (obj.getClass() != getClass())
+         return false;
+      SoftwareDisplayMode mode = (SoftwareDisplayMode) obj;
+
+      return getWidth() == mode.getWidth() && getHeight() == mode.getHeight();
+   }
+
+   @Override
+   public int hashCode() {
+      int result = 17;
+      result = 27 * result + getWidth();
+      result = 27 * result + getHeight();
+      return result;
+   }
+
+   @Override
+   public String toString() {
+      return String.format("%dx%dx%d@%dHz", getWidth(), getHeight(), getDepth(), getRefreshRate());
+   }
+}
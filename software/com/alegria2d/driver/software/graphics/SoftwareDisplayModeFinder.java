@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.software.graphics;
+
+import java.util.Set;
+import java.util.TreeSet;
+import com.alegria2d.core.driver.graphics.DisplayMode;
+import com.alegria2d.core.driver.graphics.DisplayModeFinder;
+
+/**
+ * Lists a few common resolutions. The software screen accepts any size, so these are only suggestions.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class SoftwareDisplayModeFinder implements DisplayModeFinder {
+   private static final int[][] SIZES = {
+         { 640, 480 }, { 800, 600 }, { 1024, 768 }, { 1280, 720 }, { 1280, 1024 }, { 1920, 1080 }
+   };
+
+   /**
+    * The software driver has no desktop, so this is the default screen size: 800x600.
+    */
+   @Override
+   public DisplayMode getDesktopDisplayMode() {
+      return new SoftwareDisplayMode(800, 600);
+   }
+
+   @Override
+   public Set<DisplayMode> getAvailableDisplayModes() {
+      Set<DisplayMode> displayModes = new TreeSet<DisplayMode>();
+      for (int[] size : SIZES)
+         displayModes.add(new SoftwareDisplayMode(size[0], size[1]));
+      return displayModes;
+   }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.software.graphics;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * The memory area the software renderer draws into. Pixels are packed ARGB integers, stored row by row, starting at
+ * the top left corner of the screen.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class SoftwareFramebuffer {
+   private int width;
+   private int height;
+   private int[] pixels;
+
+   public SoftwareFramebuffer(int width, int height) {
+      this.width = width;
+      this.height = height;
+      this.pixels = new int[width * height];
+   }
+
+   /**
+    * @return The framebuffer width, in pixels.
+    */
+   public int getWidth() {
+      return width;
+   }
+
+   /**
+    * @return The framebuffer height, in pixels.
+    */
+   public int getHeight() {
+      return height;
+   }
+
+   /**
+    * @return The framebuffer pixels. This is the internal array, not a copy.
+    */
+   public int[] getPixels() {
+      return pixels;
+   }
+
+   /**
+    * Returns the color of the given pixel. Notice that, unlike the screen coordinate system, row 0 is the top of the
+    * screen.
+    * 
+    * @param x The pixel column.
+    * @param y The pixel row.
+    * @return The ARGB color.
+    */
+   public int getPixel(int x, int y) {
+      return pixels[y * width + x];
+   }
+
+   /**
+    * Fills the whole framebuffer with the given color.
+    * 
+    * @param argb The ARGB color.
+    */
+   public void fill(int argb) {
+      Arrays.fill(pixels, argb);
+   }
+
+   /**
+    * Copies this framebuffer into a new {@link BufferedImage}, useful to save screenshots or golden images.
+    * 
+    * @return The new image.
+    */
+   public BufferedImage toBufferedImage() {
+      BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+      image.setRGB(0, 0, width, height, pixels, 0, width);
+      return image;
+   }
+}
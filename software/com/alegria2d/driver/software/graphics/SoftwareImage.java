@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.software.graphics;
+
+import com.alegria2d.core.driver.graphics.Image;
+
+/**
+ * An image stored in memory as packed, non premultiplied, ARGB pixels. Pixels are stored row by row, starting at the
+ * top left corner.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class SoftwareImage implements Image {
+   private int width;
+   private int height;
+   private int[] pixels;
+   private boolean alpha;
+
+   /**
+    * Creates a new image. The pixel array is <b>shared</b>, not copied.
+    * 
+    * @param width The image width, in pixels.
+    * @param height The image height, in pixels.
+    * @param pixels The ARGB pixels. Must have at least width * height elements.
+    * @param alpha True if the alpha channel of the pixels must be considered while drawing.
+    */
+   public SoftwareImage(int width, int height, int[] pixels, boolean alpha) {
+      if (width < 1 || height < 1)
+         throw new IllegalArgumentException("Width and height must be positive!");
+      if (pixels.length < width * height)
+         throw new IllegalArgumentException("Not enough pixels for a " + width + "x" + height + " image!");
+
+      this.width = width;
+      this.height = height;
+      this.pixels = pixels;
+      this.alpha = alpha;
+   }
+
+   @Override
+   public int getWidth() {
+      return width;
+   }
+
+   @Override
+   public int getHeight() {
+      return height;
+   }
+
+   @Override
+   public boolean hasAlpha() {
+      return alpha;
+   }
+
+   /**
+    * @return The image pixels, in ARGB format. This is the internal array, not a copy.
+    */
+   public int[] getPixels() {
+      return pixels;
+   }
+}
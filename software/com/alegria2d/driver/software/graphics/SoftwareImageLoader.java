@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.software.graphics;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import com.alegria2d.core.driver.graphics.AbstractImageLoader;
+import com.alegria2d.core.driver.graphics.Image;
+
+/**
+ * Loads images with the Java Image I/O API. Any format supported by {@link ImageIO} can be used.
+ * <p>
+ * Since software images need no upload, asynchronous loads run entirely in a pool of daemon threads shared by all
+ * loaders. Idle threads are stopped after a few seconds.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class SoftwareImageLoader extends AbstractImageLoader {
+   private static final ExecutorService DECODER;
+   static {
+      int threads = Runtime.getRuntime().availableProcessors();
+      ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 5, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+               @Override
+               public Thread newThread(Runnable r) {
+                  Thread thread = new Thread(r, "Alegria image decoder");
+                  thread.setDaemon(true);
+                  return thread;
+               }
+            });
+      pool.allowCoreThreadTimeOut(true);
+      DECODER = pool;
+   }
+
+   @Override
+   public Image load(String format, InputStream source) throws IOException {
+      BufferedImage image = ImageIO.read(source);
+      if (image == null)
+         throw new IOException("Unable to read " + format + " image: unsupported format.");
+
+      return toImage(image);
+   }
+
+   @Override
+   public Future<Image> loadAsync(final String format, final InputStream source) {
+      return DECODER.submit(new Callable<Image>() {
+         @Override
+         public Image call() throws Exception {
+            try {
+               return load(format, source);
+            } finally {
+               source.close();
+            }
+         }
+      });
+   }
+
+   /**
+    * Converts a buffered image to a software image.
+    * 
+    * @param image The image to convert.
+    * @return The converted image.
+    */
+   public static SoftwareImage toImage(BufferedImage image) {
+      int w = image.getWidth();
+      int h = image.getHeight();
+      int[] pixels = image.getRGB(0, 0, w, h, null, 0, w);
+      return new SoftwareImage(w, h, pixels, image.getColorModel().hasAlpha());
+   }
+}
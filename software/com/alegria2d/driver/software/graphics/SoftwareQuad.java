@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.software.graphics;
+
+/**
+ * The geometry of a single drawImage call, already mapped to framebuffer pixels. Instances are mutable and meant to
+ * be reused, so drawing does not allocate.
+ * <p>
+ * Framebuffer coordinates have the origin on the top left corner, and the center of pixel (col, row) is at
+ * (col + 0.5, row + 0.5). Texture coordinates are an affine function of the framebuffer coordinates:
+ * 
+ * <pre>
+ * u = ua * x + ub * y + uc
+ * v = va * x + vb * y + vc
+ * </pre>
+ * 
+ * @author Vinicius G. Mendonca
+ */
+final class SoftwareQuad {
+   final float[] xs = new float[4];
+   final float[] ys = new float[4];
+
+   float minX, minY, maxX, maxY;
+   float ua, ub, uc;
+   float va, vb, vc;
+
+   SoftwareImage image;
+   boolean blend;
+   int tintR, tintG, tintB;
+
+   /**
+    * The clipping rectangle in framebuffer pixels: [clipX0, clipX1) x [clipY0, clipY1).
+    */
+   int clipX0, clipY0, clipX1, clipY1;
+
+   /**
+    * Calculates the quad geometry.
+    * 
+    * @param image The image to draw.
+    * @param x The center x position, in world coordinates.
+    * @param y The center y position, in world coordinates.
+    * @param w Image width, in world coordinates.
+    * @param h Image height, in world coordinates.
+    * @param angle Angle, in degrees.
+    * @param r Red component
+    * @param g Green component
+    * @param b Blue component.
+    * @param sx Horizontal scale from world to framebuffer coordinates.
+    * @param ox Horizontal offset from world to framebuffer coordinates.
+    * @param sy Vertical scale from world to framebuffer coordinates.
+    * @param oy Vertical offset from world to framebuffer coordinates.
+    * @return False if the quad has no area, and nothing needs to be drawn.
+    */
+   boolean set(SoftwareImage image,
+         float x, float y, float w, float h,
+         float angle, float r, float g, float b,
+         float sx, float ox, float sy, float oy)
+   {
+      if (w == 0 || h == 0 || sx == 0 || sy == 0)
+         return false;
+
+      this.image = image;
+      this.blend = image.hasAlpha();
+      tintR = tint(r);
+      tintG = tint(g);
+      tintB = tint(b);
+
+      double radians = Math.toRadians(angle);
+      float c = (float) Math.cos(radians);
+      float s = (float) Math.sin(radians);
+      float w2 = w / 2.0f;
+      float h2 = h / 2.0f;
+
+      corner(0, x, y, c, s, w2, h2, sx, ox, sy, oy);
+      corner(1, x, y, c, s, w2, -h2, sx, ox, sy, oy);
+      corner(2, x, y, c, s, -w2, -h2, sx, ox, sy, oy);
+      corner(3, x, y, c, s, -w2, h2, sx, ox, sy, oy);
+
+      minX = Math.min(Math.min(xs[0], xs[1]), Math.min(xs[2], xs[3]));
+      maxX = Math.max(Math.max(xs[0], xs[1]), Math.max(xs[2], xs[3]));
+      minY = Math.min(Math.min(ys[0], ys[1]), Math.min(ys[2], ys[3]));
+      maxY = Math.max(Math.max(ys[0], ys[1]), Math.max(ys[2], ys[3]));
+
+      // Inverse mapping: framebuffer -> world -> sprite local (lx, ly) -> texture.
+      // u = lx / w + 0.5 and v = 0.5 - ly / h, matching the texture coordinates of the OpenGL driver.
+      float kx = -ox / sx - x;
+      float ky = -oy / sy - y;
+      float klx = c * kx + s * ky;
+      float kly = -s * kx + c * ky;
+
+      ua = c / (sx * w);
+      ub = s / (sy * w);
+      uc = klx / w + 0.5f;
+
+      va = s / (sx * h);
+      vb = -c / (sy * h);
+      vc = 0.5f - kly / h;
+      return true;
+   }
+
+   private void corner(int i, float x, float y, float c, float s, float lx, float ly,
+         float sx, float ox, float sy, float oy)
+   {
+      xs[i] = ox + (x + lx * c - ly * s) * sx;
+      ys[i] = oy + (y + lx * s + ly * c) * sy;
+   }
+
+   /**
+    * Converts a color component from 0-1 to a 0-256 multiplier.
+    */
+   private static int tint(float component) {
+      return component <= 0 ? 0 : (component >= 1 ? 256 : (int) (component * 256 + 0.5f));
+   }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.software.graphics;
+
+/**
+ * Draws {@link SoftwareQuad quads} into a framebuffer using scanline rasterization.
+ * <p>
+ * For each row, the horizontal span covered by the quad is calculated from its four edges. Along the span, the texture
+ * coordinates are a single multiply-add per pixel, so the inner loop is mostly the texture lookup and the blending
+ * arithmetic. Nothing is allocated while drawing.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+final class SoftwareRasterizer {
+   private SoftwareRasterizer() {
+   }
+
+   /**
+    * Draws the quad. Only pixels inside the clipping rectangle are touched.
+    * 
+    * @param quad The quad to draw.
+    * @param dst The framebuffer pixels.
+    * @param stride The framebuffer width.
+    * @param clipX0 First column that can be drawn.
+    * @param clipY0 First row that can be drawn.
+    * @param clipX1 Column after the last one that can be drawn.
+    * @param clipY1 Row after the last one that can be drawn.
+    */
+   static void draw(SoftwareQuad quad, int[] dst, int stride, int clipX0, int clipY0, int clipX1, int clipY1) {
+      int rowStart = Math.max(clipY0, (int) Math.ceil(quad.minY - 0.5f));
+      int rowEnd = Math.min(clipY1, (int) Math.ceil(quad.maxY - 0.5f));
+      if (rowStart >= rowEnd)
+         return;
+
+      SoftwareImage image = quad.image;
+      int[] tex = image.getPixels();
+      int texW = image.getWidth();
+      int texH = image.getHeight();
+      int maxU = texW - 1;
+      int maxV = texH - 1;
+
+      // Texture coordinates in texels
+      float ua = quad.ua * texW;
+      float ub = quad.ub * texW;
+      float uc = quad.uc * texW;
+      float va = quad.va * texH;
+      float vb = quad.vb * texH;
+      float vc = quad.vc * texH;
+
+      float[] xs = quad.xs;
+      float[] ys = quad.ys;
+      boolean blend = quad.blend;
+      int tr = quad.tintR;
+      int tg = quad.tintG;
+      int tb = quad.tintB;
+
+      for (int row = rowStart; row < rowEnd; row++) {
+         float yc = row + 0.5f;
+
+         float left = Float.POSITIVE_INFINITY;
+         float right = Float.NEGATIVE_INFINITY;
+         for (int i = 0; i < 4; i++) {
+            int j = (i + 1) & 3;
+            float yi = ys[i];
+            float yj = ys[j];
+            if ((yi <= yc && yc < yj) || (yj <= yc && yc < yi)) {
+               float x = xs[i] + (yc - yi) * (xs[j] - xs[i]) / (yj - yi);
+               if (x < left)
+                  left = x;
+               if (x > right)
+                  right = x;
+            }
+         }
+
+         int colStart = Math.max(clipX0, (int) Math.ceil(left - 0.5f));
+         int colEnd = Math.min(clipX1, (int) Math.ceil(right - 0.5f));
+         if (colStart >= colEnd)
+            continue;
+
+         // Texture coordinates are calculated from the column, instead of accumulated along the span, so a pixel
+         // gets the same texel no matter where the clipping rectangle starts.
+         float rowU = ub * yc + uc;
+         float rowV = vb * yc + vc;
+
+         int index = row * stride + colStart;
+         for (int col = colStart; col < colEnd; col++, index++) {
+            float xc = col + 0.5f;
+            int tx = (int) (ua * xc + rowU);
+            int ty = (int) (va * xc + rowV);
+            tx = tx < 0 ? 0 : (tx > maxU ? maxU : tx);
+            ty = ty < 0 ? 0 : (ty > maxV ? maxV : ty);
+
+            int texel = tex[ty * texW + tx];
+            int r = (((texel >> 16) & 0xFF) * tr) >> 8;
+            int g = (((texel >> 8) & 0xFF) * tg) >> 8;
+            int b = ((texel & 0xFF) * tb) >> 8;
+
+            int a = blend ? texel >>> 24 : 0xFF;
+            if (a == 0xFF) {
+               dst[index] = 0xFF000000 | (r << 16) | (g << 8) | b;
+            } else if (a != 0) {
+               int d = dst[index];
+               int inv = 0xFF - a;
+               int da = d >>> 24;
+               int dr = (d >> 16) & 0xFF;
+               int dg = (d >> 8) & 0xFF;
+               int db = d & 0xFF;
+
+               dst[index] = ((a + da * inv / 0xFF) << 24) |
+                     (((r * a + dr * inv) / 0xFF) << 16) |
+                     (((g * a + dg * inv) / 0xFF) << 8) |
+                     ((b * a + db * inv) / 0xFF);
+            }
+         }
+      }
+   }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.software.graphics;
+
+import java.awt.geom.Rectangle2D;
+import com.alegria2d.core.driver.graphics.Image;
+import com.alegria2d.core.driver.graphics.ImageLoader;
+import com.alegria2d.core.driver.graphics.Renderer;
+
+/**
+ * Draws images into the framebuffer of a {@link SoftwareScreen}.
+ * <p>
+ * Images are translated, rotated, tinted and, if they have an alpha channel, blended with the
+ * <code>src * alpha + dst * (1 - alpha)</code> equation, just like the OpenGL driver does. Texture sampling uses the
+ * nearest texel.
+ * <p>
+ * Outside a batch, each image is drawn as soon as drawImage is called. Inside a batch, images are recorded and drawn
+ * in parallel, tile by tile, when the batch is flushed. Both ways give the exact same pixels.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class SoftwareRenderer implements Renderer {
+   private SoftwareScreen screen;
+   private SoftwareQuad quad = new SoftwareQuad();
+   private SoftwareTileRenderer tiles = new SoftwareTileRenderer(Runtime.getRuntime().availableProcessors());
+   private boolean batching = false;
+
+   public SoftwareRenderer(SoftwareScreen screen) {
+      this.screen = screen;
+   }
+
+   @Override
+   public ImageLoader newImageLoader() {
+      return new SoftwareImageLoader();
+   }
+
+   @Override
+   public void clearScreen(float r, float g, float b, float a) {
+      flush();
+      screen.getFramebuffer().fill(toArgb(r, g, b, a));
+   }
+
+   @Override
+   public void drawImage(Image image,
+         float x, float y, float w, float h,
+         float angle, float r, float g, float b)
+   {
+      SoftwareFramebuffer fb = screen.getFramebuffer();
+      Rectangle2D viewport = screen.getViewport();
+      Rectangle2D coords = screen.getCoordinates();
+
+      // World to framebuffer mapping. Framebuffer rows grow downwards, while viewport and world y grow upwards.
+      float vx = (float) viewport.getX();
+      float vy = (float) viewport.getY();
+      float vw = (float) viewport.getWidth();
+      float vh = (float) viewport.getHeight();
+      float sx = vw / (float) coords.getWidth();
+      float sy = -vh / (float) coords.getHeight();
+      float ox = vx - (float) coords.getX() * sx;
+      float oy = fb.getHeight() - vy - (float) coords.getY() * sy;
+
+      SoftwareQuad q = batching ? tiles.next() : quad;
+      if (!q.set((SoftwareImage) image, x, y, w, h, angle, r, g, b, sx, ox, sy, oy))
+         return;
+
+      q.clipX0 = Math.max(0, (int) vx);
+      q.clipX1 = Math.min(fb.getWidth(), (int) (vx + vw));
+      q.clipY0 = Math.max(0, fb.getHeight() - (int) (vy + vh));
+      q.clipY1 = Math.min(fb.getHeight(), fb.getHeight() - (int) vy);
+
+      if (batching)
+         tiles.commit();
+      else
+         SoftwareRasterizer.draw(q, fb.getPixels(), fb.getWidth(), q.clipX0, q.clipY0, q.clipX1, q.clipY1);
+   }
+
+   @Override
+   public void begin() {
+      batching = true;
+   }
+
+   @Override
+   public void flush() {
+      tiles.flush(screen.getFramebuffer());
+   }
+
+   @Override
+   public void end() {
+      flush();
+      batching = false;
+   }
+
+   /**
+    * Changes the number of threads used to draw batched images. The default is the number of available processors.
+    * 
+    * @param parallelism The number of threads. With 1, batched images are drawn in the calling thread.
+    */
+   public void setParallelism(int parallelism) {
+      tiles.setParallelism(parallelism);
+   }
+
+   /**
+    * @return The number of threads used to draw batched images.
+    */
+   public int getParallelism() {
+      return tiles.getParallelism();
+   }
+
+   /**
+    * Stops the threads used to draw batched images. They will be started again if needed.
+    */
+   public void dispose() {
+      tiles.dispose();
+   }
+
+   /**
+    * Converts a color with components from 0 to 1 to a packed ARGB integer.
+    * 
+    * @param r The red component, from 0 to 1.
+    * @param g The green component, from 0 to 1.
+    * @param b The blue component, from 0 to 1.
+    * @param a The alpha component, from 0 to 1.
+    * @return The ARGB color.
+    */
+   public static int toArgb(float r, float g, float b, float a) {
+      return (toByte(a) << 24) | (toByte(r) << 16) | (toByte(g) << 8) | toByte(b);
+   }
+
+   private static int toByte(float component) {
+      return component <= 0 ? 0 : (component >= 1 ? 0xFF : (int) (component * 0xFF + 0.5f));
+   }
+}
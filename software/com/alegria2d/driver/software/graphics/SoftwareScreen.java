@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.software.graphics;
+
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import com.alegria2d.core.driver.graphics.DisplayMode;
+import com.alegria2d.core.driver.graphics.Renderer;
+import com.alegria2d.core.driver.graphics.Screen;
+import com.alegria2d.core.driver.graphics.UnableToChangeDisplayModeException;
+import com.alegria2d.core.driver.graphics.UnableToOpenWindowException;
+import com.alegria2d.core.exception.PrematureCallException;
+
+/**
+ * A screen that is never shown. Everything is rendered into a {@link SoftwareFramebuffer}, that can be inspected after
+ * each frame.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class SoftwareScreen implements Screen {
+   private String title = "Game";
+   private boolean fullscreen = false;
+   private DisplayMode displayMode = new SoftwareDisplayModeFinder().getDesktopDisplayMode();
+
+   private SoftwareFramebuffer framebuffer = null;
+   private SoftwareRenderer renderer = null;
+   private Rectangle2D viewport = null;
+   private Rectangle2D coordinates = null;
+   private long frames = 0;
+
+   /**
+    * Icons are meaningless without a window. The streams are just closed.
+    */
+   @Override
+   public void setIcon(String format, InputStream... icons) throws IOException {
+      for (InputStream is : icons)
+         is.close();
+   }
+
+   @Override
+   public void setIcon(String format, ByteBuffer... icons) {
+   }
+
+   @Override
+   public void setTitle(String title) {
+      this.title = title;
+   }
+
+   @Override
+   public String getTitle() {
+      return title;
+   }
+
+   @Override
+   public boolean isFullscreen() {
+      return fullscreen;
+   }
+
+   @Override
+   public void setLocation(int x, int y) {
+   }
+
+   @Override
+   public void setSize(boolean fullscreen, DisplayMode dm) throws UnableToChangeDisplayModeException {
+      this.fullscreen = fullscreen;
+      this.displayMode = new SoftwareDisplayMode(dm.getWidth(), dm.getHeight());
+
+      if (renderer != null)
+         renderer.flush();
+      if (isInit())
+         framebuffer = new SoftwareFramebuffer(dm.getWidth(), dm.getHeight());
+   }
+
+   @Override
+   public DisplayMode getDisplayMode() {
+      return displayMode;
+   }
+
+   @Override
+   public void setViewport(int x, int y, int w, int h) {
+      if (!isInit())
+         throw new PrematureCallException();
+
+      viewport = new Rectangle2D.Float(x, y, w, h);
+   }
+
+   @Override
+   public Rectangle2D getViewport() {
+      if (!isInit())
+         throw new PrematureCallException();
+
+      return viewport;
+   }
+
+   @Override
+   public void setCoordinates(float minX, float maxX, float minY, float maxY) {
+      if (!isInit())
+         throw new PrematureCallException();
+
+      coordinates = new Rectangle2D.Float(minX, minY, maxX - minX, maxY - minY);
+   }
+
+   @Override
+   public Rectangle2D getCoordinates() {
+      if (coordinates == null)
+         throw new PrematureCallException();
+
+      return coordinates;
+   }
+
+   @Override
+   public void setVSync(boolean enable) {
+   }
+
+   @Override
+   public void init() throws UnableToOpenWindowException {
+      if (isInit())
+         return;
+
+      framebuffer = new SoftwareFramebuffer(displayMode.getWidth(), displayMode.getHeight());
+      setViewport(0, 0, displayMode.getWidth(), displayMode.getHeight());
+      setCoordinates(0, displayMode.getWidth(), 0, displayMode.getHeight());
+   }
+
+   @Override
+   public void dispose() {
+      if (renderer != null)
+         renderer.dispose();
+      framebuffer = null;
+      renderer = null;
+      viewport = null;
+      coordinates = null;
+   }
+
+   @Override
+   public boolean isInit() {
+      return framebuffer != null;
+   }
+
+   @Override
+   public boolean isVisible() {
+      return false;
+   }
+
+   @Override
+   public boolean isActive() {
+      return isInit();
+   }
+
+   @Override
+   public boolean isTryingToClose() {
+      return false;
+   }
+
+   /**
+    * Ends the current frame. Pending batched images are drawn.
+    */
+   @Override
+   public void update() {
+      if (!isInit())
+         throw new PrematureCallException();
+
+      if (renderer != null)
+         renderer.flush();
+      frames++;
+   }
+
+   @Override
+   public Renderer getRenderer() {
+      if (!isInit())
+         throw new PrematureCallException();
+
+      if (renderer == null)
+         renderer = new SoftwareRenderer(this);
+
+      return renderer;
+   }
+
+   /**
+    * @return The framebuffer of this screen.
+    */
+   public SoftwareFramebuffer getFramebuffer() {
+      if (!isInit())
+         throw new PrematureCallException();
+
+      return framebuffer;
+   }
+
+   /**
+    * @return Number of times {@link #update()} was called.
+    */
+   public long getFrameCount() {
+      return frames;
+   }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.software.graphics;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Draws batched quads in parallel.
+ * <p>
+ * The framebuffer is divided in square tiles of {@link #TILE_SIZE} pixels. When flushed, every quad is added to the
+ * list of all tiles its bounding box touches, in submission order. Tiles are then rasterized in parallel on a
+ * {@link ForkJoinPool}. Since a tile is always drawn by a single thread, in submission order, blending gives exactly
+ * the same result of drawing the quads one by one.
+ * <p>
+ * Quads and tile lists are kept from one frame to the next, so a steady scene does not allocate.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+final class SoftwareTileRenderer {
+   /**
+    * Tile side, in pixels.
+    */
+   static final int TILE_SIZE = 64;
+   private static final int TILE_SHIFT = 6;
+
+   private SoftwareQuad[] quads = new SoftwareQuad[256];
+   private int quadCount = 0;
+
+   private int tilesX = 0;
+   private int tilesY = 0;
+   private int[][] tileQuads = new int[0][];
+   private int[] tileCounts = new int[0];
+   private int[] activeTiles = new int[0];
+   private int activeCount = 0;
+
+   private int[] pixels;
+   private int width;
+   private int height;
+
+   private int parallelism;
+   private ForkJoinPool pool = null;
+
+   SoftwareTileRenderer(int parallelism) {
+      setParallelism(parallelism);
+   }
+
+   /**
+    * Changes the number of threads used to rasterize tiles. With 1, tiles are drawn in the calling thread.
+    */
+   void setParallelism(int parallelism) {
+      if (parallelism < 1)
+         throw new IllegalArgumentException("Parallelism must be positive!");
+
+      if (parallelism != this.parallelism)
+         dispose();
+      this.parallelism = parallelism;
+   }
+
+   int getParallelism() {
+      return parallelism;
+   }
+
+   /**
+    * Returns the quad that will be used by the next submission. It's only added to the batch after {@link #commit()}.
+    */
+   SoftwareQuad next() {
+      if (quadCount == quads.length) {
+         SoftwareQuad[] grown = new SoftwareQuad[quads.length * 2];
+         System.arraycopy(quads, 0, grown, 0, quads.length);
+         quads = grown;
+      }
+
+      if (quads[quadCount] == null)
+         quads[quadCount] = new SoftwareQuad();
+      return quads[quadCount];
+   }
+
+   /**
+    * Adds the quad returned by {@link #next()} to the batch.
+    */
+   void commit() {
+      quadCount++;
+   }
+
+   /**
+    * Draws all batched quads into the given framebuffer.
+    */
+   void flush(SoftwareFramebuffer fb) {
+      if (quadCount == 0)
+         return;
+
+      pixels = fb.getPixels();
+      width = fb.getWidth();
+      height = fb.getHeight();
+      resizeTiles();
+
+      for (int i = 0; i < quadCount; i++)
+         bin(i);
+
+      if (parallelism == 1 || activeCount == 1) {
+         for (int i = 0; i < activeCount; i++)
+            drawTile(activeTiles[i]);
+      } else {
+         if (pool == null)
+            pool = new ForkJoinPool(parallelism);
+         pool.invoke(new TileTask(0, activeCount));
+      }
+
+      for (int i = 0; i < activeCount; i++)
+         tileCounts[activeTiles[i]] = 0;
+      activeCount = 0;
+      quadCount = 0;
+      pixels = null;
+   }
+
+   private void resizeTiles() {
+      int tx = (width + TILE_SIZE - 1) >> TILE_SHIFT;
+      int ty = (height + TILE_SIZE - 1) >> TILE_SHIFT;
+      if (tx == tilesX && ty == tilesY)
+         return;
+
+      tilesX = tx;
+      tilesY = ty;
+      tileQuads = new int[tx * ty][];
+      tileCounts = new int[tx * ty];
+      activeTiles = new int[tx * ty];
+      for (int i = 0; i < tileQuads.length; i++)
+         tileQuads[i] = new int[16];
+   }
+
+   private void bin(int index) {
+      SoftwareQuad q = quads[index];
+      int x0 = Math.max(Math.max(0, q.clipX0), (int) Math.ceil(q.minX - 0.5f));
+      int x1 = Math.min(Math.min(width, q.clipX1), (int) Math.ceil(q.maxX - 0.5f));
+      int y0 = Math.max(Math.max(0, q.clipY0), (int) Math.ceil(q.minY - 0.5f));
+      int y1 = Math.min(Math.min(height, q.clipY1), (int) Math.ceil(q.maxY - 0.5f));
+      if (x0 >= x1 || y0 >= y1)
+         return;
+
+      int tx1 = (x1 - 1) >> TILE_SHIFT;
+      int ty1 = (y1 - 1) >> TILE_SHIFT;
+      for (int ty = y0 >> TILE_SHIFT; ty <= ty1; ty++) {
+         for (int tx = x0 >> TILE_SHIFT; tx <= tx1; tx++) {
+            int tile = ty * tilesX + tx;
+            int count = tileCounts[tile];
+            if (count == 0)
+               activeTiles[activeCount++] = tile;
+
+            int[] list = tileQuads[tile];
+            if (count == list.length) {
+               int[] grown = new int[list.length * 2];
+               System.arraycopy(list, 0, grown, 0, list.length);
+               tileQuads[tile] = list = grown;
+            }
+            list[count] = index;
+            tileCounts[tile] = count + 1;
+         }
+      }
+   }
+
+   private void drawTile(int tile) {
+      int tileX0 = (tile % tilesX) << TILE_SHIFT;
+      int tileY0 = (tile / tilesX) << TILE_SHIFT;
+      int tileX1 = Math.min(width, tileX0 + TILE_SIZE);
+      int tileY1 = Math.min(height, tileY0 + TILE_SIZE);
+
+      int[] list = tileQuads[tile];
+      int count = tileCounts[tile];
+      for (int i = 0; i < count; i++) {
+         SoftwareQuad q = quads[list[i]];
+         SoftwareRasterizer.draw(q, pixels, width,
+               Math.max(tileX0, q.clipX0), Math.max(tileY0, q.clipY0),
+               Math.min(tileX1, q.clipX1), Math.min(tileY1, q.clipY1));
+      }
+   }
+
+   /**
+    * Stops the worker threads, if any.
+    */
+   void dispose() {
+      if (pool != null)
+         pool.shutdown();
+      pool = null;
+   }
+
+   /**
+    * Draws a range of the active tiles, splitting it in half until a single tile is left.
+    */
+   @SuppressWarnings("serial")
+   private final class TileTask extends RecursiveAction {
+      private int from;
+      private int to;
+
+      TileTask(int from, int to) {
+         this.from = from;
+         this.to = to;
+      }
+
+      @Override
+      protected void compute() {
+         if (to - from == 1) {
+            drawTile(activeTiles[from]);
+            return;
+         }
+
+         int middle = (from + to) >>> 1;
+         invokeAll(new TileTask(from, middle), new TileTask(middle, to));
+      }
+   }
+}
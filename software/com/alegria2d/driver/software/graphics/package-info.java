@@ -0,0 +1,6 @@
+/**
+ * Provides the software driver graphics classes. Images and the framebuffer are stored as packed ARGB
+ * <code>int</code> arrays.
+ */
+package com.alegria2d.driver.software.graphics;
+
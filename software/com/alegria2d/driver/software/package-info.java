@@ -0,0 +1,7 @@
+/**
+ * Provides a software implementation for the Alegria framework. All rendering is done by the CPU, in an in-memory
+ * framebuffer, so this driver works on machines without a GPU or a display, such as servers and continuous
+ * integration boxes.
+ */
+package com.alegria2d.driver.software;
+
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.driver.graphics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import com.alegria2d.core.util.ByteBufferInputStream;
+
+/**
+ * Implements the {@link ImageLoader} overloads in terms of {@link #load(String, InputStream)}. Drivers may override
+ * them whenever they can do better.
+ * <ul>
+ * <li>Buffers are read through a {@link ByteBufferInputStream}, so they are never copied to an array.
+ * <li>Channels are memory mapped, and the mapped buffer is loaded.
+ * <li>Paths are opened as channels, and their extension is used as the format.
+ * <li>Asynchronous loads happen in the calling thread, and return a future that is already done.
+ * </ul>
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public abstract class AbstractImageLoader implements ImageLoader {
+   @Override
+   public Image load(String format, ByteBuffer source) throws IOException {
+      return load(format, new ByteBufferInputStream(source));
+   }
+
+   @Override
+   public Image load(String format, FileChannel source) throws IOException {
+      long position = source.position();
+      return load(format, source.map(FileChannel.MapMode.READ_ONLY, position, source.size() - position));
+   }
+
+   @Override
+   public Image load(Path path) throws IOException {
+      FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+      try {
+         return load(getFormat(path), channel);
+      } finally {
+         channel.close();
+      }
+   }
+
+   @Override
+   public Future<Image> loadAsync(final String format, final InputStream source) {
+      FutureTask<Image> task = new FutureTask<Image>(new Callable<Image>() {
+         @Override
+         public Image call() throws Exception {
+            try {
+               return load(format, source);
+            } finally {
+               source.close();
+            }
+         }
+      });
+      task.run();
+      return task;
+   }
+
+   /**
+    * Finds the format of an image file by its extension.
+    * 
+    * @param path The file path.
+    * @return The extension in upper case, without the dot.
+    * @throws IOException If the file name has no extension.
+    */
+   protected static String getFormat(Path path) throws IOException {
+      String name = path.getFileName().toString();
+      int dot = name.lastIndexOf('.');
+      if (dot == -1 || dot == name.length() - 1)
+         throw new IOException("Unable to find the format of " + path);
+      return name.substring(dot + 1).toUpperCase();
+   }
+}
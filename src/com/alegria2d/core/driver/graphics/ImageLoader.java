@@ -24,6 +24,10 @@ package com.alegria2d.core.driver.graphics;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.concurrent.Future;
 
 /**
  * Loads images from disk
@@ -40,4 +44,48 @@ public interface ImageLoader {
     * @throws IOException If a problem occurs while loading.
     */
    Image load(String format, InputStream source) throws IOException;
-}
\ No newline at end of file
+
+   /**
+    * Loads images of the specified format from memory. Heap and direct buffers are accepted.
+    * 
+    * @param format The image format name (e.g. JPG, PNG);
+    * @param source Source data, from the buffer position to its limit. The buffer position is not changed.
+    * @return The loaded image.
+    * @throws IOException If a problem occurs while loading.
+    */
+   Image load(String format, ByteBuffer source) throws IOException;
+
+   /**
+    * Loads images of the specified format from a file channel, such as an entry of a pack file.
+    * 
+    * @param format The image format name (e.g. JPG, PNG);
+    * @param source Source data, from the channel position to its end. The channel is not closed.
+    * @return The loaded image.
+    * @throws IOException If a problem occurs while loading.
+    */
+   Image load(String format, FileChannel source) throws IOException;
+
+   /**
+    * Loads an image file. The format is the file extension.
+    * 
+    * @param path The image file.
+    * @return The loaded image.
+    * @throws IOException If a problem occurs while loading.
+    */
+   Image load(Path path) throws IOException;
+
+   /**
+    * Loads images of the specified format in background. Decoding happens in a worker thread. If the image must be
+    * sent to the graphics card, this is done in the rendering thread by {@link Screen#update()}, which spends a limited
+    * time per frame on it.
+    * <p>
+    * The source stream is closed after decoding. Since uploads happen during {@link Screen#update()}, never wait for
+    * the returned future in the rendering thread.
+    * 
+    * @param format The image format name (e.g. JPG, PNG);
+    * @param source Source data
+    * @return A future with the loaded image. If a problem occurs while loading, its <code>get</code> method throws an
+    *         {@link java.util.concurrent.ExecutionException} with the cause.
+    */
+   Future<Image> loadAsync(String format, InputStream source);
+}
\ No newline at end of file
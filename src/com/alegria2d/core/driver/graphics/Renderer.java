@@ -62,4 +62,31 @@ public interface Renderer {
    void drawImage(Image image,
          float x, float y, float w, float h,
          float angle, float r, float g, float b);
+
+   /**
+    * Starts a sprite batch. Until {@link #end()} is called, images passed to
+    * {@link #drawImage(Image, float, float, float, float, float, float, float, float) drawImage} are not drawn
+    * immediately. Instead, they are accumulated and sent to the graphics card with as few draw calls as possible.
+    * <p>
+    * Images are still drawn in call order, so consecutive images sharing the same texture and blending state are the
+    * ones that end up sharing a draw call.
+    * 
+    * @see #flush()
+    * @see #end()
+    */
+   void begin();
+
+   /**
+    * Draws all images accumulated since the last flush. Calling this method outside a batch has no effect.
+    * 
+    * @see #begin()
+    */
+   void flush();
+
+   /**
+    * Flushes the current sprite batch and returns to immediate drawing mode.
+    * 
+    * @see #begin()
+    */
+   void end();
 }
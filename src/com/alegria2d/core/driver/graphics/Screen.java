@@ -25,6 +25,7 @@ package com.alegria2d.core.driver.graphics;
 import java.awt.geom.Rectangle2D;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Represents the screen that is used to render the game. Only one screen can be created.
@@ -46,6 +47,15 @@ public interface Screen {
     */
    void setIcon(String format, InputStream... icons) throws IOException;
 
+   /**
+    * Sets one or more icons for the Display, read from memory. See {@link #setIcon(String, InputStream...)}.
+    * 
+    * @param format The format of icon images. Any of Alegria supported images, and that excludes .ico.
+    * @param icons One or more buffers containing all the icon data. Their positions are not changed.
+    * @throws IOException If the icon data cannot be loaded.
+    */
+   void setIcon(String format, ByteBuffer... icons) throws IOException;
+
    /**
     * @param title Changes the window title
     */
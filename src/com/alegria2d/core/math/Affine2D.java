@@ -0,0 +1,646 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import static java.lang.Math.atan2;
+import static java.lang.Math.cos;
+import static java.lang.Math.sin;
+import static java.lang.Math.sqrt;
+import java.nio.FloatBuffer;
+
+/**
+ * Represents a 2D affine transformation. It's equivalent to a {@link Matrix3D} whose last row is always
+ * <code>[0 0 1]</code>:
+ * 
+ * <pre>
+ * [a b c]
+ * [d e f]
+ * [0 0 1]
+ * </pre>
+ * 
+ * Since the last row is constant, only six values are stored, and composition, inversion and point transformation
+ * skip all operations involving it. Prefer this class over {@link Matrix3D} for translations, rotations, scales and
+ * their combinations.
+ * <p>
+ * As in {@link Matrix3D}, operations come with up to three signatures: one that returns a new transform, one suffixed
+ * with "Me" that changes this transform, and one that stores the result in a destination transform, without
+ * allocating memory. The destination may be one of the operands.
+ * <p>
+ * Angles are in radians and, as in {@link Vector2D#rotate(double)}, positive angles rotate counterclockwise.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public final class Affine2D implements Cloneable {
+   private float a, b, c;
+   private float d, e, f;
+
+   /**
+    * Creates a new identity transform.
+    */
+   public Affine2D() {
+      setIdentity();
+   }
+
+   /**
+    * Creates a new transform with the given values.
+    * 
+    * @param a First row, first column.
+    * @param b First row, second column.
+    * @param c First row, third column. The x translation.
+    * @param d Second row, first column.
+    * @param e Second row, second column.
+    * @param f Second row, third column. The y translation.
+    */
+   public Affine2D(float a, float b, float c, float d, float e, float f) {
+      set(a, b, c, d, e, f);
+   }
+
+   /**
+    * Creates a copy of the given transform.
+    * 
+    * @param other The transform to copy.
+    */
+   public Affine2D(Affine2D other) {
+      set(other);
+   }
+
+   /**
+    * Creates a transform from the first two rows of the given matrix.
+    * 
+    * @param matrix The matrix to copy.
+    * @throws IllegalArgumentException If the matrix is not affine, that is, its last row is not [0 0 1].
+    */
+   public Affine2D(Matrix3D matrix) {
+      set(matrix);
+   }
+
+   /**
+    * @return A new identity transform.
+    */
+   public static Affine2D newIdentity() {
+      return new Affine2D();
+   }
+
+   /**
+    * Creates a translation transform.
+    * 
+    * @param x The x translation.
+    * @param y The y translation.
+    * @return The new transform.
+    */
+   public static Affine2D newTranslation(float x, float y) {
+      return new Affine2D(1, 0, x, 0, 1, y);
+   }
+
+   /**
+    * Creates a rotation transform.
+    * 
+    * @param angle The angle, in radians.
+    * @return The new transform.
+    */
+   public static Affine2D newRotation(double angle) {
+      return new Affine2D().setTRS(0, 0, angle, 1, 1);
+   }
+
+   /**
+    * Creates a scale transform.
+    * 
+    * @param x The x scale.
+    * @param y The y scale.
+    * @return The new transform.
+    */
+   public static Affine2D newScale(float x, float y) {
+      return new Affine2D(x, 0, 0, 0, y, 0);
+   }
+
+   /**
+    * Creates a transform that scales, then rotates and then translates. See
+    * {@link #setTRS(float, float, double, float, float)}.
+    * 
+    * @return The new transform.
+    */
+   public static Affine2D newTRS(float x, float y, double angle, float scaleX, float scaleY) {
+      return new Affine2D().setTRS(x, y, angle, scaleX, scaleY);
+   }
+
+   /**
+    * Changes all values of this transform.
+    * 
+    * @return This transform.
+    * @see #Affine2D(float, float, float, float, float, float)
+    */
+   public Affine2D set(float a, float b, float c, float d, float e, float f) {
+      this.a = a;
+      this.b = b;
+      this.c = c;
+      this.d = d;
+      this.e = e;
+      this.f = f;
+      return this;
+   }
+
+   /**
+    * Copies the given transform.
+    * 
+    * @param other The transform to copy.
+    * @return This transform.
+    */
+   public Affine2D set(Affine2D other) {
+      return set(other.a, other.b, other.c, other.d, other.e, other.f);
+   }
+
+   /**
+    * Copies the first two rows of the given matrix.
+    * 
+    * @param matrix The matrix to copy.
+    * @return This transform.
+    * @throws IllegalArgumentException If the matrix is not affine, that is, its last row is not [0 0 1].
+    */
+   public Affine2D set(Matrix3D matrix) {
+      if (!MathUtil.equals(matrix.getG(), 0) || !MathUtil.equals(matrix.getH(), 0)
+            || !MathUtil.equals(matrix.getK(), 1))
+         throw new IllegalArgumentException("Not an affine matrix: " + matrix);
+
+      return set(matrix.getA(), matrix.getB(), matrix.getC(), matrix.getD(), matrix.getE(), matrix.getF());
+   }
+
+   /**
+    * Turns this transform into the identity.
+    * 
+    * @return This transform.
+    */
+   public Affine2D setIdentity() {
+      return set(1, 0, 0, 0, 1, 0);
+   }
+
+   /**
+    * Turns this transform into a transform that scales, then rotates and then translates. This is the usual transform
+    * of a sprite, and is the same as, but much faster than:
+    * 
+    * <pre>
+    * newTranslation(x, y).multiplyMe(newRotation(angle)).multiplyMe(newScale(scaleX, scaleY))
+    * </pre>
+    * 
+    * @param x The x translation.
+    * @param y The y translation.
+    * @param angle The rotation angle, in radians.
+    * @param scaleX The x scale.
+    * @param scaleY The y scale.
+    * @return This transform.
+    */
+   public Affine2D setTRS(float x, float y, double angle, float scaleX, float scaleY) {
+      float s = (float) sin(angle);
+      float co = (float) cos(angle);
+      return set(co * scaleX, -s * scaleY, x, s * scaleX, co * scaleY, y);
+   }
+
+   /**
+    * @return The first row, first column value.
+    */
+   public float getA() {
+      return a;
+   }
+
+   /**
+    * @return The first row, second column value.
+    */
+   public float getB() {
+      return b;
+   }
+
+   /**
+    * @return The first row, third column value. Same as {@link #getTranslationX()}.
+    */
+   public float getC() {
+      return c;
+   }
+
+   /**
+    * @return The second row, first column value.
+    */
+   public float getD() {
+      return d;
+   }
+
+   /**
+    * @return The second row, second column value.
+    */
+   public float getE() {
+      return e;
+   }
+
+   /**
+    * @return The second row, third column value. Same as {@link #getTranslationY()}.
+    */
+   public float getF() {
+      return f;
+   }
+
+   /**
+    * @return The x translation.
+    */
+   public float getTranslationX() {
+      return c;
+   }
+
+   /**
+    * @return The y translation.
+    */
+   public float getTranslationY() {
+      return f;
+   }
+
+   /**
+    * Extracts the rotation of a transform built with {@link #setTRS(float, float, double, float, float)}. Transforms
+    * with shear can't be decomposed in translation, rotation and scale, so the result is meaningless for them.
+    * 
+    * @return The rotation angle, in radians, between -PI and PI.
+    */
+   public float getRotation() {
+      return (float) atan2(d, a);
+   }
+
+   /**
+    * Extracts the x scale of a transform built with {@link #setTRS(float, float, double, float, float)}. Mirroring is
+    * always reported in the y scale.
+    * 
+    * @return The x scale. It's never negative.
+    * @see #getRotation()
+    */
+   public float getScaleX() {
+      return (float) sqrt(a * a + d * d);
+   }
+
+   /**
+    * Extracts the y scale of a transform built with {@link #setTRS(float, float, double, float, float)}. It's negative
+    * if the transform mirrors.
+    * 
+    * @return The y scale.
+    * @see #getRotation()
+    */
+   public float getScaleY() {
+      float scaleX = getScaleX();
+      return scaleX == 0 ? (float) sqrt(b * b + e * e) : getDeterminant() / scaleX;
+   }
+
+   /**
+    * Composes this transform with the given one, creating a new transform. The resulting transform applies the other
+    * transform first, and then this one, as in a matrix multiplication.
+    * 
+    * @param other The transform to compose with.
+    * @return The new transform.
+    * @see #multiply(Affine2D, Affine2D)
+    */
+   public Affine2D multiply(Affine2D other) {
+      return multiply(other, new Affine2D());
+   }
+
+   /**
+    * Composes this transform with the given one. See {@link #multiply(Affine2D)}.
+    * 
+    * @param other The transform to compose with.
+    * @return This transform.
+    */
+   public Affine2D multiplyMe(Affine2D other) {
+      return multiply(other, this);
+   }
+
+   /**
+    * Composes this transform with the given one, storing the result in the destination transform. See
+    * {@link #multiply(Affine2D)}.
+    * 
+    * @param other The transform to compose with.
+    * @param dest The transform that will receive the result. It may be this transform or the other one.
+    * @return The destination transform.
+    */
+   public Affine2D multiply(Affine2D other, Affine2D dest) {
+      return dest.set(
+            a * other.a + b * other.d, a * other.b + b * other.e, a * other.c + b * other.f + c,
+            d * other.a + e * other.d, d * other.b + e * other.e, d * other.c + e * other.f + f);
+   }
+
+   /**
+    * Translates this transform. The translation is applied before the current transform, in local coordinates.
+    * 
+    * @param x The x translation.
+    * @param y The y translation.
+    * @return This transform.
+    */
+   public Affine2D translateMe(float x, float y) {
+      c += a * x + b * y;
+      f += d * x + e * y;
+      return this;
+   }
+
+   /**
+    * Rotates this transform. The rotation is applied before the current transform, in local coordinates.
+    * 
+    * @param angle The angle, in radians.
+    * @return This transform.
+    */
+   public Affine2D rotateMe(double angle) {
+      float s = (float) sin(angle);
+      float co = (float) cos(angle);
+      return set(a * co + b * s, b * co - a * s, c, d * co + e * s, e * co - d * s, f);
+   }
+
+   /**
+    * Scales this transform. The scale is applied before the current transform, in local coordinates.
+    * 
+    * @param x The x scale.
+    * @param y The y scale.
+    * @return This transform.
+    */
+   public Affine2D scaleMe(float x, float y) {
+      a *= x;
+      d *= x;
+      b *= y;
+      e *= y;
+      return this;
+   }
+
+   /**
+    * @return This transform determinant.
+    */
+   public float getDeterminant() {
+      return a * e - b * d;
+   }
+
+   /**
+    * @return True if this transform has an inverse.
+    */
+   public boolean isInvertible() {
+      return getDeterminant() != 0;
+   }
+
+   /**
+    * Calculates the inverse of this transform. Not all transforms are invertible, so check the {@link #isInvertible()}
+    * method prior to calling this method if you are not sure.
+    * 
+    * @return The inverse transform.
+    * @see #inverse(Affine2D)
+    */
+   public Affine2D inverse() {
+      return inverse(new Affine2D());
+   }
+
+   /**
+    * Inverts this transform. See {@link #inverse()}.
+    * 
+    * @return This transform.
+    */
+   public Affine2D inverseMe() {
+      return inverse(this);
+   }
+
+   /**
+    * Calculates the inverse of this transform, storing it in the destination transform. See {@link #inverse()}.
+    * 
+    * @param dest The transform that will receive the inverse. It may be this transform.
+    * @return The destination transform. If this transform is not invertible, its values will be undefined.
+    */
+   public Affine2D inverse(Affine2D dest) {
+      assert isInvertible() : "This transform is not invertible!";
+
+      float inv = 1.0f / getDeterminant();
+      float ia = e * inv;
+      float ib = -b * inv;
+      float id = -d * inv;
+      float ie = a * inv;
+      return dest.set(ia, ib, -(ia * c + ib * f), id, ie, -(id * c + ie * f));
+   }
+
+   /**
+    * Transforms the given point, creating a new vector.
+    * 
+    * @param point The point to transform.
+    * @return The transformed point.
+    */
+   public Vector2D multiply(Vector2D point) {
+      return multiply(point, new Vector2D());
+   }
+
+   /**
+    * Transforms the given point, storing the result in the destination vector.
+    * 
+    * @param point The point to transform.
+    * @param dest The vector that will receive the result. It may be the point itself.
+    * @return The destination vector.
+    */
+   public Vector2D multiply(Vector2D point, Vector2D dest) {
+      float x = point.getX();
+      float y = point.getY();
+      return dest.set(a * x + b * y + c, d * x + e * y + f);
+   }
+
+   /**
+    * Transforms several points stored in an array as <code>x0, y0, x1, y1, ...</code>. See
+    * {@link #transform(float[], int, int, float[], int, int, int)}.
+    * 
+    * @param src The source array.
+    * @param srcOffset Index of the first x coordinate in the source array.
+    * @param dest The destination array.
+    * @param destOffset Index of the first x coordinate in the destination array.
+    * @param count Number of points to transform.
+    * @return The destination array.
+    */
+   public float[] transform(float[] src, int srcOffset, float[] dest, int destOffset, int count) {
+      return transform(src, srcOffset, 2, dest, destOffset, 2, count);
+   }
+
+   /**
+    * Transforms several points stored in an array. Each point is stored as a x coordinate followed by a y coordinate,
+    * and the stride is the distance between two consecutive x coordinates, so other vertex attributes, such as texture
+    * coordinates or colors, may be interleaved with the points and are left untouched.
+    * <p>
+    * The source and destination arrays may be the same array, as long as the destination offset is not after the
+    * source offset and the destination stride is not bigger than the source stride. Otherwise, points would be
+    * overwritten before they are read.
+    * 
+    * @param src The source array.
+    * @param srcOffset Index of the first x coordinate in the source array.
+    * @param srcStride Number of floats between two source points. 2 for packed points.
+    * @param dest The destination array.
+    * @param destOffset Index of the first x coordinate in the destination array.
+    * @param destStride Number of floats between two destination points. 2 for packed points.
+    * @param count Number of points to transform.
+    * @return The destination array.
+    * @throws IllegalArgumentException If a stride is smaller than 2 or the count is negative.
+    * @throws IndexOutOfBoundsException If a point is outside its array.
+    */
+   public float[] transform(float[] src, int srcOffset, int srcStride,
+         float[] dest, int destOffset, int destStride, int count)
+   {
+      transform(a, b, c, d, e, f, src, srcOffset, srcStride, dest, destOffset, destStride, count);
+      return dest;
+   }
+
+   /**
+    * Transforms several points stored in a float buffer. See
+    * {@link #transform(float[], int, int, float[], int, int, int)}. Offsets are absolute indexes, and the buffer
+    * positions and limits are not changed.
+    * 
+    * @param src The source buffer.
+    * @param srcOffset Index of the first x coordinate in the source buffer.
+    * @param srcStride Number of floats between two source points. 2 for packed points.
+    * @param dest The destination buffer.
+    * @param destOffset Index of the first x coordinate in the destination buffer.
+    * @param destStride Number of floats between two destination points. 2 for packed points.
+    * @param count Number of points to transform.
+    * @return The destination buffer.
+    * @throws IllegalArgumentException If a stride is smaller than 2 or the count is negative.
+    * @throws IndexOutOfBoundsException If a point is outside the limit of its buffer.
+    */
+   public FloatBuffer transform(FloatBuffer src, int srcOffset, int srcStride,
+         FloatBuffer dest, int destOffset, int destStride, int count)
+   {
+      transform(a, b, c, d, e, f, src, srcOffset, srcStride, dest, destOffset, destStride, count);
+      return dest;
+   }
+
+   /**
+    * Applies the affine transform with the given coefficients to an array of points. Shared with {@link Matrix3D}.
+    * Packed points go through the {@link MathKernels}.
+    */
+   static void transform(float a, float b, float c, float d, float e, float f,
+         float[] src, int srcOffset, int srcStride,
+         float[] dest, int destOffset, int destStride, int count)
+   {
+      checkBulk(srcStride, destStride, count);
+      checkPoints(src.length, srcOffset, srcStride, count);
+      checkPoints(dest.length, destOffset, destStride, count);
+      if (srcStride == 2 && destStride == 2) {
+         MathKernels.getDefault().transform(a, b, c, d, e, f, src, srcOffset, dest, destOffset, count);
+         return;
+      }
+
+      for (int i = 0, s = srcOffset, t = destOffset; i < count; i++, s += srcStride, t += destStride) {
+         float x = src[s];
+         float y = src[s + 1];
+         dest[t] = a * x + b * y + c;
+         dest[t + 1] = d * x + e * y + f;
+      }
+   }
+
+   /**
+    * Applies the affine transform with the given coefficients to a buffer of points. Shared with {@link Matrix3D}.
+    */
+   static void transform(float a, float b, float c, float d, float e, float f,
+         FloatBuffer src, int srcOffset, int srcStride,
+         FloatBuffer dest, int destOffset, int destStride, int count)
+   {
+      checkBulk(srcStride, destStride, count);
+      // Heap buffers are transformed through their backing arrays, which may be bigger than the buffers themselves
+      checkPoints(src.limit(), srcOffset, srcStride, count);
+      checkPoints(dest.limit(), destOffset, destStride, count);
+      if (src.hasArray() && dest.hasArray()) {
+         transform(a, b, c, d, e, f,
+               src.array(), src.arrayOffset() + srcOffset, srcStride,
+               dest.array(), dest.arrayOffset() + destOffset, destStride, count);
+         return;
+      }
+
+      for (int i = 0, s = srcOffset, t = destOffset; i < count; i++, s += srcStride, t += destStride) {
+         float x = src.get(s);
+         float y = src.get(s + 1);
+         dest.put(t, a * x + b * y + c);
+         dest.put(t + 1, d * x + e * y + f);
+      }
+   }
+
+   private static void checkBulk(int srcStride, int destStride, int count) {
+      if (srcStride < 2 || destStride < 2)
+         throw new IllegalArgumentException("Strides must be at least 2!");
+      if (count < 0)
+         throw new IllegalArgumentException("Count can't be negative!");
+   }
+
+   /**
+    * Checks that the points are inside the given length: the array length, or the buffer limit. The last index is
+    * computed in long, so huge counts or strides can't overflow into a range that looks valid.
+    */
+   private static void checkPoints(int length, int offset, int stride, int count) {
+      if (count == 0)
+         return;
+
+      long last = offset + (long) (count - 1) * stride + 1;
+      if (offset < 0 || last >= length)
+         throw new IndexOutOfBoundsException("Points out of range: offset " + offset + ", stride " + stride
+               + ", count " + count + ", length " + length);
+   }
+
+   /**
+    * @return A new matrix with the same values of this transform.
+    */
+   public Matrix3D toMatrix3D() {
+      return toMatrix3D(new Matrix3D());
+   }
+
+   /**
+    * Copies this transform to the given matrix.
+    * 
+    * @param dest The destination matrix.
+    * @return The destination matrix.
+    */
+   public Matrix3D toMatrix3D(Matrix3D dest) {
+      return dest.set(0, 0, a).set(0, 1, b).set(0, 2, c)
+                 .set(1, 0, d).set(1, 1, e).set(1, 2, f)
+                 .set(2, 0, 0).set(2, 1, 0).set(2, 2, 1);
+   }
+
+   @Override
+   public Affine2D clone() {
+      return new Affine2D(this);
+   }
+
+   @Override
+   public boolean equals(Object obj) {
+      if (obj == null || obj.getClass() != getClass())
+         return false;
+
+      if (obj == this)
+         return true;
+
+      Affine2D other = (Affine2D) obj;
+      return a == other.a && b == other.b && c == other.c && d == other.d && e == other.e && f == other.f;
+   }
+
+   /**
+    * Similar to equals, but uses {@link MathUtil#equals(float, float)} to compare the values.
+    * 
+    * @param other The other transform.
+    * @return True if the two are similar, false if not.
+    */
+   public boolean similar(Affine2D other) {
+      return MathUtil.equals(a, other.a) && MathUtil.equals(b, other.b) && MathUtil.equals(c, other.c)
+            && MathUtil.equals(d, other.d) && MathUtil.equals(e, other.e) && MathUtil.equals(f, other.f);
+   }
+
+   @Override
+   public int hashCode() {
+      return new HashBuilder(a).add(b).add(c).add(d).add(e).add(f).hashCode();
+   }
+
+   @Override
+   public String toString() {
+      return String.format("%.2f %.2f %.2f %.2f %.2f %.2f", a, b, c, d, e, f);
+   }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+/**
+ * Fast approximations of trigonometric functions, in float precision, for code where speed matters more than the last
+ * digits, such as rotating thousands of sprites each frame.
+ * <p>
+ * The maximum absolute errors, compared to the {@link Math} functions, are:
+ * <ul>
+ * <li>{@link #sin(float)} and {@link #cos(float)}: {@value #SIN_MAX_ERROR}, for angles between -100 and 100 radians.
+ * Bigger angles lose precision in the float angle itself;</li>
+ * <li>{@link #atan2(float, float)}: {@value #ATAN2_MAX_ERROR} radians;</li>
+ * <li>{@link #acos(float)}: {@value #ACOS_MAX_ERROR} radians.</li>
+ * </ul>
+ * Sine and cosine are read from a table, with linear interpolation between its entries. The arc tangent is a
+ * polynomial approximation.
+ * <p>
+ * When angles are only compared, and never used as angles, {@link #pseudoAngle(float, float)} is even faster than
+ * {@link #atan2(float, float)}, and keeps the order of the angles.
+ * 
+ * @author Vinicius G. Mendonca
+ * @see Vector2D#rotateMeFast(float)
+ */
+public final class FastTrig {
+   /**
+    * Maximum absolute error of {@link #sin(float)} and {@link #cos(float)}.
+    */
+   public static final float SIN_MAX_ERROR = 0.0000005f;
+
+   /**
+    * Maximum absolute error of {@link #atan2(float, float)}, in radians.
+    */
+   public static final float ATAN2_MAX_ERROR = 0.0000025f;
+
+   /**
+    * Maximum absolute error of {@link #acos(float)}, in radians.
+    */
+   public static final float ACOS_MAX_ERROR = 0.0000025f;
+
+   private static final float PI = (float) Math.PI;
+   private static final float HALF_PI = (float) (Math.PI / 2);
+
+   private static final int SIN_BITS = 12;
+   private static final int SIN_SIZE = 1 << SIN_BITS;
+   private static final int SIN_MASK = SIN_SIZE - 1;
+   private static final int COS_OFFSET = SIN_SIZE / 4;
+   private static final double RADIANS_TO_INDEX = SIN_SIZE / (2 * Math.PI);
+
+   /**
+    * Sine of one whole turn. The extra entry avoids masking the index of the next entry, when interpolating.
+    */
+   private static final float[] SIN = new float[SIN_SIZE + 1];
+
+   static {
+      for (int i = 0; i <= SIN_SIZE; i++)
+         SIN[i] = (float) Math.sin(i * 2 * Math.PI / SIN_SIZE);
+   }
+
+   private FastTrig() {
+   }
+
+   /**
+    * The index is a double, so big angles still have a precise fraction between two entries.
+    */
+   private static float lookup(double index) {
+      long i = (long) index;
+      if (index < i)
+         i--;
+      float fraction = (float) (index - i);
+      int entry = (int) i & SIN_MASK;
+      return SIN[entry] + (SIN[entry + 1] - SIN[entry]) * fraction;
+   }
+
+   /**
+    * @param radians An angle, in radians.
+    * @return The approximate sine of the angle.
+    */
+   public static float sin(float radians) {
+      return lookup(radians * RADIANS_TO_INDEX);
+   }
+
+   /**
+    * @param radians An angle, in radians.
+    * @return The approximate cosine of the angle.
+    */
+   public static float cos(float radians) {
+      return lookup(radians * RADIANS_TO_INDEX + COS_OFFSET);
+   }
+
+   /**
+    * Approximates the angle of the point (x, y) with the x-axis, like {@link Math#atan2(double, double)}.
+    * 
+    * @param y The y coordinate.
+    * @param x The x coordinate.
+    * @return The angle, in radians, between -PI and PI. If both coordinates are 0, 0 is returned.
+    */
+   public static float atan2(float y, float x) {
+      float absX = Math.abs(x);
+      float absY = Math.abs(y);
+      if (absX == 0 && absY == 0)
+         return 0;
+
+      // atan of the slope, which is between 0 and 1
+      boolean steep = absY > absX;
+      float t = steep ? absX / absY : absY / absX;
+      float t2 = t * t;
+      float angle = t * (0.99997726f + t2 * (-0.33262347f + t2 * (0.19354346f
+            + t2 * (-0.11643287f + t2 * (0.05265332f + t2 * -0.01172120f)))));
+
+      if (steep)
+         angle = HALF_PI - angle;
+      if (x < 0)
+         angle = PI - angle;
+      return y < 0 ? -angle : angle;
+   }
+
+   /**
+    * Approximates the arc cosine, like {@link Math#acos(double)}.
+    * 
+    * @param value The cosine, between -1 and 1. Values outside this interval are clamped.
+    * @return The angle, in radians, between 0 and PI.
+    */
+   public static float acos(float value) {
+      value = Math.min(Math.max(value, -1), 1);
+      return atan2((float) Math.sqrt((1 - value) * (1 + value)), value);
+   }
+
+   /**
+    * Returns a number that grows with the angle of the point (x, y) with the x-axis, but is much cheaper to calculate.
+    * The pseudo angle is 0 on the positive x axis, 1 on the positive y axis, 2 on the negative x axis and 3 on the
+    * negative y axis, growing counter-clockwise until almost 4.
+    * <p>
+    * Sorting directions by their pseudo angle gives the same order as sorting them by their angles, from 0 to 2 PI.
+    * 
+    * @param x The x coordinate.
+    * @param y The y coordinate.
+    * @return The pseudo angle, from 0 (inclusive) to 4 (exclusive). If both coordinates are 0, 0 is returned.
+    */
+   public static float pseudoAngle(float x, float y) {
+      float sum = Math.abs(x) + Math.abs(y);
+      if (sum == 0)
+         return 0;
+
+      float p = y / sum;
+      if (x < 0)
+         return 2 - p;
+      return y < 0 ? 4 + p : p;
+   }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import com.alegria2d.core.exception.DivideByZeroException;
+
+/**
+ * Deterministic 16.16 fixed point arithmetic. A fixed point number is an int, with 16 integer bits and 16 fractional
+ * bits: the number 1.5 is stored as <code>1.5 * 65536 = 98304</code>. They range from -32768 to 32767.99998, with a
+ * precision of 1/65536.
+ * <p>
+ * Fixed point operations use only integer arithmetic, so they give exactly the same results in every JVM and processor.
+ * This is required by lockstep multiplayer games and replays, where every machine must simulate exactly the same game.
+ * Fixed point numbers are added, subtracted and compared with the usual int operators, but must be multiplied and
+ * divided with {@link #mul(int, int)} and {@link #div(int, int)}:
+ * 
+ * <pre>
+ * int speed = Fixed.fromInt(3);
+ * int elapsed = Fixed.fromFloat(0.016f);
+ * position += Fixed.mul(speed, elapsed);
+ * </pre>
+ * 
+ * Square roots, sines, cosines and arc tangents are also deterministic. Sine and cosine are read from a table, and have
+ * a maximum error of {@value #SIN_MAX_ERROR}. The arc tangent is also read from a table, with a maximum error of
+ * {@value #ATAN2_MAX_ERROR} radians. The tables are calculated with {@link StrictMath}, which gives the same values in
+ * every JVM.
+ * <p>
+ * Multiplications round their results down, and divisions round them toward zero.
+ * 
+ * @author Vinicius G. Mendonca
+ * @see FixedVector2D
+ * @see FixedMatrix3D
+ */
+public final class Fixed {
+   /**
+    * Number of fractional bits.
+    */
+   public static final int FRACTION_BITS = 16;
+
+   /**
+    * The fixed point number 1.
+    */
+   public static final int ONE = 1 << FRACTION_BITS;
+
+   /**
+    * The fixed point number 0.5.
+    */
+   public static final int HALF = ONE >> 1;
+
+   /**
+    * PI, in fixed point.
+    */
+   public static final int PI = 205887;
+
+   /**
+    * PI / 2, in fixed point.
+    */
+   public static final int HALF_PI = 102944;
+
+   /**
+    * 2 * PI, in fixed point.
+    */
+   public static final int TWO_PI = 411775;
+
+   /**
+    * Maximum absolute error of {@link #sin(int)} and {@link #cos(int)}.
+    */
+   public static final float SIN_MAX_ERROR = 0.00003f;
+
+   /**
+    * Maximum absolute error of {@link #atan2(int, int)}, in radians.
+    */
+   public static final float ATAN2_MAX_ERROR = 0.00006f;
+
+   private static final int SIN_BITS = 12;
+   private static final int SIN_SIZE = 1 << SIN_BITS;
+   private static final int SIN_MASK = SIN_SIZE - 1;
+
+   /**
+    * SIN_SIZE / (2 * PI), in fixed point.
+    */
+   private static final long RADIANS_TO_INDEX = 42722830L;
+
+   /**
+    * The square root of Long.MAX_VALUE, rounded down.
+    */
+   private static final long MAX_LONG_ROOT = 3037000499L;
+
+   private static final int ATAN_BITS = 10;
+   private static final int ATAN_SIZE = 1 << ATAN_BITS;
+   private static final int ATAN_SHIFT = FRACTION_BITS - ATAN_BITS;
+   private static final int ATAN_FRACTION_MASK = (1 << ATAN_SHIFT) - 1;
+
+   /**
+    * Sine of one whole turn. The extra entry avoids masking the index of the next entry, when interpolating.
+    */
+   private static final int[] SIN = new int[SIN_SIZE + 1];
+
+   /**
+    * Arc tangent from 0 to 1. The extra entries allow interpolating at 1.
+    */
+   private static final int[] ATAN = new int[ATAN_SIZE + 2];
+
+   static {
+      for (int i = 0; i <= SIN_SIZE; i++)
+         SIN[i] = (int) StrictMath.round(StrictMath.sin(i * 2 * StrictMath.PI / SIN_SIZE) * ONE);
+
+      for (int i = 0; i <= ATAN_SIZE; i++)
+         ATAN[i] = (int) StrictMath.round(StrictMath.atan((double) i / ATAN_SIZE) * ONE);
+      ATAN[ATAN_SIZE + 1] = ATAN[ATAN_SIZE];
+   }
+
+   private Fixed() {
+   }
+
+   /**
+    * @param value An integer, from -32768 to 32767.
+    * @return The value, in fixed point.
+    */
+   public static int fromInt(int value) {
+      return value << FRACTION_BITS;
+   }
+
+   /**
+    * Converts a float to fixed point, rounding it to the nearest fixed point number. The conversion is deterministic, so
+    * it can be used to load the initial state of a simulation.
+    * 
+    * @param value A float, from -32768 to 32767.
+    * @return The value, in fixed point.
+    */
+   public static int fromFloat(float value) {
+      return Math.round(value * ONE);
+   }
+
+   /**
+    * Converts a double to fixed point, rounding it to the nearest fixed point number.
+    * 
+    * @param value A double, from -32768 to 32767.
+    * @return The value, in fixed point.
+    */
+   public static int fromDouble(double value) {
+      return (int) Math.round(value * ONE);
+   }
+
+   /**
+    * @param value A fixed point number.
+    * @return The integer part of the value, rounded down.
+    */
+   public static int toInt(int value) {
+      return value >> FRACTION_BITS;
+   }
+
+   /**
+    * @param value A fixed point number.
+    * @return The value, as a float.
+    */
+   public static float toFloat(int value) {
+      return value / (float) ONE;
+   }
+
+   /**
+    * @param value A fixed point number.
+    * @return The value, as a double.
+    */
+   public static double toDouble(int value) {
+      return value / (double) ONE;
+   }
+
+   /**
+    * @return The product of two fixed point numbers.
+    */
+   public static int mul(int a, int b) {
+      return (int) (((long) a * b) >> FRACTION_BITS);
+   }
+
+   /**
+    * @return The quotient of two fixed point numbers.
+    * @throws DivideByZeroException If the divisor is zero.
+    */
+   public static int div(int a, int b) {
+      if (b == 0)
+         throw new DivideByZeroException();
+
+      return (int) (((long) a << FRACTION_BITS) / b);
+   }
+
+   /**
+    * @param value A fixed point number.
+    * @return The square root of the value, in fixed point.
+    * @throws IllegalArgumentException If the value is negative.
+    */
+   public static int sqrt(int value) {
+      return (int) sqrt((long) value << FRACTION_BITS);
+   }
+
+   /**
+    * Integer square root. This is used to calculate the square root of values with twice the fractional bits, such as
+    * the sum of squares of fixed point numbers, whose square root is a fixed point number.
+    * 
+    * @param value A non negative long.
+    * @return The biggest long whose square is smaller or equal to the value.
+    * @throws IllegalArgumentException If the value is negative.
+    */
+   public static long sqrt(long value) {
+      if (value < 0)
+         throw new IllegalArgumentException("Square root of a negative number: " + value);
+
+      // Math.sqrt is correctly rounded in every JVM, so the estimate and its correction are deterministic
+      long root = (long) Math.sqrt(value);
+      while (root * root > value)
+         root--;
+      while (root < MAX_LONG_ROOT && (root + 1) * (root + 1) <= value)
+         root++;
+      return root;
+   }
+
+   private static int lookupSin(long index) {
+      int i = (int) (index >> FRACTION_BITS) & SIN_MASK;
+      int fraction = (int) (index & (ONE - 1));
+      return SIN[i] + (int) (((long) (SIN[i + 1] - SIN[i]) * fraction) >> FRACTION_BITS);
+   }
+
+   /**
+    * @param radians An angle, in radians, in fixed point.
+    * @return The sine of the angle, in fixed point.
+    */
+   public static int sin(int radians) {
+      return lookupSin((radians * RADIANS_TO_INDEX) >> FRACTION_BITS);
+   }
+
+   /**
+    * @param radians An angle, in radians, in fixed point.
+    * @return The cosine of the angle, in fixed point.
+    */
+   public static int cos(int radians) {
+      return lookupSin(((radians * RADIANS_TO_INDEX) >> FRACTION_BITS) + ((long) SIN_SIZE << FRACTION_BITS) / 4);
+   }
+
+   /**
+    * Calculates the angle of the point (x, y) with the x-axis, like {@link Math#atan2(double, double)}.
+    * 
+    * @param y The y coordinate, in fixed point.
+    * @param x The x coordinate, in fixed point.
+    * @return The angle, in radians, between -PI and PI, in fixed point. If both coordinates are 0, 0 is returned.
+    */
+   public static int atan2(int y, int x) {
+      long absX = Math.abs((long) x);
+      long absY = Math.abs((long) y);
+      if (absX == 0 && absY == 0)
+         return 0;
+
+      // The slope, between 0 and 1
+      boolean steep = absY > absX;
+      int t = (int) (steep ? (absX << FRACTION_BITS) / absY : (absY << FRACTION_BITS) / absX);
+      int i = t >> ATAN_SHIFT;
+      int fraction = t & ATAN_FRACTION_MASK;
+      int angle = ATAN[i] + (((ATAN[i + 1] - ATAN[i]) * fraction) >> ATAN_SHIFT);
+
+      if (steep)
+         angle = HALF_PI - angle;
+      if (x < 0)
+         angle = PI - angle;
+      return y < 0 ? -angle : angle;
+   }
+}
@@ -0,0 +1,538 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import com.alegria2d.core.exception.DivideByZeroException;
+
+/**
+ * A deterministic version of {@link Matrix3D}, with {@link Fixed 16.16 fixed point} elements. Every operation gives
+ * exactly the same result in every JVM and processor.
+ * <p>
+ * The methods mirror the ones of {@link Matrix3D}: operations suffixed with "Me" change this matrix, the others return
+ * a new one, and the most used ones also store their result in a destination matrix. Every int parameter and return
+ * value is a fixed point number. The elements are named:
+ * 
+ * <pre>
+ * [a b c]
+ * [d e f]
+ * [g h k]
+ * </pre>
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public final class FixedMatrix3D implements Cloneable {
+   private static final int BITS = Fixed.FRACTION_BITS;
+
+   /**
+    * The array that represents this matrix, row by row.
+    */
+   private final int A[] = new int[9];
+
+   /**
+    * Creates a new matrix with all elements equal to zero. Useful as a destination matrix.
+    */
+   public FixedMatrix3D() {
+   }
+
+   /**
+    * Copy constructor.
+    * 
+    * @param other The matrix to copy.
+    */
+   public FixedMatrix3D(FixedMatrix3D other) {
+      set(other);
+   }
+
+   /**
+    * Creates a matrix with the elements of the given float matrix, rounded to the nearest fixed point numbers.
+    * 
+    * @param other The matrix to convert.
+    */
+   public FixedMatrix3D(Matrix3D other) {
+      for (int i = 0; i < 9; i++)
+         A[i] = Fixed.fromFloat(other.get(i / 3, i % 3));
+   }
+
+   /**
+    * Creates a new matrix with the given fixed point values, read as a, b, c, d, e, f, g, h, k.
+    * 
+    * @param values The 9 matrix elements, in fixed point.
+    */
+   public FixedMatrix3D(int... values) {
+      if (values.length < 9)
+         throw new IllegalArgumentException("You must provide 9 values!");
+
+      System.arraycopy(values, 0, A, 0, 9);
+   }
+
+   /**
+    * @return The identity matrix.
+    */
+   public static FixedMatrix3D newIdentity() {
+      return new FixedMatrix3D().setIdentity();
+   }
+
+   /**
+    * @param x The translation in the x axis, in fixed point.
+    * @param y The translation in the y axis, in fixed point.
+    * @return A matrix that translates column vectors.
+    */
+   public static FixedMatrix3D newTranslation(int x, int y) {
+      return new FixedMatrix3D(Fixed.ONE, 0, x,
+                               0, Fixed.ONE, y,
+                               0, 0, Fixed.ONE);
+   }
+
+   /**
+    * @param angle The angle, in radians, in fixed point.
+    * @return A matrix that rotates column vectors counter-clockwise.
+    */
+   public static FixedMatrix3D newRotation(int angle) {
+      int s = Fixed.sin(angle);
+      int c = Fixed.cos(angle);
+      return new FixedMatrix3D(c, -s, 0,
+                               s, c, 0,
+                               0, 0, Fixed.ONE);
+   }
+
+   /**
+    * @param x The scale in the x axis, in fixed point.
+    * @param y The scale in the y axis, in fixed point.
+    * @return A matrix that scales column vectors.
+    */
+   public static FixedMatrix3D newScale(int x, int y) {
+      return new FixedMatrix3D(x, 0, 0,
+                               0, y, 0,
+                               0, 0, Fixed.ONE);
+   }
+
+   private static int index(int row, int col) {
+      if (row < 0 || row > 2 || col < 0 || col > 2)
+         throw new ArrayIndexOutOfBoundsException("Invalid element: " + row + ", " + col);
+      return row * 3 + col;
+   }
+
+   /**
+    * @param row The row to retrieve
+    * @param col The column to retrieve
+    * @return The element value, in fixed point.
+    */
+   public int get(int row, int col) {
+      return A[index(row, col)];
+   }
+
+   /**
+    * @param row The row to change
+    * @param col The column to change
+    * @param value The new value, in fixed point.
+    * @return This matrix.
+    */
+   public FixedMatrix3D set(int row, int col, int value) {
+      A[index(row, col)] = value;
+      return this;
+   }
+
+   /**
+    * Copies the values of the other matrix.
+    * 
+    * @param other The matrix to copy.
+    * @return This matrix.
+    */
+   public FixedMatrix3D set(FixedMatrix3D other) {
+      System.arraycopy(other.A, 0, A, 0, 9);
+      return this;
+   }
+
+   /**
+    * Turns this matrix into the identity matrix.
+    * 
+    * @return This matrix.
+    */
+   public FixedMatrix3D setIdentity() {
+      A[0] = Fixed.ONE; A[1] = 0;         A[2] = 0;
+      A[3] = 0;         A[4] = Fixed.ONE; A[5] = 0;
+      A[6] = 0;         A[7] = 0;         A[8] = Fixed.ONE;
+      return this;
+   }
+
+   public int getA() {
+      return A[0];
+   }
+
+   public int getB() {
+      return A[1];
+   }
+
+   public int getC() {
+      return A[2];
+   }
+
+   public int getD() {
+      return A[3];
+   }
+
+   public int getE() {
+      return A[4];
+   }
+
+   public int getF() {
+      return A[5];
+   }
+
+   public int getG() {
+      return A[6];
+   }
+
+   public int getH() {
+      return A[7];
+   }
+
+   public int getK() {
+      return A[8];
+   }
+
+   /**
+    * Adds the other matrix to this one.
+    * 
+    * @return This matrix.
+    */
+   public FixedMatrix3D plusMe(FixedMatrix3D other) {
+      for (int i = 0; i < 9; i++)
+         A[i] += other.A[i];
+      return this;
+   }
+
+   /**
+    * @return A new matrix, with the sum of this matrix and the other one.
+    */
+   public FixedMatrix3D plus(FixedMatrix3D other) {
+      return clone().plusMe(other);
+   }
+
+   /**
+    * Subtracts the other matrix from this one.
+    * 
+    * @return This matrix.
+    */
+   public FixedMatrix3D minusMe(FixedMatrix3D other) {
+      for (int i = 0; i < 9; i++)
+         A[i] -= other.A[i];
+      return this;
+   }
+
+   /**
+    * @return A new matrix, with the difference between this matrix and the other one.
+    */
+   public FixedMatrix3D minus(FixedMatrix3D other) {
+      return clone().minusMe(other);
+   }
+
+   /**
+    * Multiplies this matrix by the given one.
+    * 
+    * @param other The matrix to multiply to.
+    * @return The new matrix.
+    * @see #multiply(FixedMatrix3D, FixedMatrix3D)
+    */
+   public FixedMatrix3D multiply(FixedMatrix3D other) {
+      return multiply(other, new FixedMatrix3D());
+   }
+
+   /**
+    * Multiplies this matrix by the given one, storing the result in the destination matrix. No memory is allocated.
+    * Each element is rounded only once, after summing the three products.
+    * 
+    * @param other The matrix to multiply to.
+    * @param dest The matrix that will receive the result. It may be this matrix or the other one.
+    * @return The destination matrix.
+    */
+   public FixedMatrix3D multiply(FixedMatrix3D other, FixedMatrix3D dest) {
+      int[] B = other.A;
+      int a = (int) (((long) A[0] * B[0] + (long) A[1] * B[3] + (long) A[2] * B[6]) >> BITS);
+      int b = (int) (((long) A[0] * B[1] + (long) A[1] * B[4] + (long) A[2] * B[7]) >> BITS);
+      int c = (int) (((long) A[0] * B[2] + (long) A[1] * B[5] + (long) A[2] * B[8]) >> BITS);
+      int d = (int) (((long) A[3] * B[0] + (long) A[4] * B[3] + (long) A[5] * B[6]) >> BITS);
+      int e = (int) (((long) A[3] * B[1] + (long) A[4] * B[4] + (long) A[5] * B[7]) >> BITS);
+      int f = (int) (((long) A[3] * B[2] + (long) A[4] * B[5] + (long) A[5] * B[8]) >> BITS);
+      int g = (int) (((long) A[6] * B[0] + (long) A[7] * B[3] + (long) A[8] * B[6]) >> BITS);
+      int h = (int) (((long) A[6] * B[1] + (long) A[7] * B[4] + (long) A[8] * B[7]) >> BITS);
+      int k = (int) (((long) A[6] * B[2] + (long) A[7] * B[5] + (long) A[8] * B[8]) >> BITS);
+
+      int[] C = dest.A;
+      C[0] = a; C[1] = b; C[2] = c;
+      C[3] = d; C[4] = e; C[5] = f;
+      C[6] = g; C[7] = h; C[8] = k;
+      return dest;
+   }
+
+   /**
+    * Multiplies this matrix by the given one.
+    * 
+    * @param other The matrix to multiply to.
+    * @return This matrix.
+    */
+   public FixedMatrix3D multiplyMe(FixedMatrix3D other) {
+      return multiply(other, this);
+   }
+
+   /**
+    * Multiplies a column vector, in homogeneous coordinates, by this matrix. See {@link Matrix3D#multiply(Vector2D)}.
+    * 
+    * @param vector The vector to multiply.
+    * @return The resulting vector.
+    */
+   public FixedVector2D multiply(FixedVector2D vector) {
+      return multiply(vector, new FixedVector2D());
+   }
+
+   /**
+    * Multiplies a column vector by this matrix, storing the result in the destination vector. No memory is allocated.
+    * 
+    * @param vector The vector to multiply.
+    * @param dest The vector that will receive the result. It may be the vector being multiplied.
+    * @return The destination vector.
+    */
+   public FixedVector2D multiply(FixedVector2D vector, FixedVector2D dest) {
+      long x = vector.getX();
+      long y = vector.getY();
+      return dest.set(
+            (int) ((x * A[0] + y * A[1]) >> BITS) + A[2],
+            (int) ((x * A[3] + y * A[4]) >> BITS) + A[5]);
+   }
+
+   /**
+    * Multiplies this matrix by the given scalar.
+    * 
+    * @param scalar The scalar, in fixed point.
+    * @return This matrix.
+    */
+   public FixedMatrix3D multiplyMe(int scalar) {
+      for (int i = 0; i < 9; i++)
+         A[i] = Fixed.mul(A[i], scalar);
+      return this;
+   }
+
+   /**
+    * @param scalar The scalar, in fixed point.
+    * @return A new matrix, with this matrix multiplied by the scalar.
+    */
+   public FixedMatrix3D multiply(int scalar) {
+      return clone().multiplyMe(scalar);
+   }
+
+   /**
+    * @return The determinant of this matrix, in fixed point.
+    */
+   public int getDeterminant() {
+      long a = ((long) A[4] * A[8] - (long) A[5] * A[7]) >> BITS;
+      long d = ((long) A[5] * A[6] - (long) A[3] * A[8]) >> BITS;
+      long g = ((long) A[3] * A[7] - (long) A[4] * A[6]) >> BITS;
+      return (int) ((A[0] * a + A[1] * d + A[2] * g) >> BITS);
+   }
+
+   /**
+    * @return True if this matrix is invertible, false if not. This is the same test made by {@link #inverse()}, with
+    *         the precision of the inversion, so tiny determinants may still be invertible.
+    */
+   public boolean isInvertible() {
+      long a = (long) A[4] * A[8] - (long) A[5] * A[7];
+      long d = (long) A[5] * A[6] - (long) A[3] * A[8];
+      long g = (long) A[3] * A[7] - (long) A[4] * A[6];
+      return determinant(a, d, g, shift(a, d, g)) != 0;
+   }
+
+   /**
+    * Number of low bits dropped from the determinant and the adjugate, so the determinant does not overflow a long.
+    * Only matrices whose 2x2 minors reach 16384 lose bits.
+    */
+   private static int shift(long a, long d, long g) {
+      long max = Math.max(Math.abs(a >> BITS), Math.max(Math.abs(d >> BITS), Math.abs(g >> BITS)));
+      return Math.max(0, 64 - Long.numberOfLeadingZeros(max) - 30);
+   }
+
+   /**
+    * Calculates the determinant with 32 fractional bits, less the shifted bits, from the minors of the first column.
+    * Each minor is smaller than 2^30 after the shift, so each product is smaller than 2^61.
+    */
+   private long determinant(long a, long d, long g, int shift) {
+      return A[0] * (a >> BITS >> shift) + A[1] * (d >> BITS >> shift) + A[2] * (g >> BITS >> shift);
+   }
+
+   /**
+    * Inverses this matrix.
+    * 
+    * @return This matrix, after inversion.
+    * @throws DivideByZeroException If the matrix is not invertible.
+    * @see #isInvertible()
+    */
+   public FixedMatrix3D inverseMe() {
+      return inverse(this);
+   }
+
+   /**
+    * @return The inverse of this matrix.
+    * @throws DivideByZeroException If the matrix is not invertible.
+    * @see #isInvertible()
+    */
+   public FixedMatrix3D inverse() {
+      return inverse(new FixedMatrix3D());
+   }
+
+   /**
+    * Calculates the inverse of this matrix, storing it in the destination matrix. No memory is allocated.
+    * 
+    * @param dest The matrix that will receive the inverse. It may be this matrix.
+    * @return The destination matrix.
+    * @throws DivideByZeroException If the matrix is not invertible.
+    * @see #isInvertible()
+    */
+   public FixedMatrix3D inverse(FixedMatrix3D dest) {
+      // Adjugate matrix, with 32 fractional bits, divided by the determinant
+      long a = (long) A[4] * A[8] - (long) A[5] * A[7];
+      long b = (long) A[2] * A[7] - (long) A[1] * A[8];
+      long c = (long) A[1] * A[5] - (long) A[2] * A[4];
+
+      long d = (long) A[5] * A[6] - (long) A[3] * A[8];
+      long e = (long) A[0] * A[8] - (long) A[2] * A[6];
+      long f = (long) A[2] * A[3] - (long) A[0] * A[5];
+
+      long g = (long) A[3] * A[7] - (long) A[4] * A[6];
+      long h = (long) A[1] * A[6] - (long) A[0] * A[7];
+      long k = (long) A[0] * A[4] - (long) A[1] * A[3];
+
+      // Determinant, with 32 fractional bits. Huge determinants drop the same low bits of the adjugate
+      int s = shift(a, d, g);
+      long det = determinant(a, d, g, s);
+      if (det == 0)
+         throw new DivideByZeroException();
+
+      int[] C = dest.A;
+      C[0] = divide(a >> s, det); C[1] = divide(b >> s, det); C[2] = divide(c >> s, det);
+      C[3] = divide(d >> s, det); C[4] = divide(e >> s, det); C[5] = divide(f >> s, det);
+      C[6] = divide(g >> s, det); C[7] = divide(h >> s, det); C[8] = divide(k >> s, det);
+      return dest;
+   }
+
+   /**
+    * Divides two numbers with the same fractional bits, returning a fixed point number, truncated toward zero. The
+    * fractional bits of the quotient are found one at a time, by long division of the remainder, so no step overflows
+    * whatever the size of the determinant.
+    */
+   private static int divide(long value, long det) {
+      boolean negative = (value < 0) != (det < 0);
+      long n = Math.abs(value);
+      long m = Math.abs(det);
+
+      long quotient = n / m;
+      long remainder = n % m;
+      for (int i = 0; i < BITS; i++) {
+         // The remainder is smaller than m, so twice it fits in 64 bits, compared as unsigned
+         remainder <<= 1;
+         quotient <<= 1;
+         if (remainder + Long.MIN_VALUE >= m + Long.MIN_VALUE) {
+            remainder -= m;
+            quotient |= 1;
+         }
+      }
+      return (int) (negative ? -quotient : quotient);
+   }
+
+   /**
+    * @return The transpose matrix.
+    * @see #transpose(FixedMatrix3D)
+    */
+   public FixedMatrix3D transpose() {
+      return transpose(new FixedMatrix3D());
+   }
+
+   /**
+    * Transposes this matrix, storing the result in the destination matrix. No memory is allocated.
+    * 
+    * @param dest The matrix that will receive the result. It may be this matrix.
+    * @return The destination matrix.
+    */
+   public FixedMatrix3D transpose(FixedMatrix3D dest) {
+      int b = A[1];
+      int c = A[2];
+      int f = A[5];
+
+      int[] C = dest.A;
+      C[0] = A[0]; C[1] = A[3]; C[2] = A[6];
+      C[3] = b;    C[4] = A[4]; C[5] = A[7];
+      C[6] = c;    C[7] = f;    C[8] = A[8];
+      return dest;
+   }
+
+   /**
+    * Transposes this matrix.
+    * 
+    * @return This matrix.
+    */
+   public FixedMatrix3D transposeMe() {
+      return transpose(this);
+   }
+
+   /**
+    * @return A float matrix, with the elements of this one.
+    */
+   public Matrix3D toMatrix3D() {
+      float[] values = new float[9];
+      for (int i = 0; i < 9; i++)
+         values[i] = Fixed.toFloat(A[i]);
+      return new Matrix3D(values);
+   }
+
+   @Override
+   public FixedMatrix3D clone() {
+      return new FixedMatrix3D(this);
+   }
+
+   @Override
+   public boolean equals(Object other) {
+      if (other == null)
+         return false;
+
+      if (other == this)
+         return true;
+
+      if (other.getClass() != getClass())
+         return false;
+
+      FixedMatrix3D B = (FixedMatrix3D) other;
+      for (int i = 0; i < 9; i++)
+         if (A[i] != B.A[i])
+            return false;
+      return true;
+   }
+
+   @Override
+   public int hashCode() {
+      return new HashBuilder().add(A).hashCode();
+   }
+
+   @Override
+   public String toString() {
+      return String.format("%.2f %.2f %.2f %.2f %.2f %.2f %.2f %.2f %.2f ",
+            Fixed.toFloat(A[0]), Fixed.toFloat(A[1]), Fixed.toFloat(A[2]),
+            Fixed.toFloat(A[3]), Fixed.toFloat(A[4]), Fixed.toFloat(A[5]),
+            Fixed.toFloat(A[6]), Fixed.toFloat(A[7]), Fixed.toFloat(A[8]));
+   }
+}
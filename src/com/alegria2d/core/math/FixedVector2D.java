@@ -0,0 +1,456 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import com.alegria2d.core.exception.DivideByZeroException;
+
+/**
+ * A deterministic version of {@link Vector2D}, with {@link Fixed 16.16 fixed point} coordinates. Every operation gives
+ * exactly the same result in every JVM and processor, so this class is suitable for lockstep multiplayer simulation and
+ * replays.
+ * <p>
+ * The methods mirror the ones of {@link Vector2D}, but every int parameter and return value, including angles, is a
+ * fixed point number. Squared sizes and dot products are returned as longs, with 16 fractional bits, since they easily
+ * overflow an int. For sizes to be correct, coordinates must stay between -23170 and 23170.
+ * <p>
+ * As in {@link Vector2D}, operations suffixed with "Me" change this vector, and the others return a new one:
+ * 
+ * <pre>
+ * FixedVector2D position = FixedVector2D.fromFloat(100, 50);
+ * position.plusMe(velocity.multiply(elapsed));
+ * </pre>
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public final class FixedVector2D implements Cloneable, Comparable<FixedVector2D> {
+   private int x;
+   private int y;
+
+   /**
+    * Creates a new vector. It will be the zero vector.
+    */
+   public FixedVector2D() {
+      this(0, 0);
+   }
+
+   /**
+    * Creates a new vector with the given fixed point coordinates.
+    * 
+    * @param x The x coordinate, in fixed point.
+    * @param y The y coordinate, in fixed point.
+    * @see #fromFloat(float, float)
+    */
+   public FixedVector2D(int x, int y) {
+      this.x = x;
+      this.y = y;
+   }
+
+   /**
+    * Copy constructor.
+    * 
+    * @param other The vector to copy.
+    */
+   public FixedVector2D(FixedVector2D other) {
+      this(other.x, other.y);
+   }
+
+   /**
+    * Creates a vector with the coordinates of the given float vector, rounded to the nearest fixed point numbers.
+    * 
+    * @param other The vector to convert.
+    */
+   public FixedVector2D(Vector2D other) {
+      this(Fixed.fromFloat(other.getX()), Fixed.fromFloat(other.getY()));
+   }
+
+   /**
+    * Creates a new vector from float coordinates, rounded to the nearest fixed point numbers.
+    * 
+    * @param x The x coordinate.
+    * @param y The y coordinate.
+    * @return The new vector.
+    */
+   public static FixedVector2D fromFloat(float x, float y) {
+      return new FixedVector2D(Fixed.fromFloat(x), Fixed.fromFloat(y));
+   }
+
+   /**
+    * Create a new vector with the given size, and with the given angle.
+    * 
+    * @param size The vector size, in fixed point.
+    * @param angle The angle, in radians, in fixed point.
+    * @return The newly created vector.
+    */
+   public static FixedVector2D createBySizeAngle(int size, int angle) {
+      return new FixedVector2D(Fixed.mul(Fixed.cos(angle), size), Fixed.mul(Fixed.sin(angle), size));
+   }
+
+   /**
+    * Sets the x and y values of this vector.
+    * 
+    * @param newX The new x value, in fixed point.
+    * @param newY The new y value, in fixed point.
+    * @return This vector.
+    */
+   public FixedVector2D set(int newX, int newY) {
+      x = newX;
+      y = newY;
+      return this;
+   }
+
+   /**
+    * Copies the values of the other vector.
+    * 
+    * @param other The vector to copy.
+    * @return This vector.
+    */
+   public FixedVector2D set(FixedVector2D other) {
+      return set(other.x, other.y);
+   }
+
+   /**
+    * @param x The new x value, in fixed point.
+    */
+   public void setX(int x) {
+      this.x = x;
+   }
+
+   /**
+    * @param y The new y value, in fixed point.
+    */
+   public void setY(int y) {
+      this.y = y;
+   }
+
+   /**
+    * @return The x coordinate, in fixed point.
+    */
+   public int getX() {
+      return x;
+   }
+
+   /**
+    * @return The y coordinate, in fixed point.
+    */
+   public int getY() {
+      return y;
+   }
+
+   /**
+    * The sum of squares of the coordinates, which has 32 fractional bits. Two squares of -32768 add up to 2^63, so the
+    * sum must be read as an unsigned long.
+    */
+   private long sumOfSquares() {
+      return (long) x * x + (long) y * y;
+   }
+
+   /**
+    * @return The size of this vector, with 16 fractional bits. It may be bigger than the fixed point range.
+    */
+   private long size() {
+      long sum = sumOfSquares();
+      if (sum >= 0)
+         return Fixed.sqrt(sum);
+      // Above 2^63, drops the lowest two bits, so the root loses at most its last bit
+      return Fixed.sqrt(sum >>> 2) << 1;
+   }
+
+   /**
+    * @return The size of this vector, in fixed point. Sizes of 32768 or more, which only diagonals near the limits of
+    *         the fixed point range reach, saturate at {@link Integer#MAX_VALUE}.
+    * @see #getSizeSqr()
+    */
+   public int getSize() {
+      return (int) Math.min(size(), Integer.MAX_VALUE);
+   }
+
+   /**
+    * @return The squared size of this vector, as a long with 16 fractional bits.
+    * @see #getSize()
+    */
+   public long getSizeSqr() {
+      return sumOfSquares() >>> Fixed.FRACTION_BITS;
+   }
+
+   /**
+    * @return True if this is the zero vector.
+    */
+   public boolean isZero() {
+      return x == 0 && y == 0;
+   }
+
+   /**
+    * Changes the size of this vector. Does not work in zero vectors.
+    * 
+    * @param newSize The new vector size, in fixed point.
+    * @return This vector, with the new size. The zero vector remains unchanged.
+    */
+   public FixedVector2D setSize(int newSize) {
+      long size = size();
+      if (size == 0)
+         return this;
+
+      x = (int) ((long) x * newSize / size);
+      y = (int) ((long) y * newSize / size);
+      return this;
+   }
+
+   /**
+    * @return The angle between this vector and the x-axis, in radians, in fixed point.
+    */
+   public int getAngleX() {
+      return Fixed.atan2(y, x);
+   }
+
+   /**
+    * Rotates this vector in the given angle.
+    * 
+    * @param angle The angle, in radians, in fixed point.
+    * @return This vector.
+    */
+   public FixedVector2D rotateMe(int angle) {
+      long s = Fixed.sin(angle);
+      long c = Fixed.cos(angle);
+
+      int newX = (int) ((x * c - y * s) >> Fixed.FRACTION_BITS);
+      int newY = (int) ((x * s + y * c) >> Fixed.FRACTION_BITS);
+
+      x = newX;
+      y = newY;
+      return this;
+   }
+
+   /**
+    * Calculate a rotated version of this vector.
+    * 
+    * @param angle The angle, in radians, in fixed point.
+    * @return A new vector, equal to this one rotated in the given angle.
+    */
+   public FixedVector2D rotate(int angle) {
+      return clone().rotateMe(angle);
+   }
+
+   /**
+    * @return A perpendicular vector (rotated 90 degrees).
+    */
+   public FixedVector2D getPerpendicular() {
+      return new FixedVector2D(-y, x);
+   }
+
+   /**
+    * Normalizes this vector. If this vector is the zero vector, it remains unchanged.
+    * 
+    * @return This vector normalized.
+    */
+   public FixedVector2D normalizeMe() {
+      return setSize(Fixed.ONE);
+   }
+
+   /**
+    * @return A normalized copy of this vector.
+    */
+   public FixedVector2D normalize() {
+      return clone().normalizeMe();
+   }
+
+   /**
+    * Adds the other vector to this one.
+    * 
+    * @param other The vector to add.
+    * @return This vector.
+    */
+   public FixedVector2D plusMe(FixedVector2D other) {
+      x += other.x;
+      y += other.y;
+      return this;
+   }
+
+   /**
+    * @param other The vector to add.
+    * @return A new vector, with the sum of this vector and the other one.
+    */
+   public FixedVector2D plus(FixedVector2D other) {
+      return clone().plusMe(other);
+   }
+
+   /**
+    * Subtracts the other vector from this one.
+    * 
+    * @param other The vector to subtract.
+    * @return This vector.
+    */
+   public FixedVector2D minusMe(FixedVector2D other) {
+      x -= other.x;
+      y -= other.y;
+      return this;
+   }
+
+   /**
+    * @param other The vector to subtract.
+    * @return A new vector, with the difference between this vector and the other one.
+    */
+   public FixedVector2D minus(FixedVector2D other) {
+      return clone().minusMe(other);
+   }
+
+   /**
+    * Multiplies this vector by the given scalar.
+    * 
+    * @param scalar The scalar, in fixed point.
+    * @return This vector.
+    */
+   public FixedVector2D multiplyMe(int scalar) {
+      x = Fixed.mul(x, scalar);
+      y = Fixed.mul(y, scalar);
+      return this;
+   }
+
+   /**
+    * @param scalar The scalar, in fixed point.
+    * @return A new vector, with this vector multiplied by the scalar.
+    */
+   public FixedVector2D multiply(int scalar) {
+      return clone().multiplyMe(scalar);
+   }
+
+   /**
+    * Multiplies this vector by the given matrix. The vector is considered a line vector in homogeneous coordinates, as
+    * in {@link Vector2D#multiplyMe(Matrix3D)}.
+    * 
+    * @param matrix The matrix.
+    * @return This vector.
+    * @see FixedMatrix3D#multiply(FixedVector2D)
+    */
+   public FixedVector2D multiplyMe(FixedMatrix3D matrix) {
+      int newX = (int) (((long) x * matrix.getA() + (long) y * matrix.getD()) >> Fixed.FRACTION_BITS) + matrix.getG();
+      int newY = (int) (((long) x * matrix.getB() + (long) y * matrix.getE()) >> Fixed.FRACTION_BITS) + matrix.getH();
+      return set(newX, newY);
+   }
+
+   /**
+    * @param matrix The matrix.
+    * @return A new vector, with this vector multiplied by the matrix.
+    * @see #multiplyMe(FixedMatrix3D)
+    */
+   public FixedVector2D multiply(FixedMatrix3D matrix) {
+      return clone().multiplyMe(matrix);
+   }
+
+   /**
+    * Divides this vector by the given scalar.
+    * 
+    * @param scalar The scalar, in fixed point.
+    * @return This vector.
+    * @throws DivideByZeroException If the scalar is zero.
+    */
+   public FixedVector2D divMe(int scalar) {
+      x = Fixed.div(x, scalar);
+      y = Fixed.div(y, scalar);
+      return this;
+   }
+
+   /**
+    * @param scalar The scalar, in fixed point.
+    * @return A new vector, with this vector divided by the scalar.
+    * @throws DivideByZeroException If the scalar is zero.
+    */
+   public FixedVector2D div(int scalar) {
+      return clone().divMe(scalar);
+   }
+
+   /**
+    * Negates this vector.
+    * 
+    * @return This vector.
+    */
+   public FixedVector2D negativeMe() {
+      return set(-x, -y);
+   }
+
+   /**
+    * @return A negated copy of this vector.
+    */
+   public FixedVector2D negative() {
+      return new FixedVector2D(-x, -y);
+   }
+
+   /**
+    * Calculate the dot product between this vector and the given vector. Unlike {@link Vector2D#dot(Vector2D)}, the
+    * result is not clamped between -1 and 1.
+    * 
+    * @param other Other vector.
+    * @return The dot product, as a long with 16 fractional bits.
+    */
+   public long dot(FixedVector2D other) {
+      return ((long) x * other.x + (long) y * other.y) >> Fixed.FRACTION_BITS;
+   }
+
+   /**
+    * @return A float vector, with the coordinates of this one.
+    */
+   public Vector2D toVector2D() {
+      return new Vector2D(Fixed.toFloat(x), Fixed.toFloat(y));
+   }
+
+   @Override
+   public boolean equals(Object obj) {
+      if (obj == null || obj.getClass() != getClass()) {
+         return false;
+      }
+
+      if (obj == this) {
+         return true;
+      }
+
+      FixedVector2D other = (FixedVector2D) obj;
+      return x == other.x && y == other.y;
+   }
+
+   @Override
+   public int hashCode() {
+      return new HashBuilder(x).add(y).hashCode();
+   }
+
+   /**
+    * A string representation of this vector, converted to float.
+    * <p>
+    * E.g. x: 1.000 y: 2.291
+    */
+   @Override
+   public String toString() {
+      return String.format("x: %.3f y: %.3f", Fixed.toFloat(x), Fixed.toFloat(y));
+   }
+
+   @Override
+   public FixedVector2D clone() {
+      return new FixedVector2D(this);
+   }
+
+   /**
+    * Compares the sizes of this vector and the other one.
+    */
+   @Override
+   public int compareTo(FixedVector2D other) {
+      long sizeSqr = getSizeSqr();
+      long otherSizeSqr = other.getSizeSqr();
+      return sizeSqr < otherSizeSqr ? -1 : (sizeSqr > otherSizeSqr ? 1 : 0);
+   }
+}
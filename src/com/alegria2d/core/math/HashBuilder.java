@@ -21,6 +21,9 @@
 
 package com.alegria2d.core.math;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 /**
  * Build a HASH value based on the added values. If none value is added, DEFAULT_BASE is the hash returned in getHash()
  * method.
@@ -54,17 +57,38 @@ package com.alegria2d.core.math;
  * }
  * </pre>
  * 
+ * This simple multiply-add chain is fast, but similar values, such as the coordinates of neighbour grid cells, give
+ * similar hashes, which clusters badly in hash tables. Builders created with {@link #newStrong()} mix every value into
+ * a 64 bit state and finish it with an avalanche step, like the xxHash64 algorithm, so every bit of the input changes
+ * about half of the bits of the hash. They are a little slower, but should be used for keys of big hash maps:
+ * 
+ * <pre>
+ * return HashBuilder.newStrong().add(cellX).add(cellY).hashCode();
+ * </pre>
+ * 
+ * The full 64 bit hash of a strong builder is returned by {@link #hashCode64()}.
+ * 
  * @author Vinicius G. Mendonca
  */
 public final class HashBuilder {
    public static final int DEFAULT_BASE = 17;
    public static final int DEFAULT_SEED = 37;
 
+   private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+   private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+   private static final long PRIME64_3 = 0x165667B19E3779F9L;
+   private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+   private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+
    private int seed;
    private int base;
 
    private int result;
 
+   private final boolean strong;
+   private long state;
+   private long length;
+
    /**
     * Create a new hash builder.
     */
@@ -150,6 +174,10 @@ public final class HashBuilder {
     * @param seed The prime to multiply hashcode in every calculation
     */
    public HashBuilder(int base, int seed) {
+      this(base, seed, false);
+   }
+
+   private HashBuilder(int base, int seed, boolean strong) {
       if (base < 3)
          throw new IllegalArgumentException("Base must be bigger than 2!");
 
@@ -158,8 +186,54 @@ public final class HashBuilder {
 
       this.seed = seed;
       this.base = base;
+      this.strong = strong;
 
-      result = base;
+      reset();
+   }
+
+   /**
+    * Creates a new hash builder with strong mixing. See the class description.
+    * 
+    * @return The new hash builder.
+    */
+   public static HashBuilder newStrong() {
+      return new HashBuilder(DEFAULT_BASE, DEFAULT_SEED, true);
+   }
+
+   /**
+    * Mixes the bits of a single int, with the murmur3 finalizer. This is the fastest way to spread small keys, such as
+    * indexes, along the hash table.
+    * 
+    * @param value The value to mix.
+    * @return The mixed value.
+    */
+   public static int mix(int value) {
+      value ^= value >>> 16;
+      value *= 0x85EBCA6B;
+      value ^= value >>> 13;
+      value *= 0xC2B2AE35;
+      return value ^ (value >>> 16);
+   }
+
+   /**
+    * Mixes the bits of a single long, with the murmur3 finalizer.
+    * 
+    * @param value The value to mix.
+    * @return The mixed value.
+    */
+   public static long mix(long value) {
+      value ^= value >>> 33;
+      value *= 0xFF51AFD7ED558CCDL;
+      value ^= value >>> 33;
+      value *= 0xC4CEB9FE1A85EC53L;
+      return value ^ (value >>> 33);
+   }
+
+   /**
+    * @return True if this builder was created with {@link #newStrong()}.
+    */
+   public boolean isStrong() {
+      return strong;
    }
 
    /**
@@ -167,6 +241,8 @@ public final class HashBuilder {
     */
    public void reset() {
       result = base;
+      state = seed + PRIME64_5;
+      length = 0;
    }
 
    /**
@@ -176,10 +252,33 @@ public final class HashBuilder {
     * @return This hash builder.
     */
    public HashBuilder add(int value) {
-      result = seed * result + value;
+      if (strong) {
+         state ^= (value & 0xFFFFFFFFL) * PRIME64_1;
+         state = Long.rotateLeft(state, 23) * PRIME64_2 + PRIME64_3;
+         length += 4;
+      } else
+         result = seed * result + value;
       return this;
    }
 
+   /**
+    * Compute the given byte into a strong hash.
+    */
+   private void addStrong(byte value) {
+      state ^= (value & 0xFF) * PRIME64_5;
+      state = Long.rotateLeft(state, 11) * PRIME64_1;
+      length++;
+   }
+
+   /**
+    * Compute the given long into a strong hash.
+    */
+   private void addStrong(long value) {
+      state ^= Long.rotateLeft(value * PRIME64_2, 31) * PRIME64_1;
+      state = Long.rotateLeft(state, 27) * PRIME64_1 + PRIME64_4;
+      length += 8;
+   }
+
    /**
     * Compute the given value into the hash.
     * 
@@ -197,7 +296,11 @@ public final class HashBuilder {
     * @return This hash builder.
     */
    public HashBuilder add(long value) {
-      return add((int) (value ^ (value >>> 32)));
+      if (!strong)
+         return add((int) (value ^ (value >>> 32)));
+
+      addStrong(value);
+      return this;
    }
 
    /**
@@ -247,8 +350,81 @@ public final class HashBuilder {
     * @return This hash builder.
     */
    public HashBuilder add(byte[] value) {
-      for (byte b : value)
-         add(b);
+      return add(value, 0, value.length);
+   }
+
+   /**
+    * Compute a range of the given array into the hash. Strong builders read the bytes in groups of 8, as little endian
+    * longs, so the hash is the same of {@link #add(ByteBuffer)} over the same bytes.
+    * 
+    * @param value Array of values to compute.
+    * @param offset Index of the first value.
+    * @param length Number of values to compute.
+    * @return This hash builder.
+    * @throws IndexOutOfBoundsException If the range is outside the array.
+    */
+   public HashBuilder add(byte[] value, int offset, int length) {
+      MathUtil.checkArrayRange(value.length, offset, length);
+      int end = offset + length;
+      if (!strong) {
+         for (int i = offset; i < end; i++)
+            add(value[i]);
+         return this;
+      }
+
+      int i = offset;
+      for (; i <= end - 8; i += 8)
+         addStrong((value[i] & 0xFFL) |
+               (value[i + 1] & 0xFFL) << 8 |
+               (value[i + 2] & 0xFFL) << 16 |
+               (value[i + 3] & 0xFFL) << 24 |
+               (value[i + 4] & 0xFFL) << 32 |
+               (value[i + 5] & 0xFFL) << 40 |
+               (value[i + 6] & 0xFFL) << 48 |
+               (value[i + 7] & 0xFFL) << 56);
+      for (; i < end; i++)
+         addStrong(value[i]);
+      return this;
+   }
+
+   /**
+    * Compute the remaining bytes of the buffer, from its position to its limit, into the hash. The buffer position is
+    * not changed.
+    * 
+    * @param buffer The buffer to compute.
+    * @return This hash builder.
+    */
+   public HashBuilder add(ByteBuffer buffer) {
+      return add(buffer, buffer.position(), buffer.remaining());
+   }
+
+   /**
+    * Compute a range of the buffer into the hash. The buffer position is not changed, and the hash does not depend on
+    * the buffer byte order: it is the same of {@link #add(byte[], int, int)} over the same bytes.
+    * 
+    * @param buffer The buffer to compute.
+    * @param offset Index of the first byte.
+    * @param length Number of bytes to compute.
+    * @return This hash builder.
+    * @throws IndexOutOfBoundsException If the range is outside the buffer limit.
+    */
+   public HashBuilder add(ByteBuffer buffer, int offset, int length) {
+      MathUtil.checkArrayRange(buffer.limit(), offset, length);
+      int end = offset + length;
+      if (!strong) {
+         for (int i = offset; i < end; i++)
+            add(buffer.get(i));
+         return this;
+      }
+
+      boolean swap = buffer.order() != ByteOrder.LITTLE_ENDIAN;
+      int i = offset;
+      for (; i <= end - 8; i += 8) {
+         long value = buffer.getLong(i);
+         addStrong(swap ? Long.reverseBytes(value) : value);
+      }
+      for (; i < end; i++)
+         addStrong(buffer.get(i));
       return this;
    }
 
@@ -259,8 +435,23 @@ public final class HashBuilder {
     * @return This hash builder.
     */
    public HashBuilder add(short[] value) {
-      for (short s : value)
-         add(s);
+      return add(value, 0, value.length);
+   }
+
+   /**
+    * Compute a range of the given array into the hash.
+    * 
+    * @param value Array of values to compute.
+    * @param offset Index of the first value.
+    * @param length Number of values to compute.
+    * @return This hash builder.
+    * @throws IndexOutOfBoundsException If the range is outside the array.
+    */
+   public HashBuilder add(short[] value, int offset, int length) {
+      MathUtil.checkArrayRange(value.length, offset, length);
+      int end = offset + length;
+      for (int i = offset; i < end; i++)
+         add(value[i]);
       return this;
    }
 
@@ -271,8 +462,23 @@ public final class HashBuilder {
     * @return This hash builder.
     */
    public HashBuilder add(int[] value) {
-      for (int i : value)
-         add(i);
+      return add(value, 0, value.length);
+   }
+
+   /**
+    * Compute a range of the given array into the hash.
+    * 
+    * @param value Array of values to compute.
+    * @param offset Index of the first value.
+    * @param length Number of values to compute.
+    * @return This hash builder.
+    * @throws IndexOutOfBoundsException If the range is outside the array.
+    */
+   public HashBuilder add(int[] value, int offset, int length) {
+      MathUtil.checkArrayRange(value.length, offset, length);
+      int end = offset + length;
+      for (int i = offset; i < end; i++)
+         add(value[i]);
       return this;
    }
 
@@ -283,8 +489,23 @@ public final class HashBuilder {
     * @return This hash builder.
     */
    public HashBuilder add(char[] value) {
-      for (char c : value)
-         add(c);
+      return add(value, 0, value.length);
+   }
+
+   /**
+    * Compute a range of the given array into the hash.
+    * 
+    * @param value Array of values to compute.
+    * @param offset Index of the first value.
+    * @param length Number of values to compute.
+    * @return This hash builder.
+    * @throws IndexOutOfBoundsException If the range is outside the array.
+    */
+   public HashBuilder add(char[] value, int offset, int length) {
+      MathUtil.checkArrayRange(value.length, offset, length);
+      int end = offset + length;
+      for (int i = offset; i < end; i++)
+         add(value[i]);
       return this;
    }
 
@@ -295,8 +516,23 @@ public final class HashBuilder {
     * @return This hash builder.
     */
    public HashBuilder add(long[] value) {
-      for (long l : value)
-         add(l);
+      return add(value, 0, value.length);
+   }
+
+   /**
+    * Compute a range of the given array into the hash.
+    * 
+    * @param value Array of values to compute.
+    * @param offset Index of the first value.
+    * @param length Number of values to compute.
+    * @return This hash builder.
+    * @throws IndexOutOfBoundsException If the range is outside the array.
+    */
+   public HashBuilder add(long[] value, int offset, int length) {
+      MathUtil.checkArrayRange(value.length, offset, length);
+      int end = offset + length;
+      for (int i = offset; i < end; i++)
+         add(value[i]);
       return this;
    }
 
@@ -319,8 +555,23 @@ public final class HashBuilder {
     * @return This hash builder.
     */
    public HashBuilder add(float[] value) {
-      for (float f : value)
-         add(f);
+      return add(value, 0, value.length);
+   }
+
+   /**
+    * Compute a range of the given array into the hash.
+    * 
+    * @param value Array of values to compute.
+    * @param offset Index of the first value.
+    * @param length Number of values to compute.
+    * @return This hash builder.
+    * @throws IndexOutOfBoundsException If the range is outside the array.
+    */
+   public HashBuilder add(float[] value, int offset, int length) {
+      MathUtil.checkArrayRange(value.length, offset, length);
+      int end = offset + length;
+      for (int i = offset; i < end; i++)
+         add(value[i]);
       return this;
    }
 
@@ -331,8 +582,23 @@ public final class HashBuilder {
     * @return This hash builder.
     */
    public HashBuilder add(double[] value) {
-      for (double d : value)
-         add(d);
+      return add(value, 0, value.length);
+   }
+
+   /**
+    * Compute a range of the given array into the hash.
+    * 
+    * @param value Array of values to compute.
+    * @param offset Index of the first value.
+    * @param length Number of values to compute.
+    * @return This hash builder.
+    * @throws IndexOutOfBoundsException If the range is outside the array.
+    */
+   public HashBuilder add(double[] value, int offset, int length) {
+      MathUtil.checkArrayRange(value.length, offset, length);
+      int end = offset + length;
+      for (int i = offset; i < end; i++)
+         add(value[i]);
       return this;
    }
 
@@ -364,7 +630,26 @@ public final class HashBuilder {
 
       HashBuilder other = (HashBuilder) value;
       return other.result == result && other.base == base
-                && other.seed == seed;
+                && other.seed == seed && other.strong == strong
+                && other.state == state && other.length == length;
+   }
+
+   /**
+    * Calculate the 64 bit hash code for this HashBuilder. Only strong builders use all 64 bits: the other ones return
+    * the same value of {@link #hashCode()}.
+    * 
+    * @return The 64 bit hash code.
+    */
+   public long hashCode64() {
+      if (!strong)
+         return result;
+
+      long hash = state + length;
+      hash ^= hash >>> 33;
+      hash *= PRIME64_2;
+      hash ^= hash >>> 29;
+      hash *= PRIME64_3;
+      return hash ^ (hash >>> 32);
    }
 
    /**
@@ -374,6 +659,10 @@ public final class HashBuilder {
     */
    @Override
    public int hashCode() {
-      return result;
+      if (!strong)
+         return result;
+
+      long hash = hashCode64();
+      return (int) (hash ^ (hash >>> 32));
    }
 }
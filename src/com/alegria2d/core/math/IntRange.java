@@ -20,6 +20,7 @@
  */
 package com.alegria2d.core.math;
 
+import java.util.Arrays;
 import java.util.Random;
 
 /**
@@ -34,9 +35,17 @@ import java.util.Random;
  * represent number 25, and factor 0.1 will represent the number 0. If you have a number inside the range, you can also
  * ask range class what factor represents it, by calling the {@link #factorOf(float)} method.
  * <p>
+ * Many numbers can be retrieved at once with the bulk methods {@link #fill(int[], int, int)},
+ * {@link #getValues(float[], int[])} and {@link #convert(int[], IntRange, int[])}. They give the same results as
+ * calling the single number methods in a loop, but check the range and the arrays only once.
+ * <p>
  * Another way to retrieve a number is randomly, by calling the {@link #random()} method. Any number in the interval
  * will be picked, and retrieved.
  * <p>
+ * When no generator is given, a new {@link com.alegria2d.core.math.Random} is used, which is not thread safe. Ranges
+ * shared among threads must be given a thread safe generator, or be used through {@link #random(Random)} and the
+ * bulk <code>fill</code> method that takes a generator, with one generator per thread.
+ * <p>
  * Ranges intervals and random number generator cannot be changed once assigned. But this does not make Ranges
  * immutable, since the random number generator state will constantly change at each call to {@link #random()}. Only
  * single interval ranges are truly immutable objects.
@@ -45,7 +54,7 @@ import java.util.Random;
  * @see FloatRange
  */
 public final class IntRange {
-   private Random random; // TODO Replace by the new Alegria Random class, when it's ready.
+   private Random random;
    private int from;
    private int to;
 
@@ -60,7 +69,8 @@ public final class IntRange {
     * {@link #random()} is made.
     * <p>
     * The provided number generator will be used when {@link #random()} is called. This number generator instance will
-    * be <b>shared</b>
+    * be <b>shared</b>. If no generator is provided, a new {@link com.alegria2d.core.math.Random} is used, which is
+    * not thread safe.
     * 
     * @param from Begin of the interval (inclusive)
     * @param to End of the interval (also inclusive)
@@ -73,7 +83,7 @@ public final class IntRange {
       if (from == to)
          this.random = null;
       else
-         this.random = (random == null) ? new Random() : random;
+         this.random = (random == null) ? new com.alegria2d.core.math.Random() : random;
    }
 
    /**
@@ -170,10 +180,66 @@ public final class IntRange {
     * @return A random number within this range.
     */
    public int random() {
+      return random(random);
+   }
+
+   /**
+    * Picks a random number within this range, using the given random number generator. The generator is not used if
+    * this range is a single number.
+    * 
+    * @param random The random number generator.
+    * @return A random number within this range.
+    */
+   public int random(Random random) {
       if (isSingleNumber())
          return to;
 
-      return random.nextInt(getSize()) + from;
+      return random.nextInt(getSize()) + getMin();
+   }
+
+   /**
+    * Fills the given array range with random numbers within this range, using the range random number generator.
+    * 
+    * @param out The array to fill.
+    * @param offset The first position to fill.
+    * @param length The number of positions to fill.
+    * @throws IndexOutOfBoundsException If the positions are outside the array.
+    * @see #random()
+    */
+   public void fill(int[] out, int offset, int length) {
+      fill(out, offset, length, random);
+   }
+
+   /**
+    * Fills the given array range with random numbers within this range, using the given random number generator. The
+    * generator is not used if this range is a single number.
+    * <p>
+    * This is faster with an Alegria {@link com.alegria2d.core.math.Random}, which generates all numbers at once.
+    * 
+    * @param out The array to fill.
+    * @param offset The first position to fill.
+    * @param length The number of positions to fill.
+    * @param random The random number generator.
+    * @throws IndexOutOfBoundsException If the positions are outside the array.
+    */
+   public void fill(int[] out, int offset, int length, Random random) {
+      MathUtil.checkArrayRange(out.length, offset, length);
+      if (isSingleNumber()) {
+         Arrays.fill(out, offset, offset + length, to);
+         return;
+      }
+
+      int size = getSize();
+      int min = getMin();
+      int end = offset + length;
+      if (random instanceof com.alegria2d.core.math.Random) {
+         ((com.alegria2d.core.math.Random) random).fill(out, offset, length, size);
+         for (int i = offset; i < end; i++)
+            out[i] += min;
+      } else {
+         for (int i = offset; i < end; i++)
+            out[i] = random.nextInt(size) + min;
+      }
    }
 
    /**
@@ -203,6 +269,42 @@ public final class IntRange {
       return Math.round(sizeSign() * factor + from);
    }
 
+   /**
+    * Retrieves the numbers inside this range for all the given factors.
+    * 
+    * @param factors The factors. See {@link #getValue(float)}.
+    * @param out The array where the numbers will be stored. Must be at least as long as the factors array.
+    * @throws IndexOutOfBoundsException If the out array is shorter than the factors array.
+    */
+   public void getValues(float[] factors, int[] out) {
+      getValues(factors, 0, out, 0, factors.length);
+   }
+
+   /**
+    * Retrieves the numbers inside this range for the given factors.
+    * 
+    * @param factors The factors. See {@link #getValue(float)}.
+    * @param factorsOffset Position of the first factor.
+    * @param out The array where the numbers will be stored.
+    * @param outOffset Position where the first number will be stored.
+    * @param count Number of factors to convert.
+    * @throws IndexOutOfBoundsException If the positions are outside the arrays.
+    */
+   public void getValues(float[] factors, int factorsOffset, int[] out, int outOffset, int count) {
+      MathUtil.checkArrayRange(factors.length, factorsOffset, count);
+      MathUtil.checkArrayRange(out.length, outOffset, count);
+      if (isSingleNumber()) {
+         Arrays.fill(out, outOffset, outOffset + count, to);
+         return;
+      }
+
+      int sizeSign = sizeSign();
+      for (int i = 0; i < count; i++) {
+         float factor = Math.min(Math.max(factors[factorsOffset + i], 0), 1);
+         out[outOffset + i] = Math.round(sizeSign * factor + from);
+      }
+   }
+
    /**
     * Retrieve the factor of this number, within this range.
     * <p>
@@ -253,6 +355,97 @@ public final class IntRange {
       return getValue(range.factorOf(value));
    }
 
+   /**
+    * Converts values from another range to this range, proportionally.
+    * 
+    * @param values The values to convert.
+    * @param range The range of the values.
+    * @param out The array where the converted values will be stored. May be the values array itself.
+    * @throws IndexOutOfBoundsException If the out array is shorter than the values array.
+    * @see #convert(int, IntRange)
+    */
+   public void convert(int[] values, IntRange range, int[] out) {
+      convert(values, 0, range, out, 0, values.length);
+   }
+
+   /**
+    * Converts values from another range to this range, proportionally.
+    * 
+    * @param values The values to convert.
+    * @param valuesOffset Position of the first value.
+    * @param range The range of the values.
+    * @param out The array where the converted values will be stored. May be the values array itself.
+    * @param outOffset Position where the first converted value will be stored.
+    * @param count Number of values to convert.
+    * @throws IndexOutOfBoundsException If the positions are outside the arrays.
+    * @see #convert(int, IntRange)
+    */
+   public void convert(int[] values, int valuesOffset, IntRange range, int[] out, int outOffset, int count) {
+      MathUtil.checkArrayRange(values.length, valuesOffset, count);
+      MathUtil.checkArrayRange(out.length, outOffset, count);
+      if (isSingleNumber() || range.isSingleNumber()) {
+         Arrays.fill(out, outOffset, outOffset + count, getValue(range.to));
+         return;
+      }
+
+      int min = range.getMin();
+      int max = range.getMax();
+      float sourceSign = range.sizeSign();
+      int sizeSign = sizeSign();
+      for (int i = 0; i < count; i++) {
+         int value = values[valuesOffset + i];
+         float factor = value >= min && value <= max ? (value - range.from) / sourceSign : 0;
+         factor = Math.min(Math.max(factor, 0), 1);
+         out[outOffset + i] = Math.round(sizeSign * factor + from);
+      }
+   }
+
+   /**
+    * Converts values from another range to this range, proportionally.
+    * 
+    * @param values The values to convert.
+    * @param range The range of the values.
+    * @param out The array where the converted values will be stored.
+    * @throws IndexOutOfBoundsException If the out array is shorter than the values array.
+    * @see #convert(float, FloatRange)
+    */
+   public void convert(float[] values, FloatRange range, int[] out) {
+      convert(values, 0, range, out, 0, values.length);
+   }
+
+   /**
+    * Converts values from another range to this range, proportionally.
+    * 
+    * @param values The values to convert.
+    * @param valuesOffset Position of the first value.
+    * @param range The range of the values.
+    * @param out The array where the converted values will be stored.
+    * @param outOffset Position where the first converted value will be stored.
+    * @param count Number of values to convert.
+    * @throws IndexOutOfBoundsException If the positions are outside the arrays.
+    * @see #convert(float, FloatRange)
+    */
+   public void convert(float[] values, int valuesOffset, FloatRange range, int[] out, int outOffset, int count) {
+      MathUtil.checkArrayRange(values.length, valuesOffset, count);
+      MathUtil.checkArrayRange(out.length, outOffset, count);
+      if (isSingleNumber() || range.isSingleNumber()) {
+         Arrays.fill(out, outOffset, outOffset + count, getValue(range.getTo()));
+         return;
+      }
+
+      float min = range.getMin();
+      float max = range.getMax();
+      float sourceFrom = range.getFrom();
+      float sourceSign = range.getTo() - sourceFrom;
+      int sizeSign = sizeSign();
+      for (int i = 0; i < count; i++) {
+         float value = values[valuesOffset + i];
+         float factor = value >= min && value <= max ? (value - sourceFrom) / sourceSign : 0;
+         factor = Math.min(Math.max(factor, 0), 1);
+         out[outOffset + i] = Math.round(sizeSign * factor + from);
+      }
+   }
+
    /**
     * @return Creates a range that is the reversed copy of this one. In the new range, from and to values are switched
     *         and the random number generator is shared.
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+/**
+ * The loops behind the bulk operations of {@link Affine2D}, {@link Matrix3D} and {@link Vector2DBuffer}.
+ * <p>
+ * The default implementation is plain Java. When the <code>com.alegria2d.core.math.simd</code> package is in the
+ * classpath and the JVM was started with <code>--add-modules jdk.incubator.vector</code>, an implementation based on
+ * the Vector API is used instead. Both produce exactly the same results. The accelerated kernels can be turned off
+ * by setting the {@link #SIMD_PROPERTY alegria.simd} system property to <code>false</code>.
+ * <p>
+ * Kernels don't validate their arguments. The public classes that call them do.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public abstract class MathKernels {
+   /**
+    * System property that, when set to <code>false</code>, disables the accelerated kernels.
+    */
+   public static final String SIMD_PROPERTY = "alegria.simd";
+
+   private static final String VECTOR_KERNELS = "com.alegria2d.core.math.simd.VectorKernels";
+
+   private static final MathKernels SCALAR = new ScalarKernels();
+   private static final MathKernels ACCELERATED = loadAccelerated();
+   private static final MathKernels DEFAULT =
+         ACCELERATED != null && !"false".equals(System.getProperty(SIMD_PROPERTY)) ? ACCELERATED : SCALAR;
+
+   private static MathKernels loadAccelerated() {
+      try {
+         return (MathKernels) Class.forName(VECTOR_KERNELS).getDeclaredConstructor().newInstance();
+      } catch (Exception e) {
+         return null;
+      } catch (LinkageError e) {
+         // The Vector API module is not available in this JVM.
+         return null;
+      }
+   }
+
+   /**
+    * @return The kernels used by the math classes: the accelerated ones, if available and enabled, or the scalar
+    *         ones.
+    */
+   public static MathKernels getDefault() {
+      return DEFAULT;
+   }
+
+   /**
+    * @return The plain Java kernels.
+    */
+   public static MathKernels getScalar() {
+      return SCALAR;
+   }
+
+   /**
+    * @return The Vector API kernels, or null if they are not available in this JVM. They are returned even if disabled
+    *         by the {@link #SIMD_PROPERTY} property.
+    */
+   public static MathKernels getAccelerated() {
+      return ACCELERATED;
+   }
+
+   /**
+    * @return A short name of this implementation, such as "scalar".
+    */
+   public abstract String getName();
+
+   /**
+    * Applies the affine transform <code>[a b c] [d e f]</code> to packed points, stored as
+    * <code>x0, y0, x1, y1, ...</code>.
+    */
+   public abstract void transform(float a, float b, float c, float d, float e, float f,
+         float[] src, int srcOffset, float[] dest, int destOffset, int count);
+
+   /**
+    * Applies the affine transform <code>[a b c] [d e f]</code> to points stored as separated x and y arrays, in the
+    * range [from, to).
+    */
+   public abstract void transform(float a, float b, float c, float d, float e, float f,
+         float[] x, float[] y, int from, int to);
+
+   /**
+    * Normalizes the vectors stored as separated x and y arrays, in the range [from, to). Zero vectors, as defined by
+    * {@link Vector2D#isZero()}, are left unchanged.
+    */
+   public abstract void normalize(float[] x, float[] y, int from, int to);
+
+   /**
+    * Stores the dot product of each vector in the range [from, to) and the vector (vx, vy) in the destination array.
+    */
+   public abstract void dot(float[] x, float[] y, int from, int to, float vx, float vy, float[] dest, int destOffset);
+
+   /**
+    * Stores the squared distance between each vector in the range [from, to) and the point (px, py) in the destination
+    * array.
+    */
+   public abstract void distanceSqr(float[] x, float[] y, int from, int to, float px, float py,
+         float[] dest, int destOffset);
+
+   @Override
+   public String toString() {
+      return getName();
+   }
+}
@@ -82,6 +82,25 @@ public class MathUtil {
     * @return The angle between them.
     */
    public static float angleBetween(Vector2D v1, Vector2D v2) {
+      return angleBetween(v1, v2, false);
+   }
+
+   /**
+    * Calculate the angle between the two given vectors, using the {@link FastTrig} approximation of the arc cosine.
+    * 
+    * @param v1 Vector 1
+    * @param v2 Vector 2
+    * @return The angle between them.
+    * @see #angleBetween(Vector2D, Vector2D)
+    */
+   public static float angleBetweenFast(Vector2D v1, Vector2D v2) {
+      return angleBetween(v1, v2, true);
+   }
+
+   /**
+    * Shared by the exact and fast angle between methods, which only differ in the arc cosine used.
+    */
+   private static float angleBetween(Vector2D v1, Vector2D v2, boolean fast) {
       // Normalize the vectors, if needed.
       if (!v1.isNormal()) {
          v1 = v1.normalize();
@@ -91,7 +110,8 @@ public class MathUtil {
          v2 = v2.normalize();
       }
 
-      float angPi = (float) acos(v1.dot(v2));
+      float dot = v1.dot(v2);
+      float angPi = fast ? FastTrig.acos(dot) : (float) acos(dot);
 
       // side test
       return (v1.getY() * v2.getX() > v1.getY() * v2.getY()) ? -angPi : angPi;
@@ -110,11 +130,17 @@ public class MathUtil {
 
    /**
     * Generates a new random number between 0.0 (inclusive) and 1.0 (inclusive).
+    * <p>
+    * If the generator is an Alegria {@link com.alegria2d.core.math.Random}, its own
+    * {@link com.alegria2d.core.math.Random#nextFloatInclusive()} is used.
     * 
     * @param random The random number generator to use.
     * @return A random number between 0.0 (inclusive) and 1.0 (inclusive).
     */
    public static float nextFloatInclusive(Random random) {
+      if (random instanceof com.alegria2d.core.math.Random)
+         return ((com.alegria2d.core.math.Random) random).nextFloatInclusive();
+
       float r = random.nextFloat();
       return r == random.nextFloat() ? 1 : r;
    }
@@ -166,4 +192,15 @@ public class MathUtil {
    public static boolean equals(double f1, double f2) {
       return equals(f1, f2, DOUBLE_DELTA);
    }
+
+   /**
+    * Checks the range of array positions used by bulk operations.
+    * 
+    * @throws IndexOutOfBoundsException If the range is outside the array.
+    */
+   static void checkArrayRange(int arrayLength, int offset, int length) {
+      if (offset < 0 || length < 0 || length > arrayLength - offset)
+         throw new IndexOutOfBoundsException("Offset: " + offset + ", length: " + length + ", array length: "
+               + arrayLength);
+   }
 }
@@ -20,6 +20,8 @@
  */
 package com.alegria2d.core.math;
 
+import java.nio.FloatBuffer;
+
 /**
  * Represents a 3x3 matrix.
  * <p>
@@ -37,21 +39,25 @@ package com.alegria2d.core.math;
  * These methods are named {@link #getA()}, {@link #getB()}, {@link #getC()}, {@link #getD()}, {@link #getE()},
  * {@link #getF()}, {@link #getG()}, {@link #getH()} and {@link #getK()}.
  * <p>
+ * The most used operations also have a third signature, that stores the result in a destination matrix, such as
+ * {@link #multiply(Matrix3D, Matrix3D)} and {@link #inverse(Matrix3D)}. They never allocate memory, and the
+ * destination may be one of the operands.
+ * <p>
  * 
  * @author Vinicius G. Mendonca
  */
 public class Matrix3D implements Cloneable {
 
    /**
-    * The array that represents this matrix. The A is an upper case letter since its following the mathematical
-    * convention.
+    * The array that represents this matrix, row by row. The A is an upper case letter since its following the
+    * mathematical convention.
     */
-   private float A[][] = null;
+   private final float A[] = new float[9];
 
    /**
-    * Creates a new Matrix3D and left A uninitialized.
+    * Creates a new matrix with all elements equal to zero. Useful as a destination matrix.
     */
-   private Matrix3D() {
+   public Matrix3D() {
    }
 
    /**
@@ -61,10 +67,9 @@ public class Matrix3D implements Cloneable {
     * @param matrix The input matrix.
     */
    public Matrix3D(float[][] matrix) {
-      A = new float[3][3];
       for (int i = 0; i < 3; i++) {
          for (int j = 0; j < 3; j++) {
-            A[i][j] = matrix[i][j];
+            A[i * 3 + j] = matrix[i][j];
          }
       }
    }
@@ -76,7 +81,7 @@ public class Matrix3D implements Cloneable {
     * @see #clone()
     */
    public Matrix3D(Matrix3D other) {
-      this(other.A);
+      set(other);
    }
 
    /**
@@ -95,12 +100,7 @@ public class Matrix3D implements Cloneable {
       if (values.length < 9)
          throw new IllegalArgumentException("You must provide 9 values!");
 
-      A = new float[3][3];
-      for (int index = 0; index < 9; index++) {
-         int i = index / 3;
-         int j = index % 3;
-         A[i][j] = values[index];
-      }
+      System.arraycopy(values, 0, A, 0, 9);
    }
 
    /**
@@ -128,7 +128,13 @@ public class Matrix3D implements Cloneable {
     * @return The element value
     */
    public float get(int row, int col) {
-      return A[row][col];
+      return A[index(row, col)];
+   }
+
+   private static int index(int row, int col) {
+      if (row < 0 || row > 2 || col < 0 || col > 2)
+         throw new ArrayIndexOutOfBoundsException("Invalid element: " + row + ", " + col);
+      return row * 3 + col;
    }
 
    /**
@@ -140,7 +146,31 @@ public class Matrix3D implements Cloneable {
     * @return This matrix.
     */
    public Matrix3D set(int row, int col, float value) {
-      A[row][col] = value;
+      A[index(row, col)] = value;
+      return this;
+   }
+
+   /**
+    * Copies all values of the given matrix to this one.
+    * 
+    * @param other The matrix to copy.
+    * @return This matrix.
+    */
+   public Matrix3D set(Matrix3D other) {
+      System.arraycopy(other.A, 0, A, 0, 9);
+      return this;
+   }
+
+   /**
+    * Turns this matrix into the identity matrix.
+    * 
+    * @return This matrix.
+    * @see #newIdentity()
+    */
+   public Matrix3D setIdentity() {
+      A[0] = 1; A[1] = 0; A[2] = 0;
+      A[3] = 0; A[4] = 1; A[5] = 0;
+      A[6] = 0; A[7] = 0; A[8] = 1;
       return this;
    }
 
@@ -156,7 +186,7 @@ public class Matrix3D implements Cloneable {
     * @return the A[0][0] element.
     */
    public float getA() {
-      return A[0][0];
+      return A[0];
    }
 
    /**
@@ -171,7 +201,7 @@ public class Matrix3D implements Cloneable {
     * @return the A[0][1] element.
     */
    public float getB() {
-      return A[0][1];
+      return A[1];
    }
 
    /**
@@ -186,7 +216,7 @@ public class Matrix3D implements Cloneable {
     * @return the A[0][2] element.
     */
    public float getC() {
-      return A[0][2];
+      return A[2];
    }
 
    /**
@@ -201,7 +231,7 @@ public class Matrix3D implements Cloneable {
     * @return the A[1][0] element.
     */
    public float getD() {
-      return A[1][0];
+      return A[3];
    }
 
    /**
@@ -216,7 +246,7 @@ public class Matrix3D implements Cloneable {
     * @return the A[1][1] element.
     */
    public float getE() {
-      return A[1][1];
+      return A[4];
    }
 
    /**
@@ -231,7 +261,7 @@ public class Matrix3D implements Cloneable {
     * @return the A[1][1] element.
     */
    public float getF() {
-      return A[1][2];
+      return A[5];
    }
 
    /**
@@ -246,7 +276,7 @@ public class Matrix3D implements Cloneable {
     * @return the A[2][0] element.
     */
    public float getG() {
-      return A[2][0];
+      return A[6];
    }
 
    /**
@@ -261,7 +291,7 @@ public class Matrix3D implements Cloneable {
     * @return the A[2][1] element.
     */
    public float getH() {
-      return A[2][1];
+      return A[7];
    }
 
    /**
@@ -276,7 +306,7 @@ public class Matrix3D implements Cloneable {
     * @return the A[2][2] element.
     */
    public float getK() {
-      return A[2][2];
+      return A[8];
    }
 
    /**
@@ -287,11 +317,8 @@ public class Matrix3D implements Cloneable {
     * @see #plus(Matrix3D)
     */
    public Matrix3D plusMe(Matrix3D other) {
-      for (int i = 0; i < 3; i++) {
-         for (int j = 0; j < 3; j++) {
-            A[i][j] += other.get(i, j);
-         }
-      }
+      for (int i = 0; i < 9; i++)
+         A[i] += other.A[i];
       return this;
    }
 
@@ -314,11 +341,8 @@ public class Matrix3D implements Cloneable {
     * @see #minus(Matrix3D)
     */
    public Matrix3D minusMe(Matrix3D other) {
-      for (int i = 0; i < 3; i++) {
-         for (int j = 0; j < 3; j++) {
-            A[i][j] -= other.get(i, j);
-         }
-      }
+      for (int i = 0; i < 9; i++)
+         A[i] -= other.A[i];
       return this;
    }
 
@@ -339,20 +363,37 @@ public class Matrix3D implements Cloneable {
     * @param other The matrix to multiply to.
     * @return The new matrix.
     * @see #multiplyMe(Matrix3D)
+    * @see #multiply(Matrix3D, Matrix3D)
     */
    public Matrix3D multiply(Matrix3D other) {
-      float B[][] = other.A;
-      float C[][] = new float[3][3];
-      for (int i = 0; i < 3; ++i) {
-         for (int j = 0; j < 3; ++j) {
-            for (int k = 0; k < 3; ++k) {
-               C[i][j] += A[i][k] * B[k][j];
-            }
-         }
-      }
-      Matrix3D matrix = new Matrix3D();
-      matrix.A = C;
-      return matrix;
+      return multiply(other, new Matrix3D());
+   }
+
+   /**
+    * Multiplies this matrix by the given one, storing the result in the destination matrix. No memory is allocated.
+    * 
+    * @param other The matrix to multiply to.
+    * @param dest The matrix that will receive the result. It may be this matrix or the other one.
+    * @return The destination matrix.
+    * @see #multiply(Matrix3D)
+    */
+   public Matrix3D multiply(Matrix3D other, Matrix3D dest) {
+      float[] B = other.A;
+      float a = A[0] * B[0] + A[1] * B[3] + A[2] * B[6];
+      float b = A[0] * B[1] + A[1] * B[4] + A[2] * B[7];
+      float c = A[0] * B[2] + A[1] * B[5] + A[2] * B[8];
+      float d = A[3] * B[0] + A[4] * B[3] + A[5] * B[6];
+      float e = A[3] * B[1] + A[4] * B[4] + A[5] * B[7];
+      float f = A[3] * B[2] + A[4] * B[5] + A[5] * B[8];
+      float g = A[6] * B[0] + A[7] * B[3] + A[8] * B[6];
+      float h = A[6] * B[1] + A[7] * B[4] + A[8] * B[7];
+      float k = A[6] * B[2] + A[7] * B[5] + A[8] * B[8];
+
+      float[] C = dest.A;
+      C[0] = a; C[1] = b; C[2] = c;
+      C[3] = d; C[4] = e; C[5] = f;
+      C[6] = g; C[7] = h; C[8] = k;
+      return dest;
    }
 
    /**
@@ -363,8 +404,7 @@ public class Matrix3D implements Cloneable {
     * @see #multiply(Matrix3D)
     */
    public Matrix3D multiplyMe(Matrix3D other) {
-      A = multiply(other).A;
-      return this;
+      return multiply(other, this);
    }
 
    /**
@@ -386,12 +426,91 @@ public class Matrix3D implements Cloneable {
     * @see Vector2D#multiplyMe(float)
     */
    public Vector2D multiply(Vector2D vector) {
+      return multiply(vector, new Vector2D());
+   }
+
+   /**
+    * Performs a vector multiplication with this matrix, storing the result in the destination vector. No memory is
+    * allocated. See {@link #multiply(Vector2D)}.
+    * 
+    * @param vector The vector to multiply.
+    * @param dest The vector that will receive the result. It may be the vector being multiplied.
+    * @return The destination vector.
+    */
+   public Vector2D multiply(Vector2D vector, Vector2D dest) {
       float x = vector.getX();
       float y = vector.getY();
 
-      return new Vector2D(
-            x * getA() + y * getB() + getC(),
-            x * getD() + y * getE() + getF());
+      return dest.set(
+            x * A[0] + y * A[1] + A[2],
+            x * A[3] + y * A[4] + A[5]);
+   }
+
+   /**
+    * Transforms several points stored in an array as <code>x0, y0, x1, y1, ...</code>. Each point is multiplied as in
+    * {@link #multiply(Vector2D)}. See {@link #transform(float[], int, int, float[], int, int, int)}.
+    * 
+    * @param src The source array.
+    * @param srcOffset Index of the first x coordinate in the source array.
+    * @param dest The destination array.
+    * @param destOffset Index of the first x coordinate in the destination array.
+    * @param count Number of points to transform.
+    * @return The destination array.
+    */
+   public float[] transform(float[] src, int srcOffset, float[] dest, int destOffset, int count) {
+      return transform(src, srcOffset, 2, dest, destOffset, 2, count);
+   }
+
+   /**
+    * Transforms several points stored in an array. Each point is multiplied as in {@link #multiply(Vector2D)}, and is
+    * stored as a x coordinate followed by a y coordinate. The stride is the distance between two consecutive x
+    * coordinates, so other vertex attributes may be interleaved with the points and are left untouched.
+    * <p>
+    * The source and destination arrays may be the same array, as long as the destination offset is not after the
+    * source offset and the destination stride is not bigger than the source stride. Otherwise, points would be
+    * overwritten before they are read.
+    * 
+    * @param src The source array.
+    * @param srcOffset Index of the first x coordinate in the source array.
+    * @param srcStride Number of floats between two source points. 2 for packed points.
+    * @param dest The destination array.
+    * @param destOffset Index of the first x coordinate in the destination array.
+    * @param destStride Number of floats between two destination points. 2 for packed points.
+    * @param count Number of points to transform.
+    * @return The destination array.
+    * @throws IllegalArgumentException If a stride is smaller than 2 or the count is negative.
+    * @throws IndexOutOfBoundsException If a point is outside its array.
+    */
+   public float[] transform(float[] src, int srcOffset, int srcStride,
+         float[] dest, int destOffset, int destStride, int count)
+   {
+      Affine2D.transform(A[0], A[1], A[2], A[3], A[4], A[5],
+            src, srcOffset, srcStride, dest, destOffset, destStride, count);
+      return dest;
+   }
+
+   /**
+    * Transforms several points stored in a float buffer. See
+    * {@link #transform(float[], int, int, float[], int, int, int)}. Offsets are absolute indexes, and the buffer
+    * positions and limits are not changed.
+    * 
+    * @param src The source buffer.
+    * @param srcOffset Index of the first x coordinate in the source buffer.
+    * @param srcStride Number of floats between two source points. 2 for packed points.
+    * @param dest The destination buffer.
+    * @param destOffset Index of the first x coordinate in the destination buffer.
+    * @param destStride Number of floats between two destination points. 2 for packed points.
+    * @param count Number of points to transform.
+    * @return The destination buffer.
+    * @throws IllegalArgumentException If a stride is smaller than 2 or the count is negative.
+    * @throws IndexOutOfBoundsException If a point is outside the limit of its buffer.
+    */
+   public FloatBuffer transform(FloatBuffer src, int srcOffset, int srcStride,
+         FloatBuffer dest, int destOffset, int destStride, int count)
+   {
+      Affine2D.transform(A[0], A[1], A[2], A[3], A[4], A[5],
+            src, srcOffset, srcStride, dest, destOffset, destStride, count);
+      return dest;
    }
 
    /**
@@ -402,11 +521,8 @@ public class Matrix3D implements Cloneable {
     * @see #multiply(float)
     */
    public Matrix3D multiplyMe(float scalar) {
-      for (int i = 0; i < 3; i++) {
-         for (int j = 0; j < 3; j++) {
-            A[i][j] *= scalar;
-         }
-      }
+      for (int i = 0; i < 9; i++)
+         A[i] *= scalar;
       return this;
    }
 
@@ -425,9 +541,9 @@ public class Matrix3D implements Cloneable {
     * @return the determinant of this matrix.
     */
    public float getDeterminant() {
-      return getA() * (getE() * getK() - getF() * getH()) +
-             getB() * (getF() * getG() - getK() * getD()) +
-             getC() * (getD() * getH() - getE() * getG());
+      return A[0] * (A[4] * A[8] - A[5] * A[7]) +
+             A[1] * (A[5] * A[6] - A[8] * A[3]) +
+             A[2] * (A[3] * A[7] - A[4] * A[6]);
    }
 
    /**
@@ -450,8 +566,7 @@ public class Matrix3D implements Cloneable {
     * @see #inverse()
     */
    public Matrix3D inverseMe() {
-      A = inverse().A;
-      return this;
+      return inverse(this);
    }
 
    /**
@@ -467,23 +582,41 @@ public class Matrix3D implements Cloneable {
     * @see #inverseMe()
     */
    public Matrix3D inverse() {
+      return inverse(new Matrix3D());
+   }
+
+   /**
+    * Calculates the inverse of this matrix, storing it in the destination matrix. No memory is allocated. Not all
+    * matrices are invertible, so check the {@link #isInvertible()} method prior to calling this method if you are not
+    * sure if you can inverse this matrix or not.
+    * 
+    * @param dest The matrix that will receive the inverse. It may be this matrix.
+    * @return The destination matrix. If this matrix is not invertible, its values will be undefined.
+    * @see #inverse()
+    */
+   public Matrix3D inverse(Matrix3D dest) {
       assert isInvertible() : "This matrix is not invertible!";
 
-      Matrix3D inverse = new Matrix3D();
-      inverse.A = new float[3][3];
+      // Adjugate matrix, divided by the determinant
+      float a = A[4] * A[8] - A[5] * A[7];
+      float b = A[2] * A[7] - A[1] * A[8];
+      float c = A[1] * A[5] - A[2] * A[4];
+
+      float d = A[5] * A[6] - A[3] * A[8];
+      float e = A[0] * A[8] - A[2] * A[6];
+      float f = A[2] * A[3] - A[0] * A[5];
 
-      inverse.A[0][0] = getE() * getK() - getF() * getH();
-      inverse.A[0][1] = getC() * getH() - getB() * getK();
-      inverse.A[0][2] = getB() * getF() - getC() * getE();
+      float g = A[3] * A[7] - A[4] * A[6];
+      float h = A[1] * A[6] - A[0] * A[7];
+      float k = A[0] * A[4] - A[1] * A[3];
 
-      inverse.A[1][0] = getF() * getG() - getD() * getK();
-      inverse.A[1][1] = getA() * getK() - getC() * getG();
-      inverse.A[1][2] = getC() * getD() - getA() * getF();
+      float inv = 1.0f / (A[0] * a + A[1] * d + A[2] * g);
 
-      inverse.A[2][0] = getD() * getH() - getE() * getG();
-      inverse.A[2][1] = getB() * getG() - getA() * getH();
-      inverse.A[2][2] = getA() * getE() - getB() * getD();
-      return inverse;
+      float[] C = dest.A;
+      C[0] = a * inv; C[1] = b * inv; C[2] = c * inv;
+      C[3] = d * inv; C[4] = e * inv; C[5] = f * inv;
+      C[6] = g * inv; C[7] = h * inv; C[8] = k * inv;
+      return dest;
    }
 
    /**
@@ -506,16 +639,26 @@ public class Matrix3D implements Cloneable {
     * @return The transpose matrix.
     */
    public Matrix3D transpose() {
-      float[][] B = new float[3][3];
-      for (int i = 0; i < 3; i++) {
-         for (int j = 0; j < 3; j++) {
-            B[i][j] = A[j][i];
-         }
-      }
+      return transpose(new Matrix3D());
+   }
+
+   /**
+    * Transposes this matrix, storing the result in the destination matrix. No memory is allocated.
+    * 
+    * @param dest The matrix that will receive the result. It may be this matrix.
+    * @return The destination matrix.
+    * @see #transpose()
+    */
+   public Matrix3D transpose(Matrix3D dest) {
+      float b = A[1];
+      float c = A[2];
+      float f = A[5];
 
-      Matrix3D clone = new Matrix3D();
-      clone.A = B;
-      return clone;
+      float[] C = dest.A;
+      C[0] = A[0]; C[1] = A[3]; C[2] = A[6];
+      C[3] = b;    C[4] = A[4]; C[5] = A[7];
+      C[6] = c;    C[7] = f;    C[8] = A[8];
+      return dest;
    }
 
    /**
@@ -538,8 +681,7 @@ public class Matrix3D implements Cloneable {
     * @return This matrix.
     */
    public Matrix3D transposeMe() {
-      A = transpose().A;
-      return this;
+      return transpose(this);
    }
 
    /**
@@ -554,7 +696,22 @@ public class Matrix3D implements Cloneable {
     * @return this matrix in a 3x3 array.
     */
    public float[][] toArray() {
-      return clone().A;
+      float[][] array = new float[3][3];
+      for (int i = 0; i < 3; i++)
+         System.arraycopy(A, i * 3, array[i], 0, 3);
+      return array;
+   }
+
+   /**
+    * Copies the matrix values, row by row, to the given array.
+    * 
+    * @param dest The destination array.
+    * @param offset The index of the first value in the destination array.
+    * @return The destination array.
+    */
+   public float[] toArray(float[] dest, int offset) {
+      System.arraycopy(A, 0, dest, offset, 9);
+      return dest;
    }
 
    /**
@@ -606,19 +763,17 @@ public class Matrix3D implements Cloneable {
          return false;
 
       Matrix3D B = (Matrix3D) other;
-      for (int i = 0; i < 3; i++)
-         for (int j = 0; j < 3; j++)
-            if (A[i][j] != B.A[i][j])
-               return false;
+      for (int i = 0; i < 9; i++)
+         if (A[i] != B.A[i])
+            return false;
       return true;
    }
 
    @Override
    public int hashCode() {
       HashBuilder hb = new HashBuilder();
-      for (int i = 0; i < 3; i++)
-         for (int j = 0; j < 3; j++)
-            hb.add(A[i][j]);
+      for (int i = 0; i < 9; i++)
+         hb.add(A[i]);
       return hb.hashCode();
    }
 
@@ -630,10 +785,9 @@ public class Matrix3D implements Cloneable {
     * @return True if one matrix is similar to another
     */
    public boolean similar(Matrix3D B) {
-      for (int i = 0; i < 3; i++)
-         for (int j = 0; j < 3; j++)
-            if (!MathUtil.equals(A[i][j], B.A[i][j]))
-               return false;
+      for (int i = 0; i < 9; i++)
+         if (!MathUtil.equals(A[i], B.A[i]))
+            return false;
 
       return true;
    }
@@ -664,7 +818,7 @@ public class Matrix3D implements Cloneable {
        * @return The inserted value.
        */
       public float putAt(int col, float value) {
-         A[row][col] = value;
+         A[index(row, col)] = value;
          return value;
       }
 
@@ -678,7 +832,7 @@ public class Matrix3D implements Cloneable {
          if (col < 0 || col > 2)
             throw new IllegalArgumentException();
 
-         return A[row][col];
+         return A[row * 3 + col];
       }
    }
 }
@@ -0,0 +1,256 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+/**
+ * A fast pseudo random number generator, based on the xoroshiro128++ algorithm, seeded through SplitMix64.
+ * <p>
+ * This class extends {@link java.util.Random}, so it can be used anywhere a Java random number generator is expected,
+ * such as {@link IntRange} and {@link FloatRange}. Unlike the Java generator, it is <b>not thread safe</b>: its state is
+ * kept in plain fields, and no method is synchronized. Instead of sharing a single generator between threads, create an
+ * independent stream for each thread or entity with {@link #split()}:
+ * 
+ * <pre>
+ * Random particlesRandom = gameRandom.split();
+ * </pre>
+ * 
+ * Two generators created with the same seed always generate the same sequence of numbers.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public final class Random extends java.util.Random {
+   private static final long serialVersionUID = -2478306146391536129L;
+
+   private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+   private static final float FLOAT_UNIT = 0x1.0p-24f;
+   private static final double DOUBLE_UNIT = 0x1.0p-53;
+   private static final float FLOAT_INCLUSIVE_MAX = (1 << 24) - 1;
+
+   private long s0;
+   private long s1;
+
+   /**
+    * Creates a new random number generator, with a seed that is very likely to be different from any other generator.
+    */
+   public Random() {
+      super();
+   }
+
+   /**
+    * Creates a new random number generator with the given seed.
+    * 
+    * @param seed The initial seed.
+    * @see #setSeed(long)
+    */
+   public Random(long seed) {
+      super(seed);
+   }
+
+   private Random(long seed0, long seed1) {
+      super(seed0);
+      s0 = mix(seed0);
+      s1 = mix(seed1);
+      if ((s0 | s1) == 0)
+         s1 = GOLDEN_GAMMA;
+   }
+
+   /**
+    * Final mixing function of SplitMix64.
+    */
+   private static long mix(long z) {
+      z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+      z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+      return z ^ (z >>> 31);
+   }
+
+   /**
+    * Resets this generator with the given seed. The seed is expanded by SplitMix64 into the 128 bits of state, so even
+    * close seeds, like 1 and 2, generate unrelated sequences.
+    */
+   @Override
+   public void setSeed(long seed) {
+      // Also discards the gaussian cached by java.util.Random
+      super.setSeed(seed);
+      s0 = mix(seed + GOLDEN_GAMMA);
+      s1 = mix(seed + 2 * GOLDEN_GAMMA);
+   }
+
+   /**
+    * Creates a new generator, seeded with numbers taken from this one. The new generator sequence is independent from
+    * this generator's sequence, so each thread or entity can have its own generator without synchronization.
+    * <p>
+    * Splitting changes the state of this generator, as two numbers are taken from it. Splitting two generators created
+    * with the same seed results in generators with the same sequence.
+    * 
+    * @return The new generator.
+    */
+   public Random split() {
+      long seed0 = nextLong();
+      return new Random(seed0, nextLong());
+   }
+
+   @Override
+   public long nextLong() {
+      long s0 = this.s0;
+      long s1 = this.s1;
+      long result = Long.rotateLeft(s0 + s1, 17) + s0;
+
+      s1 ^= s0;
+      this.s0 = Long.rotateLeft(s0, 49) ^ s1 ^ (s1 << 21);
+      this.s1 = Long.rotateLeft(s1, 28);
+      return result;
+   }
+
+   @Override
+   protected int next(int bits) {
+      return (int) (nextLong() >>> (64 - bits));
+   }
+
+   @Override
+   public int nextInt() {
+      return (int) (nextLong() >>> 32);
+   }
+
+   /**
+    * Returns a uniformly distributed number between 0 (inclusive) and bound (exclusive). This method uses Lemire's
+    * multiplication method, which rarely needs more than one number from the sequence and no division.
+    * 
+    * @param bound The upper bound (exclusive). Must be positive.
+    * @throws IllegalArgumentException If the bound is not positive.
+    */
+   @Override
+   public int nextInt(int bound) {
+      if (bound <= 0)
+         throw new IllegalArgumentException("Bound must be positive: " + bound);
+
+      return nextInt(bound, nextLong());
+   }
+
+   private int nextInt(int bound, long random) {
+      long m = (random >>> 32) * bound;
+      if ((m & 0xFFFFFFFFL) < bound) {
+         // Rejects the few numbers that would make the lowest results more likely
+         long threshold = (-bound & 0xFFFFFFFFL) % bound;
+         while ((m & 0xFFFFFFFFL) < threshold)
+            m = (nextLong() >>> 32) * bound;
+      }
+      return (int) (m >>> 32);
+   }
+
+   @Override
+   public boolean nextBoolean() {
+      return nextLong() < 0;
+   }
+
+   /**
+    * @return A random number between 0.0 (inclusive) and 1.0 (exclusive).
+    */
+   @Override
+   public float nextFloat() {
+      return (nextLong() >>> 40) * FLOAT_UNIT;
+   }
+
+   /**
+    * Generates a new random number between 0.0 (inclusive) and 1.0 (inclusive). This is the same as
+    * {@link MathUtil#nextFloatInclusive(java.util.Random)}, but takes a single number from the sequence.
+    * 
+    * @return A random number between 0.0 (inclusive) and 1.0 (inclusive).
+    */
+   public float nextFloatInclusive() {
+      return (nextLong() >>> 40) / FLOAT_INCLUSIVE_MAX;
+   }
+
+   /**
+    * @return A random number between 0.0 (inclusive) and 1.0 (exclusive).
+    */
+   @Override
+   public double nextDouble() {
+      return (nextLong() >>> 11) * DOUBLE_UNIT;
+   }
+
+   /**
+    * Fills the given array range with random numbers between 0.0 (inclusive) and 1.0 (exclusive). The array is filled
+    * with the same numbers that the same number of calls to {@link #nextFloat()} would return, but faster.
+    * 
+    * @param dest The array to fill.
+    * @param offset The first position to fill.
+    * @param length The number of positions to fill.
+    * @throws IndexOutOfBoundsException If the range is outside the array.
+    */
+   public void fill(float[] dest, int offset, int length) {
+      MathUtil.checkArrayRange(dest.length, offset, length);
+
+      long s0 = this.s0;
+      long s1 = this.s1;
+      for (int i = offset; i < offset + length; i++) {
+         dest[i] = ((Long.rotateLeft(s0 + s1, 17) + s0) >>> 40) * FLOAT_UNIT;
+         s1 ^= s0;
+         s0 = Long.rotateLeft(s0, 49) ^ s1 ^ (s1 << 21);
+         s1 = Long.rotateLeft(s1, 28);
+      }
+      this.s0 = s0;
+      this.s1 = s1;
+   }
+
+   /**
+    * Fills the given array range with random numbers between 0.0 (inclusive) and 1.0 (inclusive). The array is filled
+    * with the same numbers that the same number of calls to {@link #nextFloatInclusive()} would return, but faster.
+    * 
+    * @param dest The array to fill.
+    * @param offset The first position to fill.
+    * @param length The number of positions to fill.
+    * @throws IndexOutOfBoundsException If the range is outside the array.
+    */
+   public void fillInclusive(float[] dest, int offset, int length) {
+      MathUtil.checkArrayRange(dest.length, offset, length);
+
+      long s0 = this.s0;
+      long s1 = this.s1;
+      for (int i = offset; i < offset + length; i++) {
+         dest[i] = ((Long.rotateLeft(s0 + s1, 17) + s0) >>> 40) / FLOAT_INCLUSIVE_MAX;
+         s1 ^= s0;
+         s0 = Long.rotateLeft(s0, 49) ^ s1 ^ (s1 << 21);
+         s1 = Long.rotateLeft(s1, 28);
+      }
+      this.s0 = s0;
+      this.s1 = s1;
+   }
+
+   /**
+    * Fills the given array range with random numbers between 0 (inclusive) and bound (exclusive). The array is filled
+    * with the same numbers that the same number of calls to {@link #nextInt(int)} would return.
+    * 
+    * @param dest The array to fill.
+    * @param offset The first position to fill.
+    * @param length The number of positions to fill.
+    * @param bound The upper bound (exclusive). Must be positive.
+    * @throws IndexOutOfBoundsException If the range is outside the array.
+    * @throws IllegalArgumentException If the bound is not positive.
+    */
+   public void fill(int[] dest, int offset, int length, int bound) {
+      MathUtil.checkArrayRange(dest.length, offset, length);
+      if (bound <= 0)
+         throw new IllegalArgumentException("Bound must be positive: " + bound);
+
+      for (int i = offset; i < offset + length; i++)
+         dest[i] = nextInt(bound, nextLong());
+   }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import static java.lang.Math.sqrt;
+
+/**
+ * Plain Java {@link MathKernels}. Always available, and the reference for any other implementation.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+final class ScalarKernels extends MathKernels {
+   @Override
+   public String getName() {
+      return "scalar";
+   }
+
+   @Override
+   public void transform(float a, float b, float c, float d, float e, float f,
+         float[] src, int srcOffset, float[] dest, int destOffset, int count)
+   {
+      int length = count * 2;
+      for (int i = 0; i < length; i += 2) {
+         float x = src[srcOffset + i];
+         float y = src[srcOffset + i + 1];
+         dest[destOffset + i] = a * x + b * y + c;
+         dest[destOffset + i + 1] = d * x + e * y + f;
+      }
+   }
+
+   @Override
+   public void transform(float a, float b, float c, float d, float e, float f,
+         float[] x, float[] y, int from, int to)
+   {
+      for (int i = from; i < to; i++) {
+         float vx = x[i];
+         float vy = y[i];
+         x[i] = a * vx + b * vy + c;
+         y[i] = d * vx + e * vy + f;
+      }
+   }
+
+   @Override
+   public void normalize(float[] x, float[] y, int from, int to) {
+      for (int i = from; i < to; i++) {
+         float sizeSqr = x[i] * x[i] + y[i] * y[i];
+         if (sizeSqr <= MathUtil.FLOAT_DELTA)
+            continue;
+
+         float inv = 1.0f / (float) sqrt(sizeSqr);
+         x[i] *= inv;
+         y[i] *= inv;
+      }
+   }
+
+   @Override
+   public void dot(float[] x, float[] y, int from, int to, float vx, float vy, float[] dest, int destOffset) {
+      for (int i = from; i < to; i++)
+         dest[destOffset++] = x[i] * vx + y[i] * vy;
+   }
+
+   @Override
+   public void distanceSqr(float[] x, float[] y, int from, int to, float px, float py,
+         float[] dest, int destOffset)
+   {
+      for (int i = from; i < to; i++) {
+         float dx = x[i] - px;
+         float dy = y[i] - py;
+         dest[destOffset++] = dx * dx + dy * dy;
+      }
+   }
+}
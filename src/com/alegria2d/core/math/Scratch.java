@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import java.util.Arrays;
+
+/**
+ * A per thread arena of temporary vectors and matrices, recycled all at once at the end of each frame.
+ * <p>
+ * The {@link Vector2D} and {@link Matrix3D} methods without the "Me" suffix return new objects, which become garbage a
+ * few lines later. Per frame code can take its temporary values from the arena instead, and apply the "Me" methods to
+ * them:
+ * 
+ * <pre>
+ * Scratch scratch = Scratch.get();
+ * for (Entity entity : entities) {
+ *    Vector2D step = scratch.vector(entity.getVelocity()).multiplyMe(elapsed);
+ *    entity.getPosition().plusMe(step);
+ * }
+ * ...
+ * scratch.reset(); // At the end of the frame
+ * </pre>
+ * 
+ * The arena grows to the number of values used in the busiest frame, and then allocates nothing. Values taken from the
+ * arena must not be stored, nor used after {@link #reset()}, since they will be handed out again in the next frame.
+ * <p>
+ * In debug mode, which is turned on with assertions, recycled values are never handed out again. Instead, they are
+ * filled with a NaN marker, so a stale read produces NaN, and the next reset throws an {@link IllegalStateException} if
+ * a stale value was written. Debug mode allocates every value, so it should not be used to measure performance.
+ * <p>
+ * Each thread has its own arena, so arenas are not thread safe and must not be shared.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public final class Scratch {
+   /**
+    * The value that fills the recycled vectors and matrices in debug mode. It is a signaling NaN: arithmetic operations
+    * turn it into a quiet NaN, so even a stale write computed from the stale value itself is detected.
+    */
+   static final float POISON = Float.intBitsToFloat(0x7F80DEAD);
+
+   private static final ThreadLocal<Scratch> ARENAS = new ThreadLocal<Scratch>() {
+      @Override
+      protected Scratch initialValue() {
+         return new Scratch(Scratch.class.desiredAssertionStatus());
+      }
+   };
+
+   private Vector2D[] vectors = new Vector2D[16];
+   private int vectorCount;
+
+   private Matrix3D[] matrices = new Matrix3D[4];
+   private int matrixCount;
+
+   private boolean debug;
+   private Vector2D[] retiredVectors = new Vector2D[0];
+   private int retiredVectorCount;
+   private Matrix3D[] retiredMatrices = new Matrix3D[0];
+   private int retiredMatrixCount;
+
+   /**
+    * Creates a new arena. Most code should use the arena of its thread, returned by {@link #get()}.
+    * 
+    * @param debug True to detect the use of values after reset. See the class description.
+    */
+   public Scratch(boolean debug) {
+      this.debug = debug;
+   }
+
+   /**
+    * @return The arena of the current thread.
+    */
+   public static Scratch get() {
+      return ARENAS.get();
+   }
+
+   /**
+    * @return True if this arena detects the use of values after reset.
+    */
+   public boolean isDebug() {
+      return debug;
+   }
+
+   /**
+    * Turns the debug mode on or off. The arena is reset.
+    * 
+    * @param debug True to detect the use of values after reset.
+    */
+   public void setDebug(boolean debug) {
+      reset();
+      this.debug = debug;
+      retiredVectorCount = 0;
+      retiredMatrixCount = 0;
+   }
+
+   /**
+    * @return A temporary vector. Its value is undefined.
+    */
+   public Vector2D vector() {
+      if (vectorCount == vectors.length)
+         vectors = Arrays.copyOf(vectors, vectors.length * 2);
+
+      Vector2D vector = vectors[vectorCount];
+      if (vector == null) {
+         vector = new Vector2D();
+         vectors[vectorCount] = vector;
+      }
+      vectorCount++;
+      return vector;
+   }
+
+   /**
+    * @param x The x coordinate.
+    * @param y The y coordinate.
+    * @return A temporary vector, with the given coordinates.
+    */
+   public Vector2D vector(float x, float y) {
+      return vector().set(x, y);
+   }
+
+   /**
+    * @param other The vector to copy.
+    * @return A temporary vector, equal to the given one.
+    */
+   public Vector2D vector(Vector2D other) {
+      return vector().set(other);
+   }
+
+   /**
+    * @return A temporary matrix. Its value is undefined.
+    */
+   public Matrix3D matrix() {
+      if (matrixCount == matrices.length)
+         matrices = Arrays.copyOf(matrices, matrices.length * 2);
+
+      Matrix3D matrix = matrices[matrixCount];
+      if (matrix == null) {
+         matrix = new Matrix3D();
+         matrices[matrixCount] = matrix;
+      }
+      matrixCount++;
+      return matrix;
+   }
+
+   /**
+    * @param other The matrix to copy.
+    * @return A temporary matrix, equal to the given one.
+    */
+   public Matrix3D matrix(Matrix3D other) {
+      return matrix().set(other);
+   }
+
+   /**
+    * @return A temporary identity matrix.
+    */
+   public Matrix3D identity() {
+      return matrix().setIdentity();
+   }
+
+   /**
+    * @return The number of vectors handed out since the last reset.
+    */
+   public int getVectorCount() {
+      return vectorCount;
+   }
+
+   /**
+    * @return The number of matrices handed out since the last reset.
+    */
+   public int getMatrixCount() {
+      return matrixCount;
+   }
+
+   /**
+    * Recycles every vector and matrix handed out by this arena. Call it at the end of each frame.
+    * 
+    * @throws IllegalStateException In debug mode, if a value recycled by the previous reset was changed.
+    */
+   public void reset() {
+      if (debug) {
+         checkRetired();
+         retire();
+      }
+      vectorCount = 0;
+      matrixCount = 0;
+   }
+
+   /**
+    * Checks that the values recycled by the previous reset still hold the poison value.
+    */
+   private void checkRetired() {
+      int poison = Float.floatToRawIntBits(POISON);
+      for (int i = 0; i < retiredVectorCount; i++) {
+         Vector2D vector = retiredVectors[i];
+         if (Float.floatToRawIntBits(vector.getX()) != poison || Float.floatToRawIntBits(vector.getY()) != poison)
+            throw new IllegalStateException("A scratch vector was changed after reset: " + vector);
+      }
+
+      for (int i = 0; i < retiredMatrixCount; i++)
+         for (int row = 0; row < 3; row++)
+            for (int col = 0; col < 3; col++)
+               if (Float.floatToRawIntBits(retiredMatrices[i].get(row, col)) != poison)
+                  throw new IllegalStateException("A scratch matrix was changed after reset: " + retiredMatrices[i]);
+   }
+
+   /**
+    * Poisons the values handed out in this frame, and removes them from the arena, so they are never handed out again.
+    */
+   private void retire() {
+      if (retiredVectors.length < vectorCount)
+         retiredVectors = new Vector2D[vectors.length];
+      for (int i = 0; i < vectorCount; i++) {
+         retiredVectors[i] = vectors[i].set(POISON, POISON);
+         vectors[i] = null;
+      }
+      retiredVectorCount = vectorCount;
+
+      if (retiredMatrices.length < matrixCount)
+         retiredMatrices = new Matrix3D[matrices.length];
+      for (int i = 0; i < matrixCount; i++) {
+         Matrix3D matrix = matrices[i];
+         for (int row = 0; row < 3; row++)
+            for (int col = 0; col < 3; col++)
+               matrix.set(row, col, POISON);
+         retiredMatrices[i] = matrix;
+         matrices[i] = null;
+      }
+      retiredMatrixCount = matrixCount;
+   }
+}
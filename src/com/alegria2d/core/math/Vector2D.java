@@ -92,6 +92,18 @@ public final class Vector2D implements Cloneable, Comparable<Vector2D> {
       return new Vector2D((float) cos(angle) * size, (float) sin(angle) * size);
    }
 
+   /**
+    * Create a new vector with the given size, and with the given angle, using the {@link FastTrig} approximations.
+    * 
+    * @param size The vector size.
+    * @param angle The angle, in radians.
+    * @return The newly created vector.
+    * @see #createBySizeAngle(float, double)
+    */
+   public static Vector2D createBySizeAngleFast(float size, float angle) {
+      return new Vector2D(FastTrig.cos(angle) * size, FastTrig.sin(angle) * size);
+   }
+
    /**
     * Sets the x and y values of this vector.
     * 
@@ -223,6 +235,23 @@ public final class Vector2D implements Cloneable, Comparable<Vector2D> {
       return (float) atan2(y, x);
    }
 
+   /**
+    * @return The angle between this vector and the x-axis, using the {@link FastTrig} approximation.
+    * @see #getAngleX()
+    */
+   public float getAngleXFast() {
+      return FastTrig.atan2(y, x);
+   }
+
+   /**
+    * @return The pseudo angle between this vector and the x-axis. It's cheaper than the angle, and suitable for
+    *         comparing and sorting directions.
+    * @see FastTrig#pseudoAngle(float, float)
+    */
+   public float getPseudoAngleX() {
+      return FastTrig.pseudoAngle(x, y);
+   }
+
    /**
     * Rotates this vector in the given angle.
     * 
@@ -252,6 +281,37 @@ public final class Vector2D implements Cloneable, Comparable<Vector2D> {
       return clone().rotateMe(angle);
    }
 
+   /**
+    * Rotates this vector in the given angle, using the {@link FastTrig} approximations of sine and cosine.
+    * 
+    * @param angle The angle, in radians
+    * @return This vector.
+    * @see #rotateMe(double)
+    */
+   public Vector2D rotateMeFast(float angle) {
+      float s = FastTrig.sin(angle);
+      float c = FastTrig.cos(angle);
+
+      float newX = x * c - y * s;
+      float newY = x * s + y * c;
+
+      x = newX;
+      y = newY;
+
+      return this;
+   }
+
+   /**
+    * Calculate a rotated version of this vector, using the {@link FastTrig} approximations of sine and cosine.
+    * 
+    * @param angle The angle, in radians
+    * @return A new vector, equal to this one rotated in angle radians.
+    * @see #rotate(double)
+    */
+   public Vector2D rotateFast(float angle) {
+      return clone().rotateMeFast(angle);
+   }
+
    /**
     * Returns a perpendicular vector. This function is equivalent to calling {@link #rotate(float)} with 90 degrees, but
     * much faster and precise.
@@ -416,7 +476,9 @@ public final class Vector2D implements Cloneable, Comparable<Vector2D> {
     * @return A new vector
     */
    public Vector2D multiply(Matrix3D matrix) {
-      return clone().multiply(matrix);
+      return new Vector2D(
+            x * matrix.getA() + y * matrix.getD() + matrix.getG(),
+            x * matrix.getB() + y * matrix.getE() + matrix.getH());
    }
 
    /**
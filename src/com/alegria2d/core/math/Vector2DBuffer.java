@@ -0,0 +1,539 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import static java.lang.Math.cos;
+import static java.lang.Math.sin;
+import java.util.Arrays;
+
+/**
+ * A growable list of 2D vectors, stored as two primitive arrays: one with all x coordinates and another with all y
+ * coordinates.
+ * <p>
+ * Storing thousands of positions or velocities as {@link Vector2D} objects costs an object header and a reference per
+ * vector, and scatters them in the heap. This class keeps the coordinates contiguous, and offers the most common
+ * {@link Vector2D} operations as bulk operations, over the whole buffer or over a range of indexes:
+ * 
+ * <pre>
+ * positions.plusMe(velocities, elapsedSeconds); // positions += velocities * elapsedSeconds
+ * velocities.rotateMe(first, last, angle);
+ * </pre>
+ * 
+ * Single vectors are read and written with {@link #get(int, Vector2D)} and {@link #set(int, Vector2D)}, which don't
+ * allocate memory. The heaviest bulk operations run on the {@link MathKernels}, which may use SIMD instructions.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public final class Vector2DBuffer {
+   /**
+    * Capacity of buffers created with the default constructor.
+    */
+   public static final int DEFAULT_CAPACITY = 16;
+
+   private float[] x;
+   private float[] y;
+   private int size = 0;
+
+   /**
+    * Creates an empty buffer with the {@link #DEFAULT_CAPACITY default capacity}.
+    */
+   public Vector2DBuffer() {
+      this(DEFAULT_CAPACITY);
+   }
+
+   /**
+    * Creates an empty buffer.
+    * 
+    * @param capacity Number of vectors the buffer holds before growing.
+    * @throws IllegalArgumentException If the capacity is negative.
+    */
+   public Vector2DBuffer(int capacity) {
+      if (capacity < 0)
+         throw new IllegalArgumentException("Capacity can't be negative!");
+
+      x = new float[capacity];
+      y = new float[capacity];
+   }
+
+   /**
+    * @return Number of vectors in this buffer.
+    */
+   public int size() {
+      return size;
+   }
+
+   /**
+    * @return True if there are no vectors in this buffer.
+    */
+   public boolean isEmpty() {
+      return size == 0;
+   }
+
+   /**
+    * @return Number of vectors this buffer holds before growing.
+    */
+   public int capacity() {
+      return x.length;
+   }
+
+   /**
+    * Grows this buffer, if needed, so it can hold at least the given number of vectors.
+    * 
+    * @param capacity The minimum capacity.
+    */
+   public void ensureCapacity(int capacity) {
+      if (capacity <= x.length)
+         return;
+
+      int newCapacity = Math.max(capacity, x.length + (x.length >> 1) + 1);
+      x = Arrays.copyOf(x, newCapacity);
+      y = Arrays.copyOf(y, newCapacity);
+   }
+
+   /**
+    * Changes the number of vectors in this buffer. New vectors are zero vectors.
+    * 
+    * @param size The new size.
+    * @throws IllegalArgumentException If the size is negative.
+    */
+   public void setSize(int size) {
+      if (size < 0)
+         throw new IllegalArgumentException("Size can't be negative!");
+
+      ensureCapacity(size);
+      if (size > this.size) {
+         Arrays.fill(x, this.size, size, 0);
+         Arrays.fill(y, this.size, size, 0);
+      }
+      this.size = size;
+   }
+
+   /**
+    * Removes all vectors. The capacity is kept.
+    */
+   public void clear() {
+      size = 0;
+   }
+
+   /**
+    * Adds a vector at the end of this buffer.
+    * 
+    * @param vx The x coordinate.
+    * @param vy The y coordinate.
+    * @return The index of the new vector.
+    */
+   public int add(float vx, float vy) {
+      ensureCapacity(size + 1);
+      x[size] = vx;
+      y[size] = vy;
+      return size++;
+   }
+
+   /**
+    * Adds a copy of the given vector at the end of this buffer.
+    * 
+    * @param vector The vector to add.
+    * @return The index of the new vector.
+    */
+   public int add(Vector2D vector) {
+      return add(vector.getX(), vector.getY());
+   }
+
+   /**
+    * Removes the vector in the given index, replacing it by the last vector. This changes the order of the vectors, but
+    * takes constant time.
+    * 
+    * @param index The index of the vector to remove.
+    * @throws IndexOutOfBoundsException If the index is not valid.
+    */
+   public void removeFast(int index) {
+      checkIndex(index);
+      size--;
+      x[index] = x[size];
+      y[index] = y[size];
+   }
+
+   /**
+    * Copies the vector in the given index to the destination vector.
+    * 
+    * @param index The vector index.
+    * @param dest The destination vector.
+    * @return The destination vector.
+    * @throws IndexOutOfBoundsException If the index is not valid.
+    */
+   public Vector2D get(int index, Vector2D dest) {
+      checkIndex(index);
+      return dest.set(x[index], y[index]);
+   }
+
+   /**
+    * @param index The vector index.
+    * @return A new vector, with the same coordinates of the vector in the given index.
+    * @throws IndexOutOfBoundsException If the index is not valid.
+    */
+   public Vector2D get(int index) {
+      return get(index, new Vector2D());
+   }
+
+   /**
+    * @param index The vector index.
+    * @return The x coordinate of the vector in the given index.
+    * @throws IndexOutOfBoundsException If the index is not valid.
+    */
+   public float getX(int index) {
+      checkIndex(index);
+      return x[index];
+   }
+
+   /**
+    * @param index The vector index.
+    * @return The y coordinate of the vector in the given index.
+    * @throws IndexOutOfBoundsException If the index is not valid.
+    */
+   public float getY(int index) {
+      checkIndex(index);
+      return y[index];
+   }
+
+   /**
+    * Changes the vector in the given index.
+    * 
+    * @param index The vector index.
+    * @param vx The new x coordinate.
+    * @param vy The new y coordinate.
+    * @throws IndexOutOfBoundsException If the index is not valid.
+    */
+   public void set(int index, float vx, float vy) {
+      checkIndex(index);
+      x[index] = vx;
+      y[index] = vy;
+   }
+
+   /**
+    * Copies the given vector to the given index.
+    * 
+    * @param index The vector index.
+    * @param vector The vector to copy.
+    * @throws IndexOutOfBoundsException If the index is not valid.
+    */
+   public void set(int index, Vector2D vector) {
+      set(index, vector.getX(), vector.getY());
+   }
+
+   /**
+    * Returns the array with all x coordinates. Only the first {@link #size()} elements are valid, and the array is
+    * replaced when the buffer grows, so don't keep it after adding vectors.
+    * 
+    * @return The backing array of x coordinates.
+    */
+   public float[] getXs() {
+      return x;
+   }
+
+   /**
+    * Returns the array with all y coordinates. See {@link #getXs()}.
+    * 
+    * @return The backing array of y coordinates.
+    */
+   public float[] getYs() {
+      return y;
+   }
+
+   /**
+    * Adds the given vector to all vectors of this buffer.
+    * 
+    * @param vector The vector to add.
+    * @return This buffer.
+    */
+   public Vector2DBuffer plusMe(Vector2D vector) {
+      return plusMe(0, size, vector);
+   }
+
+   /**
+    * Adds the given vector to the vectors in the given range.
+    * 
+    * @param from The first index, inclusive.
+    * @param to The last index, exclusive.
+    * @param vector The vector to add.
+    * @return This buffer.
+    * @throws IndexOutOfBoundsException If the range is not valid.
+    */
+   public Vector2DBuffer plusMe(int from, int to, Vector2D vector) {
+      checkRange(from, to);
+      float vx = vector.getX();
+      float vy = vector.getY();
+      for (int i = from; i < to; i++) {
+         x[i] += vx;
+         y[i] += vy;
+      }
+      return this;
+   }
+
+   /**
+    * Adds each vector of the other buffer, multiplied by the given scale, to the vector in the same index of this
+    * buffer. Useful to integrate velocities over time.
+    * 
+    * @param other The buffer to add. It must be at least as large as this buffer.
+    * @param scale The scale applied to the other vectors.
+    * @return This buffer.
+    */
+   public Vector2DBuffer plusMe(Vector2DBuffer other, float scale) {
+      return plusMe(0, size, other, scale);
+   }
+
+   /**
+    * Adds each vector of the other buffer to the vector in the same index of this buffer.
+    * 
+    * @param other The buffer to add. It must be at least as large as this buffer.
+    * @return This buffer.
+    */
+   public Vector2DBuffer plusMe(Vector2DBuffer other) {
+      return plusMe(0, size, other, 1);
+   }
+
+   /**
+    * Adds each vector of the other buffer, multiplied by the given scale, to the vector in the same index of this
+    * buffer, in the given range.
+    * 
+    * @param from The first index, inclusive.
+    * @param to The last index, exclusive.
+    * @param other The buffer to add.
+    * @param scale The scale applied to the other vectors.
+    * @return This buffer.
+    * @throws IndexOutOfBoundsException If the range is not valid in any of the buffers.
+    */
+   public Vector2DBuffer plusMe(int from, int to, Vector2DBuffer other, float scale) {
+      checkRange(from, to);
+      other.checkRange(from, to);
+      float[] ox = other.x;
+      float[] oy = other.y;
+      for (int i = from; i < to; i++) {
+         x[i] += ox[i] * scale;
+         y[i] += oy[i] * scale;
+      }
+      return this;
+   }
+
+   /**
+    * Multiplies all vectors by the given scalar.
+    * 
+    * @param scalar The scalar.
+    * @return This buffer.
+    */
+   public Vector2DBuffer multiplyMe(float scalar) {
+      return multiplyMe(0, size, scalar);
+   }
+
+   /**
+    * Multiplies the vectors in the given range by the given scalar.
+    * 
+    * @param from The first index, inclusive.
+    * @param to The last index, exclusive.
+    * @param scalar The scalar.
+    * @return This buffer.
+    * @throws IndexOutOfBoundsException If the range is not valid.
+    */
+   public Vector2DBuffer multiplyMe(int from, int to, float scalar) {
+      checkRange(from, to);
+      for (int i = from; i < to; i++) {
+         x[i] *= scalar;
+         y[i] *= scalar;
+      }
+      return this;
+   }
+
+   /**
+    * Normalizes all vectors. As in {@link Vector2D#normalizeMe()}, zero vectors remain unchanged.
+    * 
+    * @return This buffer.
+    */
+   public Vector2DBuffer normalizeMe() {
+      return normalizeMe(0, size);
+   }
+
+   /**
+    * Normalizes the vectors in the given range. As in {@link Vector2D#normalizeMe()}, zero vectors remain unchanged.
+    * 
+    * @param from The first index, inclusive.
+    * @param to The last index, exclusive.
+    * @return This buffer.
+    * @throws IndexOutOfBoundsException If the range is not valid.
+    */
+   public Vector2DBuffer normalizeMe(int from, int to) {
+      checkRange(from, to);
+      MathKernels.getDefault().normalize(x, y, from, to);
+      return this;
+   }
+
+   /**
+    * Rotates all vectors. See {@link Vector2D#rotateMe(double)}.
+    * 
+    * @param angle The angle, in radians.
+    * @return This buffer.
+    */
+   public Vector2DBuffer rotateMe(double angle) {
+      return rotateMe(0, size, angle);
+   }
+
+   /**
+    * Rotates the vectors in the given range. See {@link Vector2D#rotateMe(double)}.
+    * 
+    * @param from The first index, inclusive.
+    * @param to The last index, exclusive.
+    * @param angle The angle, in radians.
+    * @return This buffer.
+    * @throws IndexOutOfBoundsException If the range is not valid.
+    */
+   public Vector2DBuffer rotateMe(int from, int to, double angle) {
+      checkRange(from, to);
+      float s = (float) sin(angle);
+      float c = (float) cos(angle);
+      for (int i = from; i < to; i++) {
+         float vx = x[i];
+         float vy = y[i];
+         x[i] = vx * c - vy * s;
+         y[i] = vx * s + vy * c;
+      }
+      return this;
+   }
+
+   /**
+    * Calculates the dot product between each vector and the given one. Unlike {@link Vector2D#dot(Vector2D)}, results
+    * are not clamped to the [-1, 1] interval.
+    * 
+    * @param vector The other vector.
+    * @param dest The array that receives the dot products. Its first element receives the dot product of the first
+    *           vector.
+    * @return The destination array.
+    */
+   public float[] dot(Vector2D vector, float[] dest) {
+      return dot(0, size, vector, dest, 0);
+   }
+
+   /**
+    * Calculates the dot product between each vector in the given range and the given one. See
+    * {@link #dot(Vector2D, float[])}.
+    * 
+    * @param from The first index, inclusive.
+    * @param to The last index, exclusive.
+    * @param vector The other vector.
+    * @param dest The array that receives the dot products.
+    * @param destOffset Index in the destination array that receives the dot product of the first vector in the range.
+    * @return The destination array.
+    * @throws IndexOutOfBoundsException If the range is not valid.
+    */
+   public float[] dot(int from, int to, Vector2D vector, float[] dest, int destOffset) {
+      checkRange(from, to);
+      MathKernels.getDefault().dot(x, y, from, to, vector.getX(), vector.getY(), dest, destOffset);
+      return dest;
+   }
+
+   /**
+    * Calculates the squared distance between each vector and the given point.
+    * 
+    * @param point The point.
+    * @param dest The array that receives the squared distances. Its first element receives the distance of the first
+    *           vector.
+    * @return The destination array.
+    * @see MathUtil#distanceSqr(Vector2D, Vector2D)
+    */
+   public float[] distanceSqr(Vector2D point, float[] dest) {
+      return distanceSqr(0, size, point, dest, 0);
+   }
+
+   /**
+    * Calculates the squared distance between each vector in the given range and the given point.
+    * 
+    * @param from The first index, inclusive.
+    * @param to The last index, exclusive.
+    * @param point The point.
+    * @param dest The array that receives the squared distances.
+    * @param destOffset Index in the destination array that receives the distance of the first vector in the range.
+    * @return The destination array.
+    * @throws IndexOutOfBoundsException If the range is not valid.
+    */
+   public float[] distanceSqr(int from, int to, Vector2D point, float[] dest, int destOffset) {
+      checkRange(from, to);
+      MathKernels.getDefault().distanceSqr(x, y, from, to, point.getX(), point.getY(), dest, destOffset);
+      return dest;
+   }
+
+   /**
+    * Transforms all vectors, as points, by the given transform.
+    * 
+    * @param transform The transform.
+    * @return This buffer.
+    * @see Affine2D#multiply(Vector2D)
+    */
+   public Vector2DBuffer transformMe(Affine2D transform) {
+      return transformMe(0, size, transform);
+   }
+
+   /**
+    * Transforms the vectors in the given range, as points, by the given transform.
+    * 
+    * @param from The first index, inclusive.
+    * @param to The last index, exclusive.
+    * @param transform The transform.
+    * @return This buffer.
+    * @throws IndexOutOfBoundsException If the range is not valid.
+    * @see Affine2D#multiply(Vector2D)
+    */
+   public Vector2DBuffer transformMe(int from, int to, Affine2D transform) {
+      checkRange(from, to);
+      MathKernels.getDefault().transform(transform.getA(), transform.getB(), transform.getC(),
+            transform.getD(), transform.getE(), transform.getF(), x, y, from, to);
+      return this;
+   }
+
+   /**
+    * Finds the vector closest to the given point.
+    * 
+    * @param point The point.
+    * @return The index of the closest vector, or -1 if this buffer is empty.
+    */
+   public int nearest(Vector2D point) {
+      float px = point.getX();
+      float py = point.getY();
+      int nearest = -1;
+      float best = Float.POSITIVE_INFINITY;
+      for (int i = 0; i < size; i++) {
+         float dx = x[i] - px;
+         float dy = y[i] - py;
+         float distance = dx * dx + dy * dy;
+         if (distance < best) {
+            best = distance;
+            nearest = i;
+         }
+      }
+      return nearest;
+   }
+
+   private void checkIndex(int index) {
+      if (index < 0 || index >= size)
+         throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+   }
+
+   private void checkRange(int from, int to) {
+      if (from < 0 || to > size || from > to)
+         throw new IndexOutOfBoundsException("Range: " + from + " to " + to + ", size: " + size);
+   }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.scene;
+
+import static java.lang.Math.cos;
+import static java.lang.Math.sin;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import com.alegria2d.core.math.Affine2D;
+import com.alegria2d.core.math.Matrix3D;
+import com.alegria2d.core.math.Vector2D;
+
+/**
+ * A node of a {@link TransformTree}. It holds a local translation, rotation and scale, relative to its parent, which
+ * are applied in the order of {@link Affine2D#setTRS(float, float, double, float, float)}: scale, then rotation, then
+ * translation.
+ * <p>
+ * Transforms are created by {@link TransformTree#newNode(Transform)}. Setting the local values only marks the transform
+ * as dirty; the world transform is recomputed by the tree when it is read, or in the next {@link TransformTree#update()}.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public final class Transform {
+   TransformTree tree;
+   Transform parent;
+   final List<Transform> children = new ArrayList<Transform>(0);
+
+   /**
+    * Index of this transform in the arrays of the tree.
+    */
+   int index;
+
+   /**
+    * True if the local values changed since the last update.
+    */
+   boolean localDirty;
+
+   private float x;
+   private float y;
+   private double angle;
+   private float scaleX = 1;
+   private float scaleY = 1;
+
+   Transform(TransformTree tree) {
+      this.tree = tree;
+   }
+
+   private TransformTree getTree() {
+      if (tree == null)
+         throw new IllegalStateException("This transform was removed from its tree!");
+      return tree;
+   }
+
+   /**
+    * Stores the local transform in the given array, as the first two rows of its matrix.
+    */
+   void computeLocal(float[] dest, int offset) {
+      float s = (float) sin(angle);
+      float c = (float) cos(angle);
+      dest[offset] = c * scaleX;
+      dest[offset + 1] = -s * scaleY;
+      dest[offset + 2] = x;
+      dest[offset + 3] = s * scaleX;
+      dest[offset + 4] = c * scaleY;
+      dest[offset + 5] = y;
+   }
+
+   /**
+    * @return The parent transform, or null if this is a root transform.
+    */
+   public Transform getParent() {
+      return parent;
+   }
+
+   /**
+    * Moves this transform, and all its descendants, to another parent. The world transforms of the whole tree are
+    * recomputed in the next update.
+    * 
+    * @param newParent The new parent, or null to turn this transform into a root.
+    * @throws IllegalArgumentException If the parent belongs to another tree, or is this transform or a descendant.
+    */
+   public void setParent(Transform newParent) {
+      TransformTree owner = getTree();
+      for (Transform ancestor = newParent; ancestor != null; ancestor = ancestor.parent)
+         if (ancestor == this)
+            throw new IllegalArgumentException("A transform can't be a child of itself or of its descendants!");
+
+      if (newParent != null)
+         owner.checkOwner(newParent);
+      owner.detach(this);
+      owner.attach(this, newParent);
+   }
+
+   /**
+    * @return The children of this transform. The list can't be changed.
+    */
+   public List<Transform> getChildren() {
+      return Collections.unmodifiableList(children);
+   }
+
+   /**
+    * Sets the local translation.
+    * 
+    * @param x The x translation.
+    * @param y The y translation.
+    * @return This transform.
+    */
+   public Transform setPosition(float x, float y) {
+      this.x = x;
+      this.y = y;
+      getTree().markDirty(this);
+      return this;
+   }
+
+   /**
+    * Sets the local rotation.
+    * 
+    * @param angle The angle, in radians. Positive angles rotate counterclockwise.
+    * @return This transform.
+    */
+   public Transform setRotation(double angle) {
+      this.angle = angle;
+      getTree().markDirty(this);
+      return this;
+   }
+
+   /**
+    * Sets the local scale.
+    * 
+    * @param scaleX The x scale.
+    * @param scaleY The y scale.
+    * @return This transform.
+    */
+   public Transform setScale(float scaleX, float scaleY) {
+      this.scaleX = scaleX;
+      this.scaleY = scaleY;
+      getTree().markDirty(this);
+      return this;
+   }
+
+   /**
+    * @return The local x translation.
+    */
+   public float getX() {
+      return x;
+   }
+
+   /**
+    * @return The local y translation.
+    */
+   public float getY() {
+      return y;
+   }
+
+   /**
+    * @return The local rotation, in radians.
+    */
+   public double getRotation() {
+      return angle;
+   }
+
+   /**
+    * @return The local x scale.
+    */
+   public float getScaleX() {
+      return scaleX;
+   }
+
+   /**
+    * @return The local y scale.
+    */
+   public float getScaleY() {
+      return scaleY;
+   }
+
+   /**
+    * @return The local transform, as a new Affine2D.
+    */
+   public Affine2D getLocal() {
+      return new Affine2D().setTRS(x, y, angle, scaleX, scaleY);
+   }
+
+   /**
+    * @return The offset of the world transform of this node, after updating the tree if needed.
+    */
+   private int updatedWorld() {
+      TransformTree owner = getTree();
+      if (owner.isDirty())
+         owner.update();
+      return index * TransformTree.STRIDE;
+   }
+
+   /**
+    * Copies the world transform to the destination. No memory is allocated.
+    * 
+    * @param dest The transform that will receive the world transform.
+    * @return The destination transform.
+    */
+   public Affine2D getWorld(Affine2D dest) {
+      int i = updatedWorld();
+      float[] w = tree.getWorldArray();
+      return dest.set(w[i], w[i + 1], w[i + 2], w[i + 3], w[i + 4], w[i + 5]);
+   }
+
+   /**
+    * @return The world transform, as a new Affine2D.
+    */
+   public Affine2D getWorld() {
+      return getWorld(new Affine2D());
+   }
+
+   /**
+    * Copies the world transform to the destination matrix. No memory is allocated.
+    * 
+    * @param dest The matrix that will receive the world transform.
+    * @return The destination matrix.
+    */
+   public Matrix3D getWorld(Matrix3D dest) {
+      int i = updatedWorld();
+      float[] w = tree.getWorldArray();
+      return dest.set(0, 0, w[i]).set(0, 1, w[i + 1]).set(0, 2, w[i + 2])
+                 .set(1, 0, w[i + 3]).set(1, 1, w[i + 4]).set(1, 2, w[i + 5])
+                 .set(2, 0, 0).set(2, 1, 0).set(2, 2, 1);
+   }
+
+   /**
+    * Transforms a point from the local coordinates of this transform to world coordinates. No memory is allocated.
+    * 
+    * @param point The point, in local coordinates.
+    * @param dest The vector that will receive the world point. It may be the given point.
+    * @return The destination vector.
+    */
+   public Vector2D toWorld(Vector2D point, Vector2D dest) {
+      int i = updatedWorld();
+      float[] w = tree.getWorldArray();
+      float px = point.getX();
+      float py = point.getY();
+      return dest.set(w[i] * px + w[i + 1] * py + w[i + 2], w[i + 3] * px + w[i + 4] * py + w[i + 5]);
+   }
+
+   /**
+    * @return The world x coordinate of the origin of this transform.
+    */
+   public float getWorldX() {
+      int i = updatedWorld();
+      return tree.getWorldArray()[i + 2];
+   }
+
+   /**
+    * @return The world y coordinate of the origin of this transform.
+    */
+   public float getWorldY() {
+      int i = updatedWorld();
+      return tree.getWorldArray()[i + 5];
+   }
+}
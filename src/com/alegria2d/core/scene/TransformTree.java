@@ -0,0 +1,428 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.scene;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import com.alegria2d.core.util.IntArrayList;
+
+/**
+ * A hierarchy of {@link Transform transforms}. Each transform has a local translation, rotation and scale, relative to
+ * its parent, and a world transform, which is the product of the local transforms of all its ancestors and its own.
+ * <p>
+ * The tree stores the transforms in depth first order, in flat arrays, so parents always come before their children
+ * and each subtree is a contiguous range of the arrays. World transforms are calculated lazily: changing a transform
+ * only marks it as dirty, and the next {@link #update()}, which is also called when a world transform is read,
+ * recomputes only the subtrees of the transforms that changed. Updating a tree where few transforms moved costs
+ * proportionally to the size of their subtrees, not to the size of the tree:
+ * 
+ * <pre>
+ * TransformTree tree = new TransformTree();
+ * Transform ship = tree.newNode();
+ * Transform cannon = tree.newNode(ship);
+ * cannon.setPosition(10, 0);
+ * ...
+ * ship.setRotation(angle);
+ * tree.update(); // Recomputes ship and cannon only
+ * Affine2D cannonWorld = cannon.getWorld(scratchTransform);
+ * </pre>
+ * 
+ * Adding, removing or moving transforms to other parents changes the order of the arrays, so the next update
+ * recomputes the whole tree.
+ * <p>
+ * Large updates may be split among several threads, with {@link #setParallelism(int)}. Since a subtree range only
+ * depends on its root's parent, the changed ranges are cut in independent subtrees of at most {@link #PARALLEL_GRAIN}
+ * transforms, which are recomputed on a {@link ForkJoinPool}. The ancestors of those subtrees are recomputed first, in
+ * the calling thread. Every transform is still recomputed by a single thread, with the same operations, so the results
+ * are exactly the same of the serial update. Call {@link #dispose()} to stop the threads when the tree is no longer
+ * used. This class is not thread safe: the tree must not be changed or read during an update.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class TransformTree {
+   /**
+    * Number of floats in each transform: the first two rows of the matrix.
+    */
+   static final int STRIDE = 6;
+
+   /**
+    * Maximum number of transforms recomputed by a single parallel task. Updates smaller than this are done in the
+    * calling thread, since waking the pool would cost more than the update itself.
+    */
+   public static final int PARALLEL_GRAIN = 2048;
+
+   private final List<Transform> roots = new ArrayList<Transform>();
+   private int size;
+
+   private Transform[] nodes = new Transform[0];
+   private int[] parents = new int[0];
+   private int[] ends = new int[0];
+   private float[] local = new float[0];
+   private float[] world = new float[0];
+
+   private final IntArrayList dirty = new IntArrayList();
+   private boolean structureChanged;
+   private int lastUpdateCount;
+
+   /**
+    * Start of the subtree ranges recomputed by the current update. Each range ends at the end of its start's subtree.
+    */
+   private final IntArrayList ranges = new IntArrayList();
+   private final IntArrayList taskRanges = new IntArrayList();
+
+   private int parallelism = 1;
+   private ForkJoinPool pool = null;
+
+   /**
+    * Creates a new root transform, with no translation, rotation or scale.
+    * 
+    * @return The new transform.
+    */
+   public Transform newNode() {
+      return newNode(null);
+   }
+
+   /**
+    * Creates a new transform, with no translation, rotation or scale.
+    * 
+    * @param parent The parent of the new transform, or null for a root transform.
+    * @return The new transform.
+    * @throws IllegalArgumentException If the parent belongs to another tree.
+    */
+   public Transform newNode(Transform parent) {
+      if (parent != null)
+         checkOwner(parent);
+
+      Transform node = new Transform(this);
+      size++;
+      attach(node, parent);
+      return node;
+   }
+
+   /**
+    * Removes the transform and all its descendants from this tree. They can't be used anymore.
+    * 
+    * @param node The transform to remove.
+    * @throws IllegalArgumentException If the transform does not belong to this tree.
+    */
+   public void remove(Transform node) {
+      checkOwner(node);
+      detach(node);
+
+      List<Transform> stack = new ArrayList<Transform>();
+      stack.add(node);
+      while (!stack.isEmpty()) {
+         Transform removed = stack.remove(stack.size() - 1);
+         removed.tree = null;
+         stack.addAll(removed.children);
+         size--;
+      }
+   }
+
+   /**
+    * @return The number of transforms in this tree.
+    */
+   public int size() {
+      return size;
+   }
+
+   /**
+    * @return The root transforms of this tree. The list must not be changed.
+    */
+   public List<Transform> getRoots() {
+      return roots;
+   }
+
+   /**
+    * @return The number of world transforms recomputed by the last update.
+    */
+   public int getLastUpdateCount() {
+      return lastUpdateCount;
+   }
+
+   /**
+    * Changes the number of threads used to recompute large updates. With 1, the default, updates are done in the
+    * calling thread.
+    * 
+    * @param parallelism The number of threads.
+    * @throws IllegalArgumentException If parallelism is not positive.
+    */
+   public void setParallelism(int parallelism) {
+      if (parallelism < 1)
+         throw new IllegalArgumentException("Parallelism must be positive!");
+
+      if (parallelism != this.parallelism)
+         dispose();
+      this.parallelism = parallelism;
+   }
+
+   /**
+    * @return The number of threads used to recompute large updates.
+    */
+   public int getParallelism() {
+      return parallelism;
+   }
+
+   /**
+    * Stops the update threads, if any. They are started again by the next large update.
+    */
+   public void dispose() {
+      if (pool != null)
+         pool.shutdown();
+      pool = null;
+   }
+
+   /**
+    * @return True if some world transform must be recomputed.
+    */
+   public boolean isDirty() {
+      return structureChanged || !dirty.isEmpty();
+   }
+
+   /**
+    * Recomputes the world transforms of the transforms that changed since the last update, and of their descendants.
+    * Called automatically when a world transform is read.
+    */
+   public void update() {
+      lastUpdateCount = 0;
+      ranges.clear();
+      if (structureChanged) {
+         rebuild();
+         for (int root = 0; root < size; root = ends[root])
+            ranges.add(root);
+         lastUpdateCount = size;
+      } else {
+         if (dirty.isEmpty())
+            return;
+
+         // Sorted, each dirty index is either the root of a new subtree range, or inside the last range found
+         dirty.sort();
+         int end = 0;
+         for (int i = 0; i < dirty.size(); i++) {
+            int index = dirty.get(i);
+            if (index < end)
+               continue;
+            end = ends[index];
+            ranges.add(index);
+            lastUpdateCount += end - index;
+         }
+      }
+      dirty.clear();
+      structureChanged = false;
+
+      if (parallelism == 1 || lastUpdateCount <= PARALLEL_GRAIN) {
+         for (int i = 0; i < ranges.size(); i++) {
+            int from = ranges.get(i);
+            updateRange(from, ends[from]);
+         }
+         return;
+      }
+
+      splitRanges();
+      if (pool == null)
+         pool = new ForkJoinPool(parallelism);
+      pool.invoke(new UpdateTask(taskRanges.getArray(), 0, taskRanges.size()));
+   }
+
+   /**
+    * Cuts the ranges of the update in subtrees of at most {@link #PARALLEL_GRAIN} transforms, walking them in depth
+    * first order. The roots of larger subtrees are recomputed along the way, so the parents of every task range are up
+    * to date before the tasks start.
+    */
+   private void splitRanges() {
+      taskRanges.clear();
+      for (int r = 0; r < ranges.size(); r++) {
+         int from = ranges.get(r);
+         int to = ends[from];
+         for (int i = from; i < to;) {
+            if (ends[i] - i <= PARALLEL_GRAIN) {
+               taskRanges.add(i);
+               i = ends[i];
+            } else {
+               updateRange(i, i + 1);
+               i++;
+            }
+         }
+      }
+   }
+
+   /**
+    * Recomputes the world transforms of a range of the arrays. The parents of the range, if any, must be up to date.
+    * 
+    * @return The number of transforms updated.
+    */
+   int updateRange(int from, int to) {
+      for (int i = from; i < to; i++) {
+         Transform node = nodes[i];
+         if (node.localDirty) {
+            node.computeLocal(local, i * STRIDE);
+            node.localDirty = false;
+         }
+
+         int parent = parents[i];
+         if (parent < 0)
+            System.arraycopy(local, i * STRIDE, world, i * STRIDE, STRIDE);
+         else
+            multiply(world, parent * STRIDE, local, i * STRIDE, world, i * STRIDE);
+      }
+      return to - from;
+   }
+
+   /**
+    * Multiplies two affine transforms, stored as 6 floats. The same product of {@link
+    * com.alegria2d.core.math.Affine2D#multiply(com.alegria2d.core.math.Affine2D)}.
+    */
+   private static void multiply(float[] p, int pi, float[] l, int li, float[] dest, int di) {
+      float a = p[pi], b = p[pi + 1], c = p[pi + 2];
+      float d = p[pi + 3], e = p[pi + 4], f = p[pi + 5];
+      float la = l[li], lb = l[li + 1], lc = l[li + 2];
+      float ld = l[li + 3], le = l[li + 4], lf = l[li + 5];
+
+      dest[di] = a * la + b * ld;
+      dest[di + 1] = a * lb + b * le;
+      dest[di + 2] = a * lc + b * lf + c;
+      dest[di + 3] = d * la + e * ld;
+      dest[di + 4] = d * lb + e * le;
+      dest[di + 5] = d * lc + e * lf + f;
+   }
+
+   /**
+    * Lays the transforms in depth first order, and marks all of them as dirty.
+    */
+   private void rebuild() {
+      if (nodes.length < size) {
+         int capacity = Math.max(size, nodes.length * 2);
+         nodes = new Transform[capacity];
+         parents = new int[capacity];
+         ends = new int[capacity];
+         local = new float[capacity * STRIDE];
+         world = new float[capacity * STRIDE];
+      } else
+         Arrays.fill(nodes, size, nodes.length, null);
+
+      // Iterative, so deep hierarchies do not overflow the stack
+      List<Transform> stack = new ArrayList<Transform>();
+      for (int r = roots.size() - 1; r >= 0; r--)
+         stack.add(roots.get(r));
+
+      int index = 0;
+      while (!stack.isEmpty()) {
+         Transform node = stack.remove(stack.size() - 1);
+         node.index = index;
+         node.localDirty = true;
+         nodes[index] = node;
+         parents[index] = node.parent == null ? -1 : node.parent.index;
+         ends[index] = 1;
+         index++;
+
+         for (int c = node.children.size() - 1; c >= 0; c--)
+            stack.add(node.children.get(c));
+      }
+
+      // Subtree sizes, accumulated from the leaves, become the end of each subtree range
+      for (int i = size - 1; i > 0; i--)
+         if (parents[i] >= 0)
+            ends[parents[i]] += ends[i];
+      for (int i = 0; i < size; i++)
+         ends[i] += i;
+   }
+
+   void checkOwner(Transform node) {
+      if (node.tree != this)
+         throw new IllegalArgumentException("The transform does not belong to this tree!");
+   }
+
+   /**
+    * Marks a transform whose local values changed.
+    */
+   void markDirty(Transform node) {
+      if (node.localDirty)
+         return;
+
+      node.localDirty = true;
+      if (!structureChanged)
+         dirty.add(node.index);
+   }
+
+   void attach(Transform node, Transform parent) {
+      if (parent == null)
+         roots.add(node);
+      else {
+         checkOwner(parent);
+         parent.children.add(node);
+      }
+      node.parent = parent;
+      node.localDirty = true;
+      structureChanged = true;
+   }
+
+   void detach(Transform node) {
+      if (node.parent == null)
+         roots.remove(node);
+      else
+         node.parent.children.remove(node);
+      node.parent = null;
+      structureChanged = true;
+   }
+
+   float[] getWorldArray() {
+      return world;
+   }
+
+   /**
+    * Recomputes a group of independent subtree ranges, splitting it in two groups of similar size until it holds at
+    * most {@link #PARALLEL_GRAIN} transforms, or a single range.
+    */
+   @SuppressWarnings("serial")
+   private final class UpdateTask extends RecursiveAction {
+      private final int[] starts;
+      private final int from;
+      private final int to;
+
+      UpdateTask(int[] starts, int from, int to) {
+         this.starts = starts;
+         this.from = from;
+         this.to = to;
+      }
+
+      @Override
+      protected void compute() {
+         int total = 0;
+         for (int i = from; i < to; i++)
+            total += ends[starts[i]] - starts[i];
+
+         if (to - from == 1 || total <= PARALLEL_GRAIN) {
+            for (int i = from; i < to; i++)
+               updateRange(starts[i], ends[starts[i]]);
+            return;
+         }
+
+         // Splits where half of the transforms are on each side, keeping at least one range in each task
+         int middle = from + 1;
+         for (int half = ends[starts[from]] - starts[from]; middle < to - 1 && half * 2 < total; middle++)
+            half += ends[starts[middle]] - starts[middle];
+         invokeAll(new UpdateTask(starts, from, middle), new UpdateTask(starts, middle, to));
+      }
+   }
+}
@@ -0,0 +1,4 @@
+/**
+ * Provides the scene graph: hierarchies of transforms, whose world transforms are calculated from the local ones.
+ */
+package com.alegria2d.core.scene;
\ No newline at end of file
@@ -0,0 +1,293 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.util;
+
+import java.util.Arrays;
+import com.alegria2d.core.math.HashBuilder;
+
+/**
+ * A set of non negative ints, stored as bits of a long array. It is useful to mark entities, tiles or grid cells. The
+ * set grows when bits past its end are set, and is iterated without allocation:
+ * 
+ * <pre>
+ * for (int i = bits.nextSetBit(0); i != -1; i = bits.nextSetBit(i + 1))
+ *    process(i);
+ * </pre>
+ * 
+ * Unlike {@link java.util.BitSet}, it never shrinks and does not check the indexes of read operations beyond the sign:
+ * bits past the end are simply clear. This class is not thread safe.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class BitSet {
+   private long[] words;
+
+   /**
+    * Creates an empty set, with room for 64 bits.
+    */
+   public BitSet() {
+      this(64);
+   }
+
+   /**
+    * Creates an empty set, with room for the given number of bits.
+    * 
+    * @param bits The number of bits.
+    * @throws IllegalArgumentException If the number of bits is negative.
+    */
+   public BitSet(int bits) {
+      if (bits < 0)
+         throw new IllegalArgumentException("Number of bits must be positive!");
+      words = new long[(bits + 63) >>> 6];
+   }
+
+   private static void checkIndex(int index) {
+      if (index < 0)
+         throw new IndexOutOfBoundsException("Index: " + index);
+   }
+
+   private void ensureWords(int count) {
+      if (count > words.length)
+         words = Arrays.copyOf(words, Math.max(count, words.length * 2));
+   }
+
+   /**
+    * @param index The bit index.
+    * @return True if the bit is set.
+    * @throws IndexOutOfBoundsException If the index is negative.
+    */
+   public boolean get(int index) {
+      checkIndex(index);
+      int word = index >>> 6;
+      return word < words.length && (words[word] & (1L << index)) != 0;
+   }
+
+   /**
+    * Sets the bit.
+    * 
+    * @param index The bit index.
+    * @throws IndexOutOfBoundsException If the index is negative.
+    */
+   public void set(int index) {
+      checkIndex(index);
+      int word = index >>> 6;
+      ensureWords(word + 1);
+      words[word] |= 1L << index;
+   }
+
+   /**
+    * Sets or clears the bit.
+    * 
+    * @param index The bit index.
+    * @param value True to set the bit, false to clear it.
+    * @throws IndexOutOfBoundsException If the index is negative.
+    */
+   public void set(int index, boolean value) {
+      if (value)
+         set(index);
+      else
+         clear(index);
+   }
+
+   /**
+    * Clears the bit.
+    * 
+    * @param index The bit index.
+    * @throws IndexOutOfBoundsException If the index is negative.
+    */
+   public void clear(int index) {
+      checkIndex(index);
+      int word = index >>> 6;
+      if (word < words.length)
+         words[word] &= ~(1L << index);
+   }
+
+   /**
+    * Flips the bit.
+    * 
+    * @param index The bit index.
+    * @throws IndexOutOfBoundsException If the index is negative.
+    */
+   public void flip(int index) {
+      checkIndex(index);
+      int word = index >>> 6;
+      ensureWords(word + 1);
+      words[word] ^= 1L << index;
+   }
+
+   /**
+    * Clears all bits. The set keeps its capacity.
+    */
+   public void clear() {
+      Arrays.fill(words, 0);
+   }
+
+   /**
+    * @param from The first index to check.
+    * @return The index of the first set bit at or after the given index, or -1 if there is none.
+    * @throws IndexOutOfBoundsException If the index is negative.
+    */
+   public int nextSetBit(int from) {
+      checkIndex(from);
+      int word = from >>> 6;
+      if (word >= words.length)
+         return -1;
+
+      long bits = words[word] & (-1L << from);
+      while (bits == 0) {
+         if (++word == words.length)
+            return -1;
+         bits = words[word];
+      }
+      return (word << 6) + Long.numberOfTrailingZeros(bits);
+   }
+
+   /**
+    * @param from The first index to check.
+    * @return The index of the first clear bit at or after the given index.
+    * @throws IndexOutOfBoundsException If the index is negative.
+    */
+   public int nextClearBit(int from) {
+      checkIndex(from);
+      int word = from >>> 6;
+      if (word >= words.length)
+         return from;
+
+      long bits = ~words[word] & (-1L << from);
+      while (bits == 0) {
+         if (++word == words.length)
+            return word << 6;
+         bits = ~words[word];
+      }
+      return (word << 6) + Long.numberOfTrailingZeros(bits);
+   }
+
+   /**
+    * @return The number of set bits.
+    */
+   public int cardinality() {
+      int count = 0;
+      for (long word : words)
+         count += Long.bitCount(word);
+      return count;
+   }
+
+   /**
+    * @return True if no bit is set.
+    */
+   public boolean isEmpty() {
+      for (long word : words)
+         if (word != 0)
+            return false;
+      return true;
+   }
+
+   /**
+    * Keeps only the bits that are also set in the other set.
+    * 
+    * @param other The other set.
+    * @return This set.
+    */
+   public BitSet and(BitSet other) {
+      int common = Math.min(words.length, other.words.length);
+      for (int i = 0; i < common; i++)
+         words[i] &= other.words[i];
+      Arrays.fill(words, common, words.length, 0);
+      return this;
+   }
+
+   /**
+    * Sets the bits that are set in the other set.
+    * 
+    * @param other The other set.
+    * @return This set.
+    */
+   public BitSet or(BitSet other) {
+      ensureWords(other.words.length);
+      for (int i = 0; i < other.words.length; i++)
+         words[i] |= other.words[i];
+      return this;
+   }
+
+   /**
+    * Clears the bits that are set in the other set.
+    * 
+    * @param other The other set.
+    * @return This set.
+    */
+   public BitSet andNot(BitSet other) {
+      int common = Math.min(words.length, other.words.length);
+      for (int i = 0; i < common; i++)
+         words[i] &= ~other.words[i];
+      return this;
+   }
+
+   /**
+    * @return The number of bits the set holds without growing.
+    */
+   public int capacity() {
+      return words.length << 6;
+   }
+
+   /**
+    * Two sets are equal if they have the same set bits, whatever their capacity.
+    */
+   @Override
+   public boolean equals(Object obj) {
+      if (obj == null || obj.getClass() != getClass())
+         return false;
+
+      if (obj == this)
+         return true;
+
+      BitSet other = (BitSet) obj;
+      int common = Math.min(words.length, other.words.length);
+      for (int i = 0; i < common; i++)
+         if (words[i] != other.words[i])
+            return false;
+      for (int i = common; i < words.length; i++)
+         if (words[i] != 0)
+            return false;
+      for (int i = common; i < other.words.length; i++)
+         if (other.words[i] != 0)
+            return false;
+      return true;
+   }
+
+   @Override
+   public int hashCode() {
+      int last = words.length;
+      while (last > 0 && words[last - 1] == 0)
+         last--;
+      return new HashBuilder().add(words, 0, last).hashCode();
+   }
+
+   @Override
+   public String toString() {
+      StringBuilder sb = new StringBuilder("{");
+      for (int i = nextSetBit(0); i != -1; i = nextSetBit(i + 1)) {
+         if (sb.length() > 1)
+            sb.append(", ");
+         sb.append(i);
+      }
+      return sb.append("}").toString();
+   }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.util;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An input stream that reads straight from a {@link ByteBuffer}, heap or direct, without copying it to an array first.
+ * <p>
+ * The stream reads from the buffer position to its limit, but it works over a duplicate, so the position of the given
+ * buffer is never changed. Marks are supported.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class ByteBufferInputStream extends InputStream {
+   private ByteBuffer buffer;
+
+   /**
+    * Creates a stream over the remaining bytes of a buffer.
+    * 
+    * @param buffer The buffer to read.
+    */
+   public ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer.duplicate();
+   }
+
+   @Override
+   public int read() {
+      if (!buffer.hasRemaining())
+         return -1;
+      return buffer.get() & 0xFF;
+   }
+
+   @Override
+   public int read(byte[] b, int off, int len) {
+      if (off < 0 || len < 0 || len > b.length - off)
+         throw new IndexOutOfBoundsException();
+      if (len == 0)
+         return 0;
+      if (!buffer.hasRemaining())
+         return -1;
+
+      len = Math.min(len, buffer.remaining());
+      buffer.get(b, off, len);
+      return len;
+   }
+
+   @Override
+   public long skip(long n) {
+      if (n <= 0)
+         return 0;
+
+      int skipped = (int) Math.min(n, buffer.remaining());
+      buffer.position(buffer.position() + skipped);
+      return skipped;
+   }
+
+   @Override
+   public int available() {
+      return buffer.remaining();
+   }
+
+   @Override
+   public boolean markSupported() {
+      return true;
+   }
+
+   @Override
+   public synchronized void mark(int readlimit) {
+      buffer.mark();
+   }
+
+   @Override
+   public synchronized void reset() {
+      buffer.reset();
+   }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.util;
+
+import java.util.Arrays;
+import com.alegria2d.core.math.HashBuilder;
+
+/**
+ * A growable list of floats, that does not box its elements. It is iterated by index, which allocates nothing:
+ * 
+ * <pre>
+ * for (int i = 0; i &lt; list.size(); i++)
+ *    process(list.get(i));
+ * </pre>
+ * 
+ * The backing array is also available through {@link #getArray()}, for bulk operations. This class is not thread safe.
+ * 
+ * @author Vinicius G. Mendonca
+ * @see IntArrayList
+ */
+public class FloatArrayList {
+   private float[] data;
+   private int size;
+
+   /**
+    * Creates an empty list, with room for 16 elements.
+    */
+   public FloatArrayList() {
+      this(16);
+   }
+
+   /**
+    * Creates an empty list with the given capacity.
+    * 
+    * @param capacity Number of elements the list holds without growing.
+    * @throws IllegalArgumentException If the capacity is negative.
+    */
+   public FloatArrayList(int capacity) {
+      if (capacity < 0)
+         throw new IllegalArgumentException("Capacity must be positive!");
+      data = new float[capacity];
+   }
+
+   private void checkIndex(int index) {
+      if (index < 0 || index >= size)
+         throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+   }
+
+   /**
+    * Makes sure the list holds the given number of elements without growing.
+    * 
+    * @param capacity The minimum capacity.
+    */
+   public void ensureCapacity(int capacity) {
+      if (capacity > data.length)
+         data = Arrays.copyOf(data, Math.max(capacity, data.length + (data.length >> 1) + 1));
+   }
+
+   /**
+    * Adds the value to the end of the list.
+    * 
+    * @param value The value to add.
+    * @return This list.
+    */
+   public FloatArrayList add(float value) {
+      if (size == data.length)
+         ensureCapacity(size + 1);
+      data[size++] = value;
+      return this;
+   }
+
+   /**
+    * Adds a range of an array to the end of the list.
+    * 
+    * @param values The array of values to add.
+    * @param offset Index of the first value.
+    * @param length Number of values to add.
+    * @return This list.
+    * @throws IndexOutOfBoundsException If the range is outside the array.
+    */
+   public FloatArrayList addAll(float[] values, int offset, int length) {
+      if (offset < 0 || length < 0 || offset + length > values.length)
+         throw new IndexOutOfBoundsException("Offset: " + offset + ", length: " + length);
+
+      ensureCapacity(size + length);
+      System.arraycopy(values, offset, data, size, length);
+      size += length;
+      return this;
+   }
+
+   /**
+    * @param index The element index.
+    * @return The element value.
+    * @throws IndexOutOfBoundsException If the index is outside the list.
+    */
+   public float get(int index) {
+      checkIndex(index);
+      return data[index];
+   }
+
+   /**
+    * @param index The element index.
+    * @param value The new value.
+    * @return The old value.
+    * @throws IndexOutOfBoundsException If the index is outside the list.
+    */
+   public float set(int index, float value) {
+      checkIndex(index);
+      float old = data[index];
+      data[index] = value;
+      return old;
+   }
+
+   /**
+    * Removes the element in the given index, shifting the next elements.
+    * 
+    * @param index The element index.
+    * @return The removed value.
+    * @throws IndexOutOfBoundsException If the index is outside the list.
+    */
+   public float removeAt(int index) {
+      checkIndex(index);
+      float old = data[index];
+      System.arraycopy(data, index + 1, data, index, size - index - 1);
+      size--;
+      return old;
+   }
+
+   /**
+    * Removes the element in the given index, replacing it with the last one. Faster than {@link #removeAt(int)}, but
+    * changes the order of the elements.
+    * 
+    * @param index The element index.
+    * @return The removed value.
+    * @throws IndexOutOfBoundsException If the index is outside the list.
+    */
+   public float removeFast(int index) {
+      checkIndex(index);
+      float old = data[index];
+      data[index] = data[--size];
+      return old;
+   }
+
+   /**
+    * Removes the last element.
+    * 
+    * @return The removed value.
+    * @throws IndexOutOfBoundsException If the list is empty.
+    */
+   public float removeLast() {
+      checkIndex(size - 1);
+      return data[--size];
+   }
+
+   /**
+    * @param value The value to search.
+    * @return The index of the first element equal to the value, with the == operator, or -1 if there is none.
+    */
+   public int indexOf(float value) {
+      for (int i = 0; i < size; i++)
+         if (data[i] == value)
+            return i;
+      return -1;
+   }
+
+   /**
+    * @param value The value to search.
+    * @return True if the list contains the value.
+    */
+   public boolean contains(float value) {
+      return indexOf(value) != -1;
+   }
+
+   /**
+    * Sorts the elements in ascending order.
+    */
+   public void sort() {
+      Arrays.sort(data, 0, size);
+   }
+
+   /**
+    * @return The number of elements.
+    */
+   public int size() {
+      return size;
+   }
+
+   /**
+    * @return True if the list has no elements.
+    */
+   public boolean isEmpty() {
+      return size == 0;
+   }
+
+   /**
+    * Removes all elements. The list keeps its capacity.
+    */
+   public void clear() {
+      size = 0;
+   }
+
+   /**
+    * @return The backing array. Only the first {@link #size()} elements are valid, and the array is replaced when the
+    *         list grows.
+    */
+   public float[] getArray() {
+      return data;
+   }
+
+   /**
+    * @return A new array, with the elements of this list.
+    */
+   public float[] toArray() {
+      return Arrays.copyOf(data, size);
+   }
+
+   @Override
+   public boolean equals(Object obj) {
+      if (obj == null || obj.getClass() != getClass())
+         return false;
+
+      if (obj == this)
+         return true;
+
+      FloatArrayList other = (FloatArrayList) obj;
+      if (size != other.size)
+         return false;
+
+      for (int i = 0; i < size; i++)
+         if (Float.floatToIntBits(data[i]) != Float.floatToIntBits(other.data[i]))
+            return false;
+      return true;
+   }
+
+   @Override
+   public int hashCode() {
+      return new HashBuilder().add(data, 0, size).hashCode();
+   }
+
+   @Override
+   public String toString() {
+      StringBuilder sb = new StringBuilder("[");
+      for (int i = 0; i < size; i++) {
+         if (i > 0)
+            sb.append(", ");
+         sb.append(data[i]);
+      }
+      return sb.append("]").toString();
+   }
+}
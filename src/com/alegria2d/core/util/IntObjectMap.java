@@ -0,0 +1,299 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.util;
+
+import java.util.Arrays;
+import com.alegria2d.core.math.HashBuilder;
+
+/**
+ * A map from int keys to objects, that does not box its keys. The entries are stored in two parallel arrays, with open
+ * addressing and linear probing, so lookups touch few cache lines and no entry objects are created.
+ * <p>
+ * The map is iterated through its slots, which allocates nothing:
+ * 
+ * <pre>
+ * for (int slot = map.nextSlot(-1); slot != -1; slot = map.nextSlot(slot))
+ *    process(map.keyAt(slot), map.valueAt(slot));
+ * </pre>
+ * 
+ * Null values are not allowed, so {@link #get(int)} returns null only for missing keys. This class is not thread safe.
+ * 
+ * @param <V> The type of the values.
+ * @author Vinicius G. Mendonca
+ */
+public class IntObjectMap<V> {
+   /**
+    * The maximum fraction of the table that may be used, before it grows.
+    */
+   public static final float LOAD_FACTOR = 0.75f;
+
+   private int[] keys;
+   private Object[] values;
+   private int mask;
+   private int maxSize;
+   private int size;
+
+   /**
+    * Key 0 marks the free slots, so its value is stored apart, in the extra slot at the end of the values array.
+    */
+   private boolean hasZeroKey;
+
+   /**
+    * Creates an empty map, with room for 16 entries.
+    */
+   public IntObjectMap() {
+      this(16);
+   }
+
+   /**
+    * Creates an empty map that holds the given number of entries without growing.
+    * 
+    * @param expectedSize The expected number of entries.
+    * @throws IllegalArgumentException If the expected size is negative.
+    */
+   public IntObjectMap(int expectedSize) {
+      if (expectedSize < 0)
+         throw new IllegalArgumentException("Expected size must be positive!");
+
+      allocate(tableSize(expectedSize));
+   }
+
+   /**
+    * @return The smallest power of two table that holds the given number of entries.
+    */
+   static int tableSize(int expectedSize) {
+      int capacity = 4;
+      while (capacity * LOAD_FACTOR < expectedSize && capacity < 1 << 30)
+         capacity <<= 1;
+      return capacity;
+   }
+
+   private void allocate(int capacity) {
+      keys = new int[capacity];
+      values = new Object[capacity + 1];
+      mask = capacity - 1;
+      maxSize = (int) (capacity * LOAD_FACTOR);
+   }
+
+   private int slot(int key) {
+      return HashBuilder.mix(key) & mask;
+   }
+
+   /**
+    * @return The slot with the given key, or -1 if the key is not in the map.
+    */
+   private int find(int key) {
+      if (key == 0)
+         return hasZeroKey ? keys.length : -1;
+
+      for (int i = slot(key);; i = (i + 1) & mask) {
+         int k = keys[i];
+         if (k == key)
+            return i;
+         if (k == 0)
+            return -1;
+      }
+   }
+
+   /**
+    * @param key The key to search.
+    * @return The value associated with the key, or null if the key is not in the map.
+    */
+   @SuppressWarnings("unchecked")
+   public V get(int key) {
+      int slot = find(key);
+      return slot == -1 ? null : (V) values[slot];
+   }
+
+   /**
+    * @param key The key to search.
+    * @return True if the map contains the given key.
+    */
+   public boolean containsKey(int key) {
+      return find(key) != -1;
+   }
+
+   /**
+    * Associates the value with the given key.
+    * 
+    * @param key The key.
+    * @param value The value. Can't be null.
+    * @return The previous value associated with the key, or null if there was none.
+    * @throws IllegalArgumentException If the value is null.
+    */
+   @SuppressWarnings("unchecked")
+   public V put(int key, V value) {
+      if (value == null)
+         throw new IllegalArgumentException("Value can't be null!");
+
+      if (key == 0) {
+         V old = (V) values[keys.length];
+         values[keys.length] = value;
+         if (!hasZeroKey) {
+            hasZeroKey = true;
+            size++;
+         }
+         return old;
+      }
+
+      int i = slot(key);
+      for (; keys[i] != 0; i = (i + 1) & mask)
+         if (keys[i] == key) {
+            V old = (V) values[i];
+            values[i] = value;
+            return old;
+         }
+
+      keys[i] = key;
+      values[i] = value;
+      if (++size > maxSize)
+         rehash(keys.length << 1);
+      return null;
+   }
+
+   /**
+    * Removes the given key from the map.
+    * 
+    * @param key The key to remove.
+    * @return The value that was associated with the key, or null if the key was not in the map.
+    */
+   @SuppressWarnings("unchecked")
+   public V remove(int key) {
+      int slot = find(key);
+      if (slot == -1)
+         return null;
+
+      V old = (V) values[slot];
+      values[slot] = null;
+      size--;
+      if (key == 0)
+         hasZeroKey = false;
+      else
+         shiftKeys(slot);
+      return old;
+   }
+
+   /**
+    * Closes the gap left by a removed entry, moving back the following entries of the same probe sequence. This keeps
+    * lookups correct without tombstones.
+    */
+   private void shiftKeys(int gap) {
+      for (int i = (gap + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+         int home = slot(keys[i]);
+         // Moves the entry if the gap is between its home slot and its current slot
+         if (((i - home) & mask) >= ((i - gap) & mask)) {
+            keys[gap] = keys[i];
+            values[gap] = values[i];
+            gap = i;
+         }
+      }
+      keys[gap] = 0;
+      values[gap] = null;
+   }
+
+   private void rehash(int capacity) {
+      int[] oldKeys = keys;
+      Object[] oldValues = values;
+      Object zeroValue = oldValues[oldKeys.length];
+
+      allocate(capacity);
+      values[capacity] = zeroValue;
+      for (int j = 0; j < oldKeys.length; j++) {
+         int key = oldKeys[j];
+         if (key == 0)
+            continue;
+
+         int i = slot(key);
+         while (keys[i] != 0)
+            i = (i + 1) & mask;
+         keys[i] = key;
+         values[i] = oldValues[j];
+      }
+   }
+
+   /**
+    * @return The number of entries in this map.
+    */
+   public int size() {
+      return size;
+   }
+
+   /**
+    * @return True if this map has no entries.
+    */
+   public boolean isEmpty() {
+      return size == 0;
+   }
+
+   /**
+    * Removes all entries. The table keeps its capacity.
+    */
+   public void clear() {
+      Arrays.fill(keys, 0);
+      Arrays.fill(values, null);
+      hasZeroKey = false;
+      size = 0;
+   }
+
+   /**
+    * Finds the next used slot, for iteration. The map must not be changed during the iteration, except by changing the
+    * values of existing keys.
+    * 
+    * @param slot The current slot, or -1 to find the first one.
+    * @return The next used slot, or -1 if there are no more entries.
+    */
+   public int nextSlot(int slot) {
+      for (int i = slot + 1; i < keys.length; i++)
+         if (keys[i] != 0)
+            return i;
+      return hasZeroKey && slot < keys.length ? keys.length : -1;
+   }
+
+   /**
+    * @param slot A slot returned by {@link #nextSlot(int)}.
+    * @return The key in the slot.
+    */
+   public int keyAt(int slot) {
+      return slot == keys.length ? 0 : keys[slot];
+   }
+
+   /**
+    * @param slot A slot returned by {@link #nextSlot(int)}.
+    * @return The value in the slot.
+    */
+   @SuppressWarnings("unchecked")
+   public V valueAt(int slot) {
+      return (V) values[slot];
+   }
+
+   /**
+    * Replaces the value in the given slot.
+    * 
+    * @param slot A slot returned by {@link #nextSlot(int)}.
+    * @param value The new value. Can't be null.
+    * @throws IllegalArgumentException If the value is null.
+    */
+   public void setValueAt(int slot, V value) {
+      if (value == null)
+         throw new IllegalArgumentException("Value can't be null!");
+      values[slot] = value;
+   }
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.util;
+
+import java.util.Arrays;
+import com.alegria2d.core.math.HashBuilder;
+
+/**
+ * A map from long keys to int values, that boxes nothing. It is useful for counters and indexes keyed by packed
+ * coordinates or ids, such as <code>(long) x &lt;&lt; 32 | y</code>. The entries are stored like in
+ * {@link IntObjectMap}, and iterated through its slots:
+ * 
+ * <pre>
+ * for (int slot = map.nextSlot(-1); slot != -1; slot = map.nextSlot(slot))
+ *    process(map.keyAt(slot), map.valueAt(slot));
+ * </pre>
+ * 
+ * Since any int may be a value, missing keys are detected with {@link #containsKey(long)} or with the default value of
+ * {@link #get(long, int)}. This class is not thread safe.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class LongIntMap {
+   private long[] keys;
+   private int[] values;
+   private int mask;
+   private int maxSize;
+   private int size;
+
+   /**
+    * Key 0 marks the free slots, so its value is stored apart, in the extra slot at the end of the values array.
+    */
+   private boolean hasZeroKey;
+
+   /**
+    * Creates an empty map, with room for 16 entries.
+    */
+   public LongIntMap() {
+      this(16);
+   }
+
+   /**
+    * Creates an empty map that holds the given number of entries without growing.
+    * 
+    * @param expectedSize The expected number of entries.
+    * @throws IllegalArgumentException If the expected size is negative.
+    */
+   public LongIntMap(int expectedSize) {
+      if (expectedSize < 0)
+         throw new IllegalArgumentException("Expected size must be positive!");
+
+      allocate(IntObjectMap.tableSize(expectedSize));
+   }
+
+   private void allocate(int capacity) {
+      keys = new long[capacity];
+      values = new int[capacity + 1];
+      mask = capacity - 1;
+      maxSize = (int) (capacity * IntObjectMap.LOAD_FACTOR);
+   }
+
+   private int slot(long key) {
+      return (int) HashBuilder.mix(key) & mask;
+   }
+
+   /**
+    * @return The slot with the given key, or -1 if the key is not in the map.
+    */
+   private int find(long key) {
+      if (key == 0)
+         return hasZeroKey ? keys.length : -1;
+
+      for (int i = slot(key);; i = (i + 1) & mask) {
+         long k = keys[i];
+         if (k == key)
+            return i;
+         if (k == 0)
+            return -1;
+      }
+   }
+
+   /**
+    * @param key The key to search.
+    * @param defaultValue The value to return if the key is not in the map.
+    * @return The value associated with the key, or the default value.
+    */
+   public int get(long key, int defaultValue) {
+      int slot = find(key);
+      return slot == -1 ? defaultValue : values[slot];
+   }
+
+   /**
+    * @param key The key to search.
+    * @return True if the map contains the given key.
+    */
+   public boolean containsKey(long key) {
+      return find(key) != -1;
+   }
+
+   /**
+    * Returns the slot of the key, inserting it with value 0 if it is not in the map.
+    */
+   private int insert(long key) {
+      if (key == 0) {
+         if (!hasZeroKey) {
+            hasZeroKey = true;
+            values[keys.length] = 0;
+            size++;
+         }
+         return keys.length;
+      }
+
+      int i = slot(key);
+      for (; keys[i] != 0; i = (i + 1) & mask)
+         if (keys[i] == key)
+            return i;
+
+      keys[i] = key;
+      values[i] = 0;
+      if (++size > maxSize) {
+         rehash(keys.length << 1);
+         return find(key);
+      }
+      return i;
+   }
+
+   /**
+    * Associates the value with the given key.
+    * 
+    * @param key The key.
+    * @param value The value.
+    * @return This map.
+    */
+   public LongIntMap put(long key, int value) {
+      int slot = insert(key);
+      values[slot] = value;
+      return this;
+   }
+
+   /**
+    * Adds the given amount to the value of the key. Missing keys are inserted with the amount as value.
+    * 
+    * @param key The key.
+    * @param amount The amount to add.
+    * @return The new value.
+    */
+   public int add(long key, int amount) {
+      int slot = insert(key);
+      return values[slot] += amount;
+   }
+
+   /**
+    * Removes the given key from the map.
+    * 
+    * @param key The key to remove.
+    * @return True if the key was in the map.
+    */
+   public boolean remove(long key) {
+      int slot = find(key);
+      if (slot == -1)
+         return false;
+
+      size--;
+      if (key == 0)
+         hasZeroKey = false;
+      else
+         shiftKeys(slot);
+      return true;
+   }
+
+   /**
+    * Closes the gap left by a removed entry. See {@link IntObjectMap}.
+    */
+   private void shiftKeys(int gap) {
+      for (int i = (gap + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+         int home = slot(keys[i]);
+         if (((i - home) & mask) >= ((i - gap) & mask)) {
+            keys[gap] = keys[i];
+            values[gap] = values[i];
+            gap = i;
+         }
+      }
+      keys[gap] = 0;
+   }
+
+   private void rehash(int capacity) {
+      long[] oldKeys = keys;
+      int[] oldValues = values;
+      int zeroValue = oldValues[oldKeys.length];
+
+      allocate(capacity);
+      values[capacity] = zeroValue;
+      for (int j = 0; j < oldKeys.length; j++) {
+         long key = oldKeys[j];
+         if (key == 0)
+            continue;
+
+         int i = slot(key);
+         while (keys[i] != 0)
+            i = (i + 1) & mask;
+         keys[i] = key;
+         values[i] = oldValues[j];
+      }
+   }
+
+   /**
+    * @return The number of entries in this map.
+    */
+   public int size() {
+      return size;
+   }
+
+   /**
+    * @return True if this map has no entries.
+    */
+   public boolean isEmpty() {
+      return size == 0;
+   }
+
+   /**
+    * Removes all entries. The table keeps its capacity.
+    */
+   public void clear() {
+      Arrays.fill(keys, 0);
+      hasZeroKey = false;
+      size = 0;
+   }
+
+   /**
+    * Finds the next used slot, for iteration. The map must not be changed during the iteration, except by changing the
+    * values of existing keys.
+    * 
+    * @param slot The current slot, or -1 to find the first one.
+    * @return The next used slot, or -1 if there are no more entries.
+    */
+   public int nextSlot(int slot) {
+      for (int i = slot + 1; i < keys.length; i++)
+         if (keys[i] != 0)
+            return i;
+      return hasZeroKey && slot < keys.length ? keys.length : -1;
+   }
+
+   /**
+    * @param slot A slot returned by {@link #nextSlot(int)}.
+    * @return The key in the slot.
+    */
+   public long keyAt(int slot) {
+      return slot == keys.length ? 0 : keys[slot];
+   }
+
+   /**
+    * @param slot A slot returned by {@link #nextSlot(int)}.
+    * @return The value in the slot.
+    */
+   public int valueAt(int slot) {
+      return values[slot];
+   }
+
+   /**
+    * Replaces the value in the given slot.
+    * 
+    * @param slot A slot returned by {@link #nextSlot(int)}.
+    * @param value The new value.
+    */
+   public void setValueAt(int slot, int value) {
+      values[slot] = value;
+   }
+}
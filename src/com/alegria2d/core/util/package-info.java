@@ -0,0 +1,4 @@
+/**
+ * Provides general purpose utility classes, including collections of primitive types that do not box their elements.
+ */
+package com.alegria2d.core.util;
\ No newline at end of file
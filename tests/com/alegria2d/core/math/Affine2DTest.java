@@ -0,0 +1,265 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for Affine2D. Most results are compared with the equivalent {@link Matrix3D} operations.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class Affine2DTest {
+   private static final float DELTA = 0.0001f;
+
+   private Affine2D transform;
+   private Affine2D other;
+
+   @Before
+   public void setup() {
+      transform = new Affine2D(1, 2, 3, 4, 5, 6);
+      other = new Affine2D(0.5f, -1, 10, 2, 0.25f, -20);
+   }
+
+   @Test
+   public void identity() {
+      Affine2D identity = new Affine2D();
+      assertEquals(Affine2D.newIdentity(), identity);
+      assertEquals(new Vector2D(3, 4), identity.multiply(new Vector2D(3, 4)));
+      assertEquals(Matrix3D.newIdentity(), identity.toMatrix3D());
+   }
+
+   @Test
+   public void matrixConversion() {
+      Matrix3D matrix = transform.toMatrix3D();
+      assertEquals(new Matrix3D(1, 2, 3, 4, 5, 6, 0, 0, 1), matrix);
+      assertEquals(transform, new Affine2D(matrix));
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void nonAffineMatrix() {
+      new Affine2D(new Matrix3D(1, 2, 3, 4, 5, 6, 7, 8, 9));
+   }
+
+   @Test
+   public void multiplyMatchesMatrix() {
+      Matrix3D expected = transform.toMatrix3D().multiply(other.toMatrix3D());
+      assertTrue(transform.multiply(other).toMatrix3D().similar(expected));
+   }
+
+   @Test
+   public void multiplyIntoOperands() {
+      Affine2D expected = transform.multiply(other);
+
+      Affine2D dest = new Affine2D();
+      assertSame(dest, transform.multiply(other, dest));
+      assertEquals(expected, dest);
+
+      Affine2D left = transform.clone();
+      assertSame(left, left.multiplyMe(other));
+      assertEquals(expected, left);
+
+      Affine2D right = other.clone();
+      transform.multiply(right, right);
+      assertEquals(expected, right);
+   }
+
+   @Test
+   public void inverse() {
+      Affine2D inverse = transform.inverse();
+      assertTrue(transform.multiply(inverse).similar(Affine2D.newIdentity()));
+      assertTrue(inverse.toMatrix3D().similar(transform.toMatrix3D().inverse()));
+
+      Affine2D copy = transform.clone();
+      assertSame(copy, copy.inverseMe());
+      assertEquals(inverse, copy);
+   }
+
+   @Test
+   public void isInvertible() {
+      assertTrue(transform.isInvertible());
+      assertFalse(new Affine2D(1, 2, 3, 2, 4, 6).isInvertible());
+      assertEquals(-3, transform.getDeterminant(), DELTA);
+   }
+
+   @Test
+   public void trsMatchesComposition() {
+      double angle = Math.toRadians(30);
+      Affine2D expected = Affine2D.newTranslation(10, 20)
+            .multiplyMe(Affine2D.newRotation(angle))
+            .multiplyMe(Affine2D.newScale(2, 3));
+
+      assertTrue(Affine2D.newTRS(10, 20, angle, 2, 3).similar(expected));
+      assertTrue(new Affine2D().translateMe(10, 20).rotateMe(angle).scaleMe(2, 3).similar(expected));
+   }
+
+   @Test
+   public void rotationIsCounterclockwise() {
+      Vector2D point = Affine2D.newRotation(Math.PI / 2).multiply(new Vector2D(1, 0));
+      assertTrue(point.similar(new Vector2D(0, 1)));
+      assertTrue(point.similar(new Vector2D(1, 0).rotate(Math.PI / 2)));
+   }
+
+   @Test
+   public void decompose() {
+      Affine2D trs = Affine2D.newTRS(-5, 7, Math.toRadians(120), 2, 0.5f);
+      assertEquals(-5, trs.getTranslationX(), DELTA);
+      assertEquals(7, trs.getTranslationY(), DELTA);
+      assertEquals(Math.toRadians(120), trs.getRotation(), DELTA);
+      assertEquals(2, trs.getScaleX(), DELTA);
+      assertEquals(0.5f, trs.getScaleY(), DELTA);
+
+      Affine2D mirrored = Affine2D.newTRS(0, 0, Math.toRadians(-45), 3, -4);
+      assertEquals(Math.toRadians(-45), mirrored.getRotation(), DELTA);
+      assertEquals(3, mirrored.getScaleX(), DELTA);
+      assertEquals(-4, mirrored.getScaleY(), DELTA);
+   }
+
+   @Test
+   public void multiplyVector() {
+      Vector2D point = new Vector2D(2, -3);
+      Vector2D expected = transform.toMatrix3D().multiply(point);
+      assertEquals(expected, transform.multiply(point));
+
+      assertSame(point, transform.multiply(point, point));
+      assertEquals(expected, point);
+   }
+
+   @Test
+   public void transformArray() {
+      Random random = new Random(7);
+      float[] points = new float[21];
+      for (int i = 0; i < points.length; i++)
+         points[i] = random.nextFloat() * 100 - 50;
+
+      float[] expected = new float[21];
+      for (int i = 0; i < 10; i++) {
+         Vector2D point = transform.multiply(new Vector2D(points[i * 2 + 1], points[i * 2 + 2]));
+         expected[i * 2 + 1] = point.getX();
+         expected[i * 2 + 2] = point.getY();
+      }
+
+      float[] dest = new float[21];
+      assertSame(dest, transform.transform(points, 1, dest, 1, 10));
+      assertArrayEquals(expected, dest, 0);
+
+      // In place
+      transform.transform(points, 1, points, 1, 10);
+      expected[0] = points[0];
+      assertArrayEquals(expected, points, 0);
+   }
+
+   @Test
+   public void transformWithStride() {
+      // x, y, r, g, b vertices, transformed into packed points
+      float[] vertices = { 1, 2, 0.5f, 0.5f, 0.5f, 3, 4, 0.5f, 0.5f, 0.5f, 5, 6, 0.5f, 0.5f, 0.5f };
+      float[] points = new float[8];
+
+      transform.transform(vertices, 0, 5, points, 2, 2, 3);
+      assertArrayEquals(new float[] { 0, 0, 8, 20, 14, 38, 20, 56 }, points, 0);
+
+      // In place, with the same stride
+      transform.transform(vertices, 0, 5, vertices, 0, 5, 3);
+      assertArrayEquals(new float[] { 8, 20, 0.5f, 0.5f, 0.5f, 14, 38, 0.5f, 0.5f, 0.5f, 20, 56, 0.5f, 0.5f, 0.5f },
+            vertices, 0);
+   }
+
+   @Test
+   public void transformBuffer() {
+      FloatBuffer src = ByteBuffer.allocateDirect(6 * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+      src.put(new float[] { 9, 9, 1, 2, 3, 4 });
+      FloatBuffer dest = FloatBuffer.allocate(4);
+
+      assertSame(dest, transform.transform(src, 2, 2, dest, 0, 2, 2));
+      assertEquals(6, src.position());
+      assertEquals(0, dest.position());
+      assertArrayEquals(new float[] { 8, 20, 14, 38 }, dest.array(), 0);
+   }
+
+   @Test
+   public void transformBufferSliceChecksItsLimit() {
+      float[] backing = new float[16];
+      FloatBuffer slice = FloatBuffer.wrap(backing, 4, 4).slice();
+      FloatBuffer src = FloatBuffer.wrap(new float[] { 1, 2, 3, 4 });
+
+      transform.transform(src, 0, 2, slice, 0, 2, 2);
+      try {
+         transform.transform(src, 0, 2, slice, 2, 2, 2);
+         fail("The points after the slice limit were written");
+      } catch (IndexOutOfBoundsException e) {
+         // Expected
+      }
+      try {
+         transform.transform(src, 0, 2, slice, -2, 2, 1);
+         fail("The points before the slice were written");
+      } catch (IndexOutOfBoundsException e) {
+         // Expected
+      }
+
+      for (int i = 0; i < backing.length; i++)
+         if (i < 4 || i >= 8)
+            assertEquals(0, backing[i], 0);
+   }
+
+   @Test
+   public void transformOverflowingRange() {
+      float[] points = { 1, 2, 3, 4 };
+      // count * stride overflows to a negative number
+      try {
+         transform.transform(points, 0, 4, points, 0, 2, Integer.MAX_VALUE / 2 + 1);
+         fail("An overflowing count was accepted");
+      } catch (IndexOutOfBoundsException e) {
+         // Expected
+      }
+      try {
+         transform.transform(FloatBuffer.wrap(points), 0, Integer.MAX_VALUE, FloatBuffer.allocate(4), 0, 2, 2);
+         fail("An overflowing stride was accepted");
+      } catch (IndexOutOfBoundsException e) {
+         // Expected
+      }
+      assertArrayEquals(new float[] { 1, 2, 3, 4 }, points, 0);
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void transformInvalidStride() {
+      transform.transform(new float[4], 0, 1, new float[4], 0, 2, 2);
+   }
+
+   @Test
+   public void equalsAndHashCode() {
+      Affine2D copy = new Affine2D(transform);
+      assertEquals(transform, copy);
+      assertEquals(transform.hashCode(), copy.hashCode());
+      assertFalse(transform.equals(other));
+      assertFalse(transform.equals(null));
+   }
+}
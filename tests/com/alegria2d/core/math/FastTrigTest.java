@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests the accuracy of the {@link FastTrig} approximations against the {@link Math} functions. Each test sweeps the
+ * whole domain, and checks the documented maximum error.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class FastTrigTest {
+   private static final int STEPS = 1000000;
+
+   @Test
+   public void sinCos() {
+      for (int i = 0; i <= STEPS; i++) {
+         float angle = -100 + 200f * i / STEPS;
+         assertEquals(Math.sin(angle), FastTrig.sin(angle), FastTrig.SIN_MAX_ERROR);
+         assertEquals(Math.cos(angle), FastTrig.cos(angle), FastTrig.SIN_MAX_ERROR);
+      }
+   }
+
+   @Test
+   public void atan2() {
+      for (int i = 0; i < STEPS; i++) {
+         double angle = 2 * Math.PI * i / STEPS;
+         float x = (float) Math.cos(angle) * (1 + i % 7);
+         float y = (float) Math.sin(angle) * (1 + i % 7);
+         assertEquals(Math.atan2(y, x), FastTrig.atan2(y, x), FastTrig.ATAN2_MAX_ERROR);
+      }
+
+      assertEquals(0, FastTrig.atan2(0, 0), 0);
+      assertEquals(Math.PI, FastTrig.atan2(0, -1), FastTrig.ATAN2_MAX_ERROR);
+      assertEquals(-Math.PI / 2, FastTrig.atan2(-1, 0), FastTrig.ATAN2_MAX_ERROR);
+   }
+
+   @Test
+   public void acos() {
+      for (int i = 0; i <= STEPS; i++) {
+         float value = -1 + 2f * i / STEPS;
+         assertEquals(Math.acos(value), FastTrig.acos(value), FastTrig.ACOS_MAX_ERROR);
+      }
+      assertEquals(0, FastTrig.acos(2), 0);
+   }
+
+   @Test
+   public void pseudoAngle() {
+      float last = -1;
+      for (int i = 0; i < 3600; i++) {
+         double angle = 2 * Math.PI * i / 3600;
+         float pseudo = FastTrig.pseudoAngle((float) Math.cos(angle) * 3, (float) Math.sin(angle) * 3);
+         assertTrue(pseudo > last);
+         assertTrue(pseudo < 4);
+         last = pseudo;
+      }
+
+      assertEquals(0, FastTrig.pseudoAngle(0, 0), 0);
+      assertEquals(1, FastTrig.pseudoAngle(0, 5), 0);
+      assertEquals(2, FastTrig.pseudoAngle(-5, 0), 0);
+      assertEquals(3, FastTrig.pseudoAngle(0, -5), 0);
+   }
+
+   @Test
+   public void vectorVariants() {
+      Vector2D v = new Vector2D(3, 4);
+      for (int i = -20; i <= 20; i++) {
+         float angle = i * 0.37f;
+         assertTrue(v.rotate(angle).similar(v.rotateFast(angle)));
+         assertTrue(Vector2D.createBySizeAngle(5, angle).similar(Vector2D.createBySizeAngleFast(5, angle)));
+
+         Vector2D rotated = v.rotate(angle);
+         assertEquals(rotated.getAngleX(), rotated.getAngleXFast(), FastTrig.ATAN2_MAX_ERROR);
+         assertEquals(MathUtil.angleBetween(v, rotated), MathUtil.angleBetweenFast(v, rotated), 0.0005f);
+      }
+   }
+}
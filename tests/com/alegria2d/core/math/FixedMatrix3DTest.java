@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import com.alegria2d.core.exception.DivideByZeroException;
+import org.junit.Test;
+
+/**
+ * Tests {@link FixedMatrix3D}, comparing its results with the ones of {@link Matrix3D}.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class FixedMatrix3DTest {
+   private static final float DELTA = 0.001f;
+
+   private final Matrix3D matrix = new Matrix3D(
+         1, 2, 3,
+         4, 5, 6,
+         7, 8, 10);
+
+   private final Matrix3D other = new Matrix3D(
+         1, 9, 2,
+         8, 3, 7,
+         4, 6, 5);
+
+   private static void assertMatrix(Matrix3D expected, FixedMatrix3D actual, float delta) {
+      for (int row = 0; row < 3; row++)
+         for (int col = 0; col < 3; col++)
+            assertEquals(expected.get(row, col), Fixed.toFloat(actual.get(row, col)), delta);
+   }
+
+   @Test
+   public void conversions() {
+      FixedMatrix3D fixed = new FixedMatrix3D(matrix);
+      assertEquals(Fixed.fromInt(2), fixed.getB());
+      assertEquals(Fixed.fromInt(10), fixed.getK());
+      assertEquals(matrix, fixed.toMatrix3D());
+      assertEquals(fixed, fixed.clone());
+      assertEquals(fixed.hashCode(), fixed.clone().hashCode());
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void constructorFewValues() {
+      new FixedMatrix3D(1, 2, 3);
+   }
+
+   @Test
+   public void arithmetic() {
+      FixedMatrix3D a = new FixedMatrix3D(matrix);
+      FixedMatrix3D b = new FixedMatrix3D(other);
+      assertMatrix(matrix.plus(other), a.plus(b), 0);
+      assertMatrix(matrix.minus(other), a.minus(b), 0);
+      assertMatrix(matrix.multiply(other), a.multiply(b), 0);
+      assertMatrix(matrix.multiply(0.5f), a.multiply(Fixed.HALF), 0);
+      assertMatrix(matrix.transpose(), a.transpose(), 0);
+      assertEquals(matrix.getDeterminant(), Fixed.toFloat(a.getDeterminant()), 0);
+
+      assertSame(a, a.multiplyMe(b));
+      assertMatrix(matrix.multiply(other), a, 0);
+      assertSame(b, b.transposeMe());
+      assertMatrix(other.transpose(), b, 0);
+   }
+
+   @Test
+   public void transforms() {
+      FixedMatrix3D transform = FixedMatrix3D.newTranslation(Fixed.fromInt(10), Fixed.fromInt(-5))
+            .multiplyMe(FixedMatrix3D.newRotation(Fixed.fromFloat(0.5f)))
+            .multiplyMe(FixedMatrix3D.newScale(Fixed.fromInt(2), Fixed.fromInt(3)));
+
+      // Scales, then rotates, then translates
+      Vector2D expected = new Vector2D(3 * 2, 4 * 3).rotate(0.5).plusMe(new Vector2D(10, -5));
+      FixedVector2D v = FixedVector2D.fromFloat(3, 4);
+      assertSame(v, transform.multiply(v, v));
+      assertEquals(expected.getX(), Fixed.toFloat(v.getX()), DELTA);
+      assertEquals(expected.getY(), Fixed.toFloat(v.getY()), DELTA);
+   }
+
+   @Test
+   public void inverse() {
+      FixedMatrix3D a = new FixedMatrix3D(matrix);
+      assertTrue(a.isInvertible());
+      assertMatrix(matrix.inverse(), a.inverse(), DELTA);
+      assertMatrix(Matrix3D.newIdentity(), a.multiply(a.inverse()), DELTA);
+
+      // Big translations do not overflow
+      FixedMatrix3D transform = FixedMatrix3D.newTranslation(Fixed.fromInt(20000), Fixed.fromInt(-10000))
+            .multiplyMe(FixedMatrix3D.newRotation(Fixed.fromFloat(1.2f)));
+      Matrix3D expected = transform.toMatrix3D().inverse();
+      assertSame(transform, transform.inverseMe());
+      assertMatrix(expected, transform, 0.01f);
+   }
+
+   @Test
+   public void inverseLargeScale() {
+      // Determinants of 32768 or more used to overflow the division
+      FixedMatrix3D transform = FixedMatrix3D.newTranslation(Fixed.fromInt(1001), Fixed.fromInt(1001))
+            .multiplyMe(FixedMatrix3D.newScale(Fixed.fromInt(400), Fixed.fromInt(400)));
+      FixedMatrix3D inverse = transform.inverse();
+      assertEquals(0.0025f, Fixed.toFloat(inverse.getA()), DELTA);
+      assertEquals(-2.5025f, Fixed.toFloat(inverse.getC()), DELTA);
+      assertEquals(-2.5025f, Fixed.toFloat(inverse.getF()), DELTA);
+      assertEquals(Fixed.ONE, inverse.getK());
+
+      // Minors this big used to overflow the determinant itself
+      Matrix3D huge = new Matrix3D(
+            30000, -30000, 0,
+            30000, 30000, 100,
+            0, 0, 30000);
+      FixedMatrix3D fixed = new FixedMatrix3D(huge);
+      assertTrue(fixed.isInvertible());
+      assertMatrix(huge.inverse(), fixed.inverse(), 0.0001f);
+   }
+
+   @Test
+   public void inverseTinyDeterminant() {
+      // The determinant rounds to 0 with 16 fractional bits, but the inversion uses 32
+      FixedMatrix3D scale = FixedMatrix3D.newScale(196, 196);
+      assertEquals(0, scale.getDeterminant());
+      assertTrue(scale.isInvertible());
+      assertEquals(Fixed.ONE / 196f, Fixed.toFloat(scale.inverse().getA()), 0.01f);
+   }
+
+   @Test(expected = DivideByZeroException.class)
+   public void inverseSingular() {
+      FixedMatrix3D singular = new FixedMatrix3D(new Matrix3D(1, 2, 3, 4, 5, 6, 7, 8, 9));
+      assertFalse(singular.isInvertible());
+      singular.inverse();
+   }
+}
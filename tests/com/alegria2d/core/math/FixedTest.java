@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import static org.junit.Assert.assertEquals;
+import com.alegria2d.core.exception.DivideByZeroException;
+import org.junit.Test;
+
+/**
+ * Tests {@link Fixed} arithmetic. The trigonometric functions are checked against {@link Math} over their whole domain,
+ * and against known values, which must be the same in every JVM.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class FixedTest {
+   private static final float DELTA = 1f / Fixed.ONE;
+
+   @Test
+   public void conversions() {
+      assertEquals(Fixed.ONE, Fixed.fromInt(1));
+      assertEquals(98304, Fixed.fromFloat(1.5f));
+      assertEquals(-98304, Fixed.fromDouble(-1.5));
+      assertEquals(1, Fixed.toInt(Fixed.fromFloat(1.99f)));
+      assertEquals(-2, Fixed.toInt(Fixed.fromFloat(-1.5f)));
+      assertEquals(0.25f, Fixed.toFloat(Fixed.fromFloat(0.25f)), 0);
+      assertEquals(Math.PI, Fixed.toDouble(Fixed.PI), DELTA);
+      assertEquals(Math.PI / 2, Fixed.toDouble(Fixed.HALF_PI), DELTA);
+      assertEquals(Math.PI * 2, Fixed.toDouble(Fixed.TWO_PI), DELTA);
+   }
+
+   @Test
+   public void mulDiv() {
+      assertEquals(Fixed.fromFloat(3.75f), Fixed.mul(Fixed.fromFloat(1.5f), Fixed.fromFloat(2.5f)));
+      assertEquals(Fixed.fromFloat(-3.75f), Fixed.mul(Fixed.fromFloat(-1.5f), Fixed.fromFloat(2.5f)));
+      assertEquals(39321, Fixed.div(Fixed.fromInt(3), Fixed.fromInt(5)));
+      assertEquals(-39321, Fixed.div(Fixed.fromInt(-3), Fixed.fromInt(5)));
+      assertEquals(Fixed.fromFloat(-4000f), Fixed.div(Fixed.fromInt(-1000), Fixed.fromFloat(0.25f)));
+   }
+
+   @Test(expected = DivideByZeroException.class)
+   public void divByZero() {
+      Fixed.div(Fixed.ONE, 0);
+   }
+
+   @Test
+   public void sqrt() {
+      assertEquals(Fixed.fromInt(3), Fixed.sqrt(Fixed.fromInt(9)));
+      assertEquals(Fixed.HALF, Fixed.sqrt(Fixed.fromFloat(0.25f)));
+      assertEquals(92681, Fixed.sqrt(Fixed.fromInt(2)));
+      assertEquals(0, Fixed.sqrt(0));
+      assertEquals(3037000499L, Fixed.sqrt(Long.MAX_VALUE));
+
+      for (long i = 0; i < 100000; i++) {
+         long value = i * i * 7919 + i;
+         long root = Fixed.sqrt(value);
+         assertEquals(true, root * root <= value && (root + 1) * (root + 1) > value);
+      }
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void sqrtNegative() {
+      Fixed.sqrt(-Fixed.ONE);
+   }
+
+   @Test
+   public void sinCos() {
+      for (int radians = -20 * Fixed.ONE; radians <= 20 * Fixed.ONE; radians += 3) {
+         double angle = Fixed.toDouble(radians);
+         assertEquals(Math.sin(angle), Fixed.toDouble(Fixed.sin(radians)), Fixed.SIN_MAX_ERROR);
+         assertEquals(Math.cos(angle), Fixed.toDouble(Fixed.cos(radians)), Fixed.SIN_MAX_ERROR);
+      }
+
+      // Known values, that must not change between JVMs
+      assertEquals(55146, Fixed.sin(Fixed.ONE));
+      assertEquals(0, Fixed.sin(0));
+      assertEquals(Fixed.ONE, Fixed.cos(0));
+   }
+
+   @Test
+   public void atan2() {
+      for (int i = 0; i < 1000000; i++) {
+         double angle = 2 * Math.PI * i / 1000000;
+         int x = Fixed.fromDouble(Math.cos(angle) * (1 + i % 7));
+         int y = Fixed.fromDouble(Math.sin(angle) * (1 + i % 7));
+         assertEquals(Math.atan2(y, x), Fixed.toDouble(Fixed.atan2(y, x)), Fixed.ATAN2_MAX_ERROR);
+      }
+
+      assertEquals(0, Fixed.atan2(0, 0));
+      assertEquals(51472, Fixed.atan2(Fixed.ONE, Fixed.ONE));
+      assertEquals(Fixed.PI, Fixed.atan2(0, -Fixed.ONE));
+      assertEquals(-Fixed.HALF_PI, Fixed.atan2(-Fixed.ONE, 0));
+   }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests {@link FixedVector2D}, comparing its results with the ones of {@link Vector2D}.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class FixedVector2DTest {
+   private static final float DELTA = 0.001f;
+
+   private static void assertVector(Vector2D expected, FixedVector2D actual) {
+      assertEquals(expected.getX(), Fixed.toFloat(actual.getX()), DELTA);
+      assertEquals(expected.getY(), Fixed.toFloat(actual.getY()), DELTA);
+   }
+
+   @Test
+   public void conversions() {
+      FixedVector2D v = FixedVector2D.fromFloat(1.5f, -2.25f);
+      assertEquals(98304, v.getX());
+      assertEquals(-147456, v.getY());
+      assertEquals(new Vector2D(1.5f, -2.25f), v.toVector2D());
+      assertEquals(v, new FixedVector2D(new Vector2D(1.5f, -2.25f)));
+   }
+
+   @Test
+   public void size() {
+      FixedVector2D v = FixedVector2D.fromFloat(3, 4);
+      assertEquals(Fixed.fromInt(5), v.getSize());
+      assertEquals(25L << Fixed.FRACTION_BITS, v.getSizeSqr());
+      assertVector(new Vector2D(0.6f, 0.8f), v.normalize());
+      assertVector(new Vector2D(6, 8), v.setSize(Fixed.fromInt(10)));
+      assertTrue(new FixedVector2D().normalizeMe().isZero());
+
+      // Big coordinates do not overflow
+      assertEquals(Fixed.fromInt(20000), FixedVector2D.fromFloat(12000, 16000).getSize());
+   }
+
+   @Test
+   public void sizeAtRangeLimits() {
+      float diagonal = (float) Math.sqrt(0.5);
+      FixedVector2D big = new FixedVector2D(Fixed.fromInt(30000), Fixed.fromInt(30000));
+      assertEquals(Integer.MAX_VALUE, big.getSize());
+      assertVector(new Vector2D(diagonal, diagonal), big.normalize());
+      assertVector(new Vector2D(7.0711f, 7.0711f), big.clone().setSize(Fixed.fromInt(10)));
+
+      // The sum of squares reaches 2^63
+      FixedVector2D min = new FixedVector2D(Integer.MIN_VALUE, Integer.MIN_VALUE);
+      assertEquals(Integer.MAX_VALUE, min.getSize());
+      assertEquals(1L << 47, min.getSizeSqr());
+      assertVector(new Vector2D(-diagonal, -diagonal), min.normalize());
+      assertTrue(min.compareTo(big) > 0);
+
+      assertEquals(Integer.MAX_VALUE, new FixedVector2D(Integer.MAX_VALUE, 0).getSize());
+      assertEquals(new FixedVector2D(-Fixed.ONE, 0), new FixedVector2D(Integer.MIN_VALUE, 0).normalize());
+      assertEquals(new FixedVector2D(0, Fixed.ONE), new FixedVector2D(0, Integer.MAX_VALUE).normalize());
+   }
+
+   @Test
+   public void rotate() {
+      Vector2D expected = new Vector2D(3, 4).rotate(0.7);
+      FixedVector2D v = FixedVector2D.fromFloat(3, 4);
+      FixedVector2D rotated = v.rotate(Fixed.fromFloat(0.7f));
+      assertNotSame(v, rotated);
+      assertVector(expected, rotated);
+      assertSame(v, v.rotateMe(Fixed.fromFloat(0.7f)));
+      assertEquals(rotated, v);
+
+      assertEquals(new Vector2D(3, 4).getAngleX(), Fixed.toFloat(FixedVector2D.fromFloat(3, 4).getAngleX()), DELTA);
+      assertVector(Vector2D.createBySizeAngle(2, 1), FixedVector2D.createBySizeAngle(Fixed.fromInt(2), Fixed.ONE));
+      assertVector(new Vector2D(-4, 3), FixedVector2D.fromFloat(3, 4).getPerpendicular());
+   }
+
+   @Test
+   public void arithmetic() {
+      FixedVector2D a = FixedVector2D.fromFloat(1.5f, 2);
+      FixedVector2D b = FixedVector2D.fromFloat(-0.5f, 4);
+      assertVector(new Vector2D(1, 6), a.plus(b));
+      assertVector(new Vector2D(2, -2), a.minus(b));
+      assertVector(new Vector2D(3, 4), a.multiply(Fixed.fromInt(2)));
+      assertVector(new Vector2D(0.75f, 1), a.div(Fixed.fromInt(2)));
+      assertVector(new Vector2D(-1.5f, -2), a.negative());
+      assertEquals(Fixed.fromFloat(7.25f), a.dot(b));
+      assertTrue(a.compareTo(b) < 0);
+      assertEquals(a, a.clone());
+      assertEquals(a.hashCode(), a.clone().hashCode());
+   }
+
+   @Test
+   public void multiplyMatrix() {
+      Matrix3D m = new Matrix3D(0.8f, -0.6f, 0, 0.6f, 0.8f, 0, 10, 20, 1);
+      Vector2D expected = new Vector2D(3, 4).multiply(m);
+      assertVector(expected, FixedVector2D.fromFloat(3, 4).multiply(new FixedMatrix3D(m)));
+   }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests the bulk methods of the FloatRange class. They must give exactly the same results as their single number
+ * counterparts.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class FloatRangeTest {
+   /**
+    * Test method for {@link FloatRange#fill(float[], int, int, java.util.Random)}.
+    */
+   @Test
+   public void fill() {
+      float[] values = new float[12];
+      new FloatRange(5).fill(values, 1, 10, null);
+      assertEquals(0, values[0], 0);
+      assertEquals(5, values[1], 0);
+      assertEquals(5, values[10], 0);
+      assertEquals(0, values[11], 0);
+
+      java.util.Random[] generators = { new java.util.Random(1), new Random(1) };
+      java.util.Random[] copies = { new java.util.Random(1), new Random(1) };
+      for (int i = 0; i < generators.length; i++) {
+         new FloatRange(10, -10).fill(values, 0, values.length, generators[i]);
+         FloatRange range = new FloatRange(10, -10, copies[i]);
+         for (float value : values) {
+            assertTrue(range.isInRange(value));
+            assertEquals(range.random(), value, 0);
+         }
+      }
+   }
+
+   @Test(expected = IndexOutOfBoundsException.class)
+   public void fillOutOfRange() {
+      new FloatRange(1, 3).fill(new float[5], -1, 3);
+   }
+
+   /**
+    * Test method for {@link FloatRange#random(java.util.Random)}.
+    */
+   @Test
+   public void randomWithGenerator() {
+      FloatRange seeded = new FloatRange(10, -10, new Random(5));
+      FloatRange unseeded = new FloatRange(10, -10);
+      Random copy = new Random(5);
+      for (int i = 0; i < 20; i++) {
+         float value = unseeded.random(copy);
+         assertTrue(unseeded.isInRange(value));
+         assertEquals(seeded.random(), value, 0);
+      }
+      assertEquals(7, new FloatRange(7).random(null), 0);
+   }
+
+   /**
+    * Test method for {@link FloatRange#getValues(float[], float[])}.
+    */
+   @Test
+   public void getValues() {
+      FloatRange range = new FloatRange(-50, 50);
+      float[] factors = { -1, 0, 0.25f, 0.5f, 0.333f, 1, 2 };
+      float[] values = factors.clone();
+      range.getValues(values, values);
+      for (int i = 0; i < factors.length; i++)
+         assertEquals(range.getValue(factors[i]), values[i], 0);
+
+      new FloatRange(7).getValues(factors, 1, values, 0, 3);
+      assertEquals(7, values[2], 0);
+      assertEquals(range.getValue(factors[3]), values[3], 0);
+   }
+
+   /**
+    * Test method for {@link FloatRange#convert(float[], FloatRange, float[])} and
+    * {@link FloatRange#convert(int[], int, IntRange, float[], int, int)}.
+    */
+   @Test
+   public void convertArrays() {
+      FloatRange r = new FloatRange(100, 500);
+      FloatRange r2 = new FloatRange(1, 0);
+      float[] values = { 0, 100, 200, 333.3f, 500, 600, Float.NaN };
+      float[] converted = new float[values.length];
+      r2.convert(values, r, converted);
+      for (int i = 0; i < values.length; i++)
+         assertEquals(r2.convert(values[i], r), converted[i], 0);
+
+      r.convert(values, new FloatRange(3), values);
+      for (float value : values)
+         assertEquals(r.convert(0, new FloatRange(3)), value, 0);
+
+      IntRange ints = new IntRange(10, -10);
+      int[] intValues = { -20, -10, -3, 0, 7, 10 };
+      converted = new float[intValues.length + 2];
+      r.convert(intValues, 0, ints, converted, 2, intValues.length);
+      for (int i = 0; i < intValues.length; i++)
+         assertEquals(r.convert(intValues[i], ints), converted[i + 2], 0);
+   }
+}
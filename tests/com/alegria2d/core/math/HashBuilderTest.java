@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+/**
+ * Tests {@link HashBuilder}, including the distribution of the strong hashes of grid cell keys.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class HashBuilderTest {
+   private static final int GRID_SIZE = 256;
+
+   @Test
+   public void simpleChain() {
+      assertEquals(HashBuilder.DEFAULT_BASE, new HashBuilder().hashCode());
+      assertEquals((17 * 37 + 1) * 37 + 2, new HashBuilder(1).add(2).hashCode());
+      assertEquals(new HashBuilder(1).add(2).hashCode(), new HashBuilder(1).add(2).hashCode64());
+      assertFalse(new HashBuilder().isStrong());
+   }
+
+   @Test
+   public void ranges() {
+      int[] values = {5, 1, 2, 3, 9};
+      assertEquals(new HashBuilder().add(new int[] {1, 2, 3}), new HashBuilder().add(values, 1, 3));
+      assertEquals(HashBuilder.newStrong().add(new int[] {1, 2, 3}), HashBuilder.newStrong().add(values, 1, 3));
+
+      float[] floats = {0.5f, 1.5f, 2.5f};
+      assertEquals(HashBuilder.newStrong().add(1.5f).add(2.5f), HashBuilder.newStrong().add(floats, 1, 2));
+   }
+
+   @Test(expected = IndexOutOfBoundsException.class)
+   public void rangeOutside() {
+      new HashBuilder().add(new long[4], 2, 3);
+   }
+
+   @Test
+   public void strongReset() {
+      HashBuilder builder = HashBuilder.newStrong();
+      assertTrue(builder.isStrong());
+      long empty = builder.hashCode64();
+      builder.add(10).add(20L);
+      assertFalse(empty == builder.hashCode64());
+      builder.reset();
+      assertEquals(empty, builder.hashCode64());
+      assertEquals(HashBuilder.newStrong().add(10).add(20L), builder.add(10).add(20L));
+   }
+
+   @Test
+   public void byteBuffers() {
+      byte[] bytes = new byte[37];
+      for (int i = 0; i < bytes.length; i++)
+         bytes[i] = (byte) (i * 31);
+
+      ByteBuffer heap = ByteBuffer.wrap(bytes).order(ByteOrder.BIG_ENDIAN);
+      ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).order(ByteOrder.LITTLE_ENDIAN);
+      direct.put(bytes).flip();
+      heap.position(3);
+      direct.position(3);
+
+      for (HashBuilder expected : new HashBuilder[] {new HashBuilder(), HashBuilder.newStrong()}) {
+         expected.add(bytes, 3, bytes.length - 3);
+         HashBuilder fromHeap = expected.isStrong() ? HashBuilder.newStrong() : new HashBuilder();
+         HashBuilder fromDirect = expected.isStrong() ? HashBuilder.newStrong() : new HashBuilder();
+         assertEquals(expected, fromHeap.add(heap));
+         assertEquals(expected, fromDirect.add(direct));
+      }
+      assertEquals(3, heap.position());
+      assertEquals(3, direct.position());
+   }
+
+   @Test
+   public void gridCellDistribution() {
+      int cells = GRID_SIZE * GRID_SIZE;
+      int mask = cells - 1;
+      int[] buckets = new int[cells];
+      Set<Long> hashes = new HashSet<Long>();
+      Set<Integer> simpleBuckets = new HashSet<Integer>();
+
+      for (int x = 0; x < GRID_SIZE; x++)
+         for (int y = 0; y < GRID_SIZE; y++) {
+            HashBuilder builder = HashBuilder.newStrong().add(x).add(y);
+            hashes.add(builder.hashCode64());
+            buckets[builder.hashCode() & mask]++;
+            simpleBuckets.add(new HashBuilder(x).add(y).hashCode() & mask);
+         }
+
+      // No 64 bit collisions
+      assertEquals(cells, hashes.size());
+
+      // As many keys as buckets: about 1 / e of the buckets should stay empty, and none should be crowded
+      int used = 0;
+      int maxLoad = 0;
+      for (int load : buckets) {
+         if (load > 0)
+            used++;
+         maxLoad = Math.max(maxLoad, load);
+      }
+      assertTrue("Used buckets: " + used, used > cells * 0.6);
+      assertTrue("Max load: " + maxLoad, maxLoad < 12);
+
+      // The simple chain crowds the same keys into a few buckets
+      assertTrue(simpleBuckets.size() < used / 4);
+   }
+
+   @Test
+   public void avalanche() {
+      long flipped = 0;
+      int samples = 0;
+      for (int key = 0; key < 1000; key++) {
+         long hash = HashBuilder.newStrong().add(key).hashCode64();
+         for (int bit = 0; bit < 32; bit++) {
+            flipped += Long.bitCount(hash ^ HashBuilder.newStrong().add(key ^ (1 << bit)).hashCode64());
+            samples++;
+         }
+      }
+
+      double average = (double) flipped / samples;
+      assertTrue("Average flipped bits: " + average, average > 31 && average < 33);
+   }
+
+   @Test
+   public void mix() {
+      assertEquals(0, HashBuilder.mix(0));
+      assertEquals(0L, HashBuilder.mix(0L));
+
+      Set<Integer> mixed = new HashSet<Integer>();
+      for (int i = 0; i < 10000; i++)
+         mixed.add(HashBuilder.mix(i) & 0xFFFF);
+      assertTrue(mixed.size() > 8000);
+   }
+}
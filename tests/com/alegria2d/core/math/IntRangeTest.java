@@ -315,6 +315,107 @@ public class IntRangeTest {
       assertEquals(5, new IntRange(10, 6).getSize());
    }
 
+   @Test
+   public void randomDescending() {
+      IntRange range = new IntRange(10, 6);
+      for (int i = 0; i < 100; i++)
+         assertTrue(range.isInRange(range.random()));
+   }
+
+   /**
+    * Test method for {@link IntRange#fill(int[], int, int, Random)}.
+    */
+   @Test
+   public void fill() {
+      int[] values = new int[12];
+      new IntRange(5).fill(values, 1, 10, null);
+      assertEquals(0, values[0]);
+      assertEquals(5, values[1]);
+      assertEquals(5, values[10]);
+      assertEquals(0, values[11]);
+
+      // Same numbers as random(), both with Java and Alegria generators
+      Random[] generators = { new Random(1), new com.alegria2d.core.math.Random(1) };
+      Random[] copies = { new Random(1), new com.alegria2d.core.math.Random(1) };
+      for (int i = 0; i < generators.length; i++) {
+         new IntRange(10, -10).fill(values, 0, values.length, generators[i]);
+         IntRange range = new IntRange(10, -10, copies[i]);
+         for (int value : values)
+            assertEquals(range.random(), value);
+      }
+   }
+
+   @Test(expected = IndexOutOfBoundsException.class)
+   public void fillOutOfRange() {
+      new IntRange(1, 3).fill(new int[5], 3, 3);
+   }
+
+   /**
+    * Test method for {@link IntRange#random(Random)}.
+    */
+   @Test
+   public void randomWithGenerator() {
+      TestRandom own = new TestRandom();
+      TestRandom given = new TestRandom();
+      IntRange range = new IntRange(-3, 3, own);
+      for (int i = 0; i < 50; i++)
+         assertTrue(range.isInRange(range.random(given)));
+      assertTrue(given.wasUsed());
+      assertFalse(own.wasUsed());
+
+      // Same numbers as random() with an equal generator
+      IntRange seeded = new IntRange(1, 100, new com.alegria2d.core.math.Random(5));
+      IntRange unseeded = new IntRange(1, 100);
+      com.alegria2d.core.math.Random copy = new com.alegria2d.core.math.Random(5);
+      for (int i = 0; i < 20; i++)
+         assertEquals(seeded.random(), unseeded.random(copy));
+
+      assertEquals(7, new IntRange(7).random(given));
+      assertFalse(given.wasUsed());
+   }
+
+   /**
+    * Test method for {@link IntRange#getValues(float[], int[])}.
+    */
+   @Test
+   public void getValues() {
+      IntRange range = new IntRange(100, 0);
+      float[] factors = { -1, 0, 0.25f, 0.5f, 0.333f, 1, 2 };
+      int[] values = new int[factors.length];
+      range.getValues(factors, values);
+      for (int i = 0; i < factors.length; i++)
+         assertEquals(range.getValue(factors[i]), values[i]);
+
+      new IntRange(7).getValues(factors, values);
+      for (int value : values)
+         assertEquals(7, value);
+   }
+
+   /**
+    * Test method for {@link IntRange#convert(int[], int, IntRange, int[], int, int)} and
+    * {@link IntRange#convert(float[], FloatRange, int[])}.
+    */
+   @Test
+   public void convertArrays() {
+      IntRange r = new IntRange(100, 500);
+      IntRange r2 = new IntRange(0, 100);
+      int[] values = { 0, 100, 200, 333, 500, 600 };
+      int[] converted = new int[values.length + 1];
+      r2.convert(values, 0, r, converted, 1, values.length);
+      for (int i = 0; i < values.length; i++)
+         assertEquals(r2.convert(values[i], r), converted[i + 1]);
+
+      r.convert(values, new IntRange(3), values);
+      for (int value : values)
+         assertEquals(r.convert(0, new IntRange(3)), value);
+
+      FloatRange floats = new FloatRange(1, -1);
+      float[] floatValues = { -2, -1, -0.5f, 0, 0.1f, 1 };
+      r.convert(floatValues, floats, converted);
+      for (int i = 0; i < floatValues.length; i++)
+         assertEquals((int) r.convert(floatValues[i], floats), converted[i]);
+   }
+
 }
 
 /**
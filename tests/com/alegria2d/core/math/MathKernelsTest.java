@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assume.assumeNotNull;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests the math kernels. The accelerated kernels are only tested when the JVM runs with the Vector API module, and
+ * must give exactly the same results as the scalar ones, including in the scalar tails of each range.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class MathKernelsTest {
+   private static final Affine2D TRANSFORM = Affine2D.newTRS(10, -20, 0.7, 1.5f, -0.5f);
+
+   private final Random random = new Random(99);
+
+   private float[] randomArray(int size) {
+      float[] array = new float[size];
+      for (int i = 0; i < size; i++)
+         array[i] = random.nextFloat() * 200 - 100;
+      return array;
+   }
+
+   @Test
+   public void defaultKernels() {
+      assertNotNull(MathKernels.getDefault());
+      assertEquals("scalar", MathKernels.getScalar().getName());
+      if (MathKernels.getAccelerated() == null)
+         assertSame(MathKernels.getScalar(), MathKernels.getDefault());
+   }
+
+   @Test
+   public void scalarTransform() {
+      float[] points = randomArray(10);
+      float[] dest = new float[12];
+      MathKernels.getScalar().transform(TRANSFORM.getA(), TRANSFORM.getB(), TRANSFORM.getC(),
+            TRANSFORM.getD(), TRANSFORM.getE(), TRANSFORM.getF(), points, 0, dest, 2, 5);
+
+      for (int i = 0; i < 5; i++) {
+         Vector2D expected = TRANSFORM.multiply(new Vector2D(points[i * 2], points[i * 2 + 1]));
+         assertEquals(expected.getX(), dest[i * 2 + 2], 0);
+         assertEquals(expected.getY(), dest[i * 2 + 3], 0);
+      }
+   }
+
+   @Test
+   public void scalarNormalizeKeepsZeroVectors() {
+      float[] x = { 3, 0, 0.001f };
+      float[] y = { 4, 0, 0 };
+      MathKernels.getScalar().normalize(x, y, 0, 3);
+      assertArrayEquals(new float[] { 0.6f, 0, 0.001f }, x, 0.000001f);
+      assertArrayEquals(new float[] { 0.8f, 0, 0 }, y, 0.000001f);
+   }
+
+   @Test
+   public void acceleratedMatchesScalar() {
+      MathKernels vector = MathKernels.getAccelerated();
+      assumeNotNull(vector);
+      MathKernels scalar = MathKernels.getScalar();
+
+      float a = TRANSFORM.getA(), b = TRANSFORM.getB(), c = TRANSFORM.getC();
+      float d = TRANSFORM.getD(), e = TRANSFORM.getE(), f = TRANSFORM.getF();
+
+      // Sizes and offsets that leave tails of every length for the usual vector sizes
+      for (int size = 0; size < 40; size++) {
+         for (int from = 0; from < 3; from++) {
+            int to = from + size;
+            float[] x = randomArray(to + 3);
+            float[] y = randomArray(to + 3);
+            x[from] = 0;
+            y[from] = 0;
+
+            float[] sx = x.clone(), sy = y.clone();
+            float[] vx = x.clone(), vy = y.clone();
+            scalar.transform(a, b, c, d, e, f, sx, sy, from, to);
+            vector.transform(a, b, c, d, e, f, vx, vy, from, to);
+            assertArrayEquals(sx, vx, 0);
+            assertArrayEquals(sy, vy, 0);
+
+            scalar.normalize(sx, sy, from, to);
+            vector.normalize(vx, vy, from, to);
+            assertArrayEquals(sx, vx, 0);
+            assertArrayEquals(sy, vy, 0);
+
+            float[] scalarDest = new float[size + 1];
+            float[] vectorDest = new float[size + 1];
+            scalar.dot(x, y, from, to, 0.5f, -2, scalarDest, 1);
+            vector.dot(x, y, from, to, 0.5f, -2, vectorDest, 1);
+            assertArrayEquals(scalarDest, vectorDest, 0);
+
+            scalar.distanceSqr(x, y, from, to, 7, 3, scalarDest, 0);
+            vector.distanceSqr(x, y, from, to, 7, 3, vectorDest, 0);
+            assertArrayEquals(scalarDest, vectorDest, 0);
+
+            float[] packed = randomArray(to * 2 + 2);
+            float[] scalarPacked = new float[to * 2 + 2];
+            float[] vectorPacked = new float[to * 2 + 2];
+            scalar.transform(a, b, c, d, e, f, packed, from, scalarPacked, 2, size);
+            vector.transform(a, b, c, d, e, f, packed, from, vectorPacked, 2, size);
+            assertArrayEquals(scalarPacked, vectorPacked, 0);
+
+            // In place
+            float[] inPlace = Arrays.copyOf(packed, packed.length);
+            vector.transform(a, b, c, d, e, f, inPlace, from, inPlace, from, size);
+            scalar.transform(a, b, c, d, e, f, packed, from, packed, from, size);
+            assertArrayEquals(packed, inPlace, 0);
+         }
+      }
+   }
+}
@@ -24,7 +24,11 @@ package com.alegria2d.core.math;
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertSame;
 import static junit.framework.Assert.assertTrue;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -421,6 +425,127 @@ public class Matrix3DTest {
       assertEquals(old, invertible);
    }
 
+   @Test
+   public void inverseWithDeterminant() {
+      Matrix3D invertible = new Matrix3D(
+            2, 0, 4,
+            0, 4, 8,
+            0, 0, 1);
+
+      Matrix3D result = invertible.inverse();
+
+      assertTrue(result.similar(new Matrix3D(
+            0.5f, 0, -2,
+            0, 0.25f, -2,
+            0, 0, 1)));
+      assertTrue(invertible.multiply(result).similar(Matrix3D.newIdentity()));
+   }
+
+   @Test
+   public void multiplyIntoDestination() {
+      Matrix3D other = new Matrix3D(9.0f, 8.0f, 7.0f, 6.0f, 10.0f, 4.0f, 3.0f, 2.0f, 1.0f);
+      Matrix3D expected = matrix3d.multiply(other);
+      Matrix3D dest = new Matrix3D();
+
+      assertSame(dest, matrix3d.multiply(other, dest));
+      assertEquals(expected, dest);
+
+      // The destination may be any of the operands
+      Matrix3D left = new Matrix3D(matrix3d);
+      left.multiply(other, left);
+      assertEquals(expected, left);
+
+      Matrix3D right = new Matrix3D(other);
+      matrix3d.multiply(right, right);
+      assertEquals(expected, right);
+
+      Matrix3D square = new Matrix3D(matrix3d);
+      square.multiply(square, square);
+      assertEquals(matrix3d.multiply(matrix3d), square);
+   }
+
+   @Test
+   public void inverseIntoDestination() {
+      Matrix3D invertible = new Matrix3D(3.0f, 0.0f, 2.0f, 9.0f, 1.0f, 7.0f, 1.0f, 0.0f, 1.0f);
+      Matrix3D dest = new Matrix3D();
+
+      assertSame(dest, invertible.inverse(dest));
+      assertEquals(invertible.inverse(), dest);
+
+      dest.set(invertible).inverse(dest);
+      assertEquals(invertible.inverse(), dest);
+   }
+
+   @Test
+   public void transposeIntoDestination() {
+      Matrix3D dest = new Matrix3D();
+      assertSame(dest, matrix3d.transpose(dest));
+      assertEquals(matrix3d.transpose(), dest);
+
+      dest.set(matrix3d).transpose(dest);
+      assertEquals(matrix3d.transpose(), dest);
+   }
+
+   @Test
+   public void multiplyVectorIntoDestination() {
+      Vector2D vector = new Vector2D(2, 3);
+      Vector2D expected = matrix3d.multiply(vector);
+
+      assertSame(vector, matrix3d.multiply(vector, vector));
+      assertEquals(expected, vector);
+   }
+
+   @Test
+   public void transformArray() {
+      float[] points = { 2, 3, -1, 0.5f, 4, -2 };
+      float[] dest = new float[6];
+
+      assertSame(dest, matrix3d.transform(points, 0, dest, 0, 3));
+      for (int i = 0; i < 3; i++) {
+         Vector2D expected = matrix3d.multiply(new Vector2D(points[i * 2], points[i * 2 + 1]));
+         assertEquals(expected.getX(), dest[i * 2]);
+         assertEquals(expected.getY(), dest[i * 2 + 1]);
+      }
+   }
+
+   @Test
+   public void transformInterleavedBuffer() {
+      // x, y, u, v vertices
+      FloatBuffer vertices = FloatBuffer.wrap(new float[] { 2, 3, 0.1f, 0.2f, -1, 0.5f, 0.3f, 0.4f });
+      FloatBuffer direct = ByteBuffer.allocateDirect(4 * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+
+      assertSame(direct, matrix3d.transform(vertices, 0, 4, direct, 0, 2, 2));
+      assertEquals(0, vertices.position());
+      assertEquals(0, direct.position());
+
+      Vector2D expected = matrix3d.multiply(new Vector2D(-1, 0.5f));
+      assertEquals(expected.getX(), direct.get(2));
+      assertEquals(expected.getY(), direct.get(3));
+
+      // Back to the heap buffer, keeping the texture coordinates
+      matrix3d.transform(direct, 0, 2, vertices, 0, 4, 2);
+      assertEquals(matrix3d.multiply(expected).getX(), vertices.get(4));
+      assertEquals(0.3f, vertices.get(6));
+   }
+
+   @Test
+   public void setAndIdentity() {
+      Matrix3D matrix = new Matrix3D();
+      assertEquals(0.0f, matrix.getA());
+      assertEquals(0.0f, matrix.getK());
+
+      assertSame(matrix, matrix.set(other));
+      assertEquals(other, matrix);
+      assertNotSame(other, matrix);
+
+      assertEquals(Matrix3D.newIdentity(), matrix.setIdentity());
+   }
+
+   @Test(expected = ArrayIndexOutOfBoundsException.class)
+   public void getInvalidElement() {
+      matrix3d.get(0, 3);
+   }
+
    @Test
    public void transpose() {
       Matrix3D old = new Matrix3D(matrix3d);
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests the Alegria {@link Random} class.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class RandomTest {
+   private static final int SAMPLES = 100000;
+
+   @Test
+   public void knownSequence() {
+      // xoroshiro128++ with the state expanded from the seed 42 by SplitMix64
+      Random random = new Random(42);
+      assertEquals(-1690267358668702685L, random.nextLong());
+      assertEquals(6098722386207918385L, random.nextLong());
+      assertEquals(-905081495677017275L, random.nextLong());
+   }
+
+   @Test
+   public void sameSeedSameSequence() {
+      Random r1 = new Random(7);
+      Random r2 = new Random(8);
+      r2.setSeed(7);
+      for (int i = 0; i < 100; i++)
+         assertEquals(r1.nextLong(), r2.nextLong());
+   }
+
+   @Test
+   public void setSeedDiscardsCachedGaussian() {
+      Random r1 = new Random(7);
+      Random r2 = new Random(8);
+      // Gaussians are generated in pairs, so the second one is cached
+      r2.nextGaussian();
+      r2.setSeed(7);
+      for (int i = 0; i < 10; i++)
+         assertEquals(r1.nextGaussian(), r2.nextGaussian(), 0);
+   }
+
+   @Test
+   public void defaultSeedsDiffer() {
+      assertFalse(new Random().nextLong() == new Random().nextLong());
+   }
+
+   @Test
+   public void split() {
+      Random random = new Random(1);
+      Random split = random.split();
+      Random other = new Random(1).split();
+
+      boolean different = false;
+      for (int i = 0; i < 100; i++) {
+         long value = split.nextLong();
+         assertEquals(value, other.nextLong());
+         different |= value != random.nextLong();
+      }
+      assertTrue(different);
+   }
+
+   @Test
+   public void nextIntBound() {
+      Random random = new Random(3);
+      int[] counts = new int[10];
+      for (int i = 0; i < SAMPLES; i++)
+         counts[random.nextInt(10)]++;
+
+      // Each value is expected SAMPLES / 10 times, within a generous margin
+      for (int count : counts)
+         assertEquals(SAMPLES / 10, count, SAMPLES / 100);
+
+      for (int i = 0; i < 1000; i++) {
+         int value = random.nextInt(Integer.MAX_VALUE);
+         assertTrue(value >= 0);
+         assertEquals(0, random.nextInt(1));
+      }
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void nextIntZeroBound() {
+      new Random().nextInt(0);
+   }
+
+   @Test
+   public void floats() {
+      Random random = new Random(4);
+      float sum = 0;
+      for (int i = 0; i < SAMPLES; i++) {
+         float value = random.nextFloat();
+         assertTrue(value >= 0 && value < 1);
+         float inclusive = random.nextFloatInclusive();
+         assertTrue(inclusive >= 0 && inclusive <= 1);
+         double d = random.nextDouble();
+         assertTrue(d >= 0 && d < 1);
+         sum += value;
+      }
+      assertEquals(0.5f, sum / SAMPLES, 0.01f);
+   }
+
+   @Test
+   public void mathUtilUsesNextFloatInclusive() {
+      Random r1 = new Random(5);
+      Random r2 = new Random(5);
+      for (int i = 0; i < 100; i++)
+         assertEquals(r1.nextFloatInclusive(), MathUtil.nextFloatInclusive(r2), 0);
+   }
+
+   @Test
+   public void fillMatchesSequence() {
+      Random r1 = new Random(6);
+      Random r2 = new Random(6);
+
+      float[] floats = new float[12];
+      r1.fill(floats, 1, 10);
+      float[] expected = new float[12];
+      for (int i = 1; i <= 10; i++)
+         expected[i] = r2.nextFloat();
+      assertArrayEquals(expected, floats, 0);
+
+      r1.fillInclusive(floats, 0, 12);
+      for (int i = 0; i < 12; i++)
+         expected[i] = r2.nextFloatInclusive();
+      assertArrayEquals(expected, floats, 0);
+
+      int[] ints = new int[10];
+      r1.fill(ints, 0, 10, 6);
+      for (int i = 0; i < 10; i++)
+         assertEquals(r2.nextInt(6), ints[i]);
+
+      assertEquals(r2.nextLong(), r1.nextLong());
+   }
+
+   @Test(expected = IndexOutOfBoundsException.class)
+   public void fillOutOfRange() {
+      new Random().fill(new float[10], 5, 6);
+   }
+
+   @Test(expected = IndexOutOfBoundsException.class)
+   public void fillOverflowingRange() {
+      // offset + length overflows to a negative number
+      new Random(1).fill(new float[10], 5, Integer.MAX_VALUE);
+   }
+
+   @Test
+   public void rangesAcceptRandom() {
+      Random random = new Random(9);
+      FloatRange floats = new FloatRange(-1, 1, random);
+      IntRange ints = new IntRange(3, 8, random.split());
+      for (int i = 0; i < 1000; i++) {
+         assertTrue(floats.isInRange(floats.random()));
+         assertTrue(ints.isInRange(ints.random()));
+      }
+   }
+}
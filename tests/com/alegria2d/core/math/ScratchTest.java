@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests the {@link Scratch} arena, in normal and in debug mode.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class ScratchTest {
+   @Test
+   public void recyclesOnReset() {
+      Scratch scratch = new Scratch(false);
+      Vector2D first = scratch.vector(1, 2);
+      Vector2D second = scratch.vector(new Vector2D(3, 4));
+      Matrix3D matrix = scratch.identity();
+      assertNotSame(first, second);
+      assertEquals(new Vector2D(1, 2), first);
+      assertEquals(new Vector2D(3, 4), second);
+      assertEquals(Matrix3D.newIdentity(), matrix);
+      assertEquals(2, scratch.getVectorCount());
+      assertEquals(1, scratch.getMatrixCount());
+
+      scratch.reset();
+      assertEquals(0, scratch.getVectorCount());
+      assertEquals(0, scratch.getMatrixCount());
+      assertSame(first, scratch.vector());
+      assertSame(second, scratch.vector());
+      assertSame(matrix, scratch.matrix(Matrix3D.newIdentity()));
+   }
+
+   @Test
+   public void grows() {
+      Scratch scratch = new Scratch(false);
+      for (int i = 0; i < 1000; i++) {
+         scratch.vector(i, i);
+         scratch.matrix();
+      }
+      assertEquals(1000, scratch.getVectorCount());
+      assertEquals(1000, scratch.getMatrixCount());
+   }
+
+   @Test
+   public void perThread() throws InterruptedException {
+      final Scratch[] other = new Scratch[1];
+      Thread thread = new Thread() {
+         @Override
+         public void run() {
+            other[0] = Scratch.get();
+         }
+      };
+      thread.start();
+      thread.join();
+
+      assertSame(Scratch.get(), Scratch.get());
+      assertNotSame(Scratch.get(), other[0]);
+   }
+
+   @Test
+   public void debugPoisonsRecycledValues() {
+      Scratch scratch = new Scratch(true);
+      Vector2D stale = scratch.vector(1, 2);
+      Matrix3D staleMatrix = scratch.identity();
+      scratch.reset();
+
+      // Stale values are never handed out again, and reading them gives NaN
+      assertNotSame(stale, scratch.vector());
+      assertNotSame(staleMatrix, scratch.matrix());
+      assertTrue(Float.isNaN(stale.getX()));
+      assertTrue(Float.isNaN(staleMatrix.getA()));
+      assertTrue(Float.isNaN(stale.plus(new Vector2D(1, 1)).getY()));
+
+      // Values recycled without being touched pass the next check
+      scratch.reset();
+      scratch.reset();
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void debugDetectsWriteAfterReset() {
+      Scratch scratch = new Scratch(true);
+      Vector2D stale = scratch.vector(1, 2);
+      scratch.reset();
+      stale.plusMe(new Vector2D(1, 1));
+      scratch.reset();
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void debugDetectsMatrixWriteAfterReset() {
+      Scratch scratch = new Scratch(true);
+      Matrix3D stale = scratch.matrix();
+      scratch.reset();
+      stale.setIdentity();
+      scratch.reset();
+   }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.math;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for Vector2DBuffer. Bulk operations are compared with the same {@link Vector2D} operations.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class Vector2DBufferTest {
+   private static final float DELTA = 0.00001f;
+
+   private Vector2DBuffer buffer;
+   private Vector2D[] vectors;
+
+   @Before
+   public void setup() {
+      vectors = new Vector2D[] {
+            new Vector2D(1, 2), new Vector2D(-3, 4), new Vector2D(0, 0), new Vector2D(5, -0.5f) };
+      buffer = new Vector2DBuffer(2);
+      for (Vector2D vector : vectors)
+         buffer.add(vector);
+   }
+
+   private void assertVectors(Vector2D... expected) {
+      assertEquals(expected.length, buffer.size());
+      Vector2D actual = new Vector2D();
+      for (int i = 0; i < expected.length; i++)
+         assertTrue("Index " + i, expected[i].similar(buffer.get(i, actual)));
+   }
+
+   @Test
+   public void addGrows() {
+      assertEquals(4, buffer.size());
+      assertTrue(buffer.capacity() >= 4);
+      assertEquals(-3, buffer.getX(1), 0);
+      assertEquals(4, buffer.getY(1), 0);
+      assertEquals(4, buffer.add(7, 8));
+      assertEquals(vectors[3], buffer.get(3));
+   }
+
+   @Test
+   public void getAndSetWithoutAllocation() {
+      Vector2D dest = new Vector2D();
+      assertSame(dest, buffer.get(1, dest));
+      assertEquals(vectors[1], dest);
+
+      buffer.set(1, new Vector2D(9, 10));
+      buffer.set(2, 11, 12);
+      assertVectors(vectors[0], new Vector2D(9, 10), new Vector2D(11, 12), vectors[3]);
+   }
+
+   @Test(expected = IndexOutOfBoundsException.class)
+   public void getOutOfSize() {
+      // Inside the capacity, but outside the size
+      buffer.ensureCapacity(10);
+      buffer.getX(4);
+   }
+
+   @Test
+   public void removeFast() {
+      buffer.removeFast(0);
+      assertVectors(vectors[3], vectors[1], vectors[2]);
+      buffer.removeFast(2);
+      assertVectors(vectors[3], vectors[1]);
+   }
+
+   @Test
+   public void setSizeClearsNewVectors() {
+      buffer.setSize(2);
+      buffer.setSize(3);
+      assertVectors(vectors[0], vectors[1], new Vector2D());
+
+      buffer.clear();
+      assertTrue(buffer.isEmpty());
+   }
+
+   @Test
+   public void plus() {
+      Vector2D delta = new Vector2D(0.5f, -1);
+      buffer.plusMe(delta);
+      assertVectors(vectors[0].plus(delta), vectors[1].plus(delta), vectors[2].plus(delta), vectors[3].plus(delta));
+   }
+
+   @Test
+   public void plusScaledBuffer() {
+      Vector2DBuffer velocities = new Vector2DBuffer();
+      for (Vector2D vector : vectors)
+         velocities.add(vector.getY(), vector.getX());
+
+      buffer.plusMe(1, 3, velocities, 2);
+      assertVectors(vectors[0],
+            vectors[1].plus(new Vector2D(8, -6)),
+            vectors[2],
+            vectors[3]);
+
+      buffer.plusMe(velocities);
+      assertEquals(vectors[3].plus(new Vector2D(-0.5f, 5)), buffer.get(3));
+   }
+
+   @Test
+   public void multiplyRange() {
+      buffer.multiplyMe(2, 4, 3);
+      assertVectors(vectors[0], vectors[1], vectors[2].multiply(3), vectors[3].multiply(3));
+   }
+
+   @Test
+   public void normalize() {
+      buffer.normalizeMe();
+      assertVectors(vectors[0].normalize(), vectors[1].normalize(), vectors[2], vectors[3].normalize());
+   }
+
+   @Test
+   public void rotate() {
+      double angle = Math.toRadians(70);
+      buffer.rotateMe(angle);
+      assertVectors(vectors[0].rotate(angle), vectors[1].rotate(angle), vectors[2].rotate(angle),
+            vectors[3].rotate(angle));
+   }
+
+   @Test
+   public void transform() {
+      Affine2D transform = Affine2D.newTRS(5, 6, 1, 2, 3);
+      buffer.transformMe(1, 4, transform);
+      assertVectors(vectors[0], transform.multiply(vectors[1]), transform.multiply(vectors[2]),
+            transform.multiply(vectors[3]));
+   }
+
+   @Test
+   public void dotAndDistance() {
+      Vector2D point = new Vector2D(2, 3);
+      float[] dest = new float[5];
+
+      assertSame(dest, buffer.dot(point, dest));
+      assertArrayEquals(new float[] { 8, 6, 0, 8.5f, 0 }, dest, DELTA);
+
+      buffer.distanceSqr(1, 3, point, dest, 0);
+      assertEquals(MathUtil.distanceSqr(vectors[1], point), dest[0], DELTA);
+      assertEquals(MathUtil.distanceSqr(vectors[2], point), dest[1], DELTA);
+   }
+
+   @Test
+   public void nearest() {
+      assertEquals(0, buffer.nearest(new Vector2D(1, 1)));
+      assertEquals(3, buffer.nearest(new Vector2D(10, 0)));
+      assertEquals(-1, new Vector2DBuffer().nearest(new Vector2D()));
+   }
+
+   @Test(expected = IndexOutOfBoundsException.class)
+   public void invalidRange() {
+      buffer.multiplyMe(2, 5, 1);
+   }
+}
@@ -366,4 +366,18 @@ public class Vector2DTest {
       assertTrue(v1.compareTo(largerV1) < 0);
       assertTrue(v1.compareTo(smallerV1) > 0);
    }
+
+   @Test
+   public void multiplyMatrix3D() {
+      Matrix3D matrix = new Matrix3D(
+            1, 2, 0,
+            3, 4, 0,
+            5, 6, 1);
+      Vector2D v1 = new Vector2D(1, 1);
+      Vector2D result = v1.multiply(matrix);
+
+      assertEquals(new Vector2D(9, 12), result);
+      assertEquals(new Vector2D(1, 1), v1);
+      assertEquals(result, v1.multiplyMe(matrix));
+   }
 }
@@ -0,0 +1,285 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.scene;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import com.alegria2d.core.math.Affine2D;
+import com.alegria2d.core.math.Matrix3D;
+import com.alegria2d.core.math.Vector2D;
+
+/**
+ * Tests {@link TransformTree} and {@link Transform}, comparing the world transforms with products of {@link Affine2D}.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class TransformTreeTest {
+   private static final float DELTA = 0.0001f;
+
+   private static Affine2D expectedWorld(Transform node) {
+      Affine2D world = node.getLocal();
+      for (Transform parent = node.getParent(); parent != null; parent = parent.getParent())
+         world = parent.getLocal().multiply(world);
+      return world;
+   }
+
+   private static void assertWorld(Transform node) {
+      Affine2D expected = expectedWorld(node);
+      Affine2D actual = node.getWorld();
+      assertEquals(expected.getA(), actual.getA(), DELTA);
+      assertEquals(expected.getB(), actual.getB(), DELTA);
+      assertEquals(expected.getC(), actual.getC(), DELTA);
+      assertEquals(expected.getD(), actual.getD(), DELTA);
+      assertEquals(expected.getE(), actual.getE(), DELTA);
+      assertEquals(expected.getF(), actual.getF(), DELTA);
+   }
+
+   @Test
+   public void hierarchy() {
+      TransformTree tree = new TransformTree();
+      Transform ship = tree.newNode().setPosition(100, 50).setRotation(Math.PI / 2);
+      Transform cannon = tree.newNode(ship).setPosition(10, 0).setScale(2, 2);
+      assertEquals(2, tree.size());
+      assertEquals(ship, cannon.getParent());
+
+      // The cannon is 10 units ahead of the ship, which faces up
+      assertEquals(100, cannon.getWorldX(), DELTA);
+      assertEquals(60, cannon.getWorldY(), DELTA);
+      Vector2D tip = cannon.toWorld(new Vector2D(1, 0), new Vector2D());
+      assertEquals(100, tip.getX(), DELTA);
+      assertEquals(62, tip.getY(), DELTA);
+      assertWorld(cannon);
+
+      Matrix3D matrix = cannon.getWorld(new Matrix3D());
+      assertEquals(cannon.getWorld().toMatrix3D(), matrix);
+   }
+
+   @Test
+   public void updatesOnlyDirtySubtrees() {
+      TransformTree tree = new TransformTree();
+      Transform a = tree.newNode();
+      Transform b = tree.newNode();
+      Transform a1 = tree.newNode(a);
+      Transform a2 = tree.newNode(a1);
+      tree.newNode(b);
+      tree.update();
+      assertEquals(5, tree.getLastUpdateCount());
+      assertFalse(tree.isDirty());
+
+      a1.setPosition(1, 1);
+      a2.setPosition(2, 2);
+      assertTrue(tree.isDirty());
+      tree.update();
+      assertEquals(2, tree.getLastUpdateCount());
+      assertWorld(a2);
+
+      tree.update();
+      assertEquals(0, tree.getLastUpdateCount());
+
+      b.setRotation(1);
+      b.setScale(3, 3);
+      tree.update();
+      assertEquals(2, tree.getLastUpdateCount());
+   }
+
+   @Test
+   public void structureChanges() {
+      TransformTree tree = new TransformTree();
+      Transform a = tree.newNode().setPosition(5, 0);
+      Transform b = tree.newNode().setPosition(0, 5);
+      Transform child = tree.newNode(a).setPosition(1, 1);
+      assertEquals(6, child.getWorldX(), DELTA);
+
+      child.setParent(b);
+      assertEquals(1, child.getWorldX(), DELTA);
+      assertEquals(6, child.getWorldY(), DELTA);
+      assertEquals(3, tree.getLastUpdateCount());
+      assertTrue(a.getChildren().isEmpty());
+
+      child.setParent(null);
+      assertNull(child.getParent());
+      assertEquals(3, tree.getRoots().size());
+
+      tree.remove(b);
+      assertEquals(2, tree.size());
+      assertEquals(1, child.getWorldY(), DELTA);
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void cycle() {
+      TransformTree tree = new TransformTree();
+      Transform a = tree.newNode();
+      Transform b = tree.newNode(a);
+      a.setParent(b);
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void otherTree() {
+      new TransformTree().newNode(new TransformTree().newNode());
+   }
+
+   @Test
+   public void otherTreeKeepsTreeUsable() {
+      TransformTree tree = new TransformTree();
+      Transform root = tree.newNode().setPosition(1, 2);
+      try {
+         tree.newNode(new TransformTree().newNode());
+      } catch (IllegalArgumentException e) {
+         // Expected
+      }
+
+      assertEquals(1, tree.size());
+      assertEquals(1, root.getWorldX(), DELTA);
+      assertEquals(2, root.getWorldY(), DELTA);
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void removed() {
+      TransformTree tree = new TransformTree();
+      Transform a = tree.newNode();
+      Transform b = tree.newNode(a);
+      tree.remove(a);
+      b.setPosition(1, 1);
+   }
+
+   @Test
+   public void randomTree() {
+      Random random = new Random(42);
+      TransformTree tree = new TransformTree();
+      List<Transform> nodes = new ArrayList<Transform>();
+      for (int i = 0; i < 2000; i++) {
+         Transform parent = nodes.isEmpty() || random.nextInt(20) == 0 ? null : nodes.get(random.nextInt(nodes.size()));
+         nodes.add(tree.newNode(parent).setPosition(random.nextFloat(), random.nextFloat())
+               .setRotation(random.nextFloat()).setScale(0.9f + random.nextFloat() * 0.2f, 1));
+      }
+
+      for (int frame = 0; frame < 5; frame++) {
+         for (int i = 0; i < 100; i++)
+            nodes.get(random.nextInt(nodes.size())).setRotation(random.nextFloat());
+         tree.update();
+         for (int i = 0; i < nodes.size(); i += 7)
+            assertWorld(nodes.get(i));
+      }
+   }
+
+   /**
+    * Creates a random forest with a long chain, so some subtrees are much larger than {@link
+    * TransformTree#PARALLEL_GRAIN}.
+    */
+   private static List<Transform> createLargeTree(TransformTree tree) {
+      Random random = new Random(7);
+      List<Transform> nodes = new ArrayList<Transform>();
+      for (int i = 0; i < 20000; i++) {
+         Transform parent;
+         if (nodes.isEmpty() || random.nextInt(50) == 0)
+            parent = null;
+         else if (i < 5000)
+            parent = nodes.get(nodes.size() - 1);
+         else
+            parent = nodes.get(random.nextInt(nodes.size()));
+         nodes.add(tree.newNode(parent).setPosition(random.nextFloat(), random.nextFloat())
+               .setRotation(random.nextFloat()).setScale(0.99f + random.nextFloat() * 0.02f, 1));
+      }
+      return nodes;
+   }
+
+   private static void assertSameWorlds(List<Transform> expected, List<Transform> actual) {
+      Affine2D e = new Affine2D();
+      Affine2D a = new Affine2D();
+      for (int i = 0; i < expected.size(); i++) {
+         expected.get(i).getWorld(e);
+         actual.get(i).getWorld(a);
+         assertEquals(e.getA(), a.getA(), 0);
+         assertEquals(e.getB(), a.getB(), 0);
+         assertEquals(e.getC(), a.getC(), 0);
+         assertEquals(e.getD(), a.getD(), 0);
+         assertEquals(e.getE(), a.getE(), 0);
+         assertEquals(e.getF(), a.getF(), 0);
+      }
+   }
+
+   @Test
+   public void parallelUpdateMatchesSerial() {
+      TransformTree serialTree = new TransformTree();
+      TransformTree parallelTree = new TransformTree();
+      parallelTree.setParallelism(4);
+      try {
+         List<Transform> serial = createLargeTree(serialTree);
+         List<Transform> parallel = createLargeTree(parallelTree);
+         serialTree.update();
+         parallelTree.update();
+         assertEquals(serialTree.getLastUpdateCount(), parallelTree.getLastUpdateCount());
+         assertSameWorlds(serial, parallel);
+
+         Random random = new Random(3);
+         for (int frame = 0; frame < 5; frame++) {
+            // Moves a node of the chain, whose subtree is large enough to be split among the threads
+            int chained = random.nextInt(100);
+            serial.get(chained).setRotation(frame);
+            parallel.get(chained).setRotation(frame);
+            for (int i = 0; i < 500; i++) {
+               int index = random.nextInt(serial.size());
+               float x = random.nextFloat();
+               serial.get(index).setPosition(x, 1);
+               parallel.get(index).setPosition(x, 1);
+            }
+            serialTree.update();
+            parallelTree.update();
+            assertEquals(serialTree.getLastUpdateCount(), parallelTree.getLastUpdateCount());
+            assertSameWorlds(serial, parallel);
+         }
+
+         // Structure changes recompute the whole tree
+         serial.get(6000).setParent(serial.get(10));
+         parallel.get(6000).setParent(parallel.get(10));
+         assertSameWorlds(serial, parallel);
+      } finally {
+         parallelTree.dispose();
+      }
+   }
+
+   @Test
+   public void parallelismCanChange() {
+      TransformTree tree = new TransformTree();
+      assertEquals(1, tree.getParallelism());
+      List<Transform> nodes = createLargeTree(tree);
+      tree.setParallelism(2);
+      tree.update();
+      tree.setParallelism(3);
+      nodes.get(0).setScale(2, 2);
+      tree.update();
+      tree.dispose();
+      assertEquals(3, tree.getParallelism());
+      for (int i = 0; i < nodes.size(); i += 997)
+         assertWorld(nodes.get(i));
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void parallelismMustBePositive() {
+      new TransformTree().setParallelism(0);
+   }
+}
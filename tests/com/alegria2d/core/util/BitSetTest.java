@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests BitSet class, comparing it with {@link java.util.BitSet}.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class BitSetTest {
+   @Test
+   public void setAndClear() {
+      BitSet bits = new BitSet(10);
+      assertTrue(bits.isEmpty());
+      bits.set(3);
+      bits.set(64);
+      bits.set(1000);
+      assertTrue(bits.get(3));
+      assertTrue(bits.get(1000));
+      assertFalse(bits.get(4));
+      assertFalse(bits.get(100000));
+      assertEquals(3, bits.cardinality());
+
+      bits.clear(64);
+      bits.flip(3);
+      bits.set(5, true);
+      assertFalse(bits.get(64));
+      assertFalse(bits.get(3));
+      assertEquals("{5, 1000}", bits.toString());
+
+      bits.clear();
+      assertTrue(bits.isEmpty());
+      assertTrue(bits.capacity() >= 1001);
+   }
+
+   @Test(expected = IndexOutOfBoundsException.class)
+   public void negativeIndex() {
+      new BitSet().get(-1);
+   }
+
+   @Test
+   public void iteration() {
+      BitSet bits = new BitSet();
+      java.util.BitSet expected = new java.util.BitSet();
+      for (int i = 0; i < 3000; i += 1 + i % 13) {
+         bits.set(i);
+         expected.set(i);
+      }
+
+      for (int i = 0; i < 3100; i++) {
+         assertEquals(expected.nextSetBit(i), bits.nextSetBit(i));
+         assertEquals(expected.nextClearBit(i), bits.nextClearBit(i));
+      }
+   }
+
+   @Test
+   public void logical() {
+      BitSet a = new BitSet();
+      BitSet b = new BitSet(1000);
+      a.set(1);
+      a.set(2);
+      b.set(2);
+      b.set(500);
+
+      BitSet or = new BitSet().or(a).or(b);
+      assertEquals("{1, 2, 500}", or.toString());
+      assertEquals("{2}", new BitSet().or(a).and(b).toString());
+      assertEquals("{1}", new BitSet().or(a).andNot(b).toString());
+
+      // Equality does not depend on capacity
+      BitSet small = new BitSet();
+      small.set(2);
+      BitSet big = new BitSet(5000);
+      big.set(2);
+      assertEquals(small, big);
+      assertEquals(small.hashCode(), big.hashCode());
+   }
+}
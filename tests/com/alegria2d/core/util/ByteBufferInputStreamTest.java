@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import java.nio.ByteBuffer;
+import org.junit.Test;
+
+/**
+ * Tests ByteBufferInputStream class
+ * @author Vinicius G. Mendonca
+ */
+public class ByteBufferInputStreamTest {
+   private static ByteBuffer newBuffer(boolean direct) {
+      ByteBuffer buffer = direct ? ByteBuffer.allocateDirect(8) : ByteBuffer.allocate(8);
+      for (int i = 0; i < 8; i++)
+         buffer.put((byte) (i * 40));
+      buffer.position(2);
+      return buffer;
+   }
+
+   @Test
+   public void readsFromPositionToLimit() {
+      for (boolean direct : new boolean[] { false, true }) {
+         ByteBuffer buffer = newBuffer(direct);
+         buffer.limit(6);
+         ByteBufferInputStream in = new ByteBufferInputStream(buffer);
+
+         assertEquals(4, in.available());
+         assertEquals(80, in.read());
+         byte[] b = new byte[5];
+         assertEquals(3, in.read(b, 1, 4));
+         assertArrayEquals(new byte[] { 0, 120, (byte) 160, (byte) 200, 0 }, b);
+         assertEquals(-1, in.read());
+         assertEquals(-1, in.read(b, 0, 5));
+
+         // The original buffer is untouched
+         assertEquals(2, buffer.position());
+      }
+   }
+
+   @Test
+   public void skipAndMark() {
+      ByteBufferInputStream in = new ByteBufferInputStream(newBuffer(false));
+      assertEquals(2, in.skip(2));
+      in.mark(10);
+      assertEquals(160, in.read());
+      in.reset();
+      assertEquals(160, in.read());
+      assertEquals(3, in.skip(100));
+      assertEquals(0, in.available());
+   }
+}
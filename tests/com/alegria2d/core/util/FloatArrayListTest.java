@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests FloatArrayList class.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class FloatArrayListTest {
+   @Test
+   public void addAndRemove() {
+      FloatArrayList list = new FloatArrayList(1);
+      for (int i = 0; i < 50; i++)
+         list.add(i * 0.5f);
+      assertEquals(50, list.size());
+      assertEquals(1.5f, list.get(3), 0);
+      assertEquals(1.5f, list.removeAt(3), 0);
+      assertEquals(2.0f, list.get(3), 0);
+      assertEquals(24.5f, list.removeLast(), 0);
+      assertEquals(48, list.size());
+      assertEquals(2, list.indexOf(1.0f));
+
+      list.clear();
+      assertTrue(list.isEmpty());
+   }
+
+   @Test
+   public void bulk() {
+      FloatArrayList list = new FloatArrayList();
+      list.addAll(new float[] {3, 1, 2}, 0, 3);
+      list.sort();
+      assertArrayEquals(new float[] {1, 2, 3}, list.toArray(), 0);
+      assertEquals(new FloatArrayList().add(1).add(2).add(3), list);
+      assertEquals("[1.0, 2.0, 3.0]", list.toString());
+   }
+
+   @Test(expected = IndexOutOfBoundsException.class)
+   public void setOutside() {
+      new FloatArrayList().set(0, 1);
+   }
+}
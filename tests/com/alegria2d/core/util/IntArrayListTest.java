@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests IntArrayList class.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class IntArrayListTest {
+   @Test
+   public void addAndRemove() {
+      IntArrayList list = new IntArrayList(0);
+      for (int i = 0; i < 100; i++)
+         list.add(i);
+      assertEquals(100, list.size());
+      assertEquals(42, list.get(42));
+
+      assertEquals(10, list.removeAt(10));
+      assertEquals(11, list.get(10));
+      assertEquals(0, list.removeFast(0));
+      assertEquals(99, list.get(0));
+      assertEquals(98, list.removeLast());
+      assertEquals(97, list.size());
+
+      assertEquals(4, list.set(4, -1));
+      assertEquals(4, list.indexOf(-1));
+      assertFalse(list.contains(10));
+
+      list.clear();
+      assertTrue(list.isEmpty());
+   }
+
+   @Test
+   public void bulk() {
+      IntArrayList list = new IntArrayList();
+      list.addAll(new int[] {9, 3, 7, 1, 5}, 1, 3).add(4);
+      list.sort();
+      assertArrayEquals(new int[] {1, 3, 4, 7}, list.toArray());
+      assertEquals(new IntArrayList().add(1).add(3).add(4).add(7), list);
+      assertEquals(new IntArrayList().add(1).add(3).add(4).add(7).hashCode(), list.hashCode());
+      assertEquals("[1, 3, 4, 7]", list.toString());
+   }
+
+   @Test(expected = IndexOutOfBoundsException.class)
+   public void getOutside() {
+      new IntArrayList().add(1).get(1);
+   }
+
+   @Test(expected = IndexOutOfBoundsException.class)
+   public void removeLastEmpty() {
+      new IntArrayList().removeLast();
+   }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests IntObjectMap class, comparing it with a {@link HashMap}.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class IntObjectMapTest {
+   @Test
+   public void putGetRemove() {
+      IntObjectMap<String> map = new IntObjectMap<String>();
+      assertTrue(map.isEmpty());
+      assertNull(map.put(1, "one"));
+      assertNull(map.put(0, "zero"));
+      assertNull(map.put(-5, "minus five"));
+      assertEquals("one", map.put(1, "ONE"));
+      assertEquals(3, map.size());
+
+      assertEquals("ONE", map.get(1));
+      assertEquals("zero", map.get(0));
+      assertEquals("minus five", map.get(-5));
+      assertNull(map.get(2));
+      assertFalse(map.containsKey(2));
+
+      assertEquals("zero", map.remove(0));
+      assertFalse(map.containsKey(0));
+      assertNull(map.remove(0));
+      assertEquals(2, map.size());
+
+      map.clear();
+      assertTrue(map.isEmpty());
+      assertNull(map.get(1));
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void nullValue() {
+      new IntObjectMap<String>().put(1, null);
+   }
+
+   @Test
+   public void randomOperations() {
+      IntObjectMap<Integer> map = new IntObjectMap<Integer>(4);
+      Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+      Random random = new Random(42);
+
+      for (int i = 0; i < 200000; i++) {
+         // Few distinct keys, so removals and collisions are frequent
+         int key = random.nextInt(2000) - 1000;
+         if (random.nextInt(3) == 0)
+            assertEquals(expected.remove(key), map.remove(key));
+         else
+            assertEquals(expected.put(key, i), map.put(key, i));
+      }
+
+      assertEquals(expected.size(), map.size());
+      for (int key = -1000; key < 1000; key++)
+         assertEquals(expected.get(key), map.get(key));
+   }
+
+   @Test
+   public void iteration() {
+      IntObjectMap<String> map = new IntObjectMap<String>();
+      for (int i = 0; i < 100; i++)
+         map.put(i * 7, "v" + i);
+
+      int count = 0;
+      long keySum = 0;
+      for (int slot = map.nextSlot(-1); slot != -1; slot = map.nextSlot(slot)) {
+         assertEquals("v" + map.keyAt(slot) / 7, map.valueAt(slot));
+         map.setValueAt(slot, "changed");
+         keySum += map.keyAt(slot);
+         count++;
+      }
+      assertEquals(100, count);
+      assertEquals(7 * 99 * 100 / 2, keySum);
+      assertEquals("changed", map.get(0));
+      assertEquals("changed", map.get(693));
+   }
+}
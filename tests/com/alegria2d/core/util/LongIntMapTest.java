@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests LongIntMap class, comparing it with a {@link HashMap}.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class LongIntMapTest {
+   @Test
+   public void putGetRemove() {
+      LongIntMap map = new LongIntMap();
+      map.put(1L << 40, 10).put(0, 20).put(-3, 30);
+      assertEquals(3, map.size());
+      assertEquals(10, map.get(1L << 40, -1));
+      assertEquals(20, map.get(0, -1));
+      assertEquals(-1, map.get(5, -1));
+
+      assertEquals(25, map.add(0, 5));
+      assertEquals(7, map.add(99, 7));
+      assertEquals(4, map.size());
+
+      assertTrue(map.remove(0));
+      assertFalse(map.remove(0));
+      assertFalse(map.containsKey(0));
+      assertEquals(3, map.add(0, 3));
+
+      map.clear();
+      assertTrue(map.isEmpty());
+      assertFalse(map.containsKey(99));
+   }
+
+   @Test
+   public void randomOperations() {
+      LongIntMap map = new LongIntMap(0);
+      Map<Long, Integer> expected = new HashMap<Long, Integer>();
+      Random random = new Random(42);
+
+      for (int i = 0; i < 200000; i++) {
+         // Packed grid cells
+         long key = (long) random.nextInt(40) << 32 | random.nextInt(40);
+         int action = random.nextInt(4);
+         if (action == 0)
+            assertEquals(expected.remove(key) != null, map.remove(key));
+         else if (action == 1) {
+            Integer old = expected.get(key);
+            expected.put(key, (old == null ? 0 : old) + 1);
+            assertEquals((int) expected.get(key), map.add(key, 1));
+         } else {
+            expected.put(key, i);
+            map.put(key, i);
+         }
+      }
+
+      assertEquals(expected.size(), map.size());
+      int count = 0;
+      for (int slot = map.nextSlot(-1); slot != -1; slot = map.nextSlot(slot)) {
+         assertEquals((int) expected.get(map.keyAt(slot)), map.valueAt(slot));
+         count++;
+      }
+      assertEquals(expected.size(), count);
+   }
+}
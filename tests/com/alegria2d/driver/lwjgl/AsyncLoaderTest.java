@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.lwjgl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.lwjgl.opengl.GL11.GL_RGBA;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import javax.imageio.ImageIO;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.newdawn.slick.opengl.Texture;
+import org.newdawn.slick.opengl.TextureImpl;
+import com.alegria2d.core.driver.graphics.Image;
+import com.alegria2d.driver.lwjgl.graphics.OglAsyncLoader;
+import com.alegria2d.driver.lwjgl.graphics.OglImageLoader.Filter;
+
+/**
+ * Tests the {@link OglAsyncLoader} class. OpenGL is never called, so no window is needed.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class AsyncLoaderTest {
+   private static final long TIMEOUT = 10000000000L;
+
+   private FakeLoader loader;
+   private byte[] png;
+
+   @Before
+   public void init() throws IOException {
+      loader = new FakeLoader();
+      BufferedImage source = new BufferedImage(3, 2, BufferedImage.TYPE_INT_ARGB);
+      source.setRGB(1, 1, 0x80FF0000);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      ImageIO.write(source, "png", out);
+      png = out.toByteArray();
+   }
+
+   @After
+   public void dispose() {
+      loader.dispose();
+   }
+
+   private void waitDecoding(int count) throws InterruptedException {
+      long start = System.nanoTime();
+      while (loader.getPendingUploads() < count) {
+         assertTrue("Decoding took too long", System.nanoTime() - start < TIMEOUT);
+         Thread.sleep(1);
+      }
+   }
+
+   @Test
+   public void imagesAreUploadedByProcess() throws Exception {
+      Future<Image> future = loader.load("PNG", new ByteArrayInputStream(png), Filter.FAST);
+      waitDecoding(1);
+      assertFalse(future.isDone());
+      assertEquals(0, loader.textures.size());
+
+      assertEquals(1, loader.process());
+      assertTrue(future.isDone());
+      assertEquals(Thread.currentThread(), loader.uploadThread);
+
+      Image image = future.get();
+      assertEquals(4, image.getWidth());
+      assertTrue(image.hasAlpha());
+      assertEquals(1, loader.textures.size());
+      assertEquals(0, loader.getPendingUploads());
+   }
+
+   @Test
+   public void uploadsRespectBudget() throws Exception {
+      loader.uploadTime = 2;
+      List<Future<Image>> futures = new ArrayList<Future<Image>>();
+      for (int i = 0; i < 20; i++)
+         futures.add(loader.load("PNG", new ByteArrayInputStream(png), Filter.FAST));
+      waitDecoding(20);
+
+      // At least one upload is always done, even with no budget
+      assertEquals(1, loader.process(0));
+
+      int frames = 0;
+      while (loader.getPendingUploads() > 0) {
+         int uploaded = loader.process(5000000L);
+         assertTrue(uploaded >= 1);
+         assertTrue("Uploaded " + uploaded + " images in a 5ms frame", uploaded <= 3);
+         frames++;
+      }
+      assertTrue(frames >= 6);
+      for (Future<Image> future : futures)
+         assertTrue(future.isDone());
+   }
+
+   @Test(expected = ExecutionException.class)
+   public void decodingErrorsReachTheFuture() throws Exception {
+      byte[] garbage = { 1, 2, 3 };
+      loader.load("PNG", new ByteArrayInputStream(garbage), Filter.FAST).get();
+   }
+
+   @Test
+   public void cancelledImagesAreNotUploaded() throws Exception {
+      Future<Image> future = loader.load("PNG", new ByteArrayInputStream(png), Filter.FAST);
+      waitDecoding(1);
+      future.cancel(false);
+      assertEquals(0, loader.process());
+      assertEquals(0, loader.textures.size());
+   }
+
+   /**
+    * An async loader that records the texture uploads instead of calling OpenGL.
+    */
+   private static class FakeLoader extends OglAsyncLoader {
+      private List<Texture> textures = new ArrayList<Texture>();
+      private Thread uploadThread;
+      private long uploadTime = 0;
+
+      public FakeLoader() {
+         super(null, 2);
+      }
+
+      @Override
+      protected Texture createTexture(String ref, ByteBuffer pixels, int format,
+            int width, int height, int texWidth, int texHeight,
+            boolean alpha, Filter filter)
+      {
+         assertEquals(GL_RGBA, format);
+         if (uploadTime > 0) {
+            try {
+               Thread.sleep(uploadTime);
+            } catch (InterruptedException e) {
+               throw new RuntimeException(e);
+            }
+         }
+
+         uploadThread = Thread.currentThread();
+         TextureImpl texture = new TextureImpl(ref, GL_TEXTURE_2D, textures.size() + 1);
+         texture.setWidth(width);
+         texture.setHeight(height);
+         texture.setTextureWidth(texWidth);
+         texture.setTextureHeight(texHeight);
+         texture.setAlpha(alpha);
+         textures.add(texture);
+         return texture;
+      }
+   }
+}
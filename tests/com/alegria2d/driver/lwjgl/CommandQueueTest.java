@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.lwjgl;
+
+import static com.alegria2d.driver.lwjgl.TestImages.newImage;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import com.alegria2d.driver.lwjgl.graphics.OglCommandQueue;
+import com.alegria2d.driver.lwjgl.graphics.OglImage;
+import com.alegria2d.driver.lwjgl.graphics.OglSpriteBatch;
+
+/**
+ * Tests the {@link OglCommandQueue} class. OpenGL is never called, so no window is needed.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class CommandQueueTest {
+   private OglCommandQueue queue;
+   private RecordingBatch batch;
+   private OglImage opaque1;
+   private OglImage opaque2;
+   private OglImage translucent1;
+   private OglImage translucent2;
+
+   @Before
+   public void init() {
+      queue = new OglCommandQueue(4);
+      batch = new RecordingBatch();
+      opaque1 = newImage(1, false);
+      opaque2 = newImage(2, false);
+      translucent1 = newImage(3, true);
+      translucent2 = newImage(4, true);
+   }
+
+   private void add(int layer, int depth, OglImage image, float x) {
+      queue.add(layer, depth, image, x, 0, 10, 10, 0, 1, 1, 1);
+   }
+
+   @Test
+   public void radixSortMatchesArraysSort() {
+      Random random = new Random(42);
+      for (int size : new int[] { 0, 1, 2, 17, 1000 }) {
+         long[] keys = new long[size];
+         for (int i = 0; i < size; i++)
+            keys[i] = random.nextLong() & Long.MAX_VALUE;
+
+         long[] expected = keys.clone();
+         Arrays.sort(expected);
+         OglCommandQueue.radixSort(keys, new long[size], size);
+         assertArrayEquals(expected, keys);
+      }
+   }
+
+   @Test
+   public void radixSortIsUnsigned() {
+      long[] keys = { -1L, 0L, Long.MIN_VALUE, Long.MAX_VALUE, 1L };
+      OglCommandQueue.radixSort(keys, new long[keys.length], keys.length);
+      assertArrayEquals(new long[] { 0L, 1L, Long.MAX_VALUE, Long.MIN_VALUE, -1L }, keys);
+   }
+
+   @Test
+   public void opaqueImagesAreGroupedByTexture() {
+      batch.begin();
+      for (int i = 0; i < 10; i++)
+         add(0, 0, i % 2 == 0 ? opaque1 : opaque2, i);
+      assertEquals(10, queue.size());
+      queue.flush(batch);
+      batch.end();
+
+      assertEquals(0, queue.size());
+      assertEquals(2, batch.getDrawCalls());
+      assertEquals(10, batch.getSpritesDrawn());
+      // Images with the same texture keep their call order
+      assertEquals(Arrays.asList(0f, 2f, 4f, 6f, 8f, 1f, 3f, 5f, 7f, 9f), batch.xs);
+   }
+
+   @Test
+   public void translucentImagesKeepCallOrder() {
+      batch.begin();
+      add(0, 0, translucent1, 0);
+      add(0, 0, opaque1, 1);
+      add(0, 0, translucent2, 2);
+      add(0, 0, opaque1, 3);
+      add(0, 0, translucent1, 4);
+      queue.flush(batch);
+      batch.end();
+
+      // Inside the same depth, opaque images first, then translucent ones in call order
+      assertEquals(Arrays.asList(1f, 3f, 0f, 2f, 4f), batch.xs);
+      assertEquals(4, batch.getDrawCalls());
+   }
+
+   @Test
+   public void depthWinsOverTranslucency() {
+      batch.begin();
+      add(0, 5, opaque1, 0);
+      add(0, 0, translucent1, 1);
+      add(0, 7, translucent2, 2);
+      add(0, 3, opaque2, 3);
+      queue.flush(batch);
+      batch.end();
+
+      // A translucent shadow below an opaque sprite must be drawn before it, since there is no depth buffer
+      assertEquals(Arrays.asList(1f, 3f, 0f, 2f), batch.xs);
+   }
+
+   @Test
+   public void layersAndDepthsAreRespected() {
+      batch.begin();
+      add(2, 0, opaque1, 0);
+      add(0, 5, opaque1, 1);
+      add(1, 0, translucent1, 2);
+      add(0, 1, opaque2, 3);
+      add(1, 0, opaque2, 4);
+      queue.flush(batch);
+      batch.end();
+
+      assertEquals(Arrays.asList(3f, 1f, 4f, 2f, 0f), batch.xs);
+   }
+
+   @Test
+   public void queueGrows() {
+      batch.begin();
+      for (int i = 0; i < 100; i++)
+         add(0, 99 - i, opaque1, i);
+      queue.flush(batch);
+      batch.end();
+
+      assertEquals(100, batch.xs.size());
+      for (int i = 0; i < 100; i++)
+         assertEquals(99 - i, batch.xs.get(i), 0);
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void invalidLayer() {
+      add(OglCommandQueue.MAX_LAYER + 1, 0, opaque1, 0);
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void invalidDepth() {
+      add(0, -1, opaque1, 0);
+   }
+
+   /**
+    * A sprite batch that records the x coordinate of each drawn image, and never calls OpenGL.
+    */
+   private static class RecordingBatch extends OglSpriteBatch {
+      private List<Float> xs = new ArrayList<Float>();
+
+      @Override
+      public void draw(OglImage image, float x, float y, float w, float h, float angle, float r, float g, float b) {
+         xs.add(x);
+         super.draw(image, x, y, w, h, angle, r, g, b);
+      }
+
+      @Override
+      protected void render(OglImage texture, boolean blending, FloatBuffer vertices, int count) {
+      }
+   }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.lwjgl;
+
+import static org.junit.Assert.assertEquals;
+import static org.lwjgl.opengl.GL11.GL_BLEND;
+import static org.lwjgl.opengl.GL11.GL_ONE;
+import static org.lwjgl.opengl.GL11.GL_ONE_MINUS_SRC_ALPHA;
+import static org.lwjgl.opengl.GL11.GL_SRC_ALPHA;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
+import org.junit.Before;
+import org.junit.Test;
+import com.alegria2d.driver.lwjgl.graphics.OglFacade;
+import com.alegria2d.driver.lwjgl.graphics.OglRenderState;
+
+/**
+ * Tests the {@link OglRenderState} class with a facade that only counts calls.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class RenderStateTest {
+   private CountingFacade gl;
+   private OglRenderState state;
+
+   @Before
+   public void init() {
+      gl = new CountingFacade();
+      state = new OglRenderState(gl);
+   }
+
+   @Test
+   public void firstChangesAreIssued() {
+      state.enable(GL_TEXTURE_2D);
+      state.disable(GL_BLEND);
+      state.blendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+      state.bindTexture(1);
+      state.color(1, 1, 1);
+
+      assertEquals(5, gl.calls);
+      assertEquals(5, state.getIssuedChanges());
+      assertEquals(0, state.getSkippedChanges());
+   }
+
+   @Test
+   public void repeatedChangesAreSkipped() {
+      // Same sequence the renderer issues for each opaque image of the same texture and color.
+      for (int i = 0; i < 100; i++) {
+         state.enable(GL_TEXTURE_2D);
+         state.disable(GL_BLEND);
+         state.bindTexture(7);
+         state.color(1, 0.5f, 0.25f);
+      }
+
+      assertEquals(4, gl.calls);
+      assertEquals(4, state.getIssuedChanges());
+      assertEquals(396, state.getSkippedChanges());
+   }
+
+   @Test
+   public void realChangesAreIssued() {
+      state.enable(GL_BLEND);
+      state.disable(GL_BLEND);
+      state.enable(GL_BLEND);
+      assertEquals(3, gl.enables + gl.disables);
+
+      state.blendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+      state.blendFunc(GL_SRC_ALPHA, GL_ONE);
+      assertEquals(2, gl.blendFuncs);
+
+      state.bindTexture(1);
+      state.bindTexture(2);
+      state.bindTexture(1);
+      assertEquals(3, gl.binds);
+
+      state.color(1, 1, 1);
+      state.color(1, 1, 1, 0.5f);
+      assertEquals(2, gl.colors);
+      assertEquals(0, state.getSkippedChanges());
+   }
+
+   @Test
+   public void invalidateForgetsState() {
+      state.enable(GL_TEXTURE_2D);
+      state.bindTexture(3);
+      state.color(1, 1, 1);
+      state.invalidate();
+      state.enable(GL_TEXTURE_2D);
+      state.bindTexture(3);
+      state.color(1, 1, 1);
+      assertEquals(6, gl.calls);
+
+      state.invalidateColor();
+      state.bindTexture(3);
+      state.color(1, 1, 1);
+      assertEquals(7, gl.calls);
+   }
+
+   @Test
+   public void resetStats() {
+      state.bindTexture(3);
+      state.bindTexture(3);
+      state.resetStats();
+      assertEquals(0, state.getIssuedChanges());
+      assertEquals(0, state.getSkippedChanges());
+   }
+
+   private static class CountingFacade implements OglFacade {
+      private int calls, enables, disables, blendFuncs, binds, colors;
+
+      @Override
+      public void enable(int cap) {
+         calls++;
+         enables++;
+      }
+
+      @Override
+      public void disable(int cap) {
+         calls++;
+         disables++;
+      }
+
+      @Override
+      public void blendFunc(int src, int dst) {
+         calls++;
+         blendFuncs++;
+      }
+
+      @Override
+      public void bindTexture(int texture) {
+         calls++;
+         binds++;
+      }
+
+      @Override
+      public void color(float r, float g, float b, float a) {
+         calls++;
+         colors++;
+      }
+   }
+}
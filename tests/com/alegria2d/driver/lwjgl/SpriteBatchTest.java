@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.lwjgl;
+
+import static com.alegria2d.driver.lwjgl.TestImages.newImage;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.nio.FloatBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import com.alegria2d.core.exception.PrematureCallException;
+import com.alegria2d.driver.lwjgl.graphics.OglImage;
+import com.alegria2d.driver.lwjgl.graphics.OglSpriteBatch;
+
+/**
+ * Tests the {@link OglSpriteBatch} class. OpenGL is never called, so no window is needed.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class SpriteBatchTest {
+   private static final float DELTA = 0.0001f;
+
+   private CountingBatch batch;
+   private OglImage opaque1;
+   private OglImage opaque2;
+   private OglImage translucent;
+
+   @Before
+   public void init() {
+      batch = new CountingBatch(4);
+      opaque1 = newImage(1, false);
+      opaque2 = newImage(2, false);
+      translucent = newImage(3, true);
+   }
+
+   @Test(expected = PrematureCallException.class)
+   public void drawWithoutBegin() {
+      batch.draw(opaque1, 0, 0, 10, 10, 0, 1, 1, 1);
+   }
+
+   @Test
+   public void sameTextureSharesDrawCall() {
+      batch.begin();
+      assertTrue(batch.isDrawing());
+      batch.draw(opaque1, 0, 0, 10, 10, 0, 1, 1, 1);
+      batch.draw(opaque1, 5, 5, 10, 10, 45, 1, 1, 1);
+      batch.draw(opaque1, 9, 9, 10, 10, 90, 1, 1, 1);
+      assertEquals(0, batch.getDrawCalls());
+      assertEquals(3, batch.getPendingSprites());
+      batch.end();
+      assertFalse(batch.isDrawing());
+
+      assertEquals(1, batch.getDrawCalls());
+      assertEquals(3, batch.getSpritesDrawn());
+      assertEquals(3, batch.lastCount);
+   }
+
+   @Test
+   public void textureAndBlendChangesFlush() {
+      batch.begin();
+      batch.draw(opaque1, 0, 0, 10, 10, 0, 1, 1, 1);
+      batch.draw(opaque2, 0, 0, 10, 10, 0, 1, 1, 1);
+      batch.draw(opaque2, 0, 0, 10, 10, 0, 1, 1, 1);
+      batch.draw(translucent, 0, 0, 10, 10, 0, 1, 1, 1);
+      batch.draw(opaque1, 0, 0, 10, 10, 0, 1, 1, 1);
+      batch.end();
+
+      assertEquals(4, batch.getDrawCalls());
+      assertEquals(5, batch.getSpritesDrawn());
+   }
+
+   @Test
+   public void fullBatchFlushes() {
+      batch.begin();
+      for (int i = 0; i < 10; i++)
+         batch.draw(opaque1, i, i, 10, 10, 0, 1, 1, 1);
+      assertEquals(2, batch.getDrawCalls());
+      batch.end();
+      assertEquals(3, batch.getDrawCalls());
+      assertEquals(10, batch.getSpritesDrawn());
+
+      batch.resetStats();
+      assertEquals(0, batch.getDrawCalls());
+      assertEquals(0, batch.getSpritesDrawn());
+   }
+
+   @Test
+   public void verticesAreRotatedAroundCenter() {
+      batch.begin();
+      batch.draw(translucent, 100, 50, 20, 10, 90, 0.5f, 0.25f, 1);
+      batch.flush();
+
+      assertTrue(batch.lastBlending);
+      // Corner (w/2, h/2) = (10, 5), rotated 90 degrees becomes (-5, 10)
+      float[] v = batch.lastVertices;
+      assertEquals(95, v[0], DELTA);
+      assertEquals(60, v[1], DELTA);
+      assertEquals(1, v[2], DELTA);
+      assertEquals(0, v[3], DELTA);
+      assertEquals(0.5f, v[4], DELTA);
+      assertEquals(0.25f, v[5], DELTA);
+      assertEquals(1, v[6], DELTA);
+
+      // Corner (-w/2, -h/2) = (-10, -5), rotated 90 degrees becomes (5, -10)
+      assertEquals(105, v[14], DELTA);
+      assertEquals(40, v[15], DELTA);
+      assertEquals(0, v[16], DELTA);
+      assertEquals(1, v[17], DELTA);
+   }
+
+   /**
+    * A sprite batch that records what would be sent to OpenGL.
+    */
+   private static class CountingBatch extends OglSpriteBatch {
+      private int lastCount;
+      private boolean lastBlending;
+      private float[] lastVertices;
+
+      public CountingBatch(int capacity) {
+         super(capacity);
+      }
+
+      @Override
+      protected void render(OglImage texture, boolean blending, FloatBuffer vertices, int count) {
+         lastCount = count;
+         lastBlending = blending;
+         lastVertices = new float[vertices.remaining()];
+         vertices.get(lastVertices);
+      }
+   }
+}
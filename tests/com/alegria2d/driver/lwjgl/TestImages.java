@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.lwjgl;
+
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
+import org.newdawn.slick.opengl.TextureImpl;
+import com.alegria2d.driver.lwjgl.graphics.OglImage;
+
+/**
+ * Creates images for the renderer tests. Their textures are never uploaded, so no window is needed.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+final class TestImages {
+   private TestImages() {
+   }
+
+   /**
+    * @param id The texture id.
+    * @param alpha True if the image is translucent.
+    * @return A new image, whose texture has the given id.
+    */
+   static OglImage newImage(int id, boolean alpha) {
+      TextureImpl texture = new TextureImpl("test" + id, GL_TEXTURE_2D, id);
+      texture.setAlpha(alpha);
+      return new OglImage(texture);
+   }
+}
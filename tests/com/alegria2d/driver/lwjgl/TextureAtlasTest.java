@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.lwjgl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import javax.imageio.ImageIO;
+import org.junit.Test;
+import org.newdawn.slick.opengl.Texture;
+import org.newdawn.slick.opengl.TextureImpl;
+import com.alegria2d.driver.lwjgl.graphics.OglAtlasBuilder;
+import com.alegria2d.driver.lwjgl.graphics.OglAtlasPacker;
+import com.alegria2d.driver.lwjgl.graphics.OglImage;
+import com.alegria2d.driver.lwjgl.graphics.OglImageLoader.Filter;
+import com.alegria2d.driver.lwjgl.graphics.OglSpriteBatch;
+import com.alegria2d.driver.lwjgl.graphics.OglTextureAtlas;
+
+/**
+ * Tests the {@link OglAtlasPacker} and {@link OglAtlasBuilder} classes. OpenGL is never called, so no window is needed.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class TextureAtlasTest {
+   private static final float DELTA = 0.0001f;
+
+   @Test
+   public void packedRectanglesDoNotOverlap() {
+      OglAtlasPacker packer = new OglAtlasPacker(256, 256);
+      Random random = new Random(42);
+      List<int[]> placed = new ArrayList<int[]>();
+      int[] position = new int[2];
+
+      for (int i = 0; i < 200; i++) {
+         int w = 4 + random.nextInt(28);
+         int h = 4 + random.nextInt(28);
+         if (!packer.insert(w, h, position))
+            continue;
+
+         int[] r = { position[0], position[1], w, h };
+         assertTrue(r[0] >= 0 && r[1] >= 0 && r[0] + w <= 256 && r[1] + h <= 256);
+         for (int[] other : placed)
+            assertFalse(r[0] < other[0] + other[2] && other[0] < r[0] + w
+                  && r[1] < other[1] + other[3] && other[1] < r[1] + h);
+         placed.add(r);
+      }
+      assertTrue(packer.getOccupancy() > 0.8f);
+   }
+
+   @Test
+   public void equalRectanglesFillThePage() {
+      OglAtlasPacker packer = new OglAtlasPacker(64, 64);
+      int[] position = new int[2];
+      for (int i = 0; i < 16; i++)
+         assertTrue(packer.insert(16, 16, position));
+      assertFalse(packer.insert(1, 1, position));
+      assertEquals(1.0f, packer.getOccupancy(), DELTA);
+   }
+
+   @Test
+   public void imagesBecomePageRegions() {
+      FakeAtlasBuilder builder = new FakeAtlasBuilder(64);
+      builder.setPadding(0);
+      int small = builder.add(16, 8, new byte[16 * 8 * 4], false);
+      int big = builder.add(32, 32, new byte[32 * 32 * 4], true);
+      OglTextureAtlas atlas = builder.build();
+
+      assertEquals(1, atlas.getPageCount());
+      assertEquals(2, atlas.getImageCount());
+      assertEquals(0, builder.size());
+
+      // The biggest image is packed first, at the origin.
+      OglImage image = atlas.getImage(big);
+      assertEquals(0, image.getU0(), DELTA);
+      assertEquals(0, image.getV0(), DELTA);
+      assertEquals(0.5f, image.getU1(), DELTA);
+      assertEquals(0.5f, image.getV1(), DELTA);
+      assertEquals(32, image.getWidth());
+      assertTrue(image.hasAlpha());
+      assertTrue(image.isRegion());
+
+      image = atlas.getImage(small);
+      assertEquals(16, image.getWidth());
+      assertEquals(8, image.getHeight());
+      assertFalse(image.hasAlpha());
+      assertEquals(atlas.getImage(big).getTextureID(), image.getTextureID());
+   }
+
+   @Test
+   public void pixelsAreCopiedToThePage() throws Exception {
+      BufferedImage source = new BufferedImage(3, 2, BufferedImage.TYPE_INT_ARGB);
+      source.setRGB(0, 0, 0xFFFF0000);
+      source.setRGB(2, 1, 0x8000FF00);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      ImageIO.write(source, "png", out);
+
+      FakeAtlasBuilder builder = new FakeAtlasBuilder(8);
+      builder.add(4, 4, new byte[4 * 4 * 4], false);
+      int index = builder.add("PNG", new ByteArrayInputStream(out.toByteArray()));
+      OglImage image = builder.build().getImage(index);
+
+      int x = Math.round(image.getU0() * 8);
+      int y = Math.round(image.getV0() * 8);
+      assertEquals(3, image.getWidth());
+      assertEquals(2, image.getHeight());
+      assertTrue(image.hasAlpha());
+      assertEquals(0xFF0000FF, builder.pixel(0, x, y));
+      assertEquals(0x00FF0080, builder.pixel(0, x + 2, y + 1));
+      assertEquals(0, builder.pixel(0, x + 1, y));
+   }
+
+   @Test
+   public void fullPagesOpenNewOnes() {
+      FakeAtlasBuilder builder = new FakeAtlasBuilder(32);
+      for (int i = 0; i < 5; i++)
+         builder.add(15, 15, new byte[15 * 15 * 4], false);
+      OglTextureAtlas atlas = builder.build();
+
+      assertEquals(2, atlas.getPageCount());
+      assertTrue(atlas.getImage(0).getTextureID() != atlas.getImage(4).getTextureID());
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void imageBiggerThanPage() {
+      new FakeAtlasBuilder(32).add(32, 8, new byte[32 * 8 * 4], false);
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void paddingRaisedAfterAdd() {
+      FakeAtlasBuilder builder = new FakeAtlasBuilder(32);
+      builder.setPadding(0);
+      builder.add(30, 30, new byte[30 * 30 * 4], false);
+      builder.setPadding(4);
+      builder.build();
+   }
+
+   @Test
+   public void regionsShareDrawCall() {
+      FakeAtlasBuilder builder = new FakeAtlasBuilder(64);
+      for (int i = 0; i < 4; i++)
+         builder.add(8, 8, new byte[8 * 8 * 4], false);
+      OglTextureAtlas atlas = builder.build();
+
+      OglSpriteBatch batch = new OglSpriteBatch() {
+         @Override
+         protected void render(OglImage texture, boolean blending, FloatBuffer vertices, int count) {
+         }
+      };
+      batch.begin();
+      for (int i = 0; i < 4; i++)
+         batch.draw(atlas.getImage(i), 0, 0, 8, 8, 0, 1, 1, 1);
+      batch.end();
+      assertEquals(1, batch.getDrawCalls());
+   }
+
+   /**
+    * An atlas builder that keeps the page pixels in memory instead of creating OpenGL textures.
+    */
+   private static class FakeAtlasBuilder extends OglAtlasBuilder {
+      private List<ByteBuffer> pages = new ArrayList<ByteBuffer>();
+
+      public FakeAtlasBuilder(int pageSize) {
+         super(pageSize, Filter.FAST, null);
+      }
+
+      @Override
+      protected Texture createTexture(int page, ByteBuffer pixels, int size, boolean alpha) {
+         pages.add(pixels);
+         TextureImpl texture = new TextureImpl("page" + page, GL_TEXTURE_2D, page + 1);
+         texture.setTextureWidth(size);
+         texture.setTextureHeight(size);
+         texture.setAlpha(alpha);
+         return texture;
+      }
+
+      public int pixel(int page, int x, int y) {
+         return pages.get(page).order(ByteOrder.BIG_ENDIAN).getInt((y * getPageSize() + x) * 4);
+      }
+   }
+}
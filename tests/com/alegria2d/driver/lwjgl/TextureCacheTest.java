@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.lwjgl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.newdawn.slick.opengl.TextureImpl;
+import com.alegria2d.core.driver.graphics.Image;
+import com.alegria2d.driver.lwjgl.graphics.OglImage;
+import com.alegria2d.driver.lwjgl.graphics.OglImageLoader;
+import com.alegria2d.driver.lwjgl.graphics.OglTextureCache;
+
+/**
+ * Tests the {@link OglTextureCache} class. OpenGL is never called, so no window is needed.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class TextureCacheTest {
+   // A 16x16 opaque texture takes 768 bytes
+   private static final long TEXTURE_BYTES = 16 * 16 * 3;
+
+   private FakeCache cache;
+
+   @Before
+   public void init() {
+      cache = new FakeCache(TEXTURE_BYTES * 3);
+   }
+
+   private OglImage acquire(String id) throws IOException {
+      return cache.acquire(id, "PNG", new ByteArrayInputStream(new byte[0]));
+   }
+
+   @Test
+   public void sameIdIsLoadedOnce() throws IOException {
+      OglImage first = acquire("hero.png");
+      OglImage second = acquire("hero.png");
+
+      assertSame(first, second);
+      assertEquals(1, cache.loads);
+      assertEquals(1, cache.getMisses());
+      assertEquals(1, cache.getHits());
+      assertEquals(2, cache.getReferences("hero.png"));
+      assertEquals(TEXTURE_BYTES, cache.getMemoryUsed());
+   }
+
+   @Test
+   public void referencedImagesAreNeverEvicted() throws IOException {
+      for (int i = 0; i < 5; i++)
+         acquire("image" + i);
+
+      assertEquals(5, cache.size());
+      assertEquals(0, cache.getEvictions());
+      assertTrue(cache.getMemoryUsed() > cache.getBudget());
+
+      // Releasing makes them evictable, until the budget is respected
+      for (int i = 0; i < 5; i++)
+         cache.release("image" + i);
+      assertEquals(3, cache.size());
+      assertEquals(2, cache.getEvictions());
+      assertFalse(cache.contains("image0"));
+      assertFalse(cache.contains("image1"));
+      assertEquals(TEXTURE_BYTES * 3, cache.getMemoryUsed());
+   }
+
+   @Test
+   public void leastRecentlyDrawnIsEvicted() throws IOException {
+      OglImage a = acquire("a");
+      OglImage b = acquire("b");
+      OglImage c = acquire("c");
+      a.markDrawn(3);
+      b.markDrawn(1);
+      c.markDrawn(2);
+      cache.release("a");
+      cache.release("b");
+      cache.release("c");
+
+      acquire("d");
+      assertEquals(1, cache.deleted.size());
+      assertSame(b, cache.deleted.get(0));
+      assertTrue(cache.contains("a"));
+      assertTrue(cache.contains("c"));
+
+      cache.setBudget(TEXTURE_BYTES * 2);
+      assertSame(c, cache.deleted.get(1));
+      assertEquals(2, cache.getEvictions());
+   }
+
+   @Test
+   public void trimDeletesUnreferenced() throws IOException {
+      acquire("a");
+      acquire("b");
+      cache.release("a");
+      cache.trim();
+
+      assertEquals(1, cache.size());
+      assertTrue(cache.contains("b"));
+      assertEquals(TEXTURE_BYTES, cache.getMemoryUsed());
+
+      cache.resetStats();
+      assertEquals(0, cache.getHits());
+      assertEquals(0, cache.getMisses());
+      assertEquals(0, cache.getEvictions());
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void releaseTwice() throws IOException {
+      acquire("a");
+      cache.release("a");
+      cache.release("a");
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void releaseUnknown() {
+      cache.release("unknown");
+   }
+
+   /**
+    * A cache that creates fake 16x16 textures and records deleted images.
+    */
+   private static class FakeCache extends OglTextureCache {
+      private int loads = 0;
+      private List<OglImage> deleted = new ArrayList<OglImage>();
+
+      public FakeCache(long budget) {
+         super(new OglImageLoader() {
+            private int id = 1;
+
+            @Override
+            public Image load(String format, InputStream source) {
+               TextureImpl texture = new TextureImpl("fake", GL_TEXTURE_2D, id++);
+               texture.setTextureWidth(16);
+               texture.setTextureHeight(16);
+               return new OglImage(texture);
+            }
+         }, budget);
+      }
+
+      @Override
+      public OglImage acquire(String id, String format, InputStream source) throws IOException {
+         if (!contains(id))
+            loads++;
+         return super.acquire(id, format, source);
+      }
+
+      @Override
+      protected void delete(OglImage image) {
+         deleted.add(image);
+      }
+   }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.lwjgl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import javax.imageio.ImageIO;
+import org.junit.Before;
+import org.junit.Test;
+import org.newdawn.slick.opengl.Texture;
+import org.newdawn.slick.opengl.TextureImpl;
+import com.alegria2d.driver.lwjgl.graphics.OglImage;
+import com.alegria2d.driver.lwjgl.graphics.OglTextureConverter;
+import com.alegria2d.driver.lwjgl.graphics.OglTextureFile;
+import com.alegria2d.driver.lwjgl.graphics.OglTextureFile.PixelFormat;
+import com.alegria2d.driver.lwjgl.graphics.OglTextureFileLoader;
+
+/**
+ * Tests the {@link OglTextureFile}, {@link OglTextureConverter} and {@link OglTextureFileLoader} classes. OpenGL is
+ * never called, so no window is needed.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class TextureFileTest {
+   private byte[] png;
+
+   @Before
+   public void init() throws IOException {
+      BufferedImage source = new BufferedImage(3, 2, BufferedImage.TYPE_INT_ARGB);
+      source.setRGB(0, 0, 0xFFFF0000);
+      source.setRGB(2, 1, 0x8000FF00);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      ImageIO.write(source, "png", out);
+      png = out.toByteArray();
+   }
+
+   private OglTextureFile convert(PixelFormat format) throws IOException {
+      return OglTextureConverter.convert("PNG", new ByteArrayInputStream(png), format);
+   }
+
+   private static byte[] toBytes(OglTextureFile file) throws IOException {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      file.write(out);
+      return out.toByteArray();
+   }
+
+   @Test
+   public void convertedImagesArePadded() throws IOException {
+      OglTextureFile file = convert(null);
+      assertEquals(PixelFormat.RGBA8, file.getFormat());
+      assertEquals(3, file.getWidth());
+      assertEquals(2, file.getHeight());
+      assertEquals(4, file.getTextureWidth());
+      assertEquals(2, file.getTextureHeight());
+
+      ByteBuffer pixels = file.getPixels().order(ByteOrder.BIG_ENDIAN);
+      assertEquals(4 * 2 * 4, pixels.remaining());
+      assertEquals(0xFF0000FF, pixels.getInt(0));
+      assertEquals(0x00FF0080, pixels.getInt((4 + 2) * 4));
+   }
+
+   @Test
+   public void packedFormats() throws IOException {
+      ByteBuffer pixels = convert(PixelFormat.RGBA4444).getPixels();
+      assertEquals(4 * 2 * 2, pixels.remaining());
+      assertEquals((short) 0xF00F, pixels.getShort(0));
+      assertEquals((short) 0x0F08, pixels.getShort((4 + 2) * 2));
+
+      pixels = convert(PixelFormat.RGB565).getPixels();
+      assertEquals((short) 0xF800, pixels.getShort(0));
+      assertEquals((short) 0x07E0, pixels.getShort((4 + 2) * 2));
+   }
+
+   @Test
+   public void writeAndRead() throws IOException {
+      OglTextureFile file = convert(PixelFormat.RGB8);
+      byte[] data = toBytes(file);
+      assertEquals(OglTextureFile.HEADER_SIZE + 4 * 2 * 3, data.length);
+
+      OglTextureFile read = OglTextureFile.read(ByteBuffer.wrap(data));
+      assertEquals(PixelFormat.RGB8, read.getFormat());
+      assertEquals(3, read.getWidth());
+      assertEquals(2, read.getHeight());
+      assertEquals(file.getPixels(), read.getPixels());
+   }
+
+   @Test(expected = IOException.class)
+   public void invalidMagic() throws IOException {
+      OglTextureFile.read(ByteBuffer.wrap(new byte[64]));
+   }
+
+   @Test(expected = IOException.class)
+   public void truncatedFile() throws IOException {
+      byte[] data = toBytes(convert(null));
+      OglTextureFile.read(ByteBuffer.wrap(data, 0, data.length - 1));
+   }
+
+   @Test(expected = IOException.class)
+   public void overflowingTextureSize() throws IOException {
+      // A 65536x65536 texture has 2^32 pixels, which overflow an int to 0 bytes
+      ByteBuffer data = ByteBuffer.wrap(toBytes(convert(null))).order(ByteOrder.LITTLE_ENDIAN);
+      data.putInt(16, 65536).putInt(20, 65536).putInt(24, 0);
+      OglTextureFile.read(data);
+   }
+
+   @Test
+   public void filesAreMappedWithoutCopies() throws IOException {
+      File temp = File.createTempFile("alegria", "." + OglTextureFile.EXTENSION);
+      temp.deleteOnExit();
+      FileOutputStream out = new FileOutputStream(temp);
+      try {
+         convert(null).write(out);
+      } finally {
+         out.close();
+      }
+
+      FakeLoader loader = new FakeLoader();
+      OglImage image = (OglImage) loader.load(temp.toPath());
+      assertEquals(4, image.getWidth());
+      assertTrue(image.hasAlpha());
+      assertTrue(loader.uploadedDirect);
+      assertEquals(0xFF, loader.uploaded.get(0) & 0xFF);
+
+      // Streams are read into a direct buffer
+      image = (OglImage) loader.load(OglTextureFile.EXTENSION, new ByteArrayInputStream(toBytes(convert(null))));
+      assertTrue(loader.uploadedDirect);
+      assertEquals(2, image.getHeight());
+
+      // Heap buffers are copied to a direct buffer
+      image = (OglImage) loader.load(OglTextureFile.EXTENSION, ByteBuffer.wrap(toBytes(convert(null))));
+      assertTrue(loader.uploadedDirect);
+      assertEquals(4, image.getWidth());
+   }
+
+   /**
+    * A loader that records the uploaded pixels instead of calling OpenGL.
+    */
+   private static class FakeLoader extends OglTextureFileLoader {
+      private ByteBuffer uploaded;
+      private boolean uploadedDirect;
+
+      @Override
+      protected Texture createTexture(OglTextureFile file) {
+         uploaded = file.getPixels();
+         uploadedDirect = uploaded.isDirect();
+
+         TextureImpl texture = new TextureImpl("fake", GL_TEXTURE_2D, 1);
+         texture.setTextureWidth(file.getTextureWidth());
+         texture.setTextureHeight(file.getTextureHeight());
+         texture.setAlpha(file.getFormat().hasAlpha());
+         return texture;
+      }
+   }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2011 Alegria contributors
+ * 
+ * See CREDITS for information about contributors.
+ * 
+ * http://alegria2d.com
+ * 
+ * This file is part of Alegria 2D Java Game Framework.
+ * 
+ * Alegria is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * Alegria is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with Alegria. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package com.alegria2d.driver.software;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.junit.Before;
+import org.junit.Test;
+import com.alegria2d.core.driver.graphics.Image;
+import com.alegria2d.core.driver.graphics.Renderer;
+import com.alegria2d.core.driver.graphics.UnableToChangeDisplayModeException;
+import com.alegria2d.core.driver.graphics.UnableToOpenWindowException;
+import com.alegria2d.driver.software.graphics.SoftwareDisplayMode;
+import com.alegria2d.driver.software.graphics.SoftwareFramebuffer;
+import com.alegria2d.driver.software.graphics.SoftwareImage;
+import com.alegria2d.driver.software.graphics.SoftwareRenderer;
+import com.alegria2d.driver.software.graphics.SoftwareScreen;
+
+/**
+ * Tests the software driver rendering. All screens are 800x600, with the default viewport and coordinates.
+ * 
+ * @author Vinicius G. Mendonca
+ */
+public class SoftwareRendererTest {
+   private static final int RED = 0xFFFF0000;
+   private static final int GREEN = 0xFF00FF00;
+   private static final int BLUE = 0xFF0000FF;
+   private static final int WHITE = 0xFFFFFFFF;
+   private static final int BLACK = 0xFF000000;
+
+   private SoftwareScreen screen;
+   private Renderer renderer;
+   private SoftwareFramebuffer fb;
+
+   /**
+    * A 2x2 image with red, green on the top row and blue, white on the bottom one.
+    */
+   private SoftwareImage quadrants;
+
+   @Before
+   public void init() throws UnableToOpenWindowException {
+      screen = (SoftwareScreen) new SoftwareDriverFactory().newScreen();
+      screen.init();
+      renderer = screen.getRenderer();
+      fb = screen.getFramebuffer();
+      renderer.clearScreen(0, 0, 0, 1);
+      quadrants = new SoftwareImage(2, 2, new int[] { RED, GREEN, BLUE, WHITE }, false);
+   }
+
+   @Test
+   public void isCreated() {
+      assertTrue(screen.isInit());
+      assertFalse(screen.isVisible());
+      assertEquals(SoftwareRenderer.class, renderer.getClass());
+      assertEquals(800, fb.getWidth());
+      assertEquals(600, fb.getHeight());
+   }
+
+   @Test
+   public void clearScreen() {
+      renderer.clearScreen(1, 0.5f, 0, 1);
+      assertEquals(0xFFFF8000, fb.getPixel(0, 0));
+      assertEquals(0xFFFF8000, fb.getPixel(799, 599));
+   }
+
+   @Test
+   public void drawImage() {
+      renderer.drawImage(quadrants, 400, 300, 100, 100, 0, 1, 1, 1);
+
+      assertEquals(RED, fb.getPixel(360, 260));
+      assertEquals(GREEN, fb.getPixel(440, 260));
+      assertEquals(BLUE, fb.getPixel(360, 340));
+      assertEquals(WHITE, fb.getPixel(440, 340));
+
+      // Exact borders
+      assertEquals(RED, fb.getPixel(350, 250));
+      assertEquals(WHITE, fb.getPixel(449, 349));
+      assertEquals(BLACK, fb.getPixel(349, 300));
+      assertEquals(BLACK, fb.getPixel(450, 300));
+      assertEquals(BLACK, fb.getPixel(400, 249));
+      assertEquals(BLACK, fb.getPixel(400, 350));
+   }
+
+   @Test
+   public void drawRotatedImage() {
+      // 90 degrees counterclockwise: the top left quadrant goes to the bottom left.
+      renderer.drawImage(quadrants, 400, 300, 100, 100, 90, 1, 1, 1);
+
+      assertEquals(GREEN, fb.getPixel(360, 260));
+      assertEquals(WHITE, fb.getPixel(440, 260));
+      assertEquals(RED, fb.getPixel(360, 340));
+      assertEquals(BLUE, fb.getPixel(440, 340));
+   }
+
+   @Test
+   public void drawTintedImage() {
+      renderer.drawImage(quadrants, 400, 300, 100, 100, 0, 1, 0.5f, 0);
+      assertEquals(0xFFFF7F00, fb.getPixel(440, 340));
+      assertEquals(RED, fb.getPixel(360, 260));
+   }
+
+   @Test
+   public void drawTranslucentImage() {
+      SoftwareImage image = new SoftwareImage(1, 1, new int[] { 0x80FF0000 }, true);
+      renderer.drawImage(image, 400, 300, 10, 10, 0, 1, 1, 1);
+      assertEquals(0xFF800000, fb.getPixel(400, 300));
+
+      SoftwareImage transparent = new SoftwareImage(1, 1, new int[] { 0x0000FF00 }, true);
+      renderer.drawImage(transparent, 400, 300, 10, 10, 0, 1, 1, 1);
+      assertEquals(0xFF800000, fb.getPixel(400, 300));
+   }
+
+   @Test
+   public void alphaIsIgnoredWithoutAlphaChannel() {
+      SoftwareImage image = new SoftwareImage(1, 1, new int[] { 0x00FF0000 }, false);
+      renderer.drawImage(image, 400, 300, 10, 10, 0, 1, 1, 1);
+      assertEquals(RED, fb.getPixel(400, 300));
+   }
+
+   @Test
+   public void viewportClipsAndScales() {
+      // The whole world is mapped to the left half of the screen.
+      screen.setViewport(0, 0, 400, 600);
+      renderer.drawImage(quadrants, 400, 300, 800, 600, 0, 1, 1, 1);
+
+      assertEquals(RED, fb.getPixel(0, 0));
+      assertEquals(WHITE, fb.getPixel(399, 599));
+      assertEquals(BLACK, fb.getPixel(400, 0));
+      assertEquals(BLACK, fb.getPixel(799, 599));
+   }
+
+   @Test
+   public void loadImage() throws IOException {
+      BufferedImage source = new BufferedImage(3, 2, BufferedImage.TYPE_INT_ARGB);
+      source.setRGB(0, 0, 0x80FF0000);
+      source.setRGB(2, 1, BLUE);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      ImageIO.write(source, "png", out);
+
+      Image image = renderer.newImageLoader().load("PNG", new ByteArrayInputStream(out.toByteArray()));
+      assertEquals(3, image.getWidth());
+      assertEquals(2, image.getHeight());
+      assertTrue(image.hasAlpha());
+
+      int[] pixels = ((SoftwareImage) image).getPixels();
+      assertEquals(0x80FF0000, pixels[0]);
+      assertEquals(BLUE, pixels[5]);
+   }
+
+   @Test
+   public void loadImageAsync() throws Exception {
+      BufferedImage source = new BufferedImage(3, 2, BufferedImage.TYPE_INT_RGB);
+      source.setRGB(1, 1, BLUE);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      ImageIO.write(source, "png", out);
+
+      Future<Image> future = renderer.newImageLoader().loadAsync("PNG", new ByteArrayInputStream(out.toByteArray()));
+      Image image = future.get(10, TimeUnit.SECONDS);
+      assertEquals(3, image.getWidth());
+      assertFalse(image.hasAlpha());
+      assertEquals(BLUE, ((SoftwareImage) image).getPixels()[4]);
+   }
+
+   @Test
+   public void loadImageFromBufferAndPath() throws Exception {
+      BufferedImage source = new BufferedImage(3, 2, BufferedImage.TYPE_INT_RGB);
+      source.setRGB(1, 1, BLUE);
+      File file = File.createTempFile("alegria", ".png");
+      file.deleteOnExit();
+      ImageIO.write(source, "png", file);
+
+      ByteBuffer direct = ByteBuffer.allocateDirect((int) file.length());
+      direct.put(Files.readAllBytes(file.toPath())).flip();
+      Image image = renderer.newImageLoader().load("PNG", direct);
+      assertEquals(0, direct.position());
+      assertEquals(BLUE, ((SoftwareImage) image).getPixels()[4]);
+
+      image = renderer.newImageLoader().load(file.toPath());
+      assertEquals(3, image.getWidth());
+      assertEquals(BLUE, ((SoftwareImage) image).getPixels()[4]);
+   }
+
+   @Test(expected = ExecutionException.class)
+   public void loadInvalidImageAsync() throws Exception {
+      byte[] garbage = { 1, 2, 3 };
+      renderer.newImageLoader().loadAsync("PNG", new ByteArrayInputStream(garbage)).get(10, TimeUnit.SECONDS);
+   }
+
+   @Test
+   public void resize() throws UnableToChangeDisplayModeException {
+      screen.setSize(false, new SoftwareDisplayMode(320, 200));
+      assertEquals(320, screen.getFramebuffer().getWidth());
+      assertEquals(200, screen.getFramebuffer().getHeight());
+      assertEquals(320, screen.getDisplayMode().getWidth());
+   }
+
+   @Test
+   public void batchedMatchesImmediate() throws UnableToOpenWindowException {
+      SoftwareScreen batched = new SoftwareScreen();
+      batched.init();
+      SoftwareRenderer batchedRenderer = (SoftwareRenderer) batched.getRenderer();
+      batchedRenderer.setParallelism(4);
+      batchedRenderer.clearScreen(0, 0, 0, 1);
+
+      // Overlapping translucent and opaque sprites, many of them crossing tile borders.
+      Random random = new Random(1234);
+      SoftwareImage[] images = new SoftwareImage[3];
+      for (int i = 0; i < images.length; i++) {
+         int[] pixels = new int[16 * 16];
+         for (int p = 0; p < pixels.length; p++)
+            pixels[p] = random.nextInt();
+         images[i] = new SoftwareImage(16, 16, pixels, i != 0);
+      }
+
+      batchedRenderer.begin();
+      for (int i = 0; i < 500; i++) {
+         SoftwareImage image = images[random.nextInt(images.length)];
+         float x = random.nextFloat() * 900 - 50;
+         float y = random.nextFloat() * 700 - 50;
+         float size = random.nextFloat() * 150 + 1;
+         float angle = random.nextFloat() * 360;
+         float tint = random.nextFloat();
+
+         renderer.drawImage(image, x, y, size, size * 0.75f, angle, 1, tint, 1);
+         batchedRenderer.drawImage(image, x, y, size, size * 0.75f, angle, 1, tint, 1);
+      }
+      batchedRenderer.end();
+
+      assertArrayEquals(fb.getPixels(), batched.getFramebuffer().getPixels());
+      batched.dispose();
+   }
+
+   @Test
+   public void batchIsDrawnOnFlush() {
+      renderer.begin();
+      renderer.drawImage(quadrants, 400, 300, 100, 100, 0, 1, 1, 1);
+      assertEquals(BLACK, fb.getPixel(360, 260));
+      renderer.flush();
+      assertEquals(RED, fb.getPixel(360, 260));
+
+      // Clearing the screen draws pending images first, so they are not drawn over the new background.
+      renderer.drawImage(quadrants, 400, 300, 100, 100, 0, 1, 1, 1);
+      renderer.clearScreen(0, 0, 0, 1);
+      assertEquals(BLACK, fb.getPixel(360, 260));
+      renderer.end();
+      assertEquals(BLACK, fb.getPixel(360, 260));
+   }
+}